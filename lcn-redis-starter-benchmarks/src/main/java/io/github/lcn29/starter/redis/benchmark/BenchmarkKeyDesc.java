@@ -0,0 +1,51 @@
+package io.github.lcn29.starter.redis.benchmark;
+
+import io.github.lcn29.starter.redis.key.RedisKeyDesc;
+
+/**
+ * <pre>
+ * 基准测试使用的 Redis Key
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 22:10
+ */
+public enum BenchmarkKeyDesc implements RedisKeyDesc {
+
+    /**
+     * 用户信息, 参数: 用户 id
+     */
+    USER("benchmark:user:%s"),
+
+    /**
+     * 用户的订单, 参数: 用户 id, 订单 id
+     */
+    USER_ORDER("benchmark:user:%s:order:%s"),
+
+    /**
+     * 锁, 参数: 锁的标识
+     */
+    LOCK("benchmark:lock:%s"),
+
+    /**
+     * 限流的令牌桶, 参数: 租户标识
+     */
+    RATE_LIMIT("benchmark:rate-limit:%s"),
+
+    /**
+     * ID 序列, 参数: 序列名称
+     */
+    SEQUENCE("benchmark:sequence:%s"),
+    ;
+
+    private final String desc;
+
+    BenchmarkKeyDesc(String desc) {
+        this.desc = desc;
+    }
+
+    @Override
+    public String desc() {
+        return desc;
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.lcn29.starter.redis.benchmark;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <pre>
+ * 基准测试使用的 Spring 上下文
+ * 通过自动配置加载 RedisConfig, 初始化 RedisUtil 的静态属性, 每个基准测试的 Trial 启动一次
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 22:10
+ */
+public class BenchmarkRedisContext {
+
+    private final BenchmarkRedisServer redisServer;
+
+    private final ConfigurableApplicationContext applicationContext;
+
+    private BenchmarkRedisContext(BenchmarkRedisServer redisServer, ConfigurableApplicationContext applicationContext) {
+        this.redisServer = redisServer;
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * 启动 Redis 和 Spring 上下文
+     *
+     * @param properties 额外的配置, 格式: key=value, 例如 lcn.redis.local-lock.enabled=true
+     * @return BenchmarkRedisContext
+     */
+    public static BenchmarkRedisContext start(String... properties) {
+
+        BenchmarkRedisServer redisServer = BenchmarkRedisServer.start();
+
+        List<String> allProperties = new ArrayList<>();
+        allProperties.add("spring.redis.host=" + redisServer.getHost());
+        allProperties.add("spring.redis.port=" + redisServer.getPort());
+        allProperties.add("logging.level.root=WARN");
+        allProperties.addAll(Arrays.asList(properties));
+
+        try {
+            ConfigurableApplicationContext applicationContext = new SpringApplicationBuilder(BenchmarkApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .properties(allProperties.toArray(new String[0]))
+                    .logStartupInfo(false)
+                    .run();
+            return new BenchmarkRedisContext(redisServer, applicationContext);
+        } catch (RuntimeException ex) {
+            redisServer.stop();
+            throw ex;
+        }
+    }
+
+    /**
+     * 获取 Spring 上下文中的 Bean, 用于和直接使用客户端的方式对比
+     *
+     * @param name Bean 名称
+     * @param type Bean 类型
+     * @return Bean
+     */
+    public <T> T getBean(String name, Class<T> type) {
+        return applicationContext.getBean(name, type);
+    }
+
+    /**
+     * 关闭 Spring 上下文和本地启动的 Redis
+     */
+    public void stop() {
+        try {
+            applicationContext.close();
+        } finally {
+            redisServer.stop();
+        }
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    static class BenchmarkApplication {
+    }
+}
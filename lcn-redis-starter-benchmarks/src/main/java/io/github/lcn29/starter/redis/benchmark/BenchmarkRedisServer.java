@@ -0,0 +1,135 @@
+package io.github.lcn29.starter.redis.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * 基准测试使用的 Redis
+ * 配置了 -Dbenchmark.redis.host 时直接使用已有的 Redis, 端口为 -Dbenchmark.redis.port, 默认 6379
+ * 否则在空闲端口上启动一个本地的 redis-server 进程, 关闭持久化, 路径为 -Dbenchmark.redis.server, 默认从 PATH 中查找
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 22:10
+ */
+public class BenchmarkRedisServer {
+
+    private final static String HOST_PROPERTY = "benchmark.redis.host";
+
+    private final static String PORT_PROPERTY = "benchmark.redis.port";
+
+    private final static String SERVER_PROPERTY = "benchmark.redis.server";
+
+    private final static String LOCAL_HOST = "127.0.0.1";
+
+    private final static int DEFAULT_PORT = 6379;
+
+    private final static long START_TIMEOUT_MILLIS = 10000L;
+
+    private final String host;
+
+    private final int port;
+
+    /**
+     * 本地启动的 redis-server 进程, 使用已有的 Redis 时为空
+     */
+    private final Process process;
+
+    private BenchmarkRedisServer(String host, int port, Process process) {
+        this.host = host;
+        this.port = port;
+        this.process = process;
+    }
+
+    /**
+     * 获取基准测试使用的 Redis, 需要时启动本地进程
+     *
+     * @return BenchmarkRedisServer
+     */
+    public static BenchmarkRedisServer start() {
+
+        String externalHost = System.getProperty(HOST_PROPERTY);
+        if (externalHost != null && !externalHost.isEmpty()) {
+            return new BenchmarkRedisServer(externalHost, Integer.getInteger(PORT_PROPERTY, DEFAULT_PORT), null);
+        }
+
+        int port = freePort();
+        ProcessBuilder processBuilder = new ProcessBuilder(System.getProperty(SERVER_PROPERTY, "redis-server"),
+                "--port", String.valueOf(port), "--bind", LOCAL_HOST, "--save", "", "--appendonly", "no")
+                .redirectErrorStream(true)
+                .redirectOutput(new File(System.getProperty("java.io.tmpdir"), "lcn-redis-benchmark-" + port + ".log"));
+        Process process;
+        try {
+            process = processBuilder.start();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Start redis-server fail, set -D" + SERVER_PROPERTY
+                    + " to the redis-server binary or -D" + HOST_PROPERTY + " to an existing Redis", ex);
+        }
+        BenchmarkRedisServer server = new BenchmarkRedisServer(LOCAL_HOST, port, process);
+        server.awaitStarted();
+        return server;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * 停止本地启动的 redis-server 进程, 使用已有的 Redis 时不做处理
+     */
+    public void stop() {
+        if (process == null) {
+            return;
+        }
+        process.destroy();
+        try {
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+        }
+    }
+
+    private void awaitStarted() {
+        long deadline = System.currentTimeMillis() + START_TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("redis-server exited on start, exit value: " + process.exitValue());
+            }
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress(host, port), 200);
+                return;
+            } catch (IOException ignore) {
+                // 还未开始监听
+            }
+            try {
+                Thread.sleep(50L);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        stop();
+        throw new IllegalStateException("redis-server not ready in " + START_TIMEOUT_MILLIS + "ms, port: " + port);
+    }
+
+    private static int freePort() {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            serverSocket.setReuseAddress(true);
+            return serverSocket.getLocalPort();
+        } catch (IOException ex) {
+            throw new IllegalStateException("No free port for redis-server", ex);
+        }
+    }
+}
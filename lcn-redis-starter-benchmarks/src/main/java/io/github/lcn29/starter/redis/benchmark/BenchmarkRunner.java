@@ -0,0 +1,57 @@
+package io.github.lcn29.starter.redis.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.time.LocalDate;
+
+/**
+ * <pre>
+ * 基准测试入口, 开启 GC profiler, 结果以 JSON 格式输出到 results 目录
+ * 用法: java [-Dbenchmark.redis.server=/path/to/redis-server] -jar target/benchmarks.jar [基准测试名的正则] [结果目录]
+ * 不传正则时运行所有的基准测试, 结果目录默认为当前目录下的 results
+ * 需要 JMH 的其他参数时, 可以直接使用 java -cp target/benchmarks.jar org.openjdk.jmh.Main
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 22:10
+ */
+public class BenchmarkRunner {
+
+    private final static String DEFAULT_RESULT_DIR = "results";
+
+    public static void main(String[] args) throws RunnerException {
+
+        String include = args.length > 0 ? args[0] : BenchmarkRunner.class.getPackage().getName() + ".*";
+        File resultDir = new File(args.length > 1 ? args[1] : DEFAULT_RESULT_DIR);
+        if (!resultDir.isDirectory() && !resultDir.mkdirs()) {
+            throw new IllegalStateException("Create result directory fail: " + resultDir.getAbsolutePath());
+        }
+
+        String resultName = "lcn-redis-benchmark-" + LocalDate.now() + ".json";
+        ChainedOptionsBuilder optionsBuilder = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(new File(resultDir, resultName).getPath());
+
+        // 透传 Redis 的配置到 fork 出的 JVM
+        passThrough(optionsBuilder, "benchmark.redis.server");
+        passThrough(optionsBuilder, "benchmark.redis.host");
+        passThrough(optionsBuilder, "benchmark.redis.port");
+
+        new Runner(optionsBuilder.build()).run();
+    }
+
+    private static void passThrough(ChainedOptionsBuilder optionsBuilder, String propertyName) {
+        String value = System.getProperty(propertyName);
+        if (value != null) {
+            optionsBuilder.jvmArgsAppend("-D" + propertyName + "=" + value);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package io.github.lcn29.starter.redis.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <pre>
+ * 基准测试使用的典型缓存对象
+ * 包含常见的字段类型: 数字, 字符串, 时间, 金额, 嵌套对象和集合
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 22:10
+ */
+public class BenchmarkUser {
+
+    private Long id;
+
+    private String name;
+
+    private String email;
+
+    private Integer level;
+
+    private Boolean enabled;
+
+    private BigDecimal balance;
+
+    private LocalDateTime createTime;
+
+    private Address address;
+
+    private List<String> tags;
+
+    private List<Order> orders;
+
+    /**
+     * 创建一个用户
+     *
+     * @param id         用户 id
+     * @param orderCount 订单个数, 控制对象的大小
+     * @return BenchmarkUser
+     */
+    public static BenchmarkUser of(long id, int orderCount) {
+
+        BenchmarkUser user = new BenchmarkUser();
+        user.setId(id);
+        user.setName("benchmark-user-" + id);
+        user.setEmail("benchmark-user-" + id + "@example.com");
+        user.setLevel((int) (id % 10));
+        user.setEnabled(Boolean.TRUE);
+        user.setBalance(BigDecimal.valueOf(id * 100 + 99, 2));
+        user.setCreateTime(LocalDateTime.of(2026, 10, 17, 22, 10, 0));
+
+        Address address = new Address();
+        address.setProvince("Guangdong");
+        address.setCity("Shenzhen");
+        address.setStreet("Benchmark Road " + id);
+        address.setZipCode("518000");
+        user.setAddress(address);
+
+        List<String> tags = new ArrayList<>();
+        tags.add("vip");
+        tags.add("level-" + user.getLevel());
+        tags.add("benchmark");
+        user.setTags(tags);
+
+        List<Order> orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            Order order = new Order();
+            order.setOrderId(id * 1000 + i);
+            order.setSkuCode("SKU-" + i);
+            order.setQuantity(i % 5 + 1);
+            order.setAmount(BigDecimal.valueOf(i * 1000 + 1, 2));
+            order.setCreateTime(user.getCreateTime().plusMinutes(i));
+            orders.add(order);
+        }
+        user.setOrders(orders);
+        return user;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public Integer getLevel() {
+        return level;
+    }
+
+    public void setLevel(Integer level) {
+        this.level = level;
+    }
+
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(Boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public LocalDateTime getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(LocalDateTime createTime) {
+        this.createTime = createTime;
+    }
+
+    public Address getAddress() {
+        return address;
+    }
+
+    public void setAddress(Address address) {
+        this.address = address;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
+    public List<Order> getOrders() {
+        return orders;
+    }
+
+    public void setOrders(List<Order> orders) {
+        this.orders = orders;
+    }
+
+    /**
+     * 地址
+     */
+    public static class Address {
+
+        private String province;
+
+        private String city;
+
+        private String street;
+
+        private String zipCode;
+
+        public String getProvince() {
+            return province;
+        }
+
+        public void setProvince(String province) {
+            this.province = province;
+        }
+
+        public String getCity() {
+            return city;
+        }
+
+        public void setCity(String city) {
+            this.city = city;
+        }
+
+        public String getStreet() {
+            return street;
+        }
+
+        public void setStreet(String street) {
+            this.street = street;
+        }
+
+        public String getZipCode() {
+            return zipCode;
+        }
+
+        public void setZipCode(String zipCode) {
+            this.zipCode = zipCode;
+        }
+    }
+
+    /**
+     * 订单
+     */
+    public static class Order {
+
+        private Long orderId;
+
+        private String skuCode;
+
+        private Integer quantity;
+
+        private BigDecimal amount;
+
+        private LocalDateTime createTime;
+
+        public Long getOrderId() {
+            return orderId;
+        }
+
+        public void setOrderId(Long orderId) {
+            this.orderId = orderId;
+        }
+
+        public String getSkuCode() {
+            return skuCode;
+        }
+
+        public void setSkuCode(String skuCode) {
+            this.skuCode = skuCode;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public LocalDateTime getCreateTime() {
+            return createTime;
+        }
+
+        public void setCreateTime(LocalDateTime createTime) {
+            this.createTime = createTime;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.lcn29.starter.redis.benchmark;
+
+import io.github.lcn29.starter.redis.utils.RedisUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * RedisKey 拼接的基准测试, 不需要 Redis
+ * 以 String.format 作为基线, 对比预编译模板的拼接
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 22:10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisKeyBenchmark {
+
+    private final String userId = "10086";
+
+    private final String orderId = "202610172210";
+
+    @Benchmark
+    public String formatBaseline() {
+        return String.format(BenchmarkKeyDesc.USER.desc(), userId);
+    }
+
+    @Benchmark
+    public String redisKey() {
+        return RedisUtil.redisKey(BenchmarkKeyDesc.USER, userId);
+    }
+
+    @Benchmark
+    public String redisKeyTwoMasks() {
+        return RedisUtil.redisKey(BenchmarkKeyDesc.USER_ORDER, userId, orderId);
+    }
+}
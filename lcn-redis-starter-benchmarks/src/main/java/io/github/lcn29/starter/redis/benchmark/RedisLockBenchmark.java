@@ -0,0 +1,97 @@
+package io.github.lcn29.starter.redis.benchmark;
+
+import io.github.lcn29.starter.redis.utils.RedisUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <pre>
+ * 分布式锁加锁和释放的吞吐量基准测试, 需要 Redis
+ * sharedKey: 所有线程竞争同一把锁, 最多等待 waitMillis
+ * distinctKey: 每个线程使用自己的锁, 没有竞争, 衡量单次加锁和释放的开销
+ * localLock 为 true 时开启 lcn.redis.local-lock, 同一个 JVM 内的线程先在本地排队
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 22:10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class RedisLockBenchmark {
+
+    private final static long LEASE_MILLIS = 5000L;
+
+    @Param({"false", "true"})
+    private boolean localLock;
+
+    @Param({"50"})
+    private long waitMillis;
+
+    private BenchmarkRedisContext redisContext;
+
+    private String sharedLockKey;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        redisContext = BenchmarkRedisContext.start("lcn.redis.local-lock.enabled=" + localLock);
+        sharedLockKey = RedisUtil.redisKey(BenchmarkKeyDesc.LOCK, "shared");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        redisContext.stop();
+    }
+
+    @Benchmark
+    public boolean sharedKey() {
+        return lockAndUnlock(sharedLockKey, waitMillis);
+    }
+
+    @Benchmark
+    public boolean distinctKey(ThreadLock threadLock) {
+        return lockAndUnlock(threadLock.lockKey, waitMillis);
+    }
+
+    private static boolean lockAndUnlock(String lockKey, long waitMillis) {
+        if (!RedisUtil.tryLock(lockKey, waitMillis, LEASE_MILLIS, TimeUnit.MILLISECONDS)) {
+            return false;
+        }
+        return RedisUtil.tryUnLock(lockKey);
+    }
+
+    /**
+     * 每个线程独占的锁
+     */
+    @State(Scope.Thread)
+    public static class ThreadLock {
+
+        private final static AtomicInteger THREAD_INDEX = new AtomicInteger();
+
+        private String lockKey;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            lockKey = RedisUtil.redisKey(BenchmarkKeyDesc.LOCK, "thread-" + THREAD_INDEX.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.lcn29.starter.redis.benchmark;
+
+import io.github.lcn29.starter.redis.utils.RedisUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * 批量读取的基准测试, 需要 Redis
+ * 每次调用读取 keyCount 个已经存在的 Key, 对比 multiGet 和逐个 get
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 22:10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisMultiGetBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int keyCount;
+
+    private BenchmarkRedisContext redisContext;
+
+    private List<String> redisKeyList;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        redisContext = BenchmarkRedisContext.start();
+        Map<String, Object> redisMap = new LinkedHashMap<>(keyCount * 2);
+        for (int i = 0; i < keyCount; i++) {
+            redisMap.put(RedisUtil.redisKey(BenchmarkKeyDesc.USER, String.valueOf(i)), BenchmarkUser.of(i, 0));
+        }
+        RedisUtil.multiSet(redisMap);
+        redisKeyList = new ArrayList<>(redisMap.keySet());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        redisContext.stop();
+    }
+
+    @Benchmark
+    public List<BenchmarkUser> multiGet() {
+        return RedisUtil.multiGet(redisKeyList);
+    }
+
+    @Benchmark
+    public void loopGet(Blackhole blackhole) {
+        for (String redisKey : redisKeyList) {
+            blackhole.consume(RedisUtil.<BenchmarkUser>get(redisKey));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.lcn29.starter.redis.benchmark;
+
+import io.github.lcn29.starter.redis.ratelimit.RedisRateLimit;
+import io.github.lcn29.starter.redis.utils.RedisUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * 令牌桶限流的吞吐量基准测试, 需要 Redis
+ * 8 个线程从同一个令牌桶获取令牌, 速率足够大, 不会被限流, 衡量每次获取的开销
+ * leaseSize 为 1 时每次获取都执行一次 Lua 脚本, 越大访问 Redis 的次数越少
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 23:30
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class RedisRateLimitBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int leaseSize;
+
+    private BenchmarkRedisContext redisContext;
+
+    private String rateLimitKey;
+
+    private RedisRateLimit rateLimit;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        redisContext = BenchmarkRedisContext.start();
+        rateLimitKey = RedisUtil.redisKey(BenchmarkKeyDesc.RATE_LIMIT, "lease-" + leaseSize);
+        rateLimit = RedisRateLimit.of(100_000_000L, 1L, TimeUnit.SECONDS).withLeaseSize(leaseSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        redisContext.stop();
+    }
+
+    @Benchmark
+    public boolean tryAcquire() {
+        return RedisUtil.tryAcquire(rateLimitKey, 1, rateLimit);
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.lcn29.starter.redis.benchmark;
+
+import io.github.lcn29.starter.redis.constants.RedisConstants;
+import io.github.lcn29.starter.redis.utils.RedisUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * ID 生成的吞吐量基准测试, 需要 Redis
+ * incrPerId: 每个 ID 执行一次 INCR, 之前的方式
+ * segment: RedisUtil#nextId, 按照号段获取, 号段内的 ID 在本地发放
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 23:50
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class RedisSequenceBenchmark {
+
+    private BenchmarkRedisContext redisContext;
+
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private byte[] incrKeyBytes;
+
+    private String segmentKey;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        redisContext = BenchmarkRedisContext.start();
+        redisTemplate = redisContext.getBean("redisTemplate", RedisTemplate.class);
+        incrKeyBytes = RedisUtil.redisKey(BenchmarkKeyDesc.SEQUENCE, "incr").getBytes(RedisConstants.DEFAULT_CHARSETS);
+        segmentKey = RedisUtil.redisKey(BenchmarkKeyDesc.SEQUENCE, "segment");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        redisContext.stop();
+    }
+
+    @Benchmark
+    public Long incrPerId() {
+        return redisTemplate.execute((RedisCallback<Long>) connection -> connection.incr(incrKeyBytes));
+    }
+
+    @Benchmark
+    public long segment() {
+        return RedisUtil.nextId(segmentKey);
+    }
+}
@@ -0,0 +1,103 @@
+package io.github.lcn29.starter.redis.benchmark;
+
+import io.github.lcn29.starter.redis.utils.RedisUtil;
+import io.netty.util.internal.PlatformDependent;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * Lettuce 和 Redisson 共享 Netty 资源的基准测试, 需要 Redis
+ * sharedResources 为 true 时使用共享的 EventLoop 和计算线程, false 时两个客户端各自创建 (之前的方式)
+ * get 走 Lettuce, lock 走 Redisson, 对比两种方式下的延迟
+ * 每个迭代开始时通过辅助计数器记录 JVM 的线程数和 Netty 使用的堆外内存, 作为资源占用的对比
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 22:40
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisSharedResourcesBenchmark {
+
+    private final static long LEASE_MILLIS = 5000L;
+
+    @Param({"true", "false"})
+    private boolean sharedResources;
+
+    private BenchmarkRedisContext redisContext;
+
+    private String userKey;
+
+    private String lockKey;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        redisContext = BenchmarkRedisContext.start("lcn.redis.shared-resources.enabled=" + sharedResources);
+        userKey = RedisUtil.redisKey(BenchmarkKeyDesc.USER, "shared-resources");
+        lockKey = RedisUtil.redisKey(BenchmarkKeyDesc.LOCK, "shared-resources");
+        RedisUtil.set(userKey, BenchmarkUser.of(1L, 0));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        redisContext.stop();
+    }
+
+    @Benchmark
+    public BenchmarkUser lettuceGet(Footprint footprint) {
+        return RedisUtil.get(userKey);
+    }
+
+    @Benchmark
+    public boolean redissonLock(Footprint footprint) {
+        if (!RedisUtil.tryLock(lockKey, 0L, LEASE_MILLIS, TimeUnit.MILLISECONDS)) {
+            return false;
+        }
+        return RedisUtil.tryUnLock(lockKey);
+    }
+
+    /**
+     * 资源占用, 在每个迭代开始时采样, 输出为结果中的辅助指标
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        /**
+         * JVM 中存活的线程数
+         */
+        public long liveThreads;
+
+        /**
+         * Netty 使用的堆外内存, 单位: KB, Netty 没有统计时为 -1
+         */
+        public long nettyDirectMemoryKb;
+
+        @Setup(Level.Iteration)
+        public void sample() {
+            liveThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+            long usedDirectMemory = PlatformDependent.usedDirectMemory();
+            nettyDirectMemoryKb = usedDirectMemory < 0 ? usedDirectMemory : usedDirectMemory / 1024;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.lcn29.starter.redis.benchmark;
+
+import io.github.lcn29.starter.redis.RedisConfig;
+import io.github.lcn29.starter.redis.codec.RedisCodecType;
+import io.github.lcn29.starter.redis.codec.RedisCompressionType;
+import io.github.lcn29.starter.redis.codec.RedisValueSerializer;
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * RedisValueSerializer 编解码的基准测试, 不需要 Redis
+ * 对比 JSON 和 SMILE 两种编码, 是否 LZ4 压缩, 以及小对象 (无订单) 和大对象 (50 个订单) 的差异
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 22:10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisValueSerializerBenchmark {
+
+    @Param({"JSON", "SMILE"})
+    private RedisCodecType codec;
+
+    @Param({"NONE", "LZ4"})
+    private RedisCompressionType compression;
+
+    @Param({"0", "50"})
+    private int orderCount;
+
+    private RedisValueSerializer redisValueSerializer;
+
+    private BenchmarkUser user;
+
+    private byte[] encodedUser;
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        LcnRedisProperty lcnRedisProperty = new LcnRedisProperty();
+        lcnRedisProperty.getCodec().setType(codec);
+        lcnRedisProperty.getCodec().getTypeIds().put(100, BenchmarkUser.class.getName());
+        lcnRedisProperty.getCodec().getTypeIds().put(101, BenchmarkUser.Address.class.getName());
+        lcnRedisProperty.getCodec().getTypeIds().put(102, BenchmarkUser.Order.class.getName());
+        lcnRedisProperty.getCompression().setType(compression);
+
+        // 和自动配置使用相同的方式创建, 不启动 Spring 上下文
+        RedisConfig redisConfig = new RedisConfig(new RedisProperties(), lcnRedisProperty);
+        redisValueSerializer = redisConfig.redisValueSerializer(redisConfig.jackson2JsonRedisSerializer());
+
+        user = BenchmarkUser.of(10086L, orderCount);
+        encodedUser = redisValueSerializer.serialize(user);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return redisValueSerializer.serialize(user);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return redisValueSerializer.deserialize(encodedUser);
+    }
+}
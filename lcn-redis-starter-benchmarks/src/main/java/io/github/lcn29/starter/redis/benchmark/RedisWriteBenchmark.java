@@ -0,0 +1,87 @@
+package io.github.lcn29.starter.redis.benchmark;
+
+import io.github.lcn29.starter.redis.batch.RedisPipelineResult;
+import io.github.lcn29.starter.redis.utils.RedisUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * 批量写入的基准测试, 需要 Redis
+ * 每次调用写入 batchSize 个 Key, 对比逐个写入, 流水线写入 (SET PX) 和多 Key 命令写入 (MSET)
+ * pooledBuffer 为 true 时开启 lcn.redis.pooled-buffer, 批量写入直接编码到池化的 ByteBuf, 否则序列化为 byte[] 后写入
+ * 逐个写入不受 pooledBuffer 影响, 作为两组结果的对照
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 22:10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisWriteBenchmark {
+
+    private final static long EXPIRE_SECONDS = 600L;
+
+    @Param({"1", "10", "100", "1000"})
+    private int batchSize;
+
+    @Param({"false", "true"})
+    private boolean pooledBuffer;
+
+    private BenchmarkRedisContext redisContext;
+
+    private Map<String, Object> redisMap;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        redisContext = BenchmarkRedisContext.start("lcn.redis.pooled-buffer.enabled=" + pooledBuffer);
+        redisMap = new LinkedHashMap<>(batchSize * 2);
+        for (int i = 0; i < batchSize; i++) {
+            redisMap.put(RedisUtil.redisKey(BenchmarkKeyDesc.USER, String.valueOf(i)), BenchmarkUser.of(i, 0));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        redisContext.stop();
+    }
+
+    @Benchmark
+    public void loopSet() {
+        redisMap.forEach(RedisUtil::set);
+    }
+
+    @Benchmark
+    public RedisPipelineResult multiSet() {
+        return RedisUtil.multiSetDetailed(redisMap);
+    }
+
+    @Benchmark
+    public void loopSetWithExpire() {
+        redisMap.forEach((redisKey, redisValue) -> RedisUtil.setWithExpire(redisKey, redisValue, EXPIRE_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Benchmark
+    public RedisPipelineResult pipelinedSetWithExpire() {
+        return RedisUtil.multiSetWithExpireDetailed(redisMap, EXPIRE_SECONDS, TimeUnit.SECONDS);
+    }
+}
@@ -7,24 +7,82 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.PropertyNamingStrategy;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.github.lcn29.starter.redis.batch.RedisGetBatcher;
+import io.github.lcn29.starter.redis.batch.RedisPipelineExecutor;
+import io.github.lcn29.starter.redis.batch.RedisWriteBehindBuffer;
+import io.github.lcn29.starter.redis.cache.RedisEarlyRefresh;
+import io.github.lcn29.starter.redis.cache.RedisNearCache;
+import io.github.lcn29.starter.redis.codec.JsonRedisValueCodec;
+import io.github.lcn29.starter.redis.codec.Lz4RedisValueCompressor;
+import io.github.lcn29.starter.redis.codec.RedisCodecType;
+import io.github.lcn29.starter.redis.codec.RedisCompressionType;
+import io.github.lcn29.starter.redis.codec.RedisTypeIdTable;
+import io.github.lcn29.starter.redis.codec.RedisValueCodec;
+import io.github.lcn29.starter.redis.codec.RedisValueRedissonCodec;
+import io.github.lcn29.starter.redis.codec.RedisValueSerializer;
+import io.github.lcn29.starter.redis.codec.ShortTypeResolverBuilder;
+import io.github.lcn29.starter.redis.codec.SmileRedisValueCodec;
+import io.github.lcn29.starter.redis.codec.ZstdRedisValueCompressor;
 import io.github.lcn29.starter.redis.constants.RedisConstants;
+import io.github.lcn29.starter.redis.hotkey.RedisHotKeyDetector;
+import io.github.lcn29.starter.redis.hotkey.RedisHotKeyEndpoint;
+import io.github.lcn29.starter.redis.key.RedisKeyDesc;
+import io.github.lcn29.starter.redis.key.RedisKeyDescRegistry;
+import io.github.lcn29.starter.redis.lettuce.LettuceNativeConnection;
+import io.github.lcn29.starter.redis.lettuce.RedisByteBufBatchWriter;
+import io.github.lcn29.starter.redis.lettuce.RedisClusterBatchExecutor;
+import io.github.lcn29.starter.redis.lock.RedisHierarchicalLock;
+import io.github.lcn29.starter.redis.metrics.MicrometerRedisMetrics;
+import io.github.lcn29.starter.redis.metrics.RedisMetrics;
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import io.github.lcn29.starter.redis.ratelimit.RedisRateLimiter;
+import io.github.lcn29.starter.redis.sequence.RedisSequenceGenerator;
+import io.github.lcn29.starter.redis.replica.LagAwareReadFrom;
+import io.github.lcn29.starter.redis.replica.RedisReplicaLagTracker;
+import io.github.lcn29.starter.redis.replica.RedisReplicaRouter;
+import io.github.lcn29.starter.redis.resource.RedisSharedResources;
+import io.github.lcn29.starter.redis.script.RedisScriptRegistry;
+import io.github.lcn29.starter.redis.size.RedisBigKeyScanner;
+import io.github.lcn29.starter.redis.size.RedisValueSizeGuard;
+import io.github.lcn29.starter.redis.utils.AsyncRedisUtil;
 import io.github.lcn29.starter.redis.utils.RedisUtil;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
+import org.redisson.config.BaseConfig;
+import org.redisson.config.BaseMasterSlaveServersConfig;
+import org.redisson.config.ClusterServersConfig;
 import org.redisson.config.Config;
+import org.redisson.config.SentinelServersConfig;
 import org.redisson.config.SingleServerConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
 import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.RedisStaticMasterReplicaConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
@@ -32,6 +90,12 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.CollectionUtils;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
 
 /**
  * <pre>
@@ -44,24 +108,86 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
  */
 @Configuration
 @AutoConfigureBefore(RedisAutoConfiguration.class)
-@EnableConfigurationProperties(RedisProperties.class)
+@EnableConfigurationProperties({RedisProperties.class, LcnRedisProperty.class})
 public class RedisConfig {
 
     private final static Logger logger = LoggerFactory.getLogger(RedisConfig.class);
 
+    /**
+     * 压缩依赖的类, 用于判断是否引入了对应的依赖
+     */
+    private final static String LZ4_CLASS_NAME = "net.jpountz.lz4.LZ4Factory";
+    private final static String ZSTD_CLASS_NAME = "com.github.luben.zstd.Zstd";
+
+    /**
+     * Redisson 节点地址的前缀
+     */
+    private final static String REDIS_ADDRESS_PREFIX = "redis://";
+    private final static String REDIS_SSL_ADDRESS_PREFIX = "rediss://";
+
     private final RedisProperties redisProperties;
 
+    private final LcnRedisProperty lcnRedisProperty;
+
     static {
         logger.info("Lcn RedisConfig Init ...");
     }
 
-    public RedisConfig(RedisProperties redisProperties) {
+    public RedisConfig(RedisProperties redisProperties, LcnRedisProperty lcnRedisProperty) {
         this.redisProperties = redisProperties;
+        this.lcnRedisProperty = lcnRedisProperty;
+    }
+
+    /**
+     * Lettuce 和 Redisson 共享的 Netty 线程, 默认开启, 可以通过 lcn.redis.shared-resources.enabled=false 关闭
+     * 在两个客户端创建的过程中创建, 按照 Spring 单例的销毁顺序 (和创建相反) 在两个客户端之后关闭
+     *
+     * @return RedisSharedResources
+     */
+    @Bean(destroyMethod = "destroy")
+    @ConditionalOnProperty(prefix = "lcn.redis.shared-resources", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public RedisSharedResources redisSharedResources() {
+        return new RedisSharedResources(lcnRedisProperty.getSharedResources());
     }
 
+    /**
+     * Lettuce 的 ClientResources, 所有的 LettuceConnectionFactory (包括从节点读取) 共用
+     * 开启了共享资源时使用共享的 Netty 线程, 否则由 Lettuce 自己创建
+     *
+     * @param redisSharedResourcesProvider 共享的 Netty 资源
+     * @return ClientResources
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ClientResources lettuceClientResources(ObjectProvider<RedisSharedResources> redisSharedResourcesProvider) {
+        RedisSharedResources redisSharedResources = redisSharedResourcesProvider.getIfAvailable();
+        return redisSharedResources == null ? DefaultClientResources.create() : redisSharedResources.createClientResources();
+    }
+
+    /**
+     * Redis 连接工厂, 配置了 spring.redis.cluster.nodes 时为集群模式, 配置了 spring.redis.sentinel.master 时为哨兵模式, 否则为单节点
+     *
+     * @param lettuceClientResources Lettuce 的 ClientResources
+     * @return LettuceConnectionFactory
+     */
     @Bean
-    public LettuceConnectionFactory redisConnectionFactory() {
-        return new LettuceConnectionFactory(getStandaloneConfig(), getLettuceClientConfiguration());
+    public LettuceConnectionFactory redisConnectionFactory(ClientResources lettuceClientResources) {
+
+        RedisProperties.Pool pool = redisProperties.getLettuce().getPool();
+        logger.info("Lcn Lettuce resources, io threads: {}, computation threads: {}, pool max active: {}, pool min idle: {}",
+                lettuceClientResources.ioThreadPoolSize(), lettuceClientResources.computationThreadPoolSize(),
+                pool.getMaxActive(), pool.getMinIdle());
+
+        LettuceClientConfiguration clientConfiguration = getLettuceClientConfiguration(null, lettuceClientResources);
+        if (isCluster()) {
+            logger.info("Lcn Redis topology: cluster, nodes: {}", redisProperties.getCluster().getNodes());
+            return new LettuceConnectionFactory(getClusterConfig(), clientConfiguration);
+        }
+        if (isSentinel()) {
+            logger.info("Lcn Redis topology: sentinel, master: {}, nodes: {}", redisProperties.getSentinel().getMaster(),
+                    redisProperties.getSentinel().getNodes());
+            return new LettuceConnectionFactory(getSentinelConfig(), clientConfiguration);
+        }
+        return new LettuceConnectionFactory(getStandaloneConfig(), clientConfiguration);
     }
 
     /**
@@ -87,11 +213,50 @@ public class RedisConfig {
         return jackson2JsonRedisSerializer;
     }
 
+    /**
+     * 获取 RedisValueSerializer, 用来序列化 redis Value
+     * 写入格式由 lcn.redis.codec.type 决定, 读取时根据头部字节自动识别, 兼容历史的 JSON 数据
+     *
+     * @param jackson2JsonRedisSerializer 历史的 JSON 序列化
+     * @return RedisValueSerializer
+     */
+    @Bean
+    public RedisValueSerializer redisValueSerializer(Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer) {
+
+        // 使用和 Jackson2JsonRedisSerializer 相同配置的 ObjectMapper, 支持流式编码
+        RedisValueCodec legacyCodec = new JsonRedisValueCodec(jackson2JsonRedisSerializer, redisObjectMapper());
+
+        RedisTypeIdTable redisTypeIdTable = new RedisTypeIdTable(lcnRedisProperty.getCodec().getTypeIds());
+        RedisValueCodec smileCodec = new SmileRedisValueCodec(redisSmileObjectMapper(redisTypeIdTable));
+
+        RedisValueCodec writeCodec = lcnRedisProperty.getCodec().getType() == RedisCodecType.SMILE ? smileCodec : legacyCodec;
+        logger.info("Lcn Redis value codec: {}", lcnRedisProperty.getCodec().getType());
+        RedisValueSerializer redisValueSerializer = new RedisValueSerializer(writeCodec, legacyCodec, smileCodec);
+        configureCompression(redisValueSerializer);
+        return redisValueSerializer;
+    }
+
     @Bean
     public RedisTemplate<String, Object> redisTemplate(
             RedisConnectionFactory redisConnectionFactory,
             StringRedisSerializer stringRedisSerializer,
-            Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer
+            RedisValueSerializer redisValueSerializer
+    ) {
+        return createRedisTemplate(redisConnectionFactory, stringRedisSerializer, redisValueSerializer);
+    }
+
+    /**
+     * 创建 RedisTemplate, 主节点和从节点读取共用
+     *
+     * @param redisConnectionFactory 连接工厂
+     * @param stringRedisSerializer  key 的序列化
+     * @param redisValueSerializer   value 的序列化
+     * @return RedisTemplate
+     */
+    private RedisTemplate<String, Object> createRedisTemplate(
+            RedisConnectionFactory redisConnectionFactory,
+            StringRedisSerializer stringRedisSerializer,
+            RedisValueSerializer redisValueSerializer
     ) {
 
         RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
@@ -102,8 +267,8 @@ public class RedisConfig {
         redisTemplate.setHashKeySerializer(stringRedisSerializer);
 
         // 指定 value 的序列化方式
-        redisTemplate.setValueSerializer(jackson2JsonRedisSerializer);
-        redisTemplate.setHashValueSerializer(jackson2JsonRedisSerializer);
+        redisTemplate.setValueSerializer(redisValueSerializer);
+        redisTemplate.setHashValueSerializer(redisValueSerializer);
         redisTemplate.afterPropertiesSet();
         return redisTemplate;
     }
@@ -112,7 +277,7 @@ public class RedisConfig {
     public StringRedisTemplate stringRedisTemplate(
             RedisConnectionFactory redisConnectionFactory,
             StringRedisSerializer stringRedisSerializer,
-            Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer
+            RedisValueSerializer redisValueSerializer
     ) {
 
         StringRedisTemplate stringRedisTemplate = new StringRedisTemplate();
@@ -123,30 +288,579 @@ public class RedisConfig {
         stringRedisTemplate.setHashKeySerializer(stringRedisSerializer);
 
         // 指定 value 的序列化方式
-        stringRedisTemplate.setValueSerializer(jackson2JsonRedisSerializer);
-        stringRedisTemplate.setHashValueSerializer(jackson2JsonRedisSerializer);
+        stringRedisTemplate.setValueSerializer(redisValueSerializer);
+        stringRedisTemplate.setHashValueSerializer(redisValueSerializer);
         stringRedisTemplate.afterPropertiesSet();
         return stringRedisTemplate;
     }
 
+    /**
+     * RedissonClient, 和 LettuceConnectionFactory 使用相同的拓扑, 连接池等参数来自 lcn.redis.redisson
+     * 开启了共享资源时和 Lettuce 使用同一组 Netty 线程
+     *
+     * @param redisValueSerializer         value 的序列化
+     * @param redisSharedResourcesProvider 共享的 Netty 资源
+     * @return RedissonClient
+     */
     @Bean(destroyMethod = "shutdown")
-    public RedissonClient redissonClient() {
+    public RedissonClient redissonClient(RedisValueSerializer redisValueSerializer,
+                                         ObjectProvider<RedisSharedResources> redisSharedResourcesProvider) {
+        LcnRedisProperty.Redisson redissonProperty = lcnRedisProperty.getRedisson();
         Config config = new Config();
-        SingleServerConfig singleServerConfig = config.useSingleServer();
-        String redisAddress = "redis://" + redisProperties.getHost() + ":" + redisProperties.getPort();
-        singleServerConfig.setAddress(redisAddress);
-        singleServerConfig.setPassword(redisProperties.getPassword());
+        // 和 RedisTemplate 使用同一个 Value 序列化
+        config.setCodec(new RedisValueRedissonCodec(redisValueSerializer, redissonProperty.getStringMapKey()));
+        config.setLockWatchdogTimeout(redissonProperty.getLockWatchdogTimeoutMillis());
+        config.setNettyThreads(redissonProperty.getNettyThreads());
+        config.setThreads(redissonProperty.getThreads());
+
+        RedisSharedResources redisSharedResources = redisSharedResourcesProvider.getIfAvailable();
+        if (redisSharedResources != null) {
+            redisSharedResources.configureRedisson(config);
+        }
+
+        // 和 LettuceConnectionFactory 使用相同的拓扑
+        String connections;
+        if (isCluster()) {
+            ClusterServersConfig clusterServersConfig = config.useClusterServers();
+            redisProperties.getCluster().getNodes().forEach(node -> clusterServersConfig.addNodeAddress(redisAddress(node)));
+            clusterServersConfig.setPassword(redisProperties.getPassword());
+            configureRedissonServers(clusterServersConfig, redissonProperty);
+            Duration refreshPeriod = redisProperties.getLettuce().getCluster().getRefresh().getPeriod();
+            if (refreshPeriod != null) {
+                clusterServersConfig.setScanInterval((int) refreshPeriod.toMillis());
+            }
+            connections = masterSlaveConnections(clusterServersConfig);
+        } else if (isSentinel()) {
+            RedisProperties.Sentinel sentinel = redisProperties.getSentinel();
+            SentinelServersConfig sentinelServersConfig = config.useSentinelServers();
+            sentinelServersConfig.setMasterName(sentinel.getMaster());
+            sentinel.getNodes().forEach(node -> sentinelServersConfig.addSentinelAddress(redisAddress(node)));
+            sentinelServersConfig.setPassword(redisProperties.getPassword());
+            sentinelServersConfig.setSentinelPassword(sentinel.getPassword());
+            sentinelServersConfig.setDatabase(redisProperties.getDatabase());
+            configureRedissonServers(sentinelServersConfig, redissonProperty);
+            connections = masterSlaveConnections(sentinelServersConfig);
+        } else {
+            SingleServerConfig singleServerConfig = config.useSingleServer();
+            singleServerConfig.setAddress(redisAddress(redisProperties.getHost() + ":" + redisProperties.getPort()));
+            singleServerConfig.setPassword(redisProperties.getPassword());
+            singleServerConfig.setDatabase(redisProperties.getDatabase());
+            configureRedissonBase(singleServerConfig, redissonProperty);
+            singleServerConfig.setConnectionPoolSize(redissonProperty.getConnectionPoolSize());
+            singleServerConfig.setConnectionMinimumIdleSize(redissonProperty.getConnectionMinimumIdleSize());
+            singleServerConfig.setSubscriptionConnectionPoolSize(redissonProperty.getSubscriptionConnectionPoolSize());
+            singleServerConfig.setSubscriptionConnectionMinimumIdleSize(redissonProperty.getSubscriptionConnectionMinimumIdleSize());
+            connections = "pool size: " + singleServerConfig.getConnectionPoolSize()
+                    + ", minimum idle: " + singleServerConfig.getConnectionMinimumIdleSize()
+                    + ", subscription pool size: " + singleServerConfig.getSubscriptionConnectionPoolSize();
+        }
+
+        if (redisSharedResources != null) {
+            logger.info("Lcn Redisson resources, io threads: {} (shared), executor threads: {} (shared), {}",
+                    redisSharedResources.getIoThreads(), redisSharedResources.getComputationThreads(), connections);
+        } else {
+            logger.info("Lcn Redisson resources, io threads: {}, executor threads: {}, {}",
+                    config.getNettyThreads(), config.getThreads(), connections);
+        }
         return Redisson.create(config);
     }
 
+    /**
+     * 本地近端缓存, 需要通过 lcn.redis.near-cache.enabled=true 开启
+     *
+     * @param redissonClient RedissonClient, 用于多实例之间的失效通知
+     * @return RedisNearCache
+     */
+    @Bean(destroyMethod = "destroy")
+    @ConditionalOnProperty(prefix = "lcn.redis.near-cache", name = "enabled", havingValue = "true")
+    public RedisNearCache redisNearCache(RedissonClient redissonClient) {
+        return new RedisNearCache(lcnRedisProperty.getNearCache(), redissonClient);
+    }
+
+    /**
+     * 缓存概率提前刷新, 需要通过 lcn.redis.early-refresh.enabled=true 开启
+     *
+     * @return RedisEarlyRefresh
+     */
+    @Bean(destroyMethod = "destroy")
+    @ConditionalOnProperty(prefix = "lcn.redis.early-refresh", name = "enabled", havingValue = "true")
+    public RedisEarlyRefresh redisEarlyRefresh() {
+        return new RedisEarlyRefresh(lcnRedisProperty.getEarlyRefresh());
+    }
+
+    /**
+     * 单 Key 读取自动合并为 MGET, 需要通过 lcn.redis.batch-get.enabled=true 开启
+     *
+     * @param redisTemplate RedisTemplate, 复用 multiGet 的序列化
+     * @return RedisGetBatcher
+     */
+    @Bean(destroyMethod = "destroy")
+    @ConditionalOnProperty(prefix = "lcn.redis.batch-get", name = "enabled", havingValue = "true")
+    public RedisGetBatcher redisGetBatcher(RedisTemplate<String, Object> redisTemplate) {
+        return new RedisGetBatcher(lcnRedisProperty.getBatchGet(), redisKeyList -> redisTemplate.opsForValue().multiGet(redisKeyList),
+                commandTimeout());
+    }
+
+    /**
+     * 从节点复制延迟检查, 需要通过 lcn.redis.replica-read.enabled=true 开启
+     *
+     * @param redisConnectionFactory 主节点的连接工厂
+     * @return RedisReplicaLagTracker
+     */
+    @Bean(destroyMethod = "destroy")
+    @ConditionalOnProperty(prefix = "lcn.redis.replica-read", name = "enabled", havingValue = "true")
+    public RedisReplicaLagTracker redisReplicaLagTracker(LettuceConnectionFactory redisConnectionFactory) {
+        return new RedisReplicaLagTracker(lcnRedisProperty.getReplicaRead(), redisConnectionFactory);
+    }
+
+    /**
+     * 从节点读取路由, 需要通过 lcn.redis.replica-read.enabled=true 开启
+     * 从节点读取使用单独的连接工厂, 和主节点的拓扑一致, 通过 LagAwareReadFrom 选择节点
+     *
+     * @param redisReplicaLagTracker 从节点复制延迟检查
+     * @param stringRedisSerializer  key 的序列化
+     * @param redisValueSerializer   value 的序列化
+     * @param lettuceClientResources Lettuce 的 ClientResources, 和主节点的连接工厂共用
+     * @return RedisReplicaRouter
+     */
+    @Bean(destroyMethod = "destroy")
+    @ConditionalOnProperty(prefix = "lcn.redis.replica-read", name = "enabled", havingValue = "true")
+    public RedisReplicaRouter redisReplicaRouter(
+            RedisReplicaLagTracker redisReplicaLagTracker,
+            StringRedisSerializer stringRedisSerializer,
+            RedisValueSerializer redisValueSerializer,
+            ClientResources lettuceClientResources
+    ) {
+
+        LettuceClientConfiguration clientConfiguration =
+                getLettuceClientConfiguration(new LagAwareReadFrom(redisReplicaLagTracker), lettuceClientResources);
+        LettuceConnectionFactory replicaConnectionFactory;
+        if (isCluster()) {
+            replicaConnectionFactory = new LettuceConnectionFactory(getClusterConfig(), clientConfiguration);
+        } else if (isSentinel()) {
+            replicaConnectionFactory = new LettuceConnectionFactory(getSentinelConfig(), clientConfiguration);
+        } else {
+            replicaConnectionFactory = new LettuceConnectionFactory(getStaticMasterReplicaConfig(), clientConfiguration);
+        }
+        replicaConnectionFactory.afterPropertiesSet();
+
+        RedisTemplate<String, Object> replicaRedisTemplate =
+                createRedisTemplate(replicaConnectionFactory, stringRedisSerializer, redisValueSerializer);
+        return new RedisReplicaRouter(lcnRedisProperty.getReplicaRead(), replicaConnectionFactory, replicaRedisTemplate,
+                redisReplicaLagTracker);
+    }
+
+    /**
+     * Lua 脚本注册表, 启动时预加载内置的脚本, 业务的脚本可以在注入后通过 register 注册
+     *
+     * @param redisTemplate RedisTemplate
+     * @return RedisScriptRegistry
+     */
+    @Bean
+    public RedisScriptRegistry redisScriptRegistry(RedisTemplate<String, Object> redisTemplate) {
+        RedisScriptRegistry redisScriptRegistry = new RedisScriptRegistry(redisTemplate);
+        redisScriptRegistry.loadAll();
+        return redisScriptRegistry;
+    }
+
+    /**
+     * 分批写入, multiSet/multiSetWithExpire/listAddAll 按照 lcn.redis.pipeline 配置的命令数和字节数分批
+     *
+     * @return RedisPipelineExecutor
+     */
+    @Bean(destroyMethod = "destroy")
+    public RedisPipelineExecutor redisPipelineExecutor() {
+        return new RedisPipelineExecutor(lcnRedisProperty.getPipeline());
+    }
+
+    /**
+     * 批量写入直接编码到池化的 ByteBuf, 需要通过 lcn.redis.pooled-buffer.enabled=true 开启
+     *
+     * @param lettuceNativeConnection Lettuce 原生连接
+     * @param redisValueSerializer    RedisValueSerializer
+     * @return RedisByteBufBatchWriter
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "lcn.redis.pooled-buffer", name = "enabled", havingValue = "true")
+    public RedisByteBufBatchWriter redisByteBufBatchWriter(LettuceNativeConnection lettuceNativeConnection,
+                                                           RedisValueSerializer redisValueSerializer) {
+        return new RedisByteBufBatchWriter(lcnRedisProperty.getPooledBuffer(), lettuceNativeConnection, redisValueSerializer,
+                commandTimeout());
+    }
+
+    /**
+     * 热点 Key 探测, 需要通过 lcn.redis.hot-key.enabled=true 开启
+     *
+     * @return RedisHotKeyDetector
+     */
+    @Bean(destroyMethod = "destroy")
+    @ConditionalOnProperty(prefix = "lcn.redis.hot-key", name = "enabled", havingValue = "true")
+    public RedisHotKeyDetector redisHotKeyDetector() {
+        return new RedisHotKeyDetector(lcnRedisProperty.getHotKey());
+    }
+
+    /**
+     * 写入前检查 Value 的大小, 默认开启, 可以通过 lcn.redis.value-size.enabled=false 关闭
+     *
+     * @return RedisValueSizeGuard
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "lcn.redis.value-size", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public RedisValueSizeGuard redisValueSizeGuard() {
+        return new RedisValueSizeGuard(lcnRedisProperty.getValueSize());
+    }
+
+    /**
+     * 大 Key 扫描, 通过 SCAN 和 MEMORY USAGE 按照 Key 族统计内存占用, 只在调用时执行
+     *
+     * @param lettuceNativeConnection Lettuce 原生连接
+     * @return RedisBigKeyScanner
+     */
+    @Bean
+    public RedisBigKeyScanner redisBigKeyScanner(LettuceNativeConnection lettuceNativeConnection) {
+        return new RedisBigKeyScanner(lettuceNativeConnection, commandTimeout());
+    }
+
+    /**
+     * 延迟合并写入, 需要通过 lcn.redis.write-behind.enabled=true 开启, 只对 RedisKeyDesc#writeBehind 为 true 的 Key 生效
+     * 关闭时需要把缓冲区中剩余的写入写完, 通过 DependsOn 保证在连接和分批写入关闭之前关闭
+     *
+     * @return RedisWriteBehindBuffer
+     */
+    @Bean(destroyMethod = "destroy")
+    @DependsOn({"redisPipelineExecutor", "redisTemplate", "lettuceNativeConnection"})
+    @ConditionalOnProperty(prefix = "lcn.redis.write-behind", name = "enabled", havingValue = "true")
+    public RedisWriteBehindBuffer redisWriteBehindBuffer() {
+        return new RedisWriteBehindBuffer(lcnRedisProperty.getWriteBehind());
+    }
+
+    /**
+     * 令牌桶限流, 每个实例按照 lcn.redis.rate-limit 的配置从 Redis 租用一批令牌在本地发放
+     *
+     * @param redisScriptRegistry Lua 脚本注册表
+     * @return RedisRateLimiter
+     */
+    @Bean
+    public RedisRateLimiter redisRateLimiter(RedisScriptRegistry redisScriptRegistry) {
+        return new RedisRateLimiter(lcnRedisProperty.getRateLimit(), redisScriptRegistry);
+    }
+
+    /**
+     * 号段 ID 生成, 按照 lcn.redis.sequence 的配置通过 INCRBY 获取号段, 在本地发放
+     *
+     * @param redisTemplate RedisTemplate
+     * @return RedisSequenceGenerator
+     */
+    @Bean(destroyMethod = "destroy")
+    public RedisSequenceGenerator redisSequenceGenerator(RedisTemplate<String, Object> redisTemplate) {
+        return new RedisSequenceGenerator(lcnRedisProperty.getSequence(), redisTemplate);
+    }
+
+    /**
+     * 分层锁, 需要通过 lcn.redis.local-lock.enabled=true 开启
+     *
+     * @param redissonClient RedissonClient
+     * @return RedisHierarchicalLock
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "lcn.redis.local-lock", name = "enabled", havingValue = "true")
+    public RedisHierarchicalLock redisHierarchicalLock(RedissonClient redissonClient) {
+        return new RedisHierarchicalLock(lcnRedisProperty.getLocalLock(), redissonClient);
+    }
+
     @Bean
     public RedisUtil redisUtil(
             StringRedisSerializer stringRedisSerializer,
-            Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer,
+            RedisValueSerializer redisValueSerializer,
             RedisTemplate<String, Object> redisTemplate,
+            RedissonClient redissonClient,
+            ObjectProvider<RedisNearCache> redisNearCacheProvider,
+            ObjectProvider<RedisEarlyRefresh> redisEarlyRefreshProvider,
+            ObjectProvider<RedisGetBatcher> redisGetBatcherProvider,
+            ObjectProvider<RedisReplicaRouter> redisReplicaRouterProvider,
+            ObjectProvider<RedisHierarchicalLock> redisHierarchicalLockProvider,
+            RedisScriptRegistry redisScriptRegistry,
+            RedisRateLimiter redisRateLimiter,
+            RedisSequenceGenerator redisSequenceGenerator,
+            RedisPipelineExecutor redisPipelineExecutor,
+            ObjectProvider<RedisByteBufBatchWriter> redisByteBufBatchWriterProvider,
+            LettuceNativeConnection lettuceNativeConnection,
+            ObjectProvider<RedisMetrics> redisMetricsProvider,
+            ObjectProvider<RedisHotKeyDetector> redisHotKeyDetectorProvider,
+            ObjectProvider<RedisValueSizeGuard> redisValueSizeGuardProvider,
+            ObjectProvider<RedisWriteBehindBuffer> redisWriteBehindBufferProvider
+    ) {
+        // 反查 RedisKeyDesc 的组件 (近端缓存, 延迟写入, 指标等) 使用之前注册所有的格式
+        registerKeyDescs();
+
+        RedisUtil redisUtil = new RedisUtil(stringRedisSerializer, redisValueSerializer, redisTemplate, redissonClient,
+                lcnRedisProperty);
+        redisUtil.setRedisNearCache(redisNearCacheProvider.getIfAvailable());
+        redisUtil.setRedisEarlyRefresh(redisEarlyRefreshProvider.getIfAvailable());
+        redisUtil.setRedisGetBatcher(redisGetBatcherProvider.getIfAvailable());
+        redisUtil.setRedisReplicaRouter(redisReplicaRouterProvider.getIfAvailable());
+        redisUtil.setRedisHierarchicalLock(redisHierarchicalLockProvider.getIfAvailable());
+        redisUtil.setRedisScriptRegistry(redisScriptRegistry);
+        redisUtil.setRedisPipelineExecutor(redisPipelineExecutor);
+        redisUtil.setRedisByteBufBatchWriter(redisByteBufBatchWriterProvider.getIfAvailable());
+        redisUtil.setRedisHotKeyDetector(redisHotKeyDetectorProvider.getIfAvailable());
+
+        // 没有引入 Micrometer 或者关闭了指标时为 NOOP
+        RedisMetrics redisMetrics = redisMetricsProvider.getIfAvailable(() -> RedisMetrics.NOOP);
+        redisUtil.setRedisMetrics(redisMetrics);
+        RedisValueSizeGuard redisValueSizeGuard = redisValueSizeGuardProvider.getIfAvailable();
+        if (redisValueSizeGuard != null) {
+            redisValueSizeGuard.setRedisMetrics(redisMetrics);
+            redisUtil.setRedisValueSizeGuard(redisValueSizeGuard);
+        }
+        RedisWriteBehindBuffer redisWriteBehindBuffer = redisWriteBehindBufferProvider.getIfAvailable();
+        if (redisWriteBehindBuffer != null) {
+            redisWriteBehindBuffer.setRedisMetrics(redisMetrics);
+            redisUtil.setRedisWriteBehindBuffer(redisWriteBehindBuffer);
+        }
+        redisRateLimiter.setRedisMetrics(redisMetrics);
+        redisUtil.setRedisRateLimiter(redisRateLimiter);
+        redisSequenceGenerator.setRedisMetrics(redisMetrics);
+        redisUtil.setRedisSequenceGenerator(redisSequenceGenerator);
+        redisPipelineExecutor.setRedisMetrics(redisMetrics);
+        if (isCluster()) {
+            // 集群模式下多 Key 命令按照 slot 分组后并行执行
+            redisUtil.setRedisClusterBatchExecutor(new RedisClusterBatchExecutor(lettuceNativeConnection, commandTimeout()));
+        }
+        return redisUtil;
+    }
+
+    /**
+     * 原生连接上等待批量命令完成的最长时间, 没有配置 spring.redis.timeout 时使用 Lettuce 的默认超时
+     *
+     * @return 超时时间
+     */
+    private Duration commandTimeout() {
+        return redisProperties.getTimeout() != null ? redisProperties.getTimeout() : RedisURI.DEFAULT_TIMEOUT_DURATION;
+    }
+
+    /**
+     * 注册 lcn.redis.key-desc.register-classes 配置的 RedisKeyDesc 枚举类
+     */
+    @SuppressWarnings("unchecked")
+    private void registerKeyDescs() {
+        ClassLoader classLoader = RedisConfig.class.getClassLoader();
+        for (String className : lcnRedisProperty.getKeyDesc().getRegisterClasses()) {
+            Class<?> descClass;
+            try {
+                descClass = ClassUtils.forName(className.trim(), classLoader);
+            } catch (ClassNotFoundException | LinkageError ex) {
+                throw new IllegalArgumentException("RedisKeyDesc class not found, class: " + className, ex);
+            }
+            if (!RedisKeyDesc.class.isAssignableFrom(descClass)) {
+                throw new IllegalArgumentException("Class is not a RedisKeyDesc, class: " + className);
+            }
+            RedisKeyDescRegistry.register((Class<? extends RedisKeyDesc>) descClass);
+        }
+    }
+
+    /**
+     * 配置 Value 的压缩, 引入了依赖的压缩格式都可以读取, 写入时使用 lcn.redis.compression.type 配置的压缩
+     *
+     * @param redisValueSerializer RedisValueSerializer
+     */
+    private void configureCompression(RedisValueSerializer redisValueSerializer) {
+
+        ClassLoader classLoader = RedisConfig.class.getClassLoader();
+        LcnRedisProperty.Compression compressionProperty = lcnRedisProperty.getCompression();
+
+        if (ClassUtils.isPresent(LZ4_CLASS_NAME, classLoader)) {
+            Lz4RedisValueCompressor lz4Compressor = new Lz4RedisValueCompressor();
+            if (compressionProperty.getType() == RedisCompressionType.LZ4) {
+                redisValueSerializer.setWriteCompressor(lz4Compressor, compressionProperty.getThreshold());
+            } else {
+                redisValueSerializer.registerCompressor(lz4Compressor);
+            }
+        } else if (compressionProperty.getType() == RedisCompressionType.LZ4) {
+            logger.warn("Lcn Redis value compression is LZ4, but org.lz4:lz4-java is not found, skip compression");
+        }
+
+        if (ClassUtils.isPresent(ZSTD_CLASS_NAME, classLoader)) {
+            ZstdRedisValueCompressor zstdCompressor = new ZstdRedisValueCompressor(compressionProperty.getZstdLevel());
+            if (compressionProperty.getType() == RedisCompressionType.ZSTD) {
+                redisValueSerializer.setWriteCompressor(zstdCompressor, compressionProperty.getThreshold());
+            } else {
+                redisValueSerializer.registerCompressor(zstdCompressor);
+            }
+        } else if (compressionProperty.getType() == RedisCompressionType.ZSTD) {
+            logger.warn("Lcn Redis value compression is ZSTD, but com.github.luben:zstd-jni is not found, skip compression");
+        }
+
+        if (compressionProperty.getType() != RedisCompressionType.NONE) {
+            logger.info("Lcn Redis value compression: {}, threshold: {}", compressionProperty.getType(),
+                    compressionProperty.getThreshold());
+        }
+    }
+
+    /**
+     * Lettuce 原生连接, 复用 LettuceConnectionFactory 的客户端, 第一次使用时才建立连接
+     *
+     * @param lettuceConnectionFactory LettuceConnectionFactory
+     * @return LettuceNativeConnection
+     */
+    @Bean(destroyMethod = "destroy")
+    public LettuceNativeConnection lettuceNativeConnection(LettuceConnectionFactory lettuceConnectionFactory) {
+        return new LettuceNativeConnection(lettuceConnectionFactory);
+    }
+
+    @Bean
+    public AsyncRedisUtil asyncRedisUtil(
+            LettuceNativeConnection lettuceNativeConnection,
+            StringRedisSerializer stringRedisSerializer,
+            RedisValueSerializer redisValueSerializer,
             RedissonClient redissonClient
     ) {
-        return new RedisUtil(stringRedisSerializer, jackson2JsonRedisSerializer, redisTemplate, redissonClient);
+        return new AsyncRedisUtil(lettuceNativeConnection, stringRedisSerializer, redisValueSerializer, redissonClient);
+    }
+
+    /**
+     * 是否为集群模式
+     *
+     * @return true: 配置了 spring.redis.cluster.nodes
+     */
+    private boolean isCluster() {
+        return redisProperties.getCluster() != null && !CollectionUtils.isEmpty(redisProperties.getCluster().getNodes());
+    }
+
+    /**
+     * 是否为哨兵模式
+     *
+     * @return true: 配置了 spring.redis.sentinel.master 和 spring.redis.sentinel.nodes
+     */
+    private boolean isSentinel() {
+        return redisProperties.getSentinel() != null && redisProperties.getSentinel().getMaster() != null
+                && !CollectionUtils.isEmpty(redisProperties.getSentinel().getNodes());
+    }
+
+    /**
+     * Redisson 集群/哨兵模式的连接池和读取节点配置
+     *
+     * @param serversConfig    集群/哨兵配置
+     * @param redissonProperty Redisson 配置
+     */
+    private void configureRedissonServers(BaseMasterSlaveServersConfig<?> serversConfig, LcnRedisProperty.Redisson redissonProperty) {
+        configureRedissonBase(serversConfig, redissonProperty);
+        serversConfig.setMasterConnectionPoolSize(redissonProperty.getConnectionPoolSize());
+        serversConfig.setMasterConnectionMinimumIdleSize(redissonProperty.getConnectionMinimumIdleSize());
+        serversConfig.setSlaveConnectionPoolSize(redissonProperty.getConnectionPoolSize());
+        serversConfig.setSlaveConnectionMinimumIdleSize(redissonProperty.getConnectionMinimumIdleSize());
+        serversConfig.setSubscriptionConnectionPoolSize(redissonProperty.getSubscriptionConnectionPoolSize());
+        serversConfig.setSubscriptionConnectionMinimumIdleSize(redissonProperty.getSubscriptionConnectionMinimumIdleSize());
+        serversConfig.setReadMode(redissonProperty.getReadMode());
+        serversConfig.setSubscriptionMode(redissonProperty.getSubscriptionMode());
+    }
+
+    /**
+     * Redisson 所有模式通用的超时, 重试和连接配置
+     * 超时时间没有单独配置时和 Lettuce 使用相同的 spring.redis.timeout 和 spring.redis.connect-timeout
+     *
+     * @param baseConfig       单节点/集群/哨兵配置
+     * @param redissonProperty Redisson 配置
+     */
+    private void configureRedissonBase(BaseConfig<?> baseConfig, LcnRedisProperty.Redisson redissonProperty) {
+
+        baseConfig.setIdleConnectionTimeout(redissonProperty.getIdleConnectionTimeoutMillis());
+        baseConfig.setSubscriptionsPerConnection(redissonProperty.getSubscriptionsPerConnection());
+        baseConfig.setRetryAttempts(redissonProperty.getRetryAttempts());
+        baseConfig.setRetryInterval(redissonProperty.getRetryIntervalMillis());
+        baseConfig.setPingConnectionInterval(redissonProperty.getPingConnectionIntervalMillis());
+        baseConfig.setKeepAlive(redissonProperty.getKeepAlive());
+        baseConfig.setTcpNoDelay(redissonProperty.getTcpNoDelay());
+        if (redisProperties.getClientName() != null) {
+            baseConfig.setClientName(redisProperties.getClientName());
+        }
+
+        if (redissonProperty.getTimeoutMillis() > 0) {
+            baseConfig.setTimeout(redissonProperty.getTimeoutMillis());
+        } else if (redisProperties.getTimeout() != null) {
+            baseConfig.setTimeout((int) redisProperties.getTimeout().toMillis());
+        }
+        if (redissonProperty.getConnectTimeoutMillis() > 0) {
+            baseConfig.setConnectTimeout(redissonProperty.getConnectTimeoutMillis());
+        } else if (redisProperties.getConnectTimeout() != null) {
+            baseConfig.setConnectTimeout((int) redisProperties.getConnectTimeout().toMillis());
+        }
+    }
+
+    /**
+     * Redisson 集群/哨兵模式下每个节点的连接数, 用于启动日志
+     *
+     * @param serversConfig 集群/哨兵配置
+     * @return 连接数的描述
+     */
+    private static String masterSlaveConnections(BaseMasterSlaveServersConfig<?> serversConfig) {
+        return "master pool size: " + serversConfig.getMasterConnectionPoolSize()
+                + ", master minimum idle: " + serversConfig.getMasterConnectionMinimumIdleSize()
+                + ", slave pool size: " + serversConfig.getSlaveConnectionPoolSize()
+                + ", slave minimum idle: " + serversConfig.getSlaveConnectionMinimumIdleSize()
+                + ", subscription pool size: " + serversConfig.getSubscriptionConnectionPoolSize()
+                + ", read mode: " + serversConfig.getReadMode();
+    }
+
+    /**
+     * Redisson 的节点地址
+     *
+     * @param node 节点, 格式为 host:port
+     * @return 节点地址
+     */
+    private String redisAddress(String node) {
+        return (redisProperties.isSsl() ? REDIS_SSL_ADDRESS_PREFIX : REDIS_ADDRESS_PREFIX) + node;
+    }
+
+    /**
+     * 获取 Redis 集群的配置
+     *
+     * @return Redis 集群配置
+     */
+    private RedisClusterConfiguration getClusterConfig() {
+        RedisProperties.Cluster cluster = redisProperties.getCluster();
+        RedisClusterConfiguration config = new RedisClusterConfiguration(cluster.getNodes());
+        if (cluster.getMaxRedirects() != null) {
+            config.setMaxRedirects(cluster.getMaxRedirects());
+        }
+        config.setPassword(redisProperties.getPassword());
+        return config;
+    }
+
+    /**
+     * 获取 Redis 哨兵的配置
+     *
+     * @return Redis 哨兵配置
+     */
+    private RedisSentinelConfiguration getSentinelConfig() {
+        RedisProperties.Sentinel sentinel = redisProperties.getSentinel();
+        RedisSentinelConfiguration config = new RedisSentinelConfiguration(sentinel.getMaster(), new HashSet<>(sentinel.getNodes()));
+        config.setPassword(redisProperties.getPassword());
+        config.setSentinelPassword(RedisPassword.of(sentinel.getPassword()));
+        config.setDatabase(redisProperties.getDatabase());
+        return config;
+    }
+
+    /**
+     * 获取单节点模式下主从读取的配置, 从节点来自 lcn.redis.replica-read.replica-nodes
+     *
+     * @return Redis 主从配置
+     */
+    private RedisStaticMasterReplicaConfiguration getStaticMasterReplicaConfig() {
+
+        RedisStaticMasterReplicaConfiguration config =
+                new RedisStaticMasterReplicaConfiguration(redisProperties.getHost(), redisProperties.getPort());
+        List<String> replicaNodes = lcnRedisProperty.getReplicaRead().getReplicaNodes();
+        if (replicaNodes.isEmpty()) {
+            logger.warn("Lcn Redis replica read is enabled, but lcn.redis.replica-read.replica-nodes is empty, read from primary");
+        }
+        for (String replicaNode : replicaNodes) {
+            int index = replicaNode.lastIndexOf(':');
+            config.node(replicaNode.substring(0, index), Integer.parseInt(replicaNode.substring(index + 1)));
+        }
+        config.setPassword(redisProperties.getPassword());
+        config.setDatabase(redisProperties.getDatabase());
+        return config;
     }
 
     /**
@@ -166,9 +880,11 @@ public class RedisConfig {
     /**
      * 获取 lettucePool 的配置
      *
+     * @param readFrom        读取的节点选择, 为空时从主节点读取
+     * @param clientResources Lettuce 的 ClientResources, 所有的连接工厂共用
      * @return lettucePool 配置
      */
-    private LettuceClientConfiguration getLettuceClientConfiguration() {
+    private LettuceClientConfiguration getLettuceClientConfiguration(ReadFrom readFrom, ClientResources clientResources) {
 
         GenericObjectPoolConfig<Object> genericObjectPoolConfig = new GenericObjectPoolConfig<>();
         genericObjectPoolConfig.setMaxIdle(redisProperties.getLettuce().getPool().getMaxIdle());
@@ -180,8 +896,43 @@ public class RedisConfig {
             genericObjectPoolConfig.setTimeBetweenEvictionRuns(redisProperties.getLettuce().getPool().getTimeBetweenEvictionRuns());
         }
 
-        return LettucePoolingClientConfiguration.builder().commandTimeout(redisProperties.getTimeout())
-                .shutdownTimeout(redisProperties.getLettuce().getShutdownTimeout()).poolConfig(genericObjectPoolConfig).build();
+        LettucePoolingClientConfiguration.LettucePoolingClientConfigurationBuilder builder = LettucePoolingClientConfiguration.builder()
+                .commandTimeout(redisProperties.getTimeout())
+                .shutdownTimeout(redisProperties.getLettuce().getShutdownTimeout()).poolConfig(genericObjectPoolConfig)
+                .clientResources(clientResources);
+
+        if (redisProperties.isSsl()) {
+            builder.useSsl();
+        }
+        if (readFrom != null) {
+            builder.readFrom(readFrom);
+        }
+        if (isCluster()) {
+            builder.clientOptions(getClusterClientOptions());
+        }
+        return builder.build();
+    }
+
+    /**
+     * 集群模式下的客户端配置, 开启拓扑刷新, 节点扩缩容或者主从切换后能够及时感知
+     *
+     * @return ClusterClientOptions
+     */
+    private ClusterClientOptions getClusterClientOptions() {
+
+        RedisProperties.Lettuce.Cluster.Refresh refresh = redisProperties.getLettuce().getCluster().getRefresh();
+        ClusterTopologyRefreshOptions.Builder refreshBuilder = ClusterTopologyRefreshOptions.builder()
+                .dynamicRefreshSources(refresh.isDynamicRefreshSources());
+        if (refresh.getPeriod() != null) {
+            refreshBuilder.enablePeriodicRefresh(refresh.getPeriod());
+        }
+        if (refresh.isAdaptive()) {
+            // MOVED/ASK 重定向, 连接断开等事件触发刷新
+            refreshBuilder.enableAllAdaptiveRefreshTriggers();
+        }
+        // 覆盖了默认的 ClientOptions, 需要重新开启命令超时, 否则原生异步命令的 Future 在节点无响应时不会结束
+        return ClusterClientOptions.builder().topologyRefreshOptions(refreshBuilder.build())
+                .timeoutOptions(TimeoutOptions.enabled()).build();
     }
 
     /**
@@ -192,11 +943,35 @@ public class RedisConfig {
     private ObjectMapper redisObjectMapper() {
 
         ObjectMapper redisObjectMapper = new ObjectMapper();
-        // 序列化的范围和修饰符的范围 All 全部情况都序列化
-        redisObjectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
         // 序列化的类的配置, EVERYTHING 所有类型, 包含 final 修饰的类
         redisObjectMapper.activateDefaultTyping(
                 LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.EVERYTHING, JsonTypeInfo.As.PROPERTY);
+        return configureObjectMapper(redisObjectMapper);
+    }
+
+    /**
+     * 获取 Smile 二进制编码需要的 ObjectMapper, 类型使用注册的短 ID
+     *
+     * @param redisTypeIdTable 类型短 ID 表
+     * @return ObjectMapper
+     */
+    private ObjectMapper redisSmileObjectMapper(RedisTypeIdTable redisTypeIdTable) {
+
+        ObjectMapper redisSmileObjectMapper = new ObjectMapper(new SmileFactory());
+        // 和 JSON 一样的默认类型处理, 只是类名替换为短 ID
+        redisSmileObjectMapper.setDefaultTyping(new ShortTypeResolverBuilder(redisTypeIdTable));
+        return configureObjectMapper(redisSmileObjectMapper);
+    }
+
+    /**
+     * ObjectMapper 的公共配置
+     *
+     * @param redisObjectMapper ObjectMapper
+     * @return 配置后的 ObjectMapper
+     */
+    private ObjectMapper configureObjectMapper(ObjectMapper redisObjectMapper) {
+        // 序列化的范围和修饰符的范围 All 全部情况都序列化
+        redisObjectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
         // 遇到未知属性不失败
         redisObjectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         // 序列化中时间的格式的属性处理
@@ -205,4 +980,45 @@ public class RedisConfig {
         redisObjectMapper.setPropertyNamingStrategy(PropertyNamingStrategy.SNAKE_CASE);
         return redisObjectMapper;
     }
+
+    /**
+     * Micrometer 指标, 引入了 micrometer-core 时加载, 可以通过 lcn.redis.metrics.enabled=false 关闭
+     * 放在单独的配置类中, 没有 Micrometer 时不会加载引用了 MeterRegistry 的方法
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    @ConditionalOnProperty(prefix = "lcn.redis.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    static class RedisMetricsConfiguration {
+
+        /**
+         * 指标记录, 容器中没有 MeterRegistry 时为 NOOP
+         *
+         * @param meterRegistryProvider MeterRegistry
+         * @param lcnRedisProperty      LcnRedisProperty
+         * @return RedisMetrics
+         */
+        @Bean
+        public RedisMetrics redisMetrics(ObjectProvider<MeterRegistry> meterRegistryProvider, LcnRedisProperty lcnRedisProperty) {
+            MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable();
+            if (meterRegistry == null) {
+                return RedisMetrics.NOOP;
+            }
+            logger.info("Lcn Redis metrics init, histogram: {}", lcnRedisProperty.getMetrics().getHistogram());
+            return new MicrometerRedisMetrics(meterRegistry, lcnRedisProperty.getMetrics());
+        }
+    }
+
+    /**
+     * 热点 Key 的 actuator 端点, 引入了 spring-boot-actuator 并且开启了热点 Key 探测时加载
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    @ConditionalOnProperty(prefix = "lcn.redis.hot-key", name = "enabled", havingValue = "true")
+    static class RedisHotKeyEndpointConfiguration {
+
+        @Bean
+        public RedisHotKeyEndpoint redisHotKeyEndpoint(RedisHotKeyDetector redisHotKeyDetector) {
+            return new RedisHotKeyEndpoint(redisHotKeyDetector);
+        }
+    }
 }
@@ -0,0 +1,301 @@
+package io.github.lcn29.starter.redis.batch;
+
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * <pre>
+ * 单 Key 读取自动合并
+ * 多个线程同时发起的单 Key 读取会先进入队列, 收集线程在很短的时间窗口内 (或者达到最大数量时) 把它们合并为一次 MGET,
+ * 再把结果分别交给各自的调用方, 减少命令数和连接上的系统调用
+ * 关闭时已经进入队列或者已经收集到批次中的请求都会执行完, 关闭之后提交的请求返回 null, 由调用方直接读取
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 16:05
+ */
+public class RedisGetBatcher {
+
+    private final static Logger logger = LoggerFactory.getLogger(RedisGetBatcher.class);
+
+    /**
+     * 批次大小分布的桶的个数, 第 i 个桶统计大小在 (2^(i-1), 2^i] 之间的批次, 最后一个桶统计更大的批次
+     */
+    private final static int HISTOGRAM_BUCKET_SIZE = 12;
+
+    /**
+     * 收集线程空闲时, 等待请求的最长时间, 单位: 毫秒
+     */
+    private final static long IDLE_POLL_MILLIS = 100L;
+
+    private final LcnRedisProperty.BatchGet batchGetProperty;
+
+    /**
+     * 批量读取, 返回的列表和入参的 Key 一一对应, 不存在的为 null
+     */
+    private final Function<List<String>, List<Object>> multiGetFunction;
+
+    private final BlockingQueue<PendingGet> pendingQueue;
+
+    private final ExecutorService flushExecutor;
+
+    private final Thread collectThread;
+
+    private final LongAdder[] batchSizeHistogram = new LongAdder[HISTOGRAM_BUCKET_SIZE];
+
+    private final LongAdder batchCount = new LongAdder();
+
+    private final LongAdder keyCount = new LongAdder();
+
+    /**
+     * 调用方等待结果的最长时间, 命令超时时间加上合并的时间窗口, 单位: 毫秒
+     */
+    private final long waitTimeoutMillis;
+
+    private volatile boolean running = true;
+
+    public RedisGetBatcher(LcnRedisProperty.BatchGet batchGetProperty, Function<List<String>, List<Object>> multiGetFunction,
+                           Duration commandTimeout) {
+
+        this.batchGetProperty = batchGetProperty;
+        this.multiGetFunction = multiGetFunction;
+        this.pendingQueue = new ArrayBlockingQueue<>(batchGetProperty.getQueueCapacity());
+        this.waitTimeoutMillis = commandTimeout.toMillis() + TimeUnit.MICROSECONDS.toMillis(batchGetProperty.getWindowMicros()) + 1L;
+
+        for (int i = 0; i < HISTOGRAM_BUCKET_SIZE; i++) {
+            batchSizeHistogram[i] = new LongAdder();
+        }
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.flushExecutor = Executors.newFixedThreadPool(batchGetProperty.getFlushThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "lcn-redis-batch-get-flush-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.collectThread = new Thread(this::collect, "lcn-redis-batch-get-collect");
+        this.collectThread.setDaemon(true);
+        this.collectThread.start();
+
+        logger.info("Lcn Redis batch get init, window: {}us, max batch size: {}",
+                batchGetProperty.getWindowMicros(), batchGetProperty.getMaxBatchSize());
+    }
+
+    /**
+     * 提交一个单 Key 读取
+     *
+     * @param redisKey Redis Key
+     * @return 读取结果, 队列满了或者已经关闭时返回 null, 调用方需要自行读取
+     */
+    public CompletableFuture<Object> get(String redisKey) {
+        if (!running) {
+            return null;
+        }
+        PendingGet pendingGet = new PendingGet(redisKey);
+        if (!pendingQueue.offer(pendingGet)) {
+            return null;
+        }
+        // 提交的同时关闭, 关闭时已经取出了队列中的请求, 还能从队列中移除说明没有人会执行它
+        if (!running && pendingQueue.remove(pendingGet)) {
+            return null;
+        }
+        return pendingGet.future;
+    }
+
+    /**
+     * 等待读取结果, 最多等待命令超时时间加上合并的时间窗口
+     *
+     * @param redisKey Redis Key, 用于失败时定位
+     * @param future   get 返回的结果
+     * @return Redis 中存储的值
+     * @throws IllegalStateException 等待超时或者被中断
+     */
+    public Object await(String redisKey, CompletableFuture<Object> future) {
+        try {
+            return future.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException("Redis batch get fail, redisKey: " + redisKey, ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new IllegalStateException("Redis batch get timeout after " + waitTimeoutMillis + "ms, redisKey: " + redisKey, ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for redis batch get, redisKey: " + redisKey, ex);
+        }
+    }
+
+    /**
+     * 批次大小分布, key 为批次大小的上限 (包含), 最后一项的 key 为 Integer.MAX_VALUE
+     *
+     * @return 批次大小分布
+     */
+    public Map<Integer, Long> batchSizeHistogram() {
+        Map<Integer, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < HISTOGRAM_BUCKET_SIZE; i++) {
+            int upperBound = i == HISTOGRAM_BUCKET_SIZE - 1 ? Integer.MAX_VALUE : 1 << i;
+            histogram.put(upperBound, batchSizeHistogram[i].sum());
+        }
+        return histogram;
+    }
+
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    public long getKeyCount() {
+        return keyCount.sum();
+    }
+
+    public void destroy() {
+        running = false;
+        collectThread.interrupt();
+        try {
+            collectThread.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        // 把剩余的请求执行完
+        List<PendingGet> remainList = new ArrayList<>();
+        pendingQueue.drainTo(remainList);
+        if (!remainList.isEmpty()) {
+            flush(remainList);
+        }
+        flushExecutor.shutdown();
+    }
+
+    /**
+     * 收集线程, 从队列中收集一个批次的请求后交给执行线程
+     */
+    private void collect() {
+
+        long windowNanos = TimeUnit.MICROSECONDS.toNanos(batchGetProperty.getWindowMicros());
+        int maxBatchSize = batchGetProperty.getMaxBatchSize();
+
+        while (running) {
+            List<PendingGet> batch = null;
+            try {
+                PendingGet first = pendingQueue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch = new ArrayList<>(maxBatchSize);
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+
+                while (batch.size() < maxBatchSize) {
+                    // 先把已经在队列中的请求一次取出
+                    pendingQueue.drainTo(batch, maxBatchSize - batch.size());
+                    long remainNanos = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remainNanos <= 0L) {
+                        break;
+                    }
+                    PendingGet next = pendingQueue.poll(remainNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                dispatch(batch);
+            } catch (InterruptedException ex) {
+                // 已经收集到的请求不在队列中, 关闭时也不会再被取出, 需要在这里执行
+                if (batch != null && !batch.isEmpty()) {
+                    dispatch(batch);
+                }
+                if (!running) {
+                    return;
+                }
+            } catch (Exception ex) {
+                logger.warn("Redis batch get collect fail, message:{}", ex.getMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * 把一个批次交给执行线程, 执行线程已经关闭时在当前线程执行
+     *
+     * @param batch 批次
+     */
+    private void dispatch(List<PendingGet> batch) {
+        try {
+            flushExecutor.execute(() -> flush(batch));
+        } catch (RejectedExecutionException ex) {
+            flush(batch);
+        }
+    }
+
+    /**
+     * 执行一个批次, 相同的 Key 只读取一次
+     *
+     * @param batch 批次
+     */
+    private void flush(List<PendingGet> batch) {
+
+        Map<String, List<PendingGet>> keyPendingMap = new LinkedHashMap<>();
+        for (PendingGet pendingGet : batch) {
+            keyPendingMap.computeIfAbsent(pendingGet.redisKey, key -> new ArrayList<>(1)).add(pendingGet);
+        }
+
+        recordBatchSize(keyPendingMap.size());
+
+        List<String> redisKeyList = new ArrayList<>(keyPendingMap.keySet());
+        try {
+            List<Object> redisValueList = multiGetFunction.apply(redisKeyList);
+            for (int i = 0; i < redisKeyList.size(); i++) {
+                Object redisValue = redisValueList == null ? null : redisValueList.get(i);
+                for (PendingGet pendingGet : keyPendingMap.get(redisKeyList.get(i))) {
+                    pendingGet.future.complete(redisValue);
+                }
+            }
+        } catch (Exception ex) {
+            for (PendingGet pendingGet : batch) {
+                pendingGet.future.completeExceptionally(ex);
+            }
+        }
+    }
+
+    private void recordBatchSize(int batchSize) {
+        batchCount.increment();
+        keyCount.add(batchSize);
+        // 32 - numberOfLeadingZeros(n - 1) 为大于等于 n 的最小的 2 的幂的指数
+        int bucket = 32 - Integer.numberOfLeadingZeros(batchSize - 1);
+        batchSizeHistogram[Math.min(bucket, HISTOGRAM_BUCKET_SIZE - 1)].increment();
+    }
+
+    /**
+     * 等待合并的单 Key 读取
+     */
+    private final static class PendingGet {
+
+        private final String redisKey;
+
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        private PendingGet(String redisKey) {
+            this.redisKey = redisKey;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package io.github.lcn29.starter.redis.batch;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+
+/**
+ * <pre>
+ * 分批写入的一个元素, 持有序列化后的 Key 和 Value
+ * Key 和 Value 为 ByteBuf, 可以是包装的字节数组, 也可以是直接编码得到的池化 ByteBuf, 写入完成后由 RedisPipelineExecutor 释放
+ * 交给异步命令的 ByteBuf 由命令通过 retain 持有一个引用, 命令完成时再释放, 调用方等待超时后释放不会影响还在重试的命令
+ * Key 或者 Value 序列化的结果为空时, 这个元素不会写入, 在结果中作为跳过的 Key 返回
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 19:50
+ */
+public class RedisPipelineEntry {
+
+    /**
+     * Redis Key, 用于失败时定位
+     */
+    private final String redisKey;
+
+    private final ByteBuf keyBuf;
+
+    private final ByteBuf valueBuf;
+
+    /**
+     * 过期时间, 单位: 毫秒, 小于等于 0 时不过期
+     */
+    private final long expireMillis;
+
+    public RedisPipelineEntry(String redisKey, ByteBuf keyBuf, ByteBuf valueBuf, long expireMillis) {
+        this.redisKey = redisKey;
+        this.keyBuf = keyBuf;
+        this.valueBuf = valueBuf;
+        this.expireMillis = expireMillis;
+    }
+
+    /**
+     * 通过序列化后的字节数组创建, 只包装, 不复制
+     *
+     * @param redisKey     Redis Key
+     * @param keyBytes     序列化后的 Key
+     * @param valueBytes   序列化后的 Value
+     * @param expireMillis 过期时间, 单位: 毫秒, 小于等于 0 时不过期
+     * @return 写入的元素
+     */
+    public static RedisPipelineEntry of(String redisKey, byte[] keyBytes, byte[] valueBytes, long expireMillis) {
+        return new RedisPipelineEntry(redisKey, keyBytes == null ? null : Unpooled.wrappedBuffer(keyBytes),
+                valueBytes == null ? null : Unpooled.wrappedBuffer(valueBytes), expireMillis);
+    }
+
+    public String getRedisKey() {
+        return redisKey;
+    }
+
+    public ByteBuf getKeyBuf() {
+        return keyBuf;
+    }
+
+    public ByteBuf getValueBuf() {
+        return valueBuf;
+    }
+
+    /**
+     * 序列化后的 Key, 包装的字节数组直接返回, 不复制
+     *
+     * @return Key 的字节数组
+     */
+    public byte[] getKeyBytes() {
+        return toBytes(keyBuf);
+    }
+
+    /**
+     * 序列化后的 Value, 包装的字节数组直接返回, 不复制
+     *
+     * @return Value 的字节数组
+     */
+    public byte[] getValueBytes() {
+        return toBytes(valueBuf);
+    }
+
+    public long getExpireMillis() {
+        return expireMillis;
+    }
+
+    /**
+     * Key 和 Value 是否都序列化成功
+     *
+     * @return true: 可以写入
+     */
+    public boolean isWritable() {
+        return keyBuf != null && valueBuf != null;
+    }
+
+    /**
+     * 占用的字节数, 用于限制每批的大小
+     *
+     * @return 序列化后 Key 和 Value 的长度之和
+     */
+    public long byteSize() {
+        return (long) keyBuf.readableBytes() + valueBuf.readableBytes();
+    }
+
+    /**
+     * 增加持有的 ByteBuf 的引用计数, 在交给异步命令之前调用, 命令完成时再调用一次 release
+     *
+     * @return 当前元素
+     */
+    public RedisPipelineEntry retain() {
+        if (keyBuf != null) {
+            keyBuf.retain();
+        }
+        if (valueBuf != null) {
+            valueBuf.retain();
+        }
+        return this;
+    }
+
+    /**
+     * 释放持有的 ByteBuf
+     */
+    public void release() {
+        if (keyBuf != null && keyBuf.refCnt() > 0) {
+            keyBuf.release();
+        }
+        if (valueBuf != null && valueBuf.refCnt() > 0) {
+            valueBuf.release();
+        }
+    }
+
+    private static byte[] toBytes(ByteBuf buf) {
+        if (buf.hasArray() && buf.arrayOffset() == 0 && buf.readerIndex() == 0 && buf.readableBytes() == buf.array().length) {
+            return buf.array();
+        }
+        return ByteBufUtil.getBytes(buf);
+    }
+}
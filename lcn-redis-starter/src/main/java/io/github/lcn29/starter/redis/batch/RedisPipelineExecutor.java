@@ -0,0 +1,202 @@
+package io.github.lcn29.starter.redis.batch;
+
+import io.github.lcn29.starter.redis.constants.RedisConstants;
+import io.github.lcn29.starter.redis.metrics.RedisMetrics;
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * <pre>
+ * 分批写入
+ * 元素在分批时才序列化, 每批的命令数和字节数达到上限时立即写入, 内存中只保留正在写入的批次, 不会一次性缓存所有的请求和响应
+ * 并行度大于 1 时, 多批同时写入, 每批使用连接池中的一个连接 (直接编码到 ByteBuf 时共用原生连接), 同时在写的批次不超过并行度
+ * 一批失败不影响其他批次, 失败信息记录在返回的结果中
+ * 每批写完 (成功或者失败) 后释放调用方持有的 ByteBuf 引用, 还没有完成的异步命令自己持有引用, 在命令完成时释放
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 19:50
+ */
+public class RedisPipelineExecutor {
+
+    private final static Logger logger = LoggerFactory.getLogger(RedisPipelineExecutor.class);
+
+    private final int maxCommands;
+
+    private final long maxBytes;
+
+    private final int parallelism;
+
+    /**
+     * 并行写入的线程池, 并行度为 1 时为空, 在调用方线程写入
+     */
+    private final ExecutorService writeExecutor;
+
+    /**
+     * 指标记录, 记录每批的命令数和字节数
+     */
+    private RedisMetrics redisMetrics = RedisMetrics.NOOP;
+
+    public RedisPipelineExecutor(LcnRedisProperty.Pipeline pipelineProperty) {
+
+        this.maxCommands = Math.max(pipelineProperty.getMaxCommands(), 1);
+        this.maxBytes = Math.max(pipelineProperty.getMaxBytes(), 1L);
+        this.parallelism = Math.max(pipelineProperty.getParallelism(), 1);
+
+        if (parallelism > 1) {
+            AtomicInteger threadIndex = new AtomicInteger();
+            this.writeExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "lcn-redis-pipeline-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.writeExecutor = null;
+        }
+
+        logger.info("Lcn Redis pipeline init, max commands: {}, max bytes: {}, parallelism: {}", maxCommands, maxBytes, parallelism);
+    }
+
+    /**
+     * 分批写入
+     *
+     * @param sources     需要写入的数据
+     * @param entryMapper 把一条数据序列化为写入的元素
+     * @param ordered     是否需要按顺序写入, 为 true 时所有批次在调用方线程中串行写入
+     * @param chunkWriter 写入一批元素, 传入的元素都已经序列化成功
+     * @return 写入结果
+     */
+    public <S> RedisPipelineResult execute(Collection<S> sources, Function<S, RedisPipelineEntry> entryMapper, boolean ordered,
+                                           Consumer<List<RedisPipelineEntry>> chunkWriter) {
+
+        RedisPipelineResult result = new RedisPipelineResult();
+        boolean parallel = !ordered && writeExecutor != null;
+        Semaphore inflightPermits = parallel ? new Semaphore(parallelism) : null;
+
+        int chunkIndex = RedisConstants.INT_ZERO;
+        List<RedisPipelineEntry> chunk = new ArrayList<>(Math.min(sources.size(), maxCommands));
+        long chunkBytes = RedisConstants.LONG_ZERO;
+
+        try {
+            for (S source : sources) {
+                RedisPipelineEntry entry = entryMapper.apply(source);
+                if (!entry.isWritable()) {
+                    entry.release();
+                    result.addSkipped(entry.getRedisKey());
+                    continue;
+                }
+
+                // 加入后超过字节上限时, 先写入已经收集的批次
+                if (!chunk.isEmpty() && chunkBytes + entry.byteSize() > maxBytes) {
+                    submit(chunkIndex++, chunk, chunkBytes, chunkWriter, result, inflightPermits);
+                    chunk = new ArrayList<>(maxCommands);
+                    chunkBytes = RedisConstants.LONG_ZERO;
+                }
+
+                chunk.add(entry);
+                chunkBytes += entry.byteSize();
+
+                if (chunk.size() >= maxCommands) {
+                    submit(chunkIndex++, chunk, chunkBytes, chunkWriter, result, inflightPermits);
+                    chunk = new ArrayList<>(maxCommands);
+                    chunkBytes = RedisConstants.LONG_ZERO;
+                }
+            }
+
+            if (!chunk.isEmpty()) {
+                submit(chunkIndex, chunk, chunkBytes, chunkWriter, result, inflightPermits);
+                chunk = null;
+            }
+        } catch (RuntimeException ex) {
+            // 序列化时抛出异常, 还没有提交的批次需要释放
+            if (chunk != null) {
+                chunk.forEach(RedisPipelineEntry::release);
+            }
+            throw ex;
+        } finally {
+            if (inflightPermits != null) {
+                // 拿到所有的许可, 表示所有批次都写完了
+                inflightPermits.acquireUninterruptibly(parallelism);
+            }
+        }
+
+        if (!result.getSkippedKeys().isEmpty() || !result.getFailures().isEmpty()) {
+            logger.warn("Redis pipeline finished with errors, written: {}, skipped: {}, failed chunks: {}",
+                    result.getWrittenCount(), result.getSkippedKeys().size(), result.getFailures().size());
+        }
+        return result;
+    }
+
+    /**
+     * 设置指标记录
+     *
+     * @param redisMetrics 指标记录, 为空时不记录
+     */
+    public void setRedisMetrics(RedisMetrics redisMetrics) {
+        this.redisMetrics = redisMetrics == null ? RedisMetrics.NOOP : redisMetrics;
+    }
+
+    public void destroy() {
+        if (writeExecutor != null) {
+            writeExecutor.shutdown();
+        }
+    }
+
+    /**
+     * 提交一批, 串行时直接写入, 并行时先拿到许可, 限制同时在内存中的批次
+     */
+    private void submit(int chunkIndex, List<RedisPipelineEntry> chunk, long chunkBytes,
+                        Consumer<List<RedisPipelineEntry>> chunkWriter, RedisPipelineResult result, Semaphore inflightPermits) {
+
+        redisMetrics.recordPipelineChunk(chunk.size(), chunkBytes);
+
+        if (inflightPermits == null) {
+            writeChunk(chunkIndex, chunk, chunkWriter, result);
+            return;
+        }
+
+        inflightPermits.acquireUninterruptibly();
+        try {
+            writeExecutor.execute(() -> {
+                try {
+                    writeChunk(chunkIndex, chunk, chunkWriter, result);
+                } finally {
+                    inflightPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // 线程池已经关闭, 在调用方线程写入
+            inflightPermits.release();
+            writeChunk(chunkIndex, chunk, chunkWriter, result);
+        }
+    }
+
+    private void writeChunk(int chunkIndex, List<RedisPipelineEntry> chunk, Consumer<List<RedisPipelineEntry>> chunkWriter,
+                            RedisPipelineResult result) {
+        try {
+            chunkWriter.accept(chunk);
+            result.addWritten(chunk.size());
+        } catch (RuntimeException ex) {
+            Set<String> redisKeys = new LinkedHashSet<>();
+            chunk.forEach(entry -> redisKeys.add(entry.getRedisKey()));
+            logger.warn("Redis pipeline chunk write fail, chunk: {}, size: {}, message:{}", chunkIndex, chunk.size(), ex.getMessage());
+            result.addFailure(new RedisPipelineResult.ChunkFailure(chunkIndex, new ArrayList<>(redisKeys), ex));
+        } finally {
+            chunk.forEach(RedisPipelineEntry::release);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.lcn29.starter.redis.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <pre>
+ * 分批写入的结果
+ * 一批失败不影响其他批次, 失败的批次和序列化失败或者超过大小上限被跳过的 Key 都会记录下来, 由调用方决定重试还是忽略
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 19:50
+ */
+public class RedisPipelineResult {
+
+    /**
+     * 写入成功的元素个数
+     */
+    private int writtenCount;
+
+    /**
+     * Key 或者 Value 序列化结果为空, 没有写入的 Key
+     */
+    private final List<String> skippedKeys = new ArrayList<>();
+
+    private final List<ChunkFailure> failures = new ArrayList<>();
+
+    synchronized void addWritten(int count) {
+        writtenCount += count;
+    }
+
+    synchronized void addSkipped(String redisKey) {
+        skippedKeys.add(redisKey);
+    }
+
+    synchronized void addFailure(ChunkFailure failure) {
+        failures.add(failure);
+    }
+
+    /**
+     * 是否所有的元素都写入成功
+     *
+     * @return true: 没有失败的批次, 也没有跳过的 Key
+     */
+    public synchronized boolean isSuccess() {
+        return failures.isEmpty() && skippedKeys.isEmpty();
+    }
+
+    public synchronized int getWrittenCount() {
+        return writtenCount;
+    }
+
+    public synchronized List<String> getSkippedKeys() {
+        return Collections.unmodifiableList(new ArrayList<>(skippedKeys));
+    }
+
+    public synchronized List<ChunkFailure> getFailures() {
+        return Collections.unmodifiableList(new ArrayList<>(failures));
+    }
+
+    /**
+     * 失败的批次
+     */
+    public static class ChunkFailure {
+
+        /**
+         * 批次的序号, 从 0 开始
+         */
+        private final int chunkIndex;
+
+        /**
+         * 这一批包含的 Key, 写入 List 时为同一个 Key
+         */
+        private final List<String> redisKeys;
+
+        private final Throwable cause;
+
+        ChunkFailure(int chunkIndex, List<String> redisKeys, Throwable cause) {
+            this.chunkIndex = chunkIndex;
+            this.redisKeys = redisKeys;
+            this.cause = cause;
+        }
+
+        public int getChunkIndex() {
+            return chunkIndex;
+        }
+
+        public List<String> getRedisKeys() {
+            return redisKeys;
+        }
+
+        public Throwable getCause() {
+            return cause;
+        }
+    }
+}
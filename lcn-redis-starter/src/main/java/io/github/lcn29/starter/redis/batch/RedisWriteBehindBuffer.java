@@ -0,0 +1,524 @@
+package io.github.lcn29.starter.redis.batch;
+
+import io.github.lcn29.starter.redis.key.RedisKeyDesc;
+import io.github.lcn29.starter.redis.key.RedisKeyDescRegistry;
+import io.github.lcn29.starter.redis.metrics.RedisMetrics;
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * <pre>
+ * 延迟合并写入 (write-behind)
+ * RedisKeyDesc#writeBehind 返回 true 的 Key 通过 set/setWithExpire 写入时先进入本地的有界缓冲区, 同一个 Key 只保留最后一次写入
+ * 刷新线程每隔 flushIntervalMillis, 或者缓冲的 Key 达到 flushBatchSize 时, 把缓冲区中的写入分批流水线写入 Redis
+ * 缓冲区满了时调用方最多等待 fullWaitMillis, 仍然没有空间时直接同步写入
+ * 写入失败的 Key 在没有更新的写入时留在缓冲区中, 最多重试 maxRetries 次
+ * 批次写入, 同步写入和删除在同一把锁内执行, 正在写入的旧值不会覆盖之后同步写入的值, 也不会让删除的 Key 重新出现
+ * 不经过缓冲区的覆盖写入和删除通过 supersede 先丢弃缓冲区中的值, 读改写的操作通过 writeThrough 先把缓冲区中的值写入 Redis
+ * 写入 Redis 之后才失效近端缓存和固定主节点读取, 缓冲期间本地的读取直接使用缓冲区中的值
+ * 带过期时间的写入在放入缓冲区时确定过期的时间点, 刷新时只设置剩余的时间, 不会因为缓冲而延长过期时间
+ * 缓冲区保存的是调用方传入的对象本身, 刷新时才序列化, 放入缓冲区之后调用方不能再修改这个对象
+ * 关闭时把缓冲区中剩余的写入全部写完, 进程崩溃时缓冲区中的写入会丢失
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 23:05
+ */
+public class RedisWriteBehindBuffer {
+
+    private final static Logger logger = LoggerFactory.getLogger(RedisWriteBehindBuffer.class);
+
+    private final static String RESULT_BUFFERED = "buffered";
+
+    private final static String RESULT_COALESCED = "coalesced";
+
+    private final static String RESULT_OVERFLOW = "overflow";
+
+    private final int capacity;
+
+    private final int flushBatchSize;
+
+    private final long flushIntervalNanos;
+
+    private final long fullWaitMillis;
+
+    private final int maxRetries;
+
+    private final long shutdownTimeoutMillis;
+
+    /**
+     * 等待写入的 Key, 同一个 Key 只保留最后一次写入
+     */
+    private final Map<String, PendingWrite> pendingMap = new ConcurrentHashMap<>();
+
+    /**
+     * 缓冲区中的 Key 的个数, 通过 CAS 保证不超过 capacity
+     */
+    private final AtomicInteger depth = new AtomicInteger();
+
+    /**
+     * 批次写入, 同步写入和删除互斥执行
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * 缓冲区满了时调用方在这里等待刷新
+     */
+    private final ReentrantLock spaceLock = new ReentrantLock();
+
+    private final Condition spaceCondition = spaceLock.newCondition();
+
+    /**
+     * RedisKeyDesc 是否开启了延迟写入, 避免每次写入都调用 RedisKeyDesc#writeBehind
+     */
+    private final Map<RedisKeyDesc, Boolean> writeBehindDescMap = new ConcurrentHashMap<>();
+
+    /**
+     * 批量写入, 返回写入失败需要重试的 Key
+     */
+    private volatile Function<List<PendingWrite>, List<String>> writer;
+
+    private volatile Thread flushThread;
+
+    private volatile boolean running;
+
+    private RedisMetrics redisMetrics = RedisMetrics.NOOP;
+
+    public RedisWriteBehindBuffer(LcnRedisProperty.WriteBehind writeBehindProperty) {
+        this.capacity = Math.max(writeBehindProperty.getCapacity(), 1);
+        this.flushBatchSize = Math.max(writeBehindProperty.getFlushBatchSize(), 1);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(writeBehindProperty.getFlushIntervalMillis(), 1L));
+        this.fullWaitMillis = writeBehindProperty.getFullWaitMillis();
+        this.maxRetries = writeBehindProperty.getMaxRetries();
+        this.shutdownTimeoutMillis = writeBehindProperty.getShutdownTimeoutMillis();
+        logger.info("Lcn Redis write behind init, capacity: {}, flush batch size: {}, flush interval: {}ms",
+                capacity, flushBatchSize, writeBehindProperty.getFlushIntervalMillis());
+    }
+
+    /**
+     * 设置指标记录, 同时注册缓冲区深度的指标
+     *
+     * @param redisMetrics 指标记录, 为空时不记录
+     */
+    public void setRedisMetrics(RedisMetrics redisMetrics) {
+        this.redisMetrics = redisMetrics == null ? RedisMetrics.NOOP : redisMetrics;
+        this.redisMetrics.bindWriteBehindDepth(depth::get);
+    }
+
+    /**
+     * 启动刷新线程, 由 RedisUtil 初始化时调用, 启动之前的写入都直接同步写入
+     *
+     * @param writer 批量写入, 返回写入失败需要重试的 Key
+     */
+    public synchronized void start(Function<List<PendingWrite>, List<String>> writer) {
+        if (running) {
+            return;
+        }
+        this.writer = writer;
+        this.running = true;
+        Thread thread = new Thread(this::flushLoop, "lcn-redis-write-behind-flush");
+        thread.setDaemon(true);
+        this.flushThread = thread;
+        thread.start();
+    }
+
+    /**
+     * Key 所属的 RedisKeyDesc 是否开启了延迟写入
+     *
+     * @param redisKey Redis Key
+     * @return true: 开启了延迟写入
+     */
+    public boolean isWriteBehind(String redisKey) {
+        RedisKeyDesc redisKeyDesc = RedisKeyDescRegistry.resolve(redisKey);
+        return redisKeyDesc != null && writeBehindDescMap.computeIfAbsent(redisKeyDesc, RedisKeyDesc::writeBehind);
+    }
+
+    /**
+     * 写入, 先放入缓冲区, 缓冲区满了或者已经关闭时在没有批次写入进行时执行 writeThrough
+     * 过期时间从调用这个方法时开始计算, 和直接写入 Redis 一致
+     *
+     * @param redisKey     Redis Key
+     * @param redisValue   写入的值, 不能为空, 刷新之前不能修改
+     * @param expireMillis 过期时间, 单位: 毫秒, 小于等于 0 时不过期
+     * @param writeThrough 同步写入
+     */
+    public void write(String redisKey, Object redisValue, long expireMillis, Runnable writeThrough) {
+
+        if (running) {
+            long expireAtMillis = expireMillis > 0L ? System.currentTimeMillis() + expireMillis : 0L;
+            PendingWrite pendingWrite = new PendingWrite(redisKey, redisValue, expireAtMillis, 0);
+            if (offer(pendingWrite) || (awaitSpace() && offer(pendingWrite))) {
+                return;
+            }
+            redisMetrics.recordWriteBehind(redisKey, RESULT_OVERFLOW);
+        }
+
+        writeLock.lock();
+        try {
+            writeThrough.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 执行一个不经过缓冲区的覆盖写入或者删除, 先丢弃这些 Key 在缓冲区中的值, 避免之后的刷新用旧值覆盖这次写入
+     * 在没有批次写入进行时执行, 异步的命令在锁内发出即可
+     *
+     * @param redisKeys   Redis Key 列表
+     * @param writeAction 写入或者删除的操作
+     * @param <T>         操作的结果类型
+     * @return 操作的结果
+     */
+    public <T> T supersede(Collection<String> redisKeys, Supplier<T> writeAction) {
+        writeLock.lock();
+        try {
+            for (String redisKey : redisKeys) {
+                if (pendingMap.remove(redisKey) != null) {
+                    depth.decrementAndGet();
+                }
+            }
+            return writeAction.get();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 执行一个读改写的操作, 先把这些 Key 在缓冲区中的值写入 Redis, 保证操作基于最后一次写入的值
+     * 在没有批次写入进行时执行
+     *
+     * @param redisKeys Redis Key 列表
+     * @param action    读改写的操作
+     * @param <T>       操作的结果类型
+     * @return 操作的结果
+     * @throws IllegalStateException 缓冲区中的值写入失败, 这时不执行 action, 失败的值留在缓冲区中
+     */
+    public <T> T writeThrough(Collection<String> redisKeys, Supplier<T> action) {
+        writeLock.lock();
+        try {
+            List<PendingWrite> batch = new ArrayList<>();
+            for (String redisKey : redisKeys) {
+                PendingWrite pendingWrite = pendingMap.get(redisKey);
+                if (pendingWrite != null) {
+                    batch.add(pendingWrite);
+                }
+            }
+            if (!batch.isEmpty()) {
+                long startNanos = redisMetrics.startNanos();
+                Set<String> failedKeys = new HashSet<>(writer.apply(batch));
+                redisMetrics.recordWriteBehindFlush(batch.size(), failedKeys.size(), startNanos);
+                for (PendingWrite pendingWrite : batch) {
+                    if (!failedKeys.contains(pendingWrite.redisKey) && pendingMap.remove(pendingWrite.redisKey, pendingWrite)) {
+                        depth.decrementAndGet();
+                    }
+                }
+                if (!failedKeys.isEmpty()) {
+                    throw new IllegalStateException("Redis write behind flush fail before read-modify-write, keys: " + failedKeys);
+                }
+            }
+            return action.get();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 获取 Key 在缓冲区中还没有写入 Redis 的值
+     *
+     * @param redisKey Redis Key
+     * @return 缓冲区中的值, 没有时返回 null
+     */
+    public PendingWrite pending(String redisKey) {
+        return pendingMap.get(redisKey);
+    }
+
+    /**
+     * 缓冲区中的 Key 的个数
+     *
+     * @return 缓冲区深度
+     */
+    public int depth() {
+        return depth.get();
+    }
+
+    /**
+     * 立即把缓冲区中的写入全部写入 Redis
+     */
+    public void flush() {
+        flushPending(false);
+    }
+
+    public void destroy() {
+        synchronized (this) {
+            running = false;
+        }
+        Thread thread = flushThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(shutdownTimeoutMillis);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // 把剩余的写入全部写完, 失败的不再重试
+        flushPending(true);
+        if (depth.get() > 0) {
+            logger.warn("Redis write behind destroyed, {} pending writes are lost", depth.get());
+        }
+    }
+
+    /**
+     * 放入缓冲区, 同一个 Key 覆盖之前的写入
+     *
+     * @param pendingWrite 写入
+     * @return true: 放入成功, false: 缓冲区满了
+     */
+    private boolean offer(PendingWrite pendingWrite) {
+
+        String[] result = new String[1];
+        pendingMap.compute(pendingWrite.redisKey, (key, previous) -> {
+            if (previous != null) {
+                result[0] = RESULT_COALESCED;
+                return pendingWrite;
+            }
+            if (!acquireSlot()) {
+                return null;
+            }
+            result[0] = RESULT_BUFFERED;
+            return pendingWrite;
+        });
+
+        if (result[0] == null) {
+            return false;
+        }
+        redisMetrics.recordWriteBehind(pendingWrite.redisKey, result[0]);
+        if (RESULT_BUFFERED.equals(result[0]) && depth.get() >= flushBatchSize) {
+            LockSupport.unpark(flushThread);
+        }
+        return true;
+    }
+
+    private boolean acquireSlot() {
+        int current;
+        do {
+            current = depth.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!depth.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * 缓冲区满了时唤醒刷新线程, 等待最多 fullWaitMillis
+     *
+     * @return true: 等待期间有刷新完成, 可以再试一次
+     */
+    private boolean awaitSpace() {
+        if (fullWaitMillis <= 0L) {
+            return false;
+        }
+        LockSupport.unpark(flushThread);
+        spaceLock.lock();
+        try {
+            return spaceCondition.await(fullWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            spaceLock.unlock();
+        }
+    }
+
+    /**
+     * 刷新线程, 按照时间或者数量触发刷新
+     */
+    private void flushLoop() {
+        while (running) {
+            if (depth.get() < flushBatchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            if (!running) {
+                return;
+            }
+            try {
+                flushPending(false);
+            } catch (Exception ex) {
+                logger.warn("Redis write behind flush fail, message:{}", ex.getMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * 把缓冲区中的写入分批写入 Redis
+     * 写入成功后才从缓冲区中移除, 写入期间 get 仍然可以读到缓冲中的值, 写入期间同一个 Key 有更新的写入时保留更新的写入
+     *
+     * @param shutdown 是否是关闭时的刷新, 关闭时失败的写入不再重试
+     */
+    private void flushPending(boolean shutdown) {
+
+        if (writer == null || depth.get() == 0) {
+            return;
+        }
+
+        writeLock.lock();
+        try {
+            List<PendingWrite> batch = new ArrayList<>(flushBatchSize);
+            for (PendingWrite pendingWrite : pendingMap.values()) {
+                batch.add(pendingWrite);
+                if (batch.size() >= flushBatchSize) {
+                    writeBatch(batch, shutdown);
+                    batch = new ArrayList<>(flushBatchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch, shutdown);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+
+        spaceLock.lock();
+        try {
+            spaceCondition.signalAll();
+        } finally {
+            spaceLock.unlock();
+        }
+    }
+
+    /**
+     * 写入一个批次, 失败的写入在没有更新的写入时留在缓冲区中等待下一次刷新, 超过重试次数后丢弃
+     *
+     * @param batch    一批写入
+     * @param shutdown 是否是关闭时的刷新
+     */
+    private void writeBatch(List<PendingWrite> batch, boolean shutdown) {
+
+        long startNanos = redisMetrics.startNanos();
+        Set<String> failedKeys;
+        try {
+            failedKeys = new HashSet<>(writer.apply(batch));
+        } catch (Exception ex) {
+            logger.warn("Redis write behind batch fail, size:{}, message:{}", batch.size(), ex.getMessage(), ex);
+            failedKeys = new HashSet<>(batch.size() * 2);
+            for (PendingWrite pendingWrite : batch) {
+                failedKeys.add(pendingWrite.redisKey);
+            }
+        }
+        redisMetrics.recordWriteBehindFlush(batch.size(), failedKeys.size(), startNanos);
+
+        String firstDroppedKey = null;
+        int droppedCount = 0;
+        for (PendingWrite pendingWrite : batch) {
+            if (!failedKeys.contains(pendingWrite.redisKey)) {
+                // 只移除已经写入的值, 写入期间有更新的写入时保留
+                if (pendingMap.remove(pendingWrite.redisKey, pendingWrite)) {
+                    depth.decrementAndGet();
+                }
+                continue;
+            }
+            if (!shutdown && pendingWrite.retries < maxRetries) {
+                pendingMap.replace(pendingWrite.redisKey, pendingWrite, pendingWrite.retry());
+                continue;
+            }
+            if (pendingMap.remove(pendingWrite.redisKey, pendingWrite)) {
+                depth.decrementAndGet();
+                droppedCount++;
+                firstDroppedKey = firstDroppedKey == null ? pendingWrite.redisKey : firstDroppedKey;
+            }
+        }
+        if (droppedCount > 0) {
+            logger.warn("Redis write behind drop {} writes, first key:{}", droppedCount, firstDroppedKey);
+        }
+    }
+
+    /**
+     * 缓冲区中等待写入的值
+     */
+    public final static class PendingWrite {
+
+        private final String redisKey;
+
+        private final Object redisValue;
+
+        /**
+         * 过期的时间点, 单位: 毫秒, 为 0 时不过期
+         */
+        private final long expireAtMillis;
+
+        private final int retries;
+
+        private PendingWrite(String redisKey, Object redisValue, long expireAtMillis, int retries) {
+            this.redisKey = redisKey;
+            this.redisValue = redisValue;
+            this.expireAtMillis = expireAtMillis;
+            this.retries = retries;
+        }
+
+        private PendingWrite retry() {
+            return new PendingWrite(redisKey, redisValue, expireAtMillis, retries + 1);
+        }
+
+        public String getRedisKey() {
+            return redisKey;
+        }
+
+        public Object getRedisValue() {
+            return redisValue;
+        }
+
+        public long getExpireAtMillis() {
+            return expireAtMillis;
+        }
+
+        /**
+         * 是否带有过期时间
+         *
+         * @return true: 带有过期时间
+         */
+        public boolean hasExpire() {
+            return expireAtMillis > 0L;
+        }
+
+        /**
+         * 缓冲期间是否已经过期, 已经过期的值在本地按照不存在处理
+         *
+         * @return true: 已经过期
+         */
+        public boolean isExpired() {
+            return hasExpire() && System.currentTimeMillis() >= expireAtMillis;
+        }
+
+        /**
+         * 写入 Redis 时剩余的过期时间
+         * 缓冲期间已经过期的值仍然写入, 过期时间为 1 毫秒, 覆盖 Redis 中的旧值后马上过期, 不会让旧值重新可见
+         *
+         * @return 剩余的过期时间, 单位: 毫秒, 最小为 1, 不过期时返回 0
+         */
+        public long remainingExpireMillis() {
+            if (!hasExpire()) {
+                return 0L;
+            }
+            return Math.max(expireAtMillis - System.currentTimeMillis(), 1L);
+        }
+    }
+}
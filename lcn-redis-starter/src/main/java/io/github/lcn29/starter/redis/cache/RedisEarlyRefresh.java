@@ -0,0 +1,187 @@
+package io.github.lcn29.starter.redis.cache;
+
+import io.github.lcn29.starter.redis.key.RedisKeyDesc;
+import io.github.lcn29.starter.redis.key.RedisKeyDescRegistry;
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import io.github.lcn29.starter.redis.utils.RedisUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * <pre>
+ * Redis 缓存概率提前刷新 (XFetch)
+ * 注册了回源方法的 RedisKeyDesc, 写入带过期时间的缓存时会包装为 RedisExpireCache, 同时记录回源耗时和过期时刻
+ * 读取时按照 now - computeCost * beta * ln(random) >= expireAt 判断是否提前刷新
+ * 越接近过期时刻, 触发刷新的概率越大, 刷新在后台线程中异步执行, 热点 Key 在有流量时不会真正过期
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 11:05
+ */
+public class RedisEarlyRefresh {
+
+    private final static Logger logger = LoggerFactory.getLogger(RedisEarlyRefresh.class);
+
+    /**
+     * 每类 Key 的回源方法
+     */
+    private final Map<RedisKeyDesc, Function<String, ?>> loaderMap = new ConcurrentHashMap<>();
+
+    /**
+     * 每类 Key 最近一次测量到的回源耗时, 单位: 毫秒
+     */
+    private final Map<RedisKeyDesc, Long> computeCostMap = new ConcurrentHashMap<>();
+
+    /**
+     * 正在刷新的 Key, 同一个 Key 同一时间只会有一个刷新任务
+     */
+    private final Set<String> refreshingKeySet = ConcurrentHashMap.newKeySet();
+
+    private final LcnRedisProperty.EarlyRefresh earlyRefreshProperty;
+
+    private final ThreadPoolExecutor refreshExecutor;
+
+    public RedisEarlyRefresh(LcnRedisProperty.EarlyRefresh earlyRefreshProperty) {
+
+        this.earlyRefreshProperty = earlyRefreshProperty;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(
+                earlyRefreshProperty.getRefreshThreads(), earlyRefreshProperty.getRefreshThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(earlyRefreshProperty.getRefreshQueueSize()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "lcn-redis-early-refresh-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * 注册某一类 Key 的回源方法, 注册后这一类 Key 开启概率提前刷新
+     *
+     * @param redisKeyDesc RedisKeyDesc
+     * @param loader       回源方法, 入参为完整的 Redis Key
+     */
+    public void register(RedisKeyDesc redisKeyDesc, Function<String, ?> loader) {
+        RedisKeyDescRegistry.register(redisKeyDesc);
+        loaderMap.put(redisKeyDesc, loader);
+    }
+
+    /**
+     * 包装需要写入 Redis 的值
+     *
+     * @param redisKey       Redis Key
+     * @param redisValue     Redis Value
+     * @param expireTime     过期时间
+     * @param expireTimeUnit 过期时间单位
+     * @return 开启了提前刷新的 Key 返回包装后的 RedisExpireCache, 否则返回原值
+     */
+    public Object wrap(String redisKey, Object redisValue, long expireTime, TimeUnit expireTimeUnit) {
+
+        RedisKeyDesc redisKeyDesc = RedisKeyDescRegistry.resolve(redisKey);
+        if (redisValue == null || redisKeyDesc == null || !loaderMap.containsKey(redisKeyDesc)) {
+            return redisValue;
+        }
+
+        RedisExpireCache redisExpireCache = new RedisExpireCache();
+        redisExpireCache.setRedisValue(redisValue);
+        redisExpireCache.setExpireTime(expireTime);
+        redisExpireCache.setExpireUnit(expireTimeUnit);
+        redisExpireCache.setComputeCost(computeCostMap.getOrDefault(redisKeyDesc, earlyRefreshProperty.getDefaultComputeCost()));
+        redisExpireCache.setExpireAt(System.currentTimeMillis() + expireTimeUnit.toMillis(expireTime));
+        return redisExpireCache;
+    }
+
+    /**
+     * 记录某个 Key 的回源耗时
+     *
+     * @param redisKey    Redis Key
+     * @param computeCost 回源耗时, 单位: 毫秒
+     */
+    public void recordComputeCost(String redisKey, long computeCost) {
+        RedisKeyDesc redisKeyDesc = RedisKeyDescRegistry.resolve(redisKey);
+        if (redisKeyDesc != null && loaderMap.containsKey(redisKeyDesc)) {
+            computeCostMap.put(redisKeyDesc, computeCost);
+        }
+    }
+
+    /**
+     * 读取到包装对象时, 判断是否需要提前刷新
+     *
+     * @param redisKey         Redis Key
+     * @param redisExpireCache 包装对象
+     */
+    public void onRead(String redisKey, RedisExpireCache redisExpireCache) {
+
+        if (!shouldRefresh(redisExpireCache)) {
+            return;
+        }
+
+        RedisKeyDesc redisKeyDesc = RedisKeyDescRegistry.resolve(redisKey);
+        Function<String, ?> loader = redisKeyDesc == null ? null : loaderMap.get(redisKeyDesc);
+        if (loader == null || !refreshingKeySet.add(redisKey)) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> refresh(redisKey, loader, redisExpireCache));
+        } catch (RejectedExecutionException ex) {
+            // 队列满了直接放弃, 下次读取时还有机会再次触发
+            refreshingKeySet.remove(redisKey);
+        }
+    }
+
+    public void destroy() {
+        refreshExecutor.shutdown();
+    }
+
+    /**
+     * XFetch 判断: now - computeCost * beta * ln(random) >= expireAt
+     *
+     * @param redisExpireCache 包装对象
+     * @return true: 需要提前刷新
+     */
+    private boolean shouldRefresh(RedisExpireCache redisExpireCache) {
+        double random = ThreadLocalRandom.current().nextDouble();
+        // random 为 0 时 ln 为负无穷, 直接刷新
+        if (random <= 0.0D) {
+            return true;
+        }
+        double gap = redisExpireCache.getComputeCost() * earlyRefreshProperty.getBeta() * Math.log(random);
+        return System.currentTimeMillis() - gap >= redisExpireCache.getExpireAt();
+    }
+
+    /**
+     * 后台刷新
+     *
+     * @param redisKey         Redis Key
+     * @param loader           回源方法
+     * @param redisExpireCache 旧的包装对象
+     */
+    private void refresh(String redisKey, Function<String, ?> loader, RedisExpireCache redisExpireCache) {
+        try {
+            long startTime = System.currentTimeMillis();
+            Object redisValue = loader.apply(redisKey);
+            recordComputeCost(redisKey, System.currentTimeMillis() - startTime);
+            if (redisValue != null) {
+                RedisUtil.setWithExpire(redisKey, redisValue, redisExpireCache.getExpireTime(), redisExpireCache.getExpireUnit());
+            }
+        } catch (Exception ex) {
+            logger.warn("Redis early refresh fail, redisKey:{}, message:{}", redisKey, ex.getMessage(), ex);
+        } finally {
+            refreshingKeySet.remove(redisKey);
+        }
+    }
+}
@@ -5,7 +5,8 @@ import java.util.concurrent.TimeUnit;
 /**
  * <pre>
  * Redis 缓存过期对象
- * 调用方必须保证每个属性都有值, 都不能为空
+ * 调用方必须保证 redisKey, redisValue, expireTime, expireUnit 都有值, 都不能为空
+ * 开启概率提前刷新时, 同时作为存储到 Redis 中的包装对象, 携带回源耗时和过期时刻
  * </pre>
  *
  * @author lcn29
@@ -33,6 +34,16 @@ public class RedisExpireCache {
      */
     private TimeUnit expireUnit;
 
+    /**
+     * 回源耗时, 单位: 毫秒, 概率提前刷新使用, 可以为空
+     */
+    private Long computeCost;
+
+    /**
+     * 过期的时刻, 毫秒时间戳, 概率提前刷新使用, 可以为空
+     */
+    private Long expireAt;
+
     public String getRedisKey() {
         return redisKey;
     }
@@ -64,5 +75,20 @@ public class RedisExpireCache {
     public void setExpireUnit(TimeUnit expireUnit) {
         this.expireUnit = expireUnit;
     }
-}
 
+    public Long getComputeCost() {
+        return computeCost;
+    }
+
+    public void setComputeCost(Long computeCost) {
+        this.computeCost = computeCost;
+    }
+
+    public Long getExpireAt() {
+        return expireAt;
+    }
+
+    public void setExpireAt(Long expireAt) {
+        this.expireAt = expireAt;
+    }
+}
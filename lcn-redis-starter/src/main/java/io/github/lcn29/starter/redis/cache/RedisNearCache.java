@@ -0,0 +1,300 @@
+package io.github.lcn29.starter.redis.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.github.lcn29.starter.redis.constants.RedisConstants;
+import io.github.lcn29.starter.redis.key.RedisKeyDesc;
+import io.github.lcn29.starter.redis.key.RedisKeyDescRegistry;
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.StatusListener;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <pre>
+ * Redis 本地近端缓存 (L1)
+ * 基于 Caffeine (W-TinyLFU 淘汰), 每类 Key 的过期时间由 RedisKeyDesc#nearCacheExpireMillis 决定
+ * 多实例之间通过 Redis pub/sub 频道广播失效的 Key, 只保证有界的过期: 其他实例写入后, 本地可能继续读到旧值, 最长为这类 Key 的本地过期时间
+ * 1. pub/sub 不保证送达, 订阅连接断开期间的失效通知会丢失, 重新订阅 (包括重连) 时清空整个本地缓存
+ * 2. 只有通过 RedisUtil 的写入和删除才会广播失效, 直接使用 RedissonClient, AsyncRedisUtil 或者其他客户端的写入不会失效本地缓存
+ * 3. 缓存的是反序列化后的对象, 同一个 Key 的多次读取返回同一个实例, 调用方不能修改读取到的对象, 否则会影响其他读取方
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 10:35
+ */
+public class RedisNearCache {
+
+    private final static Logger logger = LoggerFactory.getLogger(RedisNearCache.class);
+
+    /**
+     * 一次广播多个 Key 时的分隔符
+     */
+    private final static String KEY_SEPARATOR = "\n";
+
+    /**
+     * 本地缓存
+     */
+    private final Cache<String, NearCacheValue> cache;
+
+    /**
+     * 失效序列号的分段个数, 必须是 2 的幂
+     */
+    private final static int SEQUENCE_SLOTS = 1024;
+
+    /**
+     * 按照 Key 的 hash 分段的失效序列号, Key 失效时自增所在分段的序列号
+     * 从 Redis 读取前记录 Key 的序列号, 回填时序列号发生了变化, 说明期间这个 Key (或者同一分段的 Key) 有过失效, 放弃回填, 避免写入旧值
+     * 其他 Key 的失效不会影响回填, 分段冲突时只是多一次放弃
+     */
+    private final AtomicLongArray invalidateSequences = new AtomicLongArray(SEQUENCE_SLOTS);
+
+    /**
+     * 失效通知的频道
+     */
+    private final RTopic invalidateTopic;
+
+    /**
+     * 频道监听器的 ID
+     */
+    private final int listenerId;
+
+    /**
+     * 订阅状态监听器的 ID
+     */
+    private final int statusListenerId;
+
+    public RedisNearCache(LcnRedisProperty.NearCache nearCacheProperty, RedissonClient redissonClient) {
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(nearCacheProperty.getMaximumSize())
+                .expireAfter(new NearCacheExpiry())
+                .recordStats()
+                .build();
+
+        this.invalidateTopic = redissonClient.getTopic(nearCacheProperty.getInvalidateChannel(), StringCodec.INSTANCE);
+        this.listenerId = invalidateTopic.addListener(String.class, (channel, message) -> invalidateLocal(message));
+        this.statusListenerId = invalidateTopic.addListener(new StatusListener() {
+
+            @Override
+            public void onSubscribe(String channel) {
+                // 重连后 Redisson 会重新订阅, 断开期间的失效通知已经丢失, 本地缓存的值都不再可信
+                invalidateAll();
+            }
+
+            @Override
+            public void onUnsubscribe(String channel) {
+                invalidateAll();
+            }
+        });
+
+        logger.info("Lcn Redis near cache init, maximum size: {}, invalidate channel: {}",
+                nearCacheProperty.getMaximumSize(), nearCacheProperty.getInvalidateChannel());
+    }
+
+    /**
+     * 获取 Redis Key 在本地缓存中的过期时间
+     *
+     * @param redisKey Redis Key
+     * @return 过期时间, 单位: 毫秒, 小于等于 0 表示不需要本地缓存
+     */
+    public long expireMillis(String redisKey) {
+        RedisKeyDesc redisKeyDesc = RedisKeyDescRegistry.resolve(redisKey);
+        if (redisKeyDesc == null) {
+            return RedisConstants.LONG_ZERO;
+        }
+        return redisKeyDesc.nearCacheExpireMillis();
+    }
+
+    /**
+     * 获取本地缓存
+     *
+     * @param redisKey Redis Key
+     * @return 缓存的值, 不存在时返回 null
+     */
+    public Object getIfPresent(String redisKey) {
+        NearCacheValue nearCacheValue = cache.getIfPresent(redisKey);
+        return nearCacheValue == null ? null : nearCacheValue.value;
+    }
+
+    /**
+     * Key 当前的失效序列号, 需要在读取 Redis 之前获取
+     *
+     * @param redisKey Redis Key
+     * @return 失效序列号
+     */
+    public long sequence(String redisKey) {
+        return invalidateSequences.get(slot(redisKey));
+    }
+
+    /**
+     * 回填本地缓存
+     *
+     * @param redisKey     Redis Key
+     * @param redisValue   Redis Value, 为空时不缓存
+     * @param expireMillis 过期时间, 单位: 毫秒
+     * @param sequence     读取 Redis 之前通过 sequence(redisKey) 获取的失效序列号
+     */
+    public void put(String redisKey, Object redisValue, long expireMillis, long sequence) {
+        if (redisValue == null || expireMillis <= RedisConstants.LONG_ZERO) {
+            return;
+        }
+        int slot = slot(redisKey);
+        if (invalidateSequences.get(slot) != sequence) {
+            return;
+        }
+        NearCacheValue nearCacheValue = new NearCacheValue(redisValue, TimeUnit.MILLISECONDS.toNanos(expireMillis));
+        cache.put(redisKey, nearCacheValue);
+        // 放入期间有失效, 可能是旧值, 只移除自己放入的值
+        if (invalidateSequences.get(slot) != sequence) {
+            cache.asMap().remove(redisKey, nearCacheValue);
+        }
+    }
+
+    /**
+     * 失效本地缓存, 同时通知其他实例
+     *
+     * @param redisKey Redis Key
+     */
+    public void invalidate(String redisKey) {
+        if (expireMillis(redisKey) <= RedisConstants.LONG_ZERO) {
+            return;
+        }
+        invalidateLocal(redisKey);
+        invalidateTopic.publishAsync(redisKey);
+    }
+
+    /**
+     * 批量失效本地缓存, 同时通知其他实例
+     *
+     * @param redisKeys Redis Key 列表
+     */
+    public void invalidateAll(Collection<String> redisKeys) {
+
+        StringBuilder message = new StringBuilder();
+        for (String redisKey : redisKeys) {
+            if (expireMillis(redisKey) <= RedisConstants.LONG_ZERO) {
+                continue;
+            }
+            if (message.length() > RedisConstants.INT_ZERO) {
+                message.append(KEY_SEPARATOR);
+            }
+            message.append(redisKey);
+        }
+
+        if (message.length() == RedisConstants.INT_ZERO) {
+            return;
+        }
+        invalidateLocal(message.toString());
+        invalidateTopic.publishAsync(message.toString());
+    }
+
+    /**
+     * 清空本地缓存, 不通知其他实例, 用于失效通知可能丢失的场景
+     * 所有分段的序列号都自增, 正在读取 Redis 的回填都会放弃
+     */
+    public void invalidateAll() {
+        for (int i = 0; i < SEQUENCE_SLOTS; i++) {
+            invalidateSequences.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+    }
+
+    /**
+     * 本地缓存的命中统计
+     *
+     * @return 命中统计
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * 当前本地缓存的条数
+     *
+     * @return 条数
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public void destroy() {
+        invalidateTopic.removeListener(listenerId, statusListenerId);
+        cache.invalidateAll();
+    }
+
+    /**
+     * 失效本地缓存
+     *
+     * @param message 需要失效的 Key, 多个 Key 之间用换行符分隔
+     */
+    private void invalidateLocal(String message) {
+        if (!message.contains(KEY_SEPARATOR)) {
+            invalidateKey(message);
+            return;
+        }
+        for (String redisKey : message.split(KEY_SEPARATOR)) {
+            invalidateKey(redisKey);
+        }
+    }
+
+    /**
+     * 先自增序列号再移除, 正在读取 Redis 的回填会放弃
+     *
+     * @param redisKey Redis Key
+     */
+    private void invalidateKey(String redisKey) {
+        invalidateSequences.incrementAndGet(slot(redisKey));
+        cache.invalidate(redisKey);
+    }
+
+    private static int slot(String redisKey) {
+        int hash = redisKey.hashCode();
+        return (hash ^ (hash >>> 16)) & (SEQUENCE_SLOTS - 1);
+    }
+
+    /**
+     * 本地缓存的值, 带上各自的过期时间
+     */
+    private final static class NearCacheValue {
+
+        private final Object value;
+
+        private final long expireNanos;
+
+        private NearCacheValue(Object value, long expireNanos) {
+            this.value = value;
+            this.expireNanos = expireNanos;
+        }
+    }
+
+    /**
+     * 按照每个值自身的过期时间过期
+     */
+    private final static class NearCacheExpiry implements Expiry<String, NearCacheValue> {
+
+        @Override
+        public long expireAfterCreate(String key, NearCacheValue value, long currentTime) {
+            return value.expireNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, NearCacheValue value, long currentTime, long currentDuration) {
+            return value.expireNanos;
+        }
+
+        @Override
+        public long expireAfterRead(String key, NearCacheValue value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
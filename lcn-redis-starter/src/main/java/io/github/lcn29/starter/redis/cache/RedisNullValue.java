@@ -0,0 +1,19 @@
+package io.github.lcn29.starter.redis.cache;
+
+/**
+ * <pre>
+ * Redis 空值占位
+ * 回源结果为空时写入 Redis, 避免不存在的数据每次都穿透到数据库, 读取时会被转换为 null
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 16:40
+ */
+public enum RedisNullValue {
+
+    /**
+     * 空值占位
+     */
+    INSTANCE,
+    ;
+}
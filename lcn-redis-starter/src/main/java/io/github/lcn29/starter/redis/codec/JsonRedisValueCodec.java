@@ -0,0 +1,63 @@
+package io.github.lcn29.starter.redis.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * <pre>
+ * 历史的 JSON 编解码, 直接使用 Jackson2JsonRedisSerializer, 没有头部字节
+ * 传入和 Jackson2JsonRedisSerializer 配置一致的 ObjectMapper 时, 支持流式编码到输出流
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 13:15
+ */
+public class JsonRedisValueCodec implements RedisValueCodec {
+
+    private final Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer;
+
+    /**
+     * 流式编码使用的 ObjectMapper, 为空时先编码为字节数组
+     */
+    private final ObjectMapper objectMapper;
+
+    public JsonRedisValueCodec(Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer) {
+        this(jackson2JsonRedisSerializer, null);
+    }
+
+    public JsonRedisValueCodec(Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer, ObjectMapper objectMapper) {
+        this.jackson2JsonRedisSerializer = jackson2JsonRedisSerializer;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public byte header() {
+        return NO_HEADER;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        return jackson2JsonRedisSerializer.serialize(value);
+    }
+
+    @Override
+    public void encode(Object value, OutputStream outputStream) throws IOException {
+        if (objectMapper == null) {
+            outputStream.write(encode(value));
+            return;
+        }
+        objectMapper.writeValue(outputStream, value);
+    }
+
+    @Override
+    public Object decode(byte[] bytes, int offset, int length) {
+        if (offset == 0 && length == bytes.length) {
+            return jackson2JsonRedisSerializer.deserialize(bytes);
+        }
+        return jackson2JsonRedisSerializer.deserialize(Arrays.copyOfRange(bytes, offset, offset + length));
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.lcn29.starter.redis.codec;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+import java.util.Arrays;
+
+/**
+ * <pre>
+ * LZ4 压缩, 压缩速度快, 适合对延迟敏感的场景
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 14:26
+ */
+public class Lz4RedisValueCompressor implements RedisValueCompressor {
+
+    /**
+     * LZ4 格式的头部字节
+     */
+    public final static byte LZ4_HEADER = 0x10;
+
+    private final LZ4Compressor compressor;
+
+    private final LZ4FastDecompressor decompressor;
+
+    public Lz4RedisValueCompressor() {
+        LZ4Factory lz4Factory = LZ4Factory.fastestInstance();
+        this.compressor = lz4Factory.fastCompressor();
+        this.decompressor = lz4Factory.fastDecompressor();
+    }
+
+    @Override
+    public byte header() {
+        return LZ4_HEADER;
+    }
+
+    @Override
+    public byte[] compress(byte[] bytes) {
+
+        byte[] target = new byte[FRAME_HEADER_SIZE + compressor.maxCompressedLength(bytes.length)];
+        int compressedLength = compressor.compress(bytes, 0, bytes.length, target, FRAME_HEADER_SIZE,
+                target.length - FRAME_HEADER_SIZE);
+        if (compressedLength + FRAME_HEADER_SIZE >= bytes.length) {
+            return null;
+        }
+
+        RedisValueCompressor.writeFrameHeader(target, LZ4_HEADER, bytes.length);
+        return Arrays.copyOf(target, compressedLength + FRAME_HEADER_SIZE);
+    }
+
+    @Override
+    public byte[] decompress(byte[] bytes) {
+        byte[] target = new byte[RedisValueCompressor.readOriginalLength(bytes)];
+        decompressor.decompress(bytes, FRAME_HEADER_SIZE, target, 0, target.length);
+        return target;
+    }
+}
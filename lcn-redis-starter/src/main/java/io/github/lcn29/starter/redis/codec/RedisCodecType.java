@@ -0,0 +1,23 @@
+package io.github.lcn29.starter.redis.codec;
+
+/**
+ * <pre>
+ * Redis Value 编码格式
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 13:10
+ */
+public enum RedisCodecType {
+
+    /**
+     * 带完整类名的 JSON 文本, 历史数据的格式, 没有头部字节
+     */
+    JSON,
+
+    /**
+     * Smile 二进制 JSON, 类型使用注册的短 ID, 头部字节为 0x01
+     */
+    SMILE,
+    ;
+}
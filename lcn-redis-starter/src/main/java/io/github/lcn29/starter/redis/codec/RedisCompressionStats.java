@@ -0,0 +1,105 @@
+package io.github.lcn29.starter.redis.codec;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ * Redis Value 压缩统计
+ * 每次压缩/解压都会累加, 可以算出压缩率和压缩耗时
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 14:35
+ */
+public class RedisCompressionStats {
+
+    /**
+     * 压缩的次数
+     */
+    private final LongAdder compressCount = new LongAdder();
+
+    /**
+     * 压缩后没有变小, 放弃压缩的次数
+     */
+    private final LongAdder compressSkipCount = new LongAdder();
+
+    /**
+     * 压缩前的总字节数
+     */
+    private final LongAdder originalBytes = new LongAdder();
+
+    /**
+     * 压缩后的总字节数
+     */
+    private final LongAdder compressedBytes = new LongAdder();
+
+    /**
+     * 压缩的总耗时, 单位: 纳秒
+     */
+    private final LongAdder compressNanos = new LongAdder();
+
+    /**
+     * 解压的次数
+     */
+    private final LongAdder decompressCount = new LongAdder();
+
+    /**
+     * 解压的总耗时, 单位: 纳秒
+     */
+    private final LongAdder decompressNanos = new LongAdder();
+
+    void recordCompress(int originalLength, int compressedLength, long nanos) {
+        compressCount.increment();
+        originalBytes.add(originalLength);
+        compressedBytes.add(compressedLength);
+        compressNanos.add(nanos);
+    }
+
+    void recordCompressSkip(long nanos) {
+        compressSkipCount.increment();
+        compressNanos.add(nanos);
+    }
+
+    void recordDecompress(long nanos) {
+        decompressCount.increment();
+        decompressNanos.add(nanos);
+    }
+
+    /**
+     * 压缩率, 压缩后的字节数 / 压缩前的字节数
+     *
+     * @return 压缩率, 没有压缩过时为 1
+     */
+    public double compressionRatio() {
+        long original = originalBytes.sum();
+        return original == 0L ? 1.0D : (double) compressedBytes.sum() / original;
+    }
+
+    public long getCompressCount() {
+        return compressCount.sum();
+    }
+
+    public long getCompressSkipCount() {
+        return compressSkipCount.sum();
+    }
+
+    public long getOriginalBytes() {
+        return originalBytes.sum();
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+
+    public long getCompressNanos() {
+        return compressNanos.sum();
+    }
+
+    public long getDecompressCount() {
+        return decompressCount.sum();
+    }
+
+    public long getDecompressNanos() {
+        return decompressNanos.sum();
+    }
+}
@@ -0,0 +1,28 @@
+package io.github.lcn29.starter.redis.codec;
+
+/**
+ * <pre>
+ * Redis Value 压缩算法
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 14:20
+ */
+public enum RedisCompressionType {
+
+    /**
+     * 不压缩
+     */
+    NONE,
+
+    /**
+     * LZ4, 头部字节为 0x10, 需要引入 org.lz4:lz4-java
+     */
+    LZ4,
+
+    /**
+     * Zstd, 头部字节为 0x11, 需要引入 com.github.luben:zstd-jni
+     */
+    ZSTD,
+    ;
+}
@@ -0,0 +1,93 @@
+package io.github.lcn29.starter.redis.codec;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <pre>
+ * 类型短 ID 表
+ * 二进制编码中用短 ID 代替类的全限定名, 没有注册的类仍然使用全限定名
+ * 内置的 ID 只能追加, 不能修改, 用户注册的 ID 从 100 开始
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 13:22
+ */
+public class RedisTypeIdTable {
+
+    /**
+     * 用户注册的短 ID 的起始值, 小于这个值的为内置的短 ID
+     */
+    public final static int USER_TYPE_ID_START = 100;
+
+    /**
+     * 内置的常用类型, 下标 + 1 为短 ID
+     */
+    private final static String[] BUILT_IN_TYPES = {
+            "java.util.ArrayList",
+            "java.util.HashMap",
+            "java.util.LinkedHashMap",
+            "java.util.HashSet",
+            "java.util.LinkedHashSet",
+            "java.lang.Long",
+            "java.math.BigDecimal",
+            "java.util.Date",
+            "java.time.LocalDateTime",
+            "java.time.LocalDate",
+            "java.time.LocalTime",
+            "java.util.Collections$EmptyList",
+            "java.util.Collections$EmptyMap",
+            "java.util.Arrays$ArrayList",
+            "io.github.lcn29.starter.redis.cache.RedisExpireCache",
+            "java.util.concurrent.TimeUnit",
+            "io.github.lcn29.starter.redis.cache.RedisNullValue",
+    };
+
+    private final Map<String, String> classNameToIdMap = new HashMap<>();
+
+    private final Map<String, String> idToClassNameMap = new HashMap<>();
+
+    public RedisTypeIdTable(Map<Integer, String> userTypeIds) {
+
+        for (int i = 0; i < BUILT_IN_TYPES.length; i++) {
+            register(i + 1, BUILT_IN_TYPES[i]);
+        }
+
+        for (Map.Entry<Integer, String> entry : userTypeIds.entrySet()) {
+            if (entry.getKey() < USER_TYPE_ID_START) {
+                throw new IllegalArgumentException("Redis type id must be greater than or equal to "
+                        + USER_TYPE_ID_START + ", type id: " + entry.getKey());
+            }
+            register(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * 通过类名获取短 ID
+     *
+     * @param className 类名
+     * @return 短 ID, 没有注册时返回类名本身
+     */
+    public String idOf(String className) {
+        return classNameToIdMap.getOrDefault(className, className);
+    }
+
+    /**
+     * 通过短 ID 获取类名
+     *
+     * @param typeId 短 ID
+     * @return 类名, 不是注册的短 ID 时返回入参本身
+     */
+    public String classNameOf(String typeId) {
+        return idToClassNameMap.getOrDefault(typeId, typeId);
+    }
+
+    private void register(int typeId, String className) {
+        String id = String.valueOf(typeId);
+        if (idToClassNameMap.containsKey(id) || classNameToIdMap.containsKey(className)) {
+            throw new IllegalArgumentException("Duplicate redis type id: " + typeId + ", class name: " + className);
+        }
+        idToClassNameMap.put(id, className);
+        classNameToIdMap.put(className, id);
+    }
+}
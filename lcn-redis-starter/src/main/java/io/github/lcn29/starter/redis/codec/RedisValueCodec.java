@@ -0,0 +1,58 @@
+package io.github.lcn29.starter.redis.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * <pre>
+ * Redis Value 编解码 SPI
+ * 除了历史的 JSON 格式, 其他格式编码后的第一个字节必须为自身的头部字节, 用于读取时识别格式
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 13:12
+ */
+public interface RedisValueCodec {
+
+    /**
+     * 没有头部字节, 只有历史的 JSON 格式使用
+     */
+    byte NO_HEADER = 0x00;
+
+    /**
+     * 编码格式的头部字节
+     *
+     * @return 头部字节
+     */
+    byte header();
+
+    /**
+     * 编码, 返回的字节数组需要包含头部字节
+     *
+     * @param value 需要编码的对象, 不为空
+     * @return 编码后的字节数组
+     */
+    byte[] encode(Object value);
+
+    /**
+     * 编码到输出流, 需要包含头部字节
+     * 默认先编码为字节数组再写入, 支持流式输出的格式可以覆盖, 省去中间的字节数组
+     *
+     * @param value        需要编码的对象, 不为空
+     * @param outputStream 输出流
+     * @throws IOException 写入失败
+     */
+    default void encode(Object value, OutputStream outputStream) throws IOException {
+        outputStream.write(encode(value));
+    }
+
+    /**
+     * 解码
+     *
+     * @param bytes  字节数组
+     * @param offset 去掉头部字节后, 数据开始的位置
+     * @param length 数据的长度
+     * @return 解码后的对象
+     */
+    Object decode(byte[] bytes, int offset, int length);
+}
@@ -0,0 +1,66 @@
+package io.github.lcn29.starter.redis.codec;
+
+/**
+ * <pre>
+ * Redis Value 压缩
+ * 压缩后的格式: [头部字节][原始长度, 4 个字节][压缩后的数据]
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 14:22
+ */
+public interface RedisValueCompressor {
+
+    /**
+     * 头部字节 + 原始长度占用的字节数
+     */
+    int FRAME_HEADER_SIZE = 5;
+
+    /**
+     * 压缩格式的头部字节
+     *
+     * @return 头部字节
+     */
+    byte header();
+
+    /**
+     * 压缩
+     *
+     * @param bytes 编码后的数据
+     * @return 带头部字节和原始长度的压缩数据, 压缩后没有变小时返回 null
+     */
+    byte[] compress(byte[] bytes);
+
+    /**
+     * 解压
+     *
+     * @param bytes 带头部字节和原始长度的压缩数据
+     * @return 解压后的数据
+     */
+    byte[] decompress(byte[] bytes);
+
+    /**
+     * 写入帧头部
+     *
+     * @param target         目标数组
+     * @param header         头部字节
+     * @param originalLength 原始长度
+     */
+    static void writeFrameHeader(byte[] target, byte header, int originalLength) {
+        target[0] = header;
+        target[1] = (byte) (originalLength >>> 24);
+        target[2] = (byte) (originalLength >>> 16);
+        target[3] = (byte) (originalLength >>> 8);
+        target[4] = (byte) originalLength;
+    }
+
+    /**
+     * 读取帧头部中的原始长度
+     *
+     * @param bytes 压缩数据
+     * @return 原始长度
+     */
+    static int readOriginalLength(byte[] bytes) {
+        return ((bytes[1] & 0xFF) << 24) | ((bytes[2] & 0xFF) << 16) | ((bytes[3] & 0xFF) << 8) | (bytes[4] & 0xFF);
+    }
+}
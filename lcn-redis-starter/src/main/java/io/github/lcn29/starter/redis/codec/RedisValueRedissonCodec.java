@@ -0,0 +1,88 @@
+package io.github.lcn29.starter.redis.codec;
+
+import io.github.lcn29.starter.redis.constants.RedisConstants;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.redisson.client.codec.BaseCodec;
+import org.redisson.client.protocol.Decoder;
+import org.redisson.client.protocol.Encoder;
+
+import java.io.IOException;
+
+/**
+ * <pre>
+ * Redisson 的编解码, 和 RedisTemplate 使用同一个 Value 序列化 (同一个 ObjectMapper 和类型表)
+ * 通过 Redisson 写入的数据可以被 RedisUtil 读取, 反之亦然
+ * Value 直接编码到池化的 ByteBuf 中, 不经过中间的字节数组
+ * 开启 stringMapKey 时 Map 的 Key 和 RedisTemplate 的 Hash Key 一样按照 UTF-8 字符串编码, 只支持 String 类型的 Key
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 13:45
+ */
+public class RedisValueRedissonCodec extends BaseCodec {
+
+    private final Encoder encoder;
+
+    private final Decoder<Object> decoder;
+
+    private final Encoder mapKeyEncoder;
+
+    private final Decoder<Object> mapKeyDecoder;
+
+    public RedisValueRedissonCodec(RedisValueSerializer redisValueSerializer) {
+        this(redisValueSerializer, false);
+    }
+
+    public RedisValueRedissonCodec(RedisValueSerializer redisValueSerializer, boolean stringMapKey) {
+
+        this.encoder = in -> {
+            ByteBuf out = ByteBufAllocator.DEFAULT.buffer();
+            try {
+                redisValueSerializer.serialize(in, out);
+            } catch (RuntimeException ex) {
+                out.release();
+                throw new IOException("Could not encode redis value: " + ex.getMessage(), ex);
+            }
+            return out;
+        };
+
+        this.decoder = (buf, state) -> {
+            byte[] bytes = new byte[buf.readableBytes()];
+            buf.readBytes(bytes);
+            return redisValueSerializer.deserialize(bytes);
+        };
+
+        if (stringMapKey) {
+            this.mapKeyEncoder = in -> {
+                ByteBuf out = ByteBufAllocator.DEFAULT.buffer();
+                out.writeCharSequence((String) in, RedisConstants.DEFAULT_CHARSETS);
+                return out;
+            };
+            this.mapKeyDecoder = (buf, state) -> buf.readCharSequence(buf.readableBytes(), RedisConstants.DEFAULT_CHARSETS).toString();
+        } else {
+            this.mapKeyEncoder = encoder;
+            this.mapKeyDecoder = decoder;
+        }
+    }
+
+    @Override
+    public Decoder<Object> getValueDecoder() {
+        return decoder;
+    }
+
+    @Override
+    public Encoder getValueEncoder() {
+        return encoder;
+    }
+
+    @Override
+    public Decoder<Object> getMapKeyDecoder() {
+        return mapKeyDecoder;
+    }
+
+    @Override
+    public Encoder getMapKeyEncoder() {
+        return mapKeyEncoder;
+    }
+}
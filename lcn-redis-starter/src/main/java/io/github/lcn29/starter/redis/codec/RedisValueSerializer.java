@@ -0,0 +1,189 @@
+package io.github.lcn29.starter.redis.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+
+/**
+ * <pre>
+ * Redis Value 序列化
+ * 写入时使用配置的编码格式, 读取时根据第一个字节识别编码格式
+ * 第一个字节不是任何已知格式的头部字节时, 按照历史的 JSON 格式解析, 保证切换格式期间新旧数据都可以读取
+ * 配置了压缩时, 编码后超过阈值的数据会再压缩一次, 压缩格式同样通过头部字节识别, 小的数据保持不压缩
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 13:40
+ */
+public class RedisValueSerializer implements RedisSerializer<Object> {
+
+    private final static byte[] EMPTY_ARRAY = new byte[0];
+
+    /**
+     * 头部字节的数量
+     */
+    private final static int HEADER_SIZE = 256;
+
+    /**
+     * 写入使用的编码
+     */
+    private final RedisValueCodec writeCodec;
+
+    /**
+     * 历史的 JSON 编码
+     */
+    private final RedisValueCodec legacyCodec;
+
+    /**
+     * 按照头部字节索引的编码
+     */
+    private final RedisValueCodec[] headerCodecs = new RedisValueCodec[HEADER_SIZE];
+
+    /**
+     * 按照头部字节索引的压缩
+     */
+    private final RedisValueCompressor[] headerCompressors = new RedisValueCompressor[HEADER_SIZE];
+
+    /**
+     * 压缩统计
+     */
+    private final RedisCompressionStats compressionStats = new RedisCompressionStats();
+
+    /**
+     * 写入使用的压缩, 为空时不压缩
+     */
+    private RedisValueCompressor writeCompressor;
+
+    /**
+     * 超过这个大小才压缩
+     */
+    private int compressThreshold = Integer.MAX_VALUE;
+
+    public RedisValueSerializer(RedisValueCodec writeCodec, RedisValueCodec legacyCodec, RedisValueCodec... headerCodecs) {
+        this.writeCodec = writeCodec;
+        this.legacyCodec = legacyCodec;
+        for (RedisValueCodec headerCodec : headerCodecs) {
+            if (headerCodec.header() == RedisValueCodec.NO_HEADER) {
+                throw new IllegalArgumentException("Redis value codec must have a header: " + headerCodec.getClass().getName());
+            }
+            this.headerCodecs[headerCodec.header() & 0xFF] = headerCodec;
+        }
+    }
+
+    /**
+     * 注册读取时可以识别的压缩格式
+     *
+     * @param compressor 压缩
+     */
+    public void registerCompressor(RedisValueCompressor compressor) {
+        int index = compressor.header() & 0xFF;
+        if (headerCodecs[index] != null) {
+            throw new IllegalArgumentException("Redis value compressor header conflict with codec: " + compressor.header());
+        }
+        headerCompressors[index] = compressor;
+    }
+
+    /**
+     * 设置写入时使用的压缩
+     *
+     * @param compressor        压缩, 需要已经注册
+     * @param compressThreshold 编码后超过这个大小才压缩, 单位: 字节
+     */
+    public void setWriteCompressor(RedisValueCompressor compressor, int compressThreshold) {
+        registerCompressor(compressor);
+        this.writeCompressor = compressor;
+        this.compressThreshold = compressThreshold;
+    }
+
+    /**
+     * 压缩统计
+     *
+     * @return 压缩统计
+     */
+    public RedisCompressionStats getCompressionStats() {
+        return compressionStats;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return EMPTY_ARRAY;
+        }
+
+        byte[] bytes = writeCodec.encode(value);
+        if (writeCompressor == null || bytes.length < compressThreshold) {
+            return bytes;
+        }
+
+        long startTime = System.nanoTime();
+        byte[] compressedBytes = writeCompressor.compress(bytes);
+        if (compressedBytes == null) {
+            compressionStats.recordCompressSkip(System.nanoTime() - startTime);
+            return bytes;
+        }
+        compressionStats.recordCompress(bytes.length, compressedBytes.length, System.nanoTime() - startTime);
+        return compressedBytes;
+    }
+
+    /**
+     * 序列化到 ByteBuf, 编码直接写入 target, 不经过中间的字节数组
+     * 编码后超过压缩阈值时, 读出编码结果压缩后覆盖写入, 只有需要压缩的数据才会产生中间的字节数组
+     *
+     * @param value  需要序列化的对象, 为空时不写入
+     * @param target 写入的 ByteBuf
+     * @throws SerializationException 编码失败, 失败时 target 恢复到写入之前的位置
+     */
+    public void serialize(Object value, ByteBuf target) throws SerializationException {
+        if (value == null) {
+            return;
+        }
+
+        int startIndex = target.writerIndex();
+        try {
+            writeCodec.encode(value, new ByteBufOutputStream(target));
+        } catch (IOException | RuntimeException ex) {
+            target.writerIndex(startIndex);
+            throw new SerializationException("Could not write redis value: " + ex.getMessage(), ex);
+        }
+
+        int length = target.writerIndex() - startIndex;
+        if (writeCompressor == null || length < compressThreshold) {
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        byte[] bytes = new byte[length];
+        target.getBytes(startIndex, bytes);
+        byte[] compressedBytes = writeCompressor.compress(bytes);
+        if (compressedBytes == null) {
+            compressionStats.recordCompressSkip(System.nanoTime() - startTime);
+            return;
+        }
+        compressionStats.recordCompress(length, compressedBytes.length, System.nanoTime() - startTime);
+        target.writerIndex(startIndex);
+        target.writeBytes(compressedBytes);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        RedisValueCompressor headerCompressor = headerCompressors[bytes[0] & 0xFF];
+        if (headerCompressor != null && bytes.length >= RedisValueCompressor.FRAME_HEADER_SIZE) {
+            long startTime = System.nanoTime();
+            bytes = headerCompressor.decompress(bytes);
+            compressionStats.recordDecompress(System.nanoTime() - startTime);
+        }
+
+        RedisValueCodec headerCodec = headerCodecs[bytes[0] & 0xFF];
+        if (headerCodec == null) {
+            return legacyCodec.decode(bytes, 0, bytes.length);
+        }
+        return headerCodec.decode(bytes, 1, bytes.length - 1);
+    }
+}
@@ -0,0 +1,64 @@
+package io.github.lcn29.starter.redis.codec;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DatabindContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.jsontype.TypeIdResolver;
+
+import java.io.IOException;
+
+/**
+ * <pre>
+ * 短类型 ID 解析器
+ * 包装 Jackson 默认的类名解析器, 序列化时把注册过的类名替换为短 ID, 反序列化时再还原为类名
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 13:30
+ */
+public class ShortTypeIdResolver implements TypeIdResolver {
+
+    private final TypeIdResolver delegate;
+
+    private final RedisTypeIdTable redisTypeIdTable;
+
+    public ShortTypeIdResolver(TypeIdResolver delegate, RedisTypeIdTable redisTypeIdTable) {
+        this.delegate = delegate;
+        this.redisTypeIdTable = redisTypeIdTable;
+    }
+
+    @Override
+    public void init(JavaType baseType) {
+        delegate.init(baseType);
+    }
+
+    @Override
+    public String idFromValue(Object value) {
+        return redisTypeIdTable.idOf(delegate.idFromValue(value));
+    }
+
+    @Override
+    public String idFromValueAndType(Object value, Class<?> suggestedType) {
+        return redisTypeIdTable.idOf(delegate.idFromValueAndType(value, suggestedType));
+    }
+
+    @Override
+    public String idFromBaseType() {
+        return redisTypeIdTable.idOf(delegate.idFromBaseType());
+    }
+
+    @Override
+    public JavaType typeFromId(DatabindContext context, String id) throws IOException {
+        return delegate.typeFromId(context, redisTypeIdTable.classNameOf(id));
+    }
+
+    @Override
+    public String getDescForKnownTypeIds() {
+        return delegate.getDescForKnownTypeIds();
+    }
+
+    @Override
+    public JsonTypeInfo.Id getMechanism() {
+        return delegate.getMechanism();
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.lcn29.starter.redis.codec;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.TypeIdResolver;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+
+import java.util.Collection;
+
+/**
+ * <pre>
+ * 使用短类型 ID 的默认类型处理
+ * 和历史 JSON 的配置一致 (EVERYTHING + As.PROPERTY), 只是类型 ID 使用 RedisTypeIdTable 中注册的短 ID
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 13:35
+ */
+public class ShortTypeResolverBuilder extends ObjectMapper.DefaultTypeResolverBuilder {
+
+    private static final long serialVersionUID = 1L;
+
+    private final RedisTypeIdTable redisTypeIdTable;
+
+    public ShortTypeResolverBuilder(RedisTypeIdTable redisTypeIdTable) {
+        super(ObjectMapper.DefaultTyping.EVERYTHING, LaissezFaireSubTypeValidator.instance);
+        this.redisTypeIdTable = redisTypeIdTable;
+        init(JsonTypeInfo.Id.CLASS, null);
+        inclusion(JsonTypeInfo.As.PROPERTY);
+    }
+
+    @Override
+    protected TypeIdResolver idResolver(MapperConfig<?> config, JavaType baseType,
+                                        PolymorphicTypeValidator subtypeValidator, Collection<NamedType> subtypes,
+                                        boolean forSer, boolean forDeser) {
+        TypeIdResolver classNameIdResolver = super.idResolver(config, baseType, subtypeValidator, subtypes, forSer, forDeser);
+        return new ShortTypeIdResolver(classNameIdResolver, redisTypeIdTable);
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.lcn29.starter.redis.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * <pre>
+ * Smile 二进制 JSON 编解码
+ * 传入的 ObjectMapper 需要基于 SmileFactory 创建, 并通过 ShortTypeResolverBuilder 使用短类型 ID
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 13:18
+ */
+public class SmileRedisValueCodec implements RedisValueCodec {
+
+    /**
+     * Smile 格式的头部字节
+     */
+    public final static byte SMILE_HEADER = 0x01;
+
+    /**
+     * 编码时输出流的初始大小
+     */
+    private final static int INITIAL_BUFFER_SIZE = 256;
+
+    private final ObjectMapper smileObjectMapper;
+
+    public SmileRedisValueCodec(ObjectMapper smileObjectMapper) {
+        this.smileObjectMapper = smileObjectMapper;
+    }
+
+    @Override
+    public byte header() {
+        return SMILE_HEADER;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+            outputStream.write(SMILE_HEADER);
+            smileObjectMapper.writeValue(outputStream, value);
+            return outputStream.toByteArray();
+        } catch (IOException ex) {
+            throw new SerializationException("Could not write Smile: " + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public void encode(Object value, OutputStream outputStream) throws IOException {
+        outputStream.write(SMILE_HEADER);
+        smileObjectMapper.writeValue(outputStream, value);
+    }
+
+    @Override
+    public Object decode(byte[] bytes, int offset, int length) {
+        try {
+            return smileObjectMapper.readValue(bytes, offset, length, Object.class);
+        } catch (IOException ex) {
+            throw new SerializationException("Could not read Smile: " + ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package io.github.lcn29.starter.redis.codec;
+
+import com.github.luben.zstd.Zstd;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Arrays;
+
+/**
+ * <pre>
+ * Zstd 压缩, 压缩率高, 适合大的列表类数据
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 14:30
+ */
+public class ZstdRedisValueCompressor implements RedisValueCompressor {
+
+    /**
+     * Zstd 格式的头部字节
+     */
+    public final static byte ZSTD_HEADER = 0x11;
+
+    /**
+     * 压缩级别
+     */
+    private final int level;
+
+    public ZstdRedisValueCompressor(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public byte header() {
+        return ZSTD_HEADER;
+    }
+
+    @Override
+    public byte[] compress(byte[] bytes) {
+
+        byte[] target = new byte[FRAME_HEADER_SIZE + (int) Zstd.compressBound(bytes.length)];
+        long compressedLength = Zstd.compressByteArray(target, FRAME_HEADER_SIZE, target.length - FRAME_HEADER_SIZE,
+                bytes, 0, bytes.length, level);
+        if (Zstd.isError(compressedLength)) {
+            throw new SerializationException("Could not compress by Zstd: " + Zstd.getErrorName(compressedLength));
+        }
+        if (compressedLength + FRAME_HEADER_SIZE >= bytes.length) {
+            return null;
+        }
+
+        RedisValueCompressor.writeFrameHeader(target, ZSTD_HEADER, bytes.length);
+        return Arrays.copyOf(target, (int) compressedLength + FRAME_HEADER_SIZE);
+    }
+
+    @Override
+    public byte[] decompress(byte[] bytes) {
+        byte[] target = new byte[RedisValueCompressor.readOriginalLength(bytes)];
+        long decompressedLength = Zstd.decompressByteArray(target, 0, target.length,
+                bytes, FRAME_HEADER_SIZE, bytes.length - FRAME_HEADER_SIZE);
+        if (Zstd.isError(decompressedLength)) {
+            throw new SerializationException("Could not decompress by Zstd: " + Zstd.getErrorName(decompressedLength));
+        }
+        return target;
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.lcn29.starter.redis.hotkey;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * <pre>
+ * Count-Min Sketch, 固定内存估算每个 Key 的访问次数
+ * 共 DEPTH 行, 每行 width 个计数器, 一个 Key 在每行通过不同的种子散列到一个计数器, 估算值取所有行中最小的计数
+ * 估算值只会偏大不会偏小, 误差随 width 增大而减小, 计数器是原子的, 多线程计数不需要加锁
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 21:20
+ */
+final class RedisCountMinSketch {
+
+    /**
+     * 行数
+     */
+    final static int DEPTH = 4;
+
+    /**
+     * 每一行散列使用的种子
+     */
+    private final static int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final AtomicIntegerArray counters;
+
+    private final int widthMask;
+
+    RedisCountMinSketch(int width) {
+        int tableWidth = Integer.highestOneBit(Math.max(width, 16) - 1) << 1;
+        this.widthMask = tableWidth - 1;
+        this.counters = new AtomicIntegerArray(DEPTH * tableWidth);
+    }
+
+    /**
+     * 计算 Key 在每一行中的下标
+     *
+     * @param hash    Key 的 hashCode
+     * @param indexes 每一行的下标, 长度为 DEPTH
+     */
+    void indexes(int hash, int[] indexes) {
+        for (int row = 0; row < DEPTH; row++) {
+            int h = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % DEPTH];
+            h ^= h >>> 16;
+            indexes[row] = row * (widthMask + 1) + (h & widthMask);
+        }
+    }
+
+    /**
+     * 计数加一
+     *
+     * @param indexes indexes 计算的下标
+     */
+    void increment(int[] indexes) {
+        for (int index : indexes) {
+            counters.incrementAndGet(index);
+        }
+    }
+
+    /**
+     * 下标上的计数
+     *
+     * @param index indexes 计算的下标之一
+     * @return 计数
+     */
+    int count(int index) {
+        return counters.get(index);
+    }
+
+    /**
+     * 清空所有的计数
+     */
+    void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.lcn29.starter.redis.hotkey;
+
+/**
+ * <pre>
+ * 热点 Key 的快照
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 21:20
+ */
+public class RedisHotKey {
+
+    /**
+     * Redis Key
+     */
+    private final String redisKey;
+
+    /**
+     * 所属的 RedisKeyDesc 族, 没有登记时为空
+     */
+    private final String family;
+
+    /**
+     * 滑动窗口内估算的访问次数, 已经按照采样率放大
+     */
+    private final long estimatedCount;
+
+    /**
+     * 是否达到了热点的阈值
+     */
+    private final boolean hot;
+
+    /**
+     * 值是否在本地短时缓存中
+     */
+    private final boolean promoted;
+
+    public RedisHotKey(String redisKey, String family, long estimatedCount, boolean hot, boolean promoted) {
+        this.redisKey = redisKey;
+        this.family = family;
+        this.estimatedCount = estimatedCount;
+        this.hot = hot;
+        this.promoted = promoted;
+    }
+
+    public String getRedisKey() {
+        return redisKey;
+    }
+
+    public String getFamily() {
+        return family;
+    }
+
+    public long getEstimatedCount() {
+        return estimatedCount;
+    }
+
+    public boolean getHot() {
+        return hot;
+    }
+
+    public boolean getPromoted() {
+        return promoted;
+    }
+}
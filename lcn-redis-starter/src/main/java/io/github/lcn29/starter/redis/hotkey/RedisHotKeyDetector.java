@@ -0,0 +1,386 @@
+package io.github.lcn29.starter.redis.hotkey;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.lcn29.starter.redis.constants.RedisConstants;
+import io.github.lcn29.starter.redis.key.RedisKeyDesc;
+import io.github.lcn29.starter.redis.key.RedisKeyDescRegistry;
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <pre>
+ * 热点 Key 探测
+ * RedisUtil 的读写按照采样率采样, 被采样的 Key 计入当前子窗口的 Count-Min Sketch, 多个子窗口组成滑动窗口, 过期的子窗口定时清空复用
+ * 每次计数后用滑动窗口内的估算值和 Top K 中最小的估算值比较, 只有可能进入 Top K 时才加锁更新, 大部分采样不会加锁
+ * Top K 中估算值达到阈值的 Key 为热点 Key, 开启提升时, 热点 Key 从 Redis 读到的值会放入本地短时缓存, 过期或者不再是热点后回到 Redis 读取
+ * 本实例的写入会立即让本地短时缓存失效, 其他实例的写入最多在 promoteTtlMillis 之后可见
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 21:20
+ */
+public class RedisHotKeyDetector {
+
+    private final static Logger logger = LoggerFactory.getLogger(RedisHotKeyDetector.class);
+
+    private final double sampleRate;
+
+    private final int topK;
+
+    /**
+     * 热点阈值, 换算为采样后的次数
+     */
+    private final long sampledHotThreshold;
+
+    private final long windowMillis;
+
+    /**
+     * 子窗口, 下标为 currentWindow 的子窗口正在计数
+     */
+    private final RedisCountMinSketch[] windows;
+
+    private volatile int currentWindow;
+
+    /**
+     * 访问次数最多的 Key 和采样后的估算值, 修改时需要持有 this 的锁
+     */
+    private final Map<String, Long> topKeyMap = new HashMap<>();
+
+    /**
+     * Top K 已满时其中最小的估算值, 未满时为 0
+     */
+    private volatile long topKeyMinEstimate = RedisConstants.LONG_ZERO;
+
+    /**
+     * 当前的热点 Key
+     */
+    private final Set<String> hotKeys = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 热点 Key 的本地短时缓存, 没有开启提升时为空
+     */
+    private final Cache<String, Object> promotedCache;
+
+    /**
+     * 失效序列号的分段个数, 必须是 2 的幂
+     */
+    private final static int SEQUENCE_SLOTS = 1024;
+
+    /**
+     * 按照 Key 的 hash 分段的失效序列号, 从 Redis 读取前记录, 放入本地缓存后发生了变化, 说明期间这个 Key 有过写入, 放弃这次缓存
+     */
+    private final AtomicLongArray invalidateSequences = new AtomicLongArray(SEQUENCE_SLOTS);
+
+    private final ScheduledExecutorService rotateExecutor;
+
+    public RedisHotKeyDetector(LcnRedisProperty.HotKey hotKeyProperty) {
+
+        this.sampleRate = Math.min(Math.max(hotKeyProperty.getSampleRate(), 0.0001D), 1D);
+        this.topK = Math.max(hotKeyProperty.getTopK(), 1);
+        this.sampledHotThreshold = Math.max((long) Math.ceil(hotKeyProperty.getHotThreshold() * sampleRate), 1L);
+        this.windowMillis = Math.max(hotKeyProperty.getWindowMillis(), 1L);
+
+        this.windows = new RedisCountMinSketch[Math.max(hotKeyProperty.getWindowCount(), 1)];
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = new RedisCountMinSketch(hotKeyProperty.getSketchWidth());
+        }
+
+        this.promotedCache = hotKeyProperty.getPromote()
+                ? Caffeine.newBuilder()
+                .maximumSize(hotKeyProperty.getPromoteMaximumSize())
+                .expireAfterWrite(hotKeyProperty.getPromoteTtlMillis(), TimeUnit.MILLISECONDS)
+                .build()
+                : null;
+
+        this.rotateExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lcn-redis-hot-key-rotate");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.rotateExecutor.scheduleAtFixedRate(this::rotate, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+
+        logger.info("Lcn Redis hot key detector init, sample rate: {}, window: {}ms * {}, top k: {}, hot threshold: {}, promote: {}",
+                sampleRate, windowMillis, windows.length, topK, hotKeyProperty.getHotThreshold(), hotKeyProperty.getPromote());
+    }
+
+    /**
+     * 记录一次访问
+     *
+     * @param redisKey Redis Key
+     */
+    public void record(String redisKey) {
+        if (redisKey == null) {
+            return;
+        }
+        if (sampleRate < 1D && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+
+        int[] indexes = new int[RedisCountMinSketch.DEPTH];
+        RedisCountMinSketch window = windows[currentWindow];
+        window.indexes(redisKey.hashCode(), indexes);
+        window.increment(indexes);
+
+        long estimate = estimate(indexes);
+        // 估算值不可能进入 Top K 时不加锁
+        if (estimate <= topKeyMinEstimate) {
+            return;
+        }
+        offerTopKey(redisKey, estimate);
+    }
+
+    /**
+     * 记录一次写入, 同时让本地短时缓存失效
+     *
+     * @param redisKey Redis Key
+     */
+    public void recordWrite(String redisKey) {
+        record(redisKey);
+        invalidate(redisKey);
+    }
+
+    /**
+     * 记录一批写入, 同时让本地短时缓存失效
+     *
+     * @param redisKeys Redis Key 集合
+     */
+    public void recordWriteAll(Collection<String> redisKeys) {
+        for (String redisKey : redisKeys) {
+            record(redisKey);
+        }
+        if (promotedCache != null) {
+            for (String redisKey : redisKeys) {
+                invalidateSequences.incrementAndGet(slot(redisKey));
+            }
+            promotedCache.invalidateAll(redisKeys);
+        }
+    }
+
+    /**
+     * 是否为热点 Key
+     *
+     * @param redisKey Redis Key
+     * @return true: 是热点 Key
+     */
+    public boolean isHot(String redisKey) {
+        return hotKeys.contains(redisKey);
+    }
+
+    /**
+     * 是否需要把读到的值放入本地短时缓存
+     *
+     * @param redisKey Redis Key
+     * @return true: 开启了提升并且是热点 Key
+     */
+    public boolean isPromotable(String redisKey) {
+        return promotedCache != null && hotKeys.contains(redisKey);
+    }
+
+    /**
+     * 从本地短时缓存获取
+     *
+     * @param redisKey Redis Key
+     * @return 缓存的值, 不存在或者没有开启提升时返回 null
+     */
+    public Object getPromoted(String redisKey) {
+        return promotedCache == null ? null : promotedCache.getIfPresent(redisKey);
+    }
+
+    /**
+     * Key 当前的失效序列号, 从 Redis 读取前获取, 放入本地短时缓存时传入
+     *
+     * @param redisKey Redis Key
+     * @return 失效序列号
+     */
+    public long sequence(String redisKey) {
+        return invalidateSequences.get(slot(redisKey));
+    }
+
+    /**
+     * 把从 Redis 读到的值放入本地短时缓存
+     *
+     * @param redisKey   Redis Key
+     * @param redisValue 从 Redis 读到的值, 为空时不缓存
+     * @param sequence   读取前获取的失效序列号
+     */
+    public void promote(String redisKey, Object redisValue, long sequence) {
+        int slot = slot(redisKey);
+        if (redisValue == null || !isPromotable(redisKey) || invalidateSequences.get(slot) != sequence) {
+            return;
+        }
+        promotedCache.put(redisKey, redisValue);
+        // 放入期间有写入, 可能是旧值, 只移除自己放入的值
+        if (invalidateSequences.get(slot) != sequence) {
+            promotedCache.asMap().remove(redisKey, redisValue);
+        }
+    }
+
+    /**
+     * 让本地短时缓存失效
+     *
+     * @param redisKey Redis Key
+     */
+    public void invalidate(String redisKey) {
+        if (promotedCache != null) {
+            invalidateSequences.incrementAndGet(slot(redisKey));
+            promotedCache.invalidate(redisKey);
+        }
+    }
+
+    /**
+     * Top K 的快照, 按照估算的访问次数从大到小排列
+     *
+     * @return Top K 的快照
+     */
+    public List<RedisHotKey> snapshot() {
+        Map<String, Long> topKeys;
+        synchronized (this) {
+            topKeys = new HashMap<>(topKeyMap);
+        }
+        List<RedisHotKey> hotKeyList = new ArrayList<>(topKeys.size());
+        for (Map.Entry<String, Long> entry : topKeys.entrySet()) {
+            String redisKey = entry.getKey();
+            RedisKeyDesc redisKeyDesc = RedisKeyDescRegistry.resolve(redisKey);
+            hotKeyList.add(new RedisHotKey(redisKey, redisKeyDesc == null ? null : RedisKeyDescRegistry.family(redisKeyDesc),
+                    Math.round(entry.getValue() / sampleRate), hotKeys.contains(redisKey), getPromoted(redisKey) != null));
+        }
+        hotKeyList.sort((left, right) -> Long.compare(right.getEstimatedCount(), left.getEstimatedCount()));
+        return hotKeyList;
+    }
+
+    /**
+     * 滑动窗口的总时长
+     *
+     * @return 单位: 毫秒
+     */
+    public long slidingWindowMillis() {
+        return windowMillis * windows.length;
+    }
+
+    public void destroy() {
+        rotateExecutor.shutdownNow();
+    }
+
+    /**
+     * 更新 Top K, 达到阈值时标记为热点 Key
+     */
+    private synchronized void offerTopKey(String redisKey, long estimate) {
+
+        if (!topKeyMap.containsKey(redisKey) && topKeyMap.size() >= topK) {
+            if (estimate <= topKeyMinEstimate) {
+                return;
+            }
+            // 淘汰估算值最小的 Key
+            String minKey = null;
+            long minEstimate = Long.MAX_VALUE;
+            for (Map.Entry<String, Long> entry : topKeyMap.entrySet()) {
+                if (entry.getValue() < minEstimate) {
+                    minKey = entry.getKey();
+                    minEstimate = entry.getValue();
+                }
+            }
+            topKeyMap.remove(minKey);
+            demote(minKey);
+        }
+        topKeyMap.put(redisKey, estimate);
+        refreshTopKeyMinEstimate();
+
+        if (estimate >= sampledHotThreshold && hotKeys.add(redisKey)) {
+            logger.info("Redis hot key detected, key:{}, estimated count:{} in {}ms", redisKey,
+                    Math.round(estimate / sampleRate), slidingWindowMillis());
+        }
+    }
+
+    /**
+     * 滑动到下一个子窗口, 清空其中过期的计数, 重新估算 Top K 中的 Key
+     */
+    private void rotate() {
+        try {
+            int nextWindow = (currentWindow + 1) % windows.length;
+            windows[nextWindow].clear();
+            currentWindow = nextWindow;
+
+            int[] indexes = new int[RedisCountMinSketch.DEPTH];
+            synchronized (this) {
+                Iterator<Map.Entry<String, Long>> iterator = topKeyMap.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<String, Long> entry = iterator.next();
+                    windows[nextWindow].indexes(entry.getKey().hashCode(), indexes);
+                    long estimate = estimate(indexes);
+                    if (estimate <= RedisConstants.LONG_ZERO) {
+                        iterator.remove();
+                        demote(entry.getKey());
+                        continue;
+                    }
+                    entry.setValue(estimate);
+                    if (estimate < sampledHotThreshold) {
+                        demote(entry.getKey());
+                    }
+                }
+                refreshTopKeyMinEstimate();
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Redis hot key window rotate fail, message:{}", ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * 滑动窗口内的估算值, 每一行累加所有子窗口的计数后取最小值
+     */
+    private long estimate(int[] indexes) {
+        long estimate = Long.MAX_VALUE;
+        for (int index : indexes) {
+            long rowCount = RedisConstants.LONG_ZERO;
+            for (RedisCountMinSketch window : windows) {
+                rowCount += window.count(index);
+            }
+            estimate = Math.min(estimate, rowCount);
+        }
+        return estimate;
+    }
+
+    /**
+     * 不再是热点 Key
+     */
+    private void demote(String redisKey) {
+        if (hotKeys.remove(redisKey)) {
+            logger.info("Redis hot key cooled down, key:{}", redisKey);
+            if (promotedCache != null) {
+                promotedCache.invalidate(redisKey);
+            }
+        }
+    }
+
+    private static int slot(String redisKey) {
+        int hash = redisKey.hashCode();
+        return (hash ^ (hash >>> 16)) & (SEQUENCE_SLOTS - 1);
+    }
+
+    private void refreshTopKeyMinEstimate() {
+        if (topKeyMap.size() < topK) {
+            topKeyMinEstimate = RedisConstants.LONG_ZERO;
+            return;
+        }
+        long minEstimate = Long.MAX_VALUE;
+        for (Long estimate : topKeyMap.values()) {
+            minEstimate = Math.min(minEstimate, estimate);
+        }
+        topKeyMinEstimate = minEstimate;
+    }
+}
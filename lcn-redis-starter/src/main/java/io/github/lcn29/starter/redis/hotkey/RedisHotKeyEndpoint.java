@@ -0,0 +1,39 @@
+package io.github.lcn29.starter.redis.hotkey;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <pre>
+ * 热点 Key 的 actuator 端点, id 为 redishotkeys
+ * 需要引入 spring-boot-actuator, 通过 management.endpoints.web.exposure.include 暴露后访问 /actuator/redishotkeys
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 21:20
+ */
+@Endpoint(id = "redishotkeys")
+public class RedisHotKeyEndpoint {
+
+    private final RedisHotKeyDetector redisHotKeyDetector;
+
+    public RedisHotKeyEndpoint(RedisHotKeyDetector redisHotKeyDetector) {
+        this.redisHotKeyDetector = redisHotKeyDetector;
+    }
+
+    /**
+     * 滑动窗口内访问次数最多的 Key
+     *
+     * @return windowMillis: 滑动窗口的总时长, keys: 按照估算的访问次数从大到小排列的 Key
+     */
+    @ReadOperation
+    public Map<String, Object> hotKeys() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("windowMillis", redisHotKeyDetector.slidingWindowMillis());
+        result.put("keys", redisHotKeyDetector.snapshot());
+        return result;
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.lcn29.starter.redis.iterate;
+
+import java.util.List;
+
+/**
+ * <pre>
+ * 分批读取的一批数据
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 19:30
+ */
+public class RedisChunk<T, C> {
+
+    /**
+     * 这一批的数据, 不能包含 null, RedisChunkIterator 转换的 Stream 声明了 NONNULL
+     */
+    private final List<T> items;
+
+    /**
+     * 读取下一批使用的游标, LRANGE 为下一批的起始下标, SCAN 类命令为服务端返回的游标
+     */
+    private final C nextCursor;
+
+    /**
+     * 是否为最后一批
+     */
+    private final boolean finished;
+
+    public RedisChunk(List<T> items, C nextCursor, boolean finished) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.finished = finished;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public C getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+}
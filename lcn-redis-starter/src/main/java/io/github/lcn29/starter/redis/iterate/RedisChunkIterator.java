@@ -0,0 +1,115 @@
+package io.github.lcn29.starter.redis.iterate;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <pre>
+ * 分批读取的迭代器
+ * 每次只从 Redis 读取一批数据, 当前批次遍历完后才读取下一批, 内存中只保留当前这一批
+ * 开启预取时, 拿到当前批次后立即异步读取下一批, 遍历当前批次和读取下一批并行, 内存中最多保留两批
+ * 迭代器不是线程安全的, 不再使用时需要调用 close 或者关闭对应的 Stream, 取消正在进行的预取
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 19:35
+ */
+public class RedisChunkIterator<T, C> implements Iterator<T>, AutoCloseable {
+
+    /**
+     * 读取一批数据, 入参为游标, 第一批的游标为 initialCursor
+     */
+    private final Function<C, CompletableFuture<RedisChunk<T, C>>> chunkFetcher;
+
+    private final boolean prefetch;
+
+    private Iterator<T> currentIterator = Collections.emptyIterator();
+
+    private C nextCursor;
+
+    private boolean finished;
+
+    /**
+     * 正在读取的下一批
+     */
+    private CompletableFuture<RedisChunk<T, C>> nextChunkFuture;
+
+    public RedisChunkIterator(C initialCursor, boolean prefetch, Function<C, CompletableFuture<RedisChunk<T, C>>> chunkFetcher) {
+        this.nextCursor = initialCursor;
+        this.prefetch = prefetch;
+        this.chunkFetcher = chunkFetcher;
+    }
+
+    @Override
+    public boolean hasNext() {
+
+        while (!currentIterator.hasNext()) {
+            if (finished) {
+                return false;
+            }
+
+            CompletableFuture<RedisChunk<T, C>> chunkFuture = nextChunkFuture != null ? nextChunkFuture : chunkFetcher.apply(nextCursor);
+            nextChunkFuture = null;
+            RedisChunk<T, C> chunk = await(chunkFuture);
+
+            // 替换后上一批可以被回收
+            currentIterator = chunk.getItems().iterator();
+            nextCursor = chunk.getNextCursor();
+            finished = chunk.isFinished();
+
+            if (prefetch && !finished) {
+                nextChunkFuture = chunkFetcher.apply(nextCursor);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return currentIterator.next();
+    }
+
+    @Override
+    public void close() {
+        finished = true;
+        currentIterator = Collections.emptyIterator();
+        if (nextChunkFuture != null) {
+            nextChunkFuture.cancel(false);
+            nextChunkFuture = null;
+        }
+    }
+
+    /**
+     * 转换为顺序的 Stream, 关闭 Stream 时关闭迭代器
+     * Stream 声明了 NONNULL, 每一批的元素由读取方法保证不为 null
+     *
+     * @return Stream
+     */
+    public Stream<T> stream() {
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    private RedisChunk<T, C> await(CompletableFuture<RedisChunk<T, C>> chunkFuture) {
+        try {
+            return chunkFuture.join();
+        } catch (CompletionException ex) {
+            close();
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+}
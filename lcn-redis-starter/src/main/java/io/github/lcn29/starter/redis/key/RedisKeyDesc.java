@@ -1,5 +1,9 @@
 package io.github.lcn29.starter.redis.key;
 
+import io.github.lcn29.starter.redis.constants.RedisConstants;
+import io.github.lcn29.starter.redis.ratelimit.RedisRateLimit;
+import io.github.lcn29.starter.redis.replica.RedisReadRoute;
+
 /**
  * <pre>
  * Redis Key 枚举接口实现类
@@ -16,4 +20,46 @@ public interface RedisKeyDesc {
      * @return key 的描述
      */
     String desc();
+
+    /**
+     * 当前 Key 在本地近端缓存中的过期时间, 单位: 毫秒
+     * 小于等于 0 表示这一类 Key 不进入本地近端缓存
+     * 也是其他实例写入后本地最长读到旧值的时间, 只有能够接受这段时间内读到旧值的 Key 才开启
+     *
+     * @return 本地缓存过期时间
+     */
+    default long nearCacheExpireMillis() {
+        return RedisConstants.LONG_ZERO;
+    }
+
+    /**
+     * 当前 Key 默认的读取路由, 需要开启 lcn.redis.replica-read.enabled 才会路由到从节点
+     * 读多写少, 能够接受短暂复制延迟的 Key 可以返回 REPLICA_PREFERRED
+     *
+     * @return 读取路由
+     */
+    default RedisReadRoute readRoute() {
+        return RedisReadRoute.PRIMARY;
+    }
+
+    /**
+     * 当前 Key 是否延迟合并写入, 需要开启 lcn.redis.write-behind.enabled 才会生效
+     * 短时间内反复覆盖写入, 能够接受写入延迟和进程崩溃时丢失最后一次写入的 Key (例如进度, 最后访问时间) 可以返回 true
+     * 开启后 set/setWithExpire 先写入本地缓冲区, 由后台线程批量写入, 这类 Key 不要再使用其他的写入方法
+     *
+     * @return true: 延迟合并写入
+     */
+    default boolean writeBehind() {
+        return false;
+    }
+
+    /**
+     * 当前 Key 作为令牌桶时的限流规则, RedisUtil#tryAcquire 没有指定规则时使用
+     * 例如按照租户限流时, Key 为 租户 ID 拼接的限流 Key, 这里返回每个租户的速率
+     *
+     * @return 限流规则, 为空时这一类 Key 不能作为令牌桶使用
+     */
+    default RedisRateLimit rateLimit() {
+        return null;
+    }
 }
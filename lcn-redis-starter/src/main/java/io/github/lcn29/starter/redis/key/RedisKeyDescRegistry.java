@@ -0,0 +1,314 @@
+package io.github.lcn29.starter.redis.key;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.lcn29.starter.redis.constants.RedisConstants;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <pre>
+ * RedisKeyDesc 注册表
+ * 通过 RedisKeyDesc 格式中的静态片段, 将一个完整的 Redis Key 反查到它所属的 RedisKeyDesc
+ * 需要在启动时注册所有的格式 (lcn.redis.key-desc.register-classes 或者 register), 通过 RedisUtil.redisKey 拼接过的格式也会自动注册
+ * 反查时所有的静态片段需要依次匹配, 优先匹配占位符的值中不包含 ':' 的格式, 例如 user:1:orders 属于 user:%s:orders 而不是 user:%s
+ * 都不满足时再按照静态片段的长度从长到短匹配, 反查的结果缓存在有界的本地缓存中, 注册新的格式时清空
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 10:20
+ */
+public class RedisKeyDescRegistry {
+
+    /**
+     * 格式中的占位符
+     */
+    private final static char FORMAT_PLACEHOLDER = '%';
+
+    /**
+     * SCAN 匹配模式中需要转义的字符
+     */
+    private final static String GLOB_SPECIAL_CHARS = "*?[]\\";
+
+    /**
+     * 反查缓存中表示没有所属 RedisKeyDesc 的值, Caffeine 不能缓存 null
+     */
+    private final static KeyDescEntry UNRESOLVED = new KeyDescEntry(null, new String[]{""}, true);
+
+    /**
+     * 已经注册的 RedisKeyDesc
+     */
+    private final static Map<RedisKeyDesc, KeyDescEntry> REGISTERED_DESC_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * 用于反查的列表, 按照静态部分的长度倒序, 保证优先匹配更具体的格式
+     */
+    private static volatile KeyDescEntry[] RESOLVE_ENTRIES = new KeyDescEntry[0];
+
+    /**
+     * Redis Key 反查结果的缓存, 为空时不缓存
+     */
+    private static volatile Cache<String, KeyDescEntry> RESOLVE_CACHE =
+            Caffeine.newBuilder().maximumSize(10000L).build();
+
+    /**
+     * 注册 RedisKeyDesc
+     *
+     * @param redisKeyDescs 需要注册的 RedisKeyDesc, 一般为枚举的 values()
+     */
+    public static void register(RedisKeyDesc... redisKeyDescs) {
+        for (RedisKeyDesc redisKeyDesc : redisKeyDescs) {
+            if (redisKeyDesc == null || REGISTERED_DESC_MAP.containsKey(redisKeyDesc)) {
+                continue;
+            }
+            registerIfAbsent(redisKeyDesc);
+        }
+    }
+
+    /**
+     * 注册一个 RedisKeyDesc 枚举类的所有枚举值
+     *
+     * @param redisKeyDescClass RedisKeyDesc 的枚举类
+     * @throws IllegalArgumentException 不是枚举类
+     */
+    public static void register(Class<? extends RedisKeyDesc> redisKeyDescClass) {
+        RedisKeyDesc[] redisKeyDescs = redisKeyDescClass.getEnumConstants();
+        if (redisKeyDescs == null) {
+            throw new IllegalArgumentException("RedisKeyDesc class must be an enum, class: " + redisKeyDescClass.getName());
+        }
+        register(redisKeyDescs);
+    }
+
+    /**
+     * 注册多个 RedisKeyDesc
+     *
+     * @param redisKeyDescs 需要注册的 RedisKeyDesc
+     */
+    public static void registerAll(Collection<? extends RedisKeyDesc> redisKeyDescs) {
+        register(redisKeyDescs.toArray(new RedisKeyDesc[0]));
+    }
+
+    /**
+     * 配置反查结果的缓存
+     *
+     * @param maximumSize 最多缓存的 Key 的个数, 小于等于 0 时不缓存
+     */
+    public static void configureResolveCache(long maximumSize) {
+        RESOLVE_CACHE = maximumSize > RedisConstants.LONG_ZERO ? Caffeine.newBuilder().maximumSize(maximumSize).build() : null;
+    }
+
+    /**
+     * 通过完整的 Redis Key 反查所属的 RedisKeyDesc
+     *
+     * @param redisKey Redis Key
+     * @return 所属的 RedisKeyDesc, 找不到时返回 null
+     */
+    public static RedisKeyDesc resolve(String redisKey) {
+        if (redisKey == null) {
+            return null;
+        }
+        Cache<String, KeyDescEntry> resolveCache = RESOLVE_CACHE;
+        if (resolveCache == null) {
+            return doResolve(redisKey).redisKeyDesc;
+        }
+        return resolveCache.get(redisKey, RedisKeyDescRegistry::doResolve).redisKeyDesc;
+    }
+
+    /**
+     * 获取 RedisKeyDesc 的族名, 枚举为 类名.枚举名, 其他为 desc 本身
+     *
+     * @param redisKeyDesc RedisKeyDesc
+     * @return 族名
+     */
+    public static String family(RedisKeyDesc redisKeyDesc) {
+        if (redisKeyDesc instanceof Enum) {
+            Enum<?> enumDesc = (Enum<?>) redisKeyDesc;
+            return enumDesc.getDeclaringClass().getSimpleName() + "." + enumDesc.name();
+        }
+        return redisKeyDesc.desc();
+    }
+
+    /**
+     * 获取 RedisKeyDesc 对应的 SCAN 匹配模式, 占位符替换为 *, %% 还原为 %, 静态部分中的通配字符会被转义
+     *
+     * @param redisKeyDesc RedisKeyDesc
+     * @return SCAN 的 MATCH 模式
+     */
+    public static String scanPattern(RedisKeyDesc redisKeyDesc) {
+        String desc = redisKeyDesc.desc();
+        // 和反查使用同样的拆分, 保证扫描到的 Key 都能反查到这个 RedisKeyDesc
+        String[] segments = segments(desc);
+        StringBuilder pattern = new StringBuilder(desc.length() + 8);
+        for (int i = 0; i < segments.length; i++) {
+            if (i > RedisConstants.INT_ZERO) {
+                pattern.append('*');
+            }
+            String segment = segments[i];
+            for (int j = 0; j < segment.length(); j++) {
+                char current = segment.charAt(j);
+                if (GLOB_SPECIAL_CHARS.indexOf(current) >= 0) {
+                    pattern.append('\\');
+                }
+                pattern.append(current);
+            }
+        }
+        return pattern.toString();
+    }
+
+    private static KeyDescEntry doResolve(String redisKey) {
+        KeyDescEntry[] entries = RESOLVE_ENTRIES;
+        // 占位符的值中不包含分隔符的匹配更可信, 避免短的格式吞掉更长的 Key
+        for (KeyDescEntry entry : entries) {
+            if (entry.matches(redisKey, true)) {
+                return entry;
+            }
+        }
+        for (KeyDescEntry entry : entries) {
+            if (entry.matches(redisKey, false)) {
+                return entry;
+            }
+        }
+        return UNRESOLVED;
+    }
+
+    private static synchronized void registerIfAbsent(RedisKeyDesc redisKeyDesc) {
+
+        if (REGISTERED_DESC_MAP.containsKey(redisKeyDesc)) {
+            return;
+        }
+
+        // 没有占位符时, 整个 desc 就是一个固定的 key
+        String[] segments = segments(redisKeyDesc.desc());
+        KeyDescEntry entry = new KeyDescEntry(redisKeyDesc, segments, segments.length == 1);
+        REGISTERED_DESC_MAP.put(redisKeyDesc, entry);
+
+        // 静态部分为空的格式没法反查, 只注册不参与匹配
+        if (entry.staticLength == RedisConstants.INT_ZERO) {
+            return;
+        }
+
+        List<KeyDescEntry> entries = new ArrayList<>(RESOLVE_ENTRIES.length + 1);
+        for (KeyDescEntry item : RESOLVE_ENTRIES) {
+            entries.add(item);
+        }
+        entries.add(entry);
+        entries.sort(Comparator.comparingInt((KeyDescEntry item) -> item.staticLength).reversed());
+        RESOLVE_ENTRIES = entries.toArray(new KeyDescEntry[0]);
+
+        // 之前没有匹配到或者匹配到更短格式的 Key 需要重新反查
+        Cache<String, KeyDescEntry> resolveCache = RESOLVE_CACHE;
+        if (resolveCache != null) {
+            resolveCache.invalidateAll();
+        }
+    }
+
+    /**
+     * 把格式拆分为静态片段, 第 i 个占位符位于第 i 和 i + 1 个片段之间, %% 作为静态的 %
+     * 只包含 %s 和 %% 的格式和 RedisKeyTemplate 的解析一致, 其他格式说明符 (如 %d, %1$s, %-5s) 整体作为一个占位符
+     *
+     * @param desc 格式
+     * @return 静态片段
+     */
+    private static String[] segments(String desc) {
+        List<String> segmentList = RedisKeyTemplate.parse(desc);
+        if (segmentList != null) {
+            return segmentList.toArray(new String[0]);
+        }
+
+        segmentList = new ArrayList<>();
+        StringBuilder segment = new StringBuilder();
+        for (int i = 0; i < desc.length(); i++) {
+            char current = desc.charAt(i);
+            if (current != FORMAT_PLACEHOLDER) {
+                segment.append(current);
+                continue;
+            }
+            if (i + 1 < desc.length() && desc.charAt(i + 1) == FORMAT_PLACEHOLDER) {
+                segment.append(FORMAT_PLACEHOLDER);
+                i++;
+                continue;
+            }
+            // 跳过参数序号, 标志, 宽度和精度, 直到转换字符, 日期时间的转换 (%tY) 多一个字符
+            int conversion = i + 1;
+            while (conversion < desc.length() && !Character.isLetter(desc.charAt(conversion))) {
+                conversion++;
+            }
+            if (conversion < desc.length() && (desc.charAt(conversion) == 't' || desc.charAt(conversion) == 'T')) {
+                conversion++;
+            }
+            segmentList.add(segment.toString());
+            segment.setLength(0);
+            i = conversion;
+        }
+        segmentList.add(segment.toString());
+        return segmentList.toArray(new String[0]);
+    }
+
+    /**
+     * 注册表中的一项
+     */
+    private final static class KeyDescEntry {
+
+        private final RedisKeyDesc redisKeyDesc;
+
+        /**
+         * 静态片段, 第 i 个占位符位于第 i 和 i + 1 个片段之间
+         */
+        private final String[] segments;
+
+        private final boolean exact;
+
+        private final int staticLength;
+
+        private KeyDescEntry(RedisKeyDesc redisKeyDesc, String[] segments, boolean exact) {
+            this.redisKeyDesc = redisKeyDesc;
+            this.segments = segments;
+            this.exact = exact;
+            int length = RedisConstants.INT_ZERO;
+            for (String segment : segments) {
+                length += segment.length();
+            }
+            this.staticLength = length;
+        }
+
+        /**
+         * 所有的静态片段依次匹配, 占位符的值不能为空
+         *
+         * @param redisKey        Redis Key
+         * @param strictDelimiter 占位符的值中是否不允许包含 ':'
+         * @return true: 匹配
+         */
+        private boolean matches(String redisKey, boolean strictDelimiter) {
+            if (exact) {
+                return segments[0].equals(redisKey);
+            }
+            String first = segments[0];
+            String last = segments[segments.length - 1];
+            if (redisKey.length() < staticLength + segments.length - 1
+                    || !redisKey.startsWith(first) || !redisKey.endsWith(last)) {
+                return false;
+            }
+
+            int position = first.length();
+            int end = redisKey.length() - last.length();
+            for (int i = 1; i < segments.length; i++) {
+                // 最后一个片段已经通过 endsWith 匹配, 中间的片段从上一个占位符的值之后至少一个字符开始查找
+                int segmentStart = i == segments.length - 1 ? end : redisKey.indexOf(segments[i], position + 1);
+                if (segmentStart < position + 1 || segmentStart + segments[i].length() > redisKey.length()
+                        || (i < segments.length - 1 && segmentStart + segments[i].length() > end)) {
+                    return false;
+                }
+                if (strictDelimiter && redisKey.substring(position, segmentStart).contains(RedisConstants.REDIS_KEY_DELIMITER)) {
+                    return false;
+                }
+                position = segmentStart + segments[i].length();
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package io.github.lcn29.starter.redis.key;
+
+import io.github.lcn29.starter.redis.constants.RedisConstants;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.MissingFormatArgumentException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <pre>
+ * 预编译的 RedisKeyDesc 格式
+ * 格式只在第一次使用时解析, 拆分为静态片段和占位符, 拼接时不再解析格式, 也不创建 Formatter
+ * 只负责拼接 String 类型的 Key, 编码仍然由 Key 的序列化器完成, 和其他的 Key 走同样的读写路径
+ * 只支持 %s 和 %%, 包含其他格式说明符 (如 %d, %1$s) 的格式退回 String.format, 结果和 String.format 保持一致
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 20:35
+ */
+public final class RedisKeyTemplate {
+
+    private final static char FORMAT_PLACEHOLDER = '%';
+
+    private final static char STRING_CONVERSION = 's';
+
+    /**
+     * 已经编译的格式
+     */
+    private final static Map<RedisKeyDesc, RedisKeyTemplate> COMPILED_TEMPLATE_MAP = new ConcurrentHashMap<>();
+
+    private final String format;
+
+    /**
+     * 静态片段, 长度为占位符个数 + 1, 第 i 个占位符位于第 i 和 i + 1 个片段之间
+     */
+    private final String[] segments;
+
+    /**
+     * 静态片段的字符数之和
+     */
+    private final int staticLength;
+
+    /**
+     * 是否编译成功, 否则退回 String.format
+     */
+    private final boolean compiled;
+
+    private RedisKeyTemplate(String format) {
+        this.format = format;
+        List<String> segmentList = parse(format);
+        this.compiled = segmentList != null;
+        this.segments = compiled ? segmentList.toArray(new String[0]) : new String[]{format};
+        int length = RedisConstants.INT_ZERO;
+        for (String segment : segments) {
+            length += segment.length();
+        }
+        this.staticLength = length;
+    }
+
+    /**
+     * 获取 RedisKeyDesc 编译后的格式, 第一次获取时编译, 同时登记到 RedisKeyDescRegistry
+     *
+     * @param redisKeyDesc RedisKeyDesc
+     * @return 编译后的格式
+     */
+    public static RedisKeyTemplate of(RedisKeyDesc redisKeyDesc) {
+        RedisKeyTemplate template = COMPILED_TEMPLATE_MAP.get(redisKeyDesc);
+        if (template != null) {
+            return template;
+        }
+        // 登记 RedisKeyDesc, 用于从 Redis Key 反查所属的 RedisKeyDesc
+        RedisKeyDescRegistry.register(redisKeyDesc);
+        return COMPILED_TEMPLATE_MAP.computeIfAbsent(redisKeyDesc, desc -> new RedisKeyTemplate(desc.desc()));
+    }
+
+    /**
+     * 拼接 Key
+     *
+     * @param masks 依次替换占位符的值, 多余的值会被忽略
+     * @return Redis Key
+     */
+    public String format(String... masks) {
+        if (!compiled) {
+            return String.format(format, (Object[]) masks);
+        }
+        checkArguments(masks);
+
+        int capacity = staticLength;
+        for (int i = 0; i < segments.length - 1; i++) {
+            capacity += masks[i] == null ? 4 : masks[i].length();
+        }
+        StringBuilder redisKey = new StringBuilder(capacity);
+        redisKey.append(segments[0]);
+        for (int i = 1; i < segments.length; i++) {
+            redisKey.append(masks[i - 1]).append(segments[i]);
+        }
+        return redisKey.toString();
+    }
+
+    /**
+     * 占位符的个数
+     *
+     * @return 占位符的个数, 没有编译成功时返回 -1
+     */
+    public int placeholderCount() {
+        return compiled ? segments.length - 1 : -1;
+    }
+
+    /**
+     * 值的个数少于占位符时, 和 String.format 一样抛出异常
+     */
+    private void checkArguments(String[] masks) {
+        if (masks.length < segments.length - 1) {
+            throw new MissingFormatArgumentException("%s");
+        }
+    }
+
+    /**
+     * 解析格式
+     *
+     * @param format 格式
+     * @return 静态片段, 包含不支持的格式说明符时返回 null
+     */
+    static List<String> parse(String format) {
+        List<String> segmentList = new ArrayList<>();
+        StringBuilder segment = new StringBuilder();
+        for (int i = 0; i < format.length(); i++) {
+            char current = format.charAt(i);
+            if (current != FORMAT_PLACEHOLDER) {
+                segment.append(current);
+                continue;
+            }
+            if (i + 1 >= format.length()) {
+                return null;
+            }
+            char conversion = format.charAt(++i);
+            if (conversion == FORMAT_PLACEHOLDER) {
+                segment.append(FORMAT_PLACEHOLDER);
+            } else if (conversion == STRING_CONVERSION) {
+                segmentList.add(segment.toString());
+                segment.setLength(0);
+            } else {
+                return null;
+            }
+        }
+        segmentList.add(segment.toString());
+        return segmentList;
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.lcn29.starter.redis.lettuce;
+
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.ToByteBufEncoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <pre>
+ * 以 ByteBuf 为 Key 和 Value 的 Lettuce 编解码
+ * 写入时直接从调用方已经编码好的 ByteBuf 复制到 Lettuce 的输出缓冲区, 不经过 byte[] 和 ByteBuffer
+ * 编码不会修改传入 ByteBuf 的读写位置, 重连后命令重新编码时结果不变, 传入的 ByteBuf 必须在命令完成后才能释放, 见 RedisByteBufBatchWriter
+ * 只用于写入, 读取的结果复制为非池化的 ByteBuf
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 20:10
+ */
+public class ByteBufRedisCodec implements RedisCodec<ByteBuf, ByteBuf>, ToByteBufEncoder<ByteBuf, ByteBuf> {
+
+    public final static ByteBufRedisCodec INSTANCE = new ByteBufRedisCodec();
+
+    @Override
+    public void encodeKey(ByteBuf key, ByteBuf target) {
+        copy(key, target);
+    }
+
+    @Override
+    public void encodeValue(ByteBuf value, ByteBuf target) {
+        copy(value, target);
+    }
+
+    @Override
+    public int estimateSize(Object keyOrValue) {
+        return keyOrValue == null ? 0 : ((ByteBuf) keyOrValue).readableBytes();
+    }
+
+    @Override
+    public ByteBuffer encodeKey(ByteBuf key) {
+        return key.nioBuffer();
+    }
+
+    @Override
+    public ByteBuffer encodeValue(ByteBuf value) {
+        return value.nioBuffer();
+    }
+
+    @Override
+    public ByteBuf decodeKey(ByteBuffer bytes) {
+        return Unpooled.copiedBuffer(bytes);
+    }
+
+    @Override
+    public ByteBuf decodeValue(ByteBuffer bytes) {
+        return Unpooled.copiedBuffer(bytes);
+    }
+
+    private static void copy(ByteBuf source, ByteBuf target) {
+        if (source != null) {
+            target.writeBytes(source, source.readerIndex(), source.readableBytes());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.lcn29.starter.redis.lettuce;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.netty.buffer.ByteBuf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+/**
+ * <pre>
+ * Lettuce 原生连接
+ * 复用 LettuceConnectionFactory 创建的 RedisClient/RedisClusterClient, 单独建立一个共享的长连接
+ * Lettuce 的连接是线程安全的, 所有的异步命令共用这一个连接, 命令在同一个连接上自动流水线执行
+ * 连接在第一次使用时才建立
+ * 以 ByteBuf 为 Key 和 Value 的写入使用另外一个连接, 同样在第一次使用时建立
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 15:10
+ */
+public class LettuceNativeConnection {
+
+    private final static Logger logger = LoggerFactory.getLogger(LettuceNativeConnection.class);
+
+    private final LettuceConnectionFactory lettuceConnectionFactory;
+
+    private volatile StatefulConnection<byte[], byte[]> connection;
+
+    private volatile RedisClusterAsyncCommands<byte[], byte[]> asyncCommands;
+
+    private volatile StatefulConnection<ByteBuf, ByteBuf> byteBufConnection;
+
+    private volatile RedisClusterAsyncCommands<ByteBuf, ByteBuf> byteBufAsyncCommands;
+
+    public LettuceNativeConnection(LettuceConnectionFactory lettuceConnectionFactory) {
+        this.lettuceConnectionFactory = lettuceConnectionFactory;
+    }
+
+    /**
+     * 获取异步命令, 单节点/哨兵模式下实际类型为 RedisAsyncCommands, 集群模式下为 RedisAdvancedClusterAsyncCommands
+     *
+     * @return 异步命令
+     */
+    public RedisClusterAsyncCommands<byte[], byte[]> async() {
+        RedisClusterAsyncCommands<byte[], byte[]> commands = asyncCommands;
+        if (commands == null) {
+            commands = connect();
+        }
+        return commands;
+    }
+
+    /**
+     * 获取 Key 和 Value 为 ByteBuf 的异步命令, 编码好的 ByteBuf 直接复制到连接的输出缓冲区
+     *
+     * @return 异步命令
+     */
+    public RedisClusterAsyncCommands<ByteBuf, ByteBuf> byteBufAsync() {
+        RedisClusterAsyncCommands<ByteBuf, ByteBuf> commands = byteBufAsyncCommands;
+        if (commands == null) {
+            commands = connectByteBuf();
+        }
+        return commands;
+    }
+
+    /**
+     * 当前是否为集群模式
+     *
+     * @return true: 集群模式
+     */
+    public boolean isCluster() {
+        return lettuceConnectionFactory.isClusterAware();
+    }
+
+    public void destroy() {
+        if (connection != null) {
+            connection.close();
+        }
+        if (byteBufConnection != null) {
+            byteBufConnection.close();
+        }
+    }
+
+    private synchronized RedisClusterAsyncCommands<byte[], byte[]> connect() {
+
+        if (asyncCommands != null) {
+            return asyncCommands;
+        }
+
+        AbstractRedisClient redisClient = lettuceConnectionFactory.getRequiredNativeClient();
+        if (redisClient instanceof RedisClusterClient) {
+            StatefulRedisClusterConnection<byte[], byte[]> clusterConnection =
+                    ((RedisClusterClient) redisClient).connect(ByteArrayCodec.INSTANCE);
+            connection = clusterConnection;
+            asyncCommands = clusterConnection.async();
+        } else {
+            StatefulRedisConnection<byte[], byte[]> redisConnection = ((RedisClient) redisClient).connect(ByteArrayCodec.INSTANCE);
+            connection = redisConnection;
+            asyncCommands = redisConnection.async();
+        }
+
+        logger.info("Lcn Redis native lettuce connection init, cluster: {}", redisClient instanceof RedisClusterClient);
+        return asyncCommands;
+    }
+
+    private synchronized RedisClusterAsyncCommands<ByteBuf, ByteBuf> connectByteBuf() {
+
+        if (byteBufAsyncCommands != null) {
+            return byteBufAsyncCommands;
+        }
+
+        RedisCodec<ByteBuf, ByteBuf> codec = ByteBufRedisCodec.INSTANCE;
+        AbstractRedisClient redisClient = lettuceConnectionFactory.getRequiredNativeClient();
+        if (redisClient instanceof RedisClusterClient) {
+            StatefulRedisClusterConnection<ByteBuf, ByteBuf> clusterConnection = ((RedisClusterClient) redisClient).connect(codec);
+            byteBufConnection = clusterConnection;
+            byteBufAsyncCommands = clusterConnection.async();
+        } else {
+            StatefulRedisConnection<ByteBuf, ByteBuf> redisConnection = ((RedisClient) redisClient).connect(codec);
+            byteBufConnection = redisConnection;
+            byteBufAsyncCommands = redisConnection.async();
+        }
+
+        logger.info("Lcn Redis native lettuce ByteBuf connection init, cluster: {}", redisClient instanceof RedisClusterClient);
+        return byteBufAsyncCommands;
+    }
+}
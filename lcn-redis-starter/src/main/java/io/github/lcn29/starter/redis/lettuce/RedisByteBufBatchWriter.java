@@ -0,0 +1,198 @@
+package io.github.lcn29.starter.redis.lettuce;
+
+import io.github.lcn29.starter.redis.batch.RedisPipelineEntry;
+import io.github.lcn29.starter.redis.codec.RedisValueSerializer;
+import io.github.lcn29.starter.redis.constants.RedisConstants;
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * <pre>
+ * 直接编码到池化 ByteBuf 的批量写入
+ * Key 按照 UTF-8 直接写入池化的 ByteBuf, Value 通过 RedisValueSerializer 流式编码写入, 不产生中间的 byte[]
+ * Lettuce 通过 ByteBufRedisCodec 把它们复制到连接的输出缓冲区
+ * 和 byte[] 写入相比是否减少了分配和延迟还没有测量, 默认关闭, 开启前用 RedisWriteBenchmark 的 pooledBuffer 参数对比
+ * 集群模式下 Lettuce 的多 Key 命令会自己按照 slot 拆分, 单节点/哨兵模式下所有命令在同一个连接上自动流水线执行
+ * 写入方法等待这一批命令全部完成后返回, 等待超时时命令可能还在 Lettuce 中排队, 重连后会重新编码
+ * 因此每条命令发出前 retain 它用到的 ByteBuf, 在命令的 future 完成时释放, 调用方返回后释放的只是自己的引用
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 20:10
+ */
+public class RedisByteBufBatchWriter {
+
+    private final static Logger logger = LoggerFactory.getLogger(RedisByteBufBatchWriter.class);
+
+    private final LettuceNativeConnection lettuceNativeConnection;
+
+    private final RedisValueSerializer redisValueSerializer;
+
+    private final ByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+
+    private final int initialCapacity;
+
+    /**
+     * 等待一批命令完成的最长时间
+     */
+    private final Duration commandTimeout;
+
+    public RedisByteBufBatchWriter(LcnRedisProperty.PooledBuffer pooledBufferProperty,
+                                   LettuceNativeConnection lettuceNativeConnection,
+                                   RedisValueSerializer redisValueSerializer,
+                                   Duration commandTimeout) {
+        this.lettuceNativeConnection = lettuceNativeConnection;
+        this.redisValueSerializer = redisValueSerializer;
+        this.initialCapacity = pooledBufferProperty.getInitialCapacity();
+        this.commandTimeout = commandTimeout;
+        logger.info("Lcn Redis pooled buffer write init, initial capacity: {}", initialCapacity);
+    }
+
+    /**
+     * 编码一个写入的元素, 编码失败时释放已经申请的 ByteBuf, 返回的元素 Value 为空, 作为跳过的 Key 处理
+     *
+     * @param redisKey     Redis Key
+     * @param storeValue   存储的值
+     * @param expireMillis 过期时间, 单位: 毫秒, 小于等于 0 时不过期
+     * @return 写入的元素
+     */
+    public RedisPipelineEntry entry(String redisKey, Object storeValue, long expireMillis) {
+        ByteBuf keyBuf = encodeKey(redisKey);
+        ByteBuf valueBuf = encodeValue(redisKey, storeValue);
+        return new RedisPipelineEntry(redisKey, keyBuf, valueBuf, expireMillis);
+    }
+
+    /**
+     * 编码 Key
+     *
+     * @param redisKey Redis Key
+     * @return 池化的 ByteBuf, Key 为空时返回 null
+     */
+    public ByteBuf encodeKey(String redisKey) {
+        if (redisKey == null) {
+            return null;
+        }
+        ByteBuf keyBuf = allocator.buffer(ByteBufUtil.utf8MaxBytes(redisKey));
+        ByteBufUtil.writeUtf8(keyBuf, redisKey);
+        return keyBuf;
+    }
+
+    /**
+     * 编码 Value
+     * 编码失败时不抛出异常, 由分批写入作为跳过的 Key 记录下来, 和 byte[] 的写入路径保持一致
+     *
+     * @param redisKey   Redis Key, 用于失败时定位
+     * @param storeValue 存储的值
+     * @return 池化的 ByteBuf, 编码失败时返回 null
+     */
+    public ByteBuf encodeValue(String redisKey, Object storeValue) {
+        ByteBuf valueBuf = allocator.buffer(initialCapacity);
+        try {
+            redisValueSerializer.serialize(storeValue, valueBuf);
+            return valueBuf;
+        } catch (RuntimeException ex) {
+            valueBuf.release();
+            logger.warn("Redis value encode fail, key:{}, message:{}", redisKey, ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 一条 MSET 写入一批元素
+     *
+     * @param chunk 一批元素
+     */
+    public void mset(List<RedisPipelineEntry> chunk) {
+        Map<ByteBuf, ByteBuf> tuple = new LinkedHashMap<>(chunk.size() * 2);
+        chunk.forEach(entry -> tuple.put(entry.getKeyBuf(), entry.getValueBuf()));
+        CompletableFuture<String> future = dispatch(chunk, null, commands -> commands.mset(tuple));
+        RedisClusterBatchExecutor.await(Collections.singletonList(future), commandTimeout);
+    }
+
+    /**
+     * 每个元素一条 SET PX, 连续发出后等待全部完成
+     *
+     * @param chunk 一批元素
+     */
+    public void setWithExpire(List<RedisPipelineEntry> chunk) {
+        List<CompletableFuture<String>> futureList = new ArrayList<>(chunk.size());
+        for (RedisPipelineEntry entry : chunk) {
+            futureList.add(dispatch(Collections.singletonList(entry), null,
+                    commands -> commands.set(entry.getKeyBuf(), entry.getValueBuf(), SetArgs.Builder.px(entry.getExpireMillis()))));
+        }
+        RedisClusterBatchExecutor.await(futureList, commandTimeout);
+    }
+
+    /**
+     * 一条 RPUSH 把一批元素添加到 List 的右侧
+     *
+     * @param keyBuf Key
+     * @param chunk  一批元素
+     * @return 添加后 List 的长度
+     */
+    public long rpush(ByteBuf keyBuf, List<RedisPipelineEntry> chunk) {
+        ByteBuf[] valueBufs = new ByteBuf[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            valueBufs[i] = chunk.get(i).getValueBuf();
+        }
+        CompletableFuture<Long> future = dispatch(chunk, keyBuf, commands -> commands.rpush(keyBuf, valueBufs));
+        RedisClusterBatchExecutor.await(Collections.singletonList(future), commandTimeout);
+        Long length = future.join();
+        return length == null ? RedisConstants.LONG_ZERO : length;
+    }
+
+    /**
+     * 发出一条命令, 命令持有元素的 ByteBuf 的一个引用, 直到命令完成 (成功, 失败或者取消) 时才释放
+     * 等待超时不会释放, 避免 Lettuce 重连后重新编码时读到已经归还到池中的内存
+     *
+     * @param entries 命令用到的元素
+     * @param keyBuf  不属于元素的 Key, 没有时为 null
+     * @param command 发出命令
+     * @param <T>     命令的结果类型
+     * @return 命令的 future
+     */
+    private <T> CompletableFuture<T> dispatch(List<RedisPipelineEntry> entries, ByteBuf keyBuf,
+                                              Function<RedisClusterAsyncCommands<ByteBuf, ByteBuf>, RedisFuture<T>> command) {
+        entries.forEach(RedisPipelineEntry::retain);
+        if (keyBuf != null) {
+            keyBuf.retain();
+        }
+        Runnable release = () -> {
+            entries.forEach(RedisPipelineEntry::release);
+            if (keyBuf != null && keyBuf.refCnt() > 0) {
+                keyBuf.release();
+            }
+        };
+
+        CompletableFuture<T> future;
+        try {
+            future = command.apply(commands()).toCompletableFuture();
+        } catch (RuntimeException ex) {
+            release.run();
+            throw ex;
+        }
+        future.whenComplete((result, ex) -> release.run());
+        return future;
+    }
+
+    private RedisClusterAsyncCommands<ByteBuf, ByteBuf> commands() {
+        return lettuceNativeConnection.byteBufAsync();
+    }
+}
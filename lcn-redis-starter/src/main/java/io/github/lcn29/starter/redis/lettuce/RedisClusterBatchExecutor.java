@@ -0,0 +1,199 @@
+package io.github.lcn29.starter.redis.lettuce;
+
+import io.github.lcn29.starter.redis.constants.RedisConstants;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.cluster.SlotHash;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import org.springframework.data.redis.RedisSystemException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * <pre>
+ * Redis 集群模式下的批量操作
+ * 多 Key 命令先按照 hash slot 分组, 每个 slot 一条命令, 避免 CROSSSLOT 错误
+ * 所有分组的命令一次性异步发出, Lettuce 会把它们路由到各自节点的连接上, 每个节点的命令在自己的连接上流水线执行, 节点之间并行
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 17:10
+ */
+public class RedisClusterBatchExecutor {
+
+    private final LettuceNativeConnection lettuceNativeConnection;
+
+    /**
+     * 等待所有分组完成的最长时间
+     */
+    private final Duration commandTimeout;
+
+    public RedisClusterBatchExecutor(LettuceNativeConnection lettuceNativeConnection, Duration commandTimeout) {
+        this.lettuceNativeConnection = lettuceNativeConnection;
+        this.commandTimeout = commandTimeout;
+    }
+
+    /**
+     * 批量获取
+     *
+     * @param keyBytes Key 列表
+     * @return 和 Key 列表一一对应的 Value 列表, 不存在的为 null
+     */
+    public List<byte[]> mget(List<byte[]> keyBytes) {
+
+        RedisClusterAsyncCommands<byte[], byte[]> commands = lettuceNativeConnection.async();
+        Map<Integer, List<Integer>> slotIndexMap = groupBySlot(keyBytes);
+
+        List<byte[]> valueBytes = new ArrayList<>(Collections.nCopies(keyBytes.size(), null));
+        List<CompletableFuture<?>> futureList = new ArrayList<>(slotIndexMap.size());
+
+        for (List<Integer> indexList : slotIndexMap.values()) {
+            byte[][] slotKeys = new byte[indexList.size()][];
+            for (int i = 0; i < indexList.size(); i++) {
+                slotKeys[i] = keyBytes.get(indexList.get(i));
+            }
+            futureList.add(commands.mget(slotKeys).toCompletableFuture().thenAccept(keyValueList -> {
+                // 每个分组写入的下标互不重叠
+                for (int i = 0; i < keyValueList.size(); i++) {
+                    KeyValue<byte[], byte[]> keyValue = keyValueList.get(i);
+                    valueBytes.set(indexList.get(i), keyValue.hasValue() ? keyValue.getValue() : null);
+                }
+            }));
+        }
+
+        await(futureList, commandTimeout);
+        return valueBytes;
+    }
+
+    /**
+     * 批量设置, 不带过期时间
+     *
+     * @param keyBytes   Key 列表
+     * @param valueBytes 和 Key 列表一一对应的 Value 列表
+     */
+    public void mset(List<byte[]> keyBytes, List<byte[]> valueBytes) {
+
+        RedisClusterAsyncCommands<byte[], byte[]> commands = lettuceNativeConnection.async();
+        Map<Integer, List<Integer>> slotIndexMap = groupBySlot(keyBytes);
+
+        List<CompletableFuture<?>> futureList = new ArrayList<>(slotIndexMap.size());
+        for (List<Integer> indexList : slotIndexMap.values()) {
+            Map<byte[], byte[]> slotMap = new LinkedHashMap<>(indexList.size() * 2);
+            for (Integer index : indexList) {
+                slotMap.put(keyBytes.get(index), valueBytes.get(index));
+            }
+            futureList.add(commands.mset(slotMap).toCompletableFuture());
+        }
+        await(futureList, commandTimeout);
+    }
+
+    /**
+     * 批量设置, 每个 Key 使用各自的过期时间
+     *
+     * @param keyBytes     Key 列表
+     * @param valueBytes   和 Key 列表一一对应的 Value 列表
+     * @param expireMillis 和 Key 列表一一对应的过期时间, 单位: 毫秒
+     */
+    public void setWithExpire(List<byte[]> keyBytes, List<byte[]> valueBytes, List<Long> expireMillis) {
+
+        RedisClusterAsyncCommands<byte[], byte[]> commands = lettuceNativeConnection.async();
+        Map<Integer, List<Integer>> slotIndexMap = groupBySlot(keyBytes);
+
+        List<CompletableFuture<?>> futureList = new ArrayList<>(keyBytes.size());
+        for (List<Integer> indexList : slotIndexMap.values()) {
+            // 同一个 slot 的命令连续发出, 在所属节点的连接上流水线执行
+            for (Integer index : indexList) {
+                SetArgs setArgs = SetArgs.Builder.px(expireMillis.get(index));
+                futureList.add(commands.set(keyBytes.get(index), valueBytes.get(index), setArgs).toCompletableFuture());
+            }
+        }
+        await(futureList, commandTimeout);
+    }
+
+    /**
+     * 批量删除
+     *
+     * @param keyBytes Key 列表
+     * @return 删除的条数
+     */
+    public long del(List<byte[]> keyBytes) {
+
+        RedisClusterAsyncCommands<byte[], byte[]> commands = lettuceNativeConnection.async();
+        Map<Integer, List<Integer>> slotIndexMap = groupBySlot(keyBytes);
+
+        List<CompletableFuture<Long>> futureList = new ArrayList<>(slotIndexMap.size());
+        for (List<Integer> indexList : slotIndexMap.values()) {
+            byte[][] slotKeys = new byte[indexList.size()][];
+            for (int i = 0; i < indexList.size(); i++) {
+                slotKeys[i] = keyBytes.get(indexList.get(i));
+            }
+            futureList.add(commands.del(slotKeys).toCompletableFuture());
+        }
+        await(futureList, commandTimeout);
+
+        long deleteCount = RedisConstants.LONG_ZERO;
+        for (CompletableFuture<Long> future : futureList) {
+            Long count = future.join();
+            deleteCount += count == null ? RedisConstants.LONG_ZERO : count;
+        }
+        return deleteCount;
+    }
+
+    /**
+     * 向 List 的右侧批量添加元素, 单 Key 命令, 一次 RPUSH 发送所有的元素
+     *
+     * @param keyBytes   Key
+     * @param valueBytes 添加的元素
+     * @return 添加后 List 的长度
+     */
+    public long rpush(byte[] keyBytes, List<byte[]> valueBytes) {
+        CompletableFuture<Long> future = lettuceNativeConnection.async()
+                .rpush(keyBytes, valueBytes.toArray(new byte[0][])).toCompletableFuture();
+        await(Collections.singletonList(future), commandTimeout);
+        Long length = future.join();
+        return length == null ? RedisConstants.LONG_ZERO : length;
+    }
+
+    /**
+     * 按照 hash slot 分组
+     *
+     * @param keyBytes Key 列表
+     * @return key 为 slot, value 为属于这个 slot 的 Key 在列表中的下标
+     */
+    private Map<Integer, List<Integer>> groupBySlot(List<byte[]> keyBytes) {
+        Map<Integer, List<Integer>> slotIndexMap = new LinkedHashMap<>();
+        for (int i = 0; i < keyBytes.size(); i++) {
+            slotIndexMap.computeIfAbsent(SlotHash.getSlot(keyBytes.get(i)), slot -> new ArrayList<>()).add(i);
+        }
+        return slotIndexMap;
+    }
+
+    /**
+     * 等待所有的分组完成
+     *
+     * @param futureList     分组的结果
+     * @param commandTimeout 等待的最长时间
+     */
+    static void await(List<? extends CompletableFuture<?>> futureList, Duration commandTimeout) {
+        try {
+            CompletableFuture.allOf(futureList.toArray(new CompletableFuture[0]))
+                    .get(commandTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RedisSystemException("Redis batch command interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new RedisSystemException("Redis batch command fail: " + ex.getCause().getMessage(), ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new RedisSystemException("Redis batch command timeout after " + commandTimeout.toMillis() + "ms", ex);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package io.github.lcn29.starter.redis.lock;
+
+import io.github.lcn29.starter.redis.constants.RedisConstants;
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <pre>
+ * 分层锁
+ * 同一个 JVM 内的线程先在本地公平锁上排队, 只有拿到本地锁的线程才去竞争 Redis 锁, 减少 Redis 上的竞争, pub/sub 通知和重试
+ * 每个锁 Key 的 Redis 锁使用同一个合成的持有者 ID, 所以 Redis 锁可以在本地线程之间直接交接, 不需要先在 Redis 上释放
+ * 只有自动续期 (leaseTime 小于等于 0) 的锁才会交接, 指定了持有时间的锁每次都在 Redis 上释放, 保证持有时间从加锁开始计算
+ * 交接也只交给自动续期的等待者, 指定了持有时间的等待者拿到本地锁时, 先在 Redis 上释放交接过来的锁, 再按照自己的持有时间加锁
+ * 连续交接超过 maxHandoffs 次后释放 Redis 锁, 避免其他实例一直拿不到锁
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 18:30
+ */
+public class RedisHierarchicalLock {
+
+    private final static Logger logger = LoggerFactory.getLogger(RedisHierarchicalLock.class);
+
+    /**
+     * 合成的 Redis 锁持有者 ID, 使用负数, 不会和真实的线程 ID 冲突
+     */
+    private final static AtomicLong OWNER_ID_SEQUENCE = new AtomicLong();
+
+    private final RedissonClient redissonClient;
+
+    private final int maxHandoffs;
+
+    /**
+     * 每个锁 Key 的本地状态, 没有线程持有和等待时移除
+     */
+    private final Map<String, LocalLockEntry> localLockEntryMap = new ConcurrentHashMap<>();
+
+    public RedisHierarchicalLock(LcnRedisProperty.LocalLock localLockProperty, RedissonClient redissonClient) {
+        this.redissonClient = redissonClient;
+        this.maxHandoffs = localLockProperty.getMaxHandoffs();
+    }
+
+    /**
+     * 尝试获取锁, 最多等待 waitTime
+     *
+     * @param redisLockKey 锁的 key
+     * @param waitTime     等待锁的最长时间
+     * @param leaseTime    锁的持有时间, 小于等于 0 时由 Redisson 自动续期
+     * @param timeUnit     时间单位
+     * @return true: 上锁成功, false: 等待超时
+     * @throws InterruptedException 等待时被中断
+     */
+    public boolean tryLock(String redisLockKey, long waitTime, long leaseTime, TimeUnit timeUnit) throws InterruptedException {
+
+        long deadline = System.nanoTime() + timeUnit.toNanos(waitTime);
+        LocalLockEntry entry = retain(redisLockKey);
+        boolean locked = false;
+        CompletableFuture<Boolean> remoteFuture = null;
+
+        try {
+            // 本地重入, Redis 锁已经在当前 JVM 中
+            if (entry.localLock.isHeldByCurrentThread()) {
+                entry.localLock.lock();
+                locked = true;
+                return true;
+            }
+
+            if (!entry.localLock.tryLock(waitTime, timeUnit)) {
+                return false;
+            }
+
+            // 上一个本地持有者没有释放 Redis 锁, 自动续期的等待者直接交接
+            if (entry.remoteHeld) {
+                if (leaseTime <= RedisConstants.LONG_ZERO) {
+                    locked = true;
+                    return true;
+                }
+                // 指定了持有时间, 不能继承自动续期的锁, 在 Redis 上释放后重新加锁, 期间其他实例可能先拿到锁
+                entry.remoteHeld = false;
+                redisLock(redisLockKey).unlockAsync(entry.ownerId).toCompletableFuture().get();
+            }
+
+            long remainNanos = Math.max(deadline - System.nanoTime(), RedisConstants.LONG_ZERO);
+            long lockLeaseTime = leaseTime > RedisConstants.LONG_ZERO ? timeUnit.toMillis(leaseTime) : RedisConstants.LONG_MINUS_ONE;
+            remoteFuture = redisLock(redisLockKey)
+                    .tryLockAsync(TimeUnit.NANOSECONDS.toMillis(remainNanos), lockLeaseTime, TimeUnit.MILLISECONDS, entry.ownerId)
+                    .toCompletableFuture();
+            boolean remoteLocked = remoteFuture.get();
+
+            if (!remoteLocked) {
+                entry.localLock.unlock();
+                return false;
+            }
+
+            entry.remoteHeld = true;
+            entry.autoRenew = leaseTime <= RedisConstants.LONG_ZERO;
+            entry.handoffCount = RedisConstants.INT_ZERO;
+            locked = true;
+            return true;
+        } catch (ExecutionException ex) {
+            // 客户端超时时 Redis 上可能已经加锁成功, 持有本地锁时本地没有其他线程持有 Redis 锁, 在交出本地锁之前释放
+            unlockQuietly(redisLockKey, entry.ownerId);
+            entry.localLock.unlock();
+            logger.warn("Get Redis's Lock fail, redisLockKey:{}, message:{}", redisLockKey, ex.getCause().getMessage(), ex.getCause());
+            return false;
+        } catch (InterruptedException ex) {
+            if (remoteFuture != null) {
+                abandon(redisLockKey, entry.ownerId, remoteFuture);
+            }
+            if (entry.localLock.isHeldByCurrentThread()) {
+                entry.localLock.unlock();
+            }
+            throw ex;
+        } finally {
+            if (!locked) {
+                release(redisLockKey, entry);
+            }
+        }
+    }
+
+    /**
+     * 释放锁
+     * 本地还有等待的线程, 并且没有超过连续交接的次数时, Redis 锁直接交给下一个本地线程
+     *
+     * @param redisLockKey 锁的 key
+     * @return true: 释放成功, false: 当前线程没有持有这个锁
+     */
+    public boolean unlock(String redisLockKey) {
+
+        LocalLockEntry entry = localLockEntryMap.get(redisLockKey);
+        if (entry == null || !entry.localLock.isHeldByCurrentThread()) {
+            return false;
+        }
+
+        try {
+            // 重入的释放只减少本地计数
+            if (entry.localLock.getHoldCount() > 1) {
+                return true;
+            }
+
+            boolean handoff = entry.autoRenew && entry.handoffCount < maxHandoffs && entry.localLock.hasQueuedThreads();
+            if (handoff) {
+                entry.handoffCount++;
+            } else {
+                entry.remoteHeld = false;
+                redisLock(redisLockKey).unlockAsync(entry.ownerId).toCompletableFuture().join();
+            }
+            return true;
+        } finally {
+            entry.localLock.unlock();
+            release(redisLockKey, entry);
+        }
+    }
+
+    /**
+     * 当前线程是否持有锁
+     *
+     * @param redisLockKey 锁的 key
+     * @return true: 持有
+     */
+    public boolean isHeldByCurrentThread(String redisLockKey) {
+        LocalLockEntry entry = localLockEntryMap.get(redisLockKey);
+        return entry != null && entry.localLock.isHeldByCurrentThread();
+    }
+
+    /**
+     * 等待 Redis 锁时被中断, 加锁的请求还在执行, 之后加锁成功时释放这一次加锁, 避免自动续期的锁一直被合成的持有者持有
+     * 本地的其他线程使用同一个持有者 ID, Redis 锁按照重入计数, 这里的释放只抵消这一次加锁
+     *
+     * @param redisLockKey 锁的 key
+     * @param ownerId      Redis 锁的持有者 ID
+     * @param remoteFuture 还没有完成的加锁
+     */
+    private void abandon(String redisLockKey, long ownerId, CompletableFuture<Boolean> remoteFuture) {
+        remoteFuture.whenComplete((remoteLocked, ex) -> {
+            if (Boolean.TRUE.equals(remoteLocked)) {
+                redisLock(redisLockKey).unlockAsync(ownerId);
+            } else if (ex != null) {
+                logger.warn("Abandoned Redis's Lock fail, redisLockKey:{}, message:{}", redisLockKey, ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 释放可能没有加锁成功的 Redis 锁, 没有持有时 Redisson 抛出 IllegalMonitorStateException, 直接忽略
+     *
+     * @param redisLockKey 锁的 key
+     * @param ownerId      Redis 锁的持有者 ID
+     */
+    private void unlockQuietly(String redisLockKey, long ownerId) {
+        try {
+            redisLock(redisLockKey).unlockAsync(ownerId).toCompletableFuture().join();
+        } catch (RuntimeException ex) {
+            logger.debug("Redis's Lock not held after failed lock, redisLockKey:{}, message:{}", redisLockKey, ex.getMessage());
+        }
+    }
+
+    private RLock redisLock(String redisLockKey) {
+        return redissonClient.getLock(redisLockKey);
+    }
+
+    /**
+     * 增加锁 Key 的引用计数, 持有和等待的线程都会计数
+     *
+     * @param redisLockKey 锁的 key
+     * @return 本地状态
+     */
+    private LocalLockEntry retain(String redisLockKey) {
+        return localLockEntryMap.compute(redisLockKey, (key, entry) -> {
+            LocalLockEntry lockEntry = entry == null ? new LocalLockEntry() : entry;
+            lockEntry.refCount++;
+            return lockEntry;
+        });
+    }
+
+    /**
+     * 减少锁 Key 的引用计数, 没有引用时移除
+     * 交接后下一个线程等待超时放弃时, 可能没有线程再持有 Redis 锁, 这里兜底释放
+     *
+     * @param redisLockKey 锁的 key
+     * @param lockEntry    本地状态
+     */
+    private void release(String redisLockKey, LocalLockEntry lockEntry) {
+        localLockEntryMap.computeIfPresent(redisLockKey, (key, entry) -> {
+            if (entry != lockEntry || --entry.refCount > RedisConstants.INT_ZERO) {
+                return entry;
+            }
+            if (entry.remoteHeld) {
+                entry.remoteHeld = false;
+                redisLock(redisLockKey).unlockAsync(entry.ownerId);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 锁 Key 在当前 JVM 中的状态
+     */
+    private final static class LocalLockEntry {
+
+        /**
+         * 本地公平锁, 按照等待的顺序获取
+         */
+        private final ReentrantLock localLock = new ReentrantLock(true);
+
+        /**
+         * Redis 锁的持有者 ID
+         */
+        private final long ownerId = -OWNER_ID_SEQUENCE.incrementAndGet();
+
+        /**
+         * 持有和等待的线程数, 在 ConcurrentHashMap#compute 中修改
+         */
+        private int refCount;
+
+        /**
+         * Redis 锁是否还在当前 JVM 手中
+         */
+        private volatile boolean remoteHeld;
+
+        /**
+         * Redis 锁是否自动续期, 只有自动续期的锁才会交接
+         */
+        private volatile boolean autoRenew;
+
+        /**
+         * 连续交接的次数, 只有本地锁的持有者修改
+         */
+        private int handoffCount;
+    }
+}
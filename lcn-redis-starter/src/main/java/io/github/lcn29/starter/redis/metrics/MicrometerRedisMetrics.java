@@ -0,0 +1,296 @@
+package io.github.lcn29.starter.redis.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.lcn29.starter.redis.key.RedisKeyDesc;
+import io.github.lcn29.starter.redis.key.RedisKeyDescRegistry;
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * <pre>
+ * 基于 Micrometer 的指标记录
+ * lcn.redis.operation              操作耗时, 标签: operation, family
+ * lcn.redis.operation.errors       操作失败次数, 标签: operation, family, exception
+ * lcn.redis.read                   读取次数, 标签: operation, family, result (hit/miss)
+ * lcn.redis.payload.size           写入的 Value 序列化后的大小, 标签: family
+ * lcn.redis.pipeline.chunk.commands / lcn.redis.pipeline.chunk.bytes  分批写入每批的命令数和字节数
+ * lcn.redis.lock.wait              等待锁的耗时, 标签: family, acquired
+ * lcn.redis.lock.hold              持有锁的时间, 标签: family, 重入时从第一次拿到锁记录到最后一次释放, 超过 lcn.redis.metrics.max-lock-hold-millis 的不记录
+ * lcn.redis.write.behind.depth     延迟合并写入缓冲区中的 Key 的个数
+ * lcn.redis.write.behind.writes    延迟合并写入的次数, 标签: family, result (buffered/coalesced/overflow)
+ * lcn.redis.write.behind.flush     延迟合并写入每批的耗时, 标签: result (success/failure)
+ * lcn.redis.write.behind.flush.keys  延迟合并写入每批的 Key 的个数
+ * lcn.redis.rate.limit             限流获取令牌的次数, 标签: family, result (local/remote/rejected)
+ * lcn.redis.sequence.fetch         获取号段的耗时, 标签: family, mode (async/sync)
+ * lcn.redis.sequence.step          获取的号段的长度, 标签: family
+ * family 为 Key 所属的 RedisKeyDesc 族, 找不到时为 unknown, 创建过的 Meter 会被缓存, 记录时不需要再构建
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 20:55
+ */
+public class MicrometerRedisMetrics implements RedisMetrics {
+
+    private final static String UNKNOWN_FAMILY = "unknown";
+
+    private final static String NONE_FAMILY = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean histogram;
+
+    private final Map<String, Map<String, Timer>> operationTimerMap = new ConcurrentHashMap<>();
+
+    private final Map<String, Map<String, Counter>> hitCounterMap = new ConcurrentHashMap<>();
+
+    private final Map<String, Map<String, Counter>> missCounterMap = new ConcurrentHashMap<>();
+
+    private final Map<String, Timer> lockAcquiredTimerMap = new ConcurrentHashMap<>();
+
+    private final Map<String, Timer> lockTimeoutTimerMap = new ConcurrentHashMap<>();
+
+    private final Map<String, Timer> lockHoldTimerMap = new ConcurrentHashMap<>();
+
+    private final Map<String, Map<String, Counter>> errorCounterMap = new ConcurrentHashMap<>();
+
+    /**
+     * 持有中的锁, key 为 锁的 key@线程 ID, value 为拿到锁的时间和重入次数
+     * 锁过期或者在其他线程释放时记录不会被移除, 写入后超过 maxLockHoldMillis 过期, 同时限制最大个数, 不会一直增长
+     */
+    private final Cache<String, LockHold> lockHoldCache;
+
+    private final Map<String, DistributionSummary> payloadSizeSummaryMap = new ConcurrentHashMap<>();
+
+    private final DistributionSummary chunkCommandsSummary;
+
+    private final DistributionSummary chunkBytesSummary;
+
+    private final Map<String, Map<String, Counter>> writeBehindCounterMap = new ConcurrentHashMap<>();
+
+    private final Timer writeBehindSuccessTimer;
+
+    private final Timer writeBehindFailureTimer;
+
+    private final DistributionSummary writeBehindKeysSummary;
+
+    private final Map<String, Map<String, Counter>> rateLimitCounterMap = new ConcurrentHashMap<>();
+
+    private final Map<String, Map<String, Timer>> sequenceFetchTimerMap = new ConcurrentHashMap<>();
+
+    private final Map<String, DistributionSummary> sequenceStepSummaryMap = new ConcurrentHashMap<>();
+
+    public MicrometerRedisMetrics(MeterRegistry meterRegistry, LcnRedisProperty.Metrics metricsProperty) {
+        this.meterRegistry = meterRegistry;
+        this.histogram = metricsProperty.getHistogram();
+        this.lockHoldCache = Caffeine.newBuilder()
+                .expireAfterWrite(Math.max(metricsProperty.getMaxLockHoldMillis(), 1L), TimeUnit.MILLISECONDS)
+                .maximumSize(Math.max(metricsProperty.getMaxTrackedLocks(), 1L))
+                .build();
+        this.chunkCommandsSummary = DistributionSummary.builder("lcn.redis.pipeline.chunk.commands")
+                .description("Commands per pipeline chunk").register(meterRegistry);
+        this.chunkBytesSummary = DistributionSummary.builder("lcn.redis.pipeline.chunk.bytes")
+                .baseUnit("bytes").description("Bytes per pipeline chunk").register(meterRegistry);
+        this.writeBehindSuccessTimer = timer("lcn.redis.write.behind.flush", "result", "success");
+        this.writeBehindFailureTimer = timer("lcn.redis.write.behind.flush", "result", "failure");
+        this.writeBehindKeysSummary = DistributionSummary.builder("lcn.redis.write.behind.flush.keys")
+                .description("Keys per write behind flush batch").register(meterRegistry);
+    }
+
+    @Override
+    public long startNanos() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void recordOperation(String operation, String redisKey, long startNanos) {
+        long costNanos = System.nanoTime() - startNanos;
+        String family = family(redisKey);
+        operationTimerMap.computeIfAbsent(operation, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(family, key -> timer("lcn.redis.operation", "operation", operation, "family", family))
+                .record(costNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordError(String operation, String redisKey, Throwable ex) {
+        String family = family(redisKey);
+        String exception = ex.getClass().getSimpleName();
+        errorCounterMap.computeIfAbsent(operation + "@" + exception, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(family, key -> Counter.builder("lcn.redis.operation.errors")
+                        .tag("operation", operation)
+                        .tag("family", family)
+                        .tag("exception", exception)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    @Override
+    public void recordRead(String operation, String redisKey, int hitCount, int missCount) {
+        String family = family(redisKey);
+        if (hitCount > 0) {
+            readCounter(hitCounterMap, operation, family, "hit").increment(hitCount);
+        }
+        if (missCount > 0) {
+            readCounter(missCounterMap, operation, family, "miss").increment(missCount);
+        }
+    }
+
+    @Override
+    public void recordPayloadSize(String redisKey, int byteSize) {
+        String family = family(redisKey);
+        payloadSizeSummaryMap.computeIfAbsent(family, key -> DistributionSummary.builder("lcn.redis.payload.size")
+                        .baseUnit("bytes")
+                        .description("Serialized redis value size")
+                        .tag("family", family)
+                        .publishPercentileHistogram(histogram)
+                        .register(meterRegistry))
+                .record(byteSize);
+    }
+
+    @Override
+    public void recordPipelineChunk(int commandCount, long byteSize) {
+        chunkCommandsSummary.record(commandCount);
+        chunkBytesSummary.record(byteSize);
+    }
+
+    @Override
+    public void recordLockWait(String redisLockKey, long startNanos, boolean acquired) {
+        long now = System.nanoTime();
+        String family = family(redisLockKey);
+        Map<String, Timer> timerMap = acquired ? lockAcquiredTimerMap : lockTimeoutTimerMap;
+        timerMap.computeIfAbsent(family, key -> timer("lcn.redis.lock.wait", "family", family, "acquired", String.valueOf(acquired)))
+                .record(now - startNanos, TimeUnit.NANOSECONDS);
+        if (acquired) {
+            // 重入时保留第一次拿到锁的时间, 只增加重入次数
+            lockHoldCache.asMap().merge(holderKey(redisLockKey), new LockHold(now, 1),
+                    (oldHold, newHold) -> new LockHold(oldHold.acquiredNanos, oldHold.holdCount + 1));
+        }
+    }
+
+    @Override
+    public void recordLockRelease(String redisLockKey) {
+        LockHold[] releasedHold = new LockHold[1];
+        lockHoldCache.asMap().computeIfPresent(holderKey(redisLockKey), (key, lockHold) -> {
+            if (lockHold.holdCount > 1) {
+                return new LockHold(lockHold.acquiredNanos, lockHold.holdCount - 1);
+            }
+            releasedHold[0] = lockHold;
+            return null;
+        });
+        if (releasedHold[0] == null) {
+            return;
+        }
+        String family = family(redisLockKey);
+        lockHoldTimerMap.computeIfAbsent(family, key -> timer("lcn.redis.lock.hold", "family", family))
+                .record(System.nanoTime() - releasedHold[0].acquiredNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void bindWriteBehindDepth(IntSupplier depthSupplier) {
+        // Gauge 默认弱引用被观察的对象, 这里的 IntSupplier 没有其他引用, 需要强引用
+        Gauge.builder("lcn.redis.write.behind.depth", depthSupplier, IntSupplier::getAsInt)
+                .description("Keys waiting in the write behind buffer")
+                .strongReference(true)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void recordWriteBehind(String redisKey, String result) {
+        String family = family(redisKey);
+        writeBehindCounterMap.computeIfAbsent(result, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(family, key -> Counter.builder("lcn.redis.write.behind.writes")
+                        .tag("family", family)
+                        .tag("result", result)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    @Override
+    public void recordWriteBehindFlush(int keyCount, int failedCount, long startNanos) {
+        Timer timer = failedCount > 0 ? writeBehindFailureTimer : writeBehindSuccessTimer;
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        writeBehindKeysSummary.record(keyCount);
+    }
+
+    @Override
+    public void recordRateLimit(String redisKey, String result) {
+        String family = family(redisKey);
+        rateLimitCounterMap.computeIfAbsent(result, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(family, key -> Counter.builder("lcn.redis.rate.limit")
+                        .tag("family", family)
+                        .tag("result", result)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    @Override
+    public void recordSequenceFetch(String redisKey, long step, boolean async, long startNanos) {
+        long costNanos = System.nanoTime() - startNanos;
+        String family = family(redisKey);
+        String mode = async ? "async" : "sync";
+        sequenceFetchTimerMap.computeIfAbsent(mode, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(family, key -> timer("lcn.redis.sequence.fetch", "family", family, "mode", mode))
+                .record(costNanos, TimeUnit.NANOSECONDS);
+        sequenceStepSummaryMap.computeIfAbsent(family, key -> DistributionSummary.builder("lcn.redis.sequence.step")
+                        .tag("family", family)
+                        .description("Ids per sequence segment")
+                        .register(meterRegistry))
+                .record(step);
+    }
+
+    private Counter readCounter(Map<String, Map<String, Counter>> counterMap, String operation, String family, String result) {
+        return counterMap.computeIfAbsent(operation, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(family, key -> Counter.builder("lcn.redis.read")
+                        .tag("operation", operation)
+                        .tag("family", family)
+                        .tag("result", result)
+                        .register(meterRegistry));
+    }
+
+    private Timer timer(String name, String... tags) {
+        Timer.Builder builder = Timer.builder(name).tags(tags);
+        if (histogram) {
+            builder.publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(100_000L))
+                    .maximumExpectedValue(Duration.ofSeconds(10L));
+        }
+        return builder.register(meterRegistry);
+    }
+
+    private static String family(String redisKey) {
+        if (redisKey == null) {
+            return NONE_FAMILY;
+        }
+        RedisKeyDesc redisKeyDesc = RedisKeyDescRegistry.resolve(redisKey);
+        return redisKeyDesc == null ? UNKNOWN_FAMILY : RedisKeyDescRegistry.family(redisKeyDesc);
+    }
+
+    private static String holderKey(String redisLockKey) {
+        return redisLockKey + "@" + Thread.currentThread().getId();
+    }
+
+    /**
+     * 持有中的锁, 第一次拿到锁的时间和重入次数
+     */
+    private final static class LockHold {
+
+        private final long acquiredNanos;
+
+        private final int holdCount;
+
+        private LockHold(long acquiredNanos, int holdCount) {
+            this.acquiredNanos = acquiredNanos;
+            this.holdCount = holdCount;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package io.github.lcn29.starter.redis.metrics;
+
+import io.github.lcn29.starter.redis.constants.RedisConstants;
+
+import java.util.function.IntSupplier;
+
+/**
+ * <pre>
+ * Redis 操作的指标记录
+ * 接口中不引用 Micrometer 的类型, 没有引入 Micrometer 时也可以加载, 默认的 NOOP 实现不读取时钟, 也不创建对象
+ * 指标的标签使用 Redis Key 所属的 RedisKeyDesc 族, 不使用原始的 Key, 保证标签的取值个数有限
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 20:55
+ */
+public interface RedisMetrics {
+
+    /**
+     * 不记录任何指标
+     */
+    RedisMetrics NOOP = new RedisMetrics() {
+    };
+
+    /**
+     * 获取操作开始的时间
+     *
+     * @return System.nanoTime(), NOOP 时返回 0
+     */
+    default long startNanos() {
+        return RedisConstants.LONG_ZERO;
+    }
+
+    /**
+     * 记录一次操作的耗时, 成功和失败都会记录
+     *
+     * @param operation  操作名称, 一般为 RedisUtil 的方法名
+     * @param redisKey   操作的 Key, 批量操作为第一个 Key, 可以为空
+     * @param startNanos startNanos 返回的开始时间
+     */
+    default void recordOperation(String operation, String redisKey, long startNanos) {
+    }
+
+    /**
+     * 记录一次失败
+     *
+     * @param operation 操作名称
+     * @param redisKey  操作的 Key, 可以为空
+     * @param ex        异常
+     */
+    default void recordError(String operation, String redisKey, Throwable ex) {
+    }
+
+    /**
+     * 记录读取的命中和未命中
+     *
+     * @param operation 操作名称
+     * @param redisKey  操作的 Key, 批量操作为第一个 Key
+     * @param hitCount  命中的个数
+     * @param missCount 未命中的个数
+     */
+    default void recordRead(String operation, String redisKey, int hitCount, int missCount) {
+    }
+
+    /**
+     * 记录写入的 Value 序列化后的大小
+     *
+     * @param redisKey 写入的 Key
+     * @param byteSize 字节数
+     */
+    default void recordPayloadSize(String redisKey, int byteSize) {
+    }
+
+    /**
+     * 记录分批写入的一批
+     *
+     * @param commandCount 命令数
+     * @param byteSize     字节数
+     */
+    default void recordPipelineChunk(int commandCount, long byteSize) {
+    }
+
+    /**
+     * 记录等待锁的耗时
+     *
+     * @param redisLockKey 锁的 key
+     * @param startNanos   startNanos 返回的开始时间
+     * @param acquired     是否拿到了锁
+     */
+    default void recordLockWait(String redisLockKey, long startNanos, boolean acquired) {
+    }
+
+    /**
+     * 记录释放锁, 和同一个线程第一次拿到锁的时间相减得到持有时间, 重入的锁在最后一次释放时记录
+     * 释放失败时也需要调用, 减少这个线程的重入次数
+     *
+     * @param redisLockKey 锁的 key
+     */
+    default void recordLockRelease(String redisLockKey) {
+    }
+
+    /**
+     * 注册延迟合并写入缓冲区的深度
+     *
+     * @param depthSupplier 缓冲区中的 Key 的个数
+     */
+    default void bindWriteBehindDepth(IntSupplier depthSupplier) {
+    }
+
+    /**
+     * 记录一次延迟合并写入
+     *
+     * @param redisKey 写入的 Key
+     * @param result   buffered: 放入缓冲区, coalesced: 覆盖了缓冲区中同一个 Key 的写入, overflow: 缓冲区满了, 同步写入
+     */
+    default void recordWriteBehind(String redisKey, String result) {
+    }
+
+    /**
+     * 记录延迟合并写入的一次批量写入
+     *
+     * @param keyCount    这一批的 Key 的个数
+     * @param failedCount 写入失败的 Key 的个数
+     * @param startNanos  startNanos 返回的开始时间
+     */
+    default void recordWriteBehindFlush(int keyCount, int failedCount, long startNanos) {
+    }
+
+    /**
+     * 记录一次限流的令牌获取
+     *
+     * @param redisKey 令牌桶的 Key
+     * @param result   local: 从本地租约获取, remote: 从 Redis 获取, rejected: 被限流
+     */
+    default void recordRateLimit(String redisKey, String result) {
+    }
+
+    /**
+     * 记录一次号段的获取
+     *
+     * @param redisKey   序列的 Key
+     * @param step       号段的长度
+     * @param async      true: 提前异步获取, false: 号段用完时同步获取
+     * @param startNanos startNanos 返回的开始时间
+     */
+    default void recordSequenceFetch(String redisKey, long step, boolean async, long startNanos) {
+    }
+}
@@ -0,0 +1,1722 @@
+package io.github.lcn29.starter.redis.property;
+
+import io.github.lcn29.starter.redis.codec.RedisCodecType;
+import io.github.lcn29.starter.redis.codec.RedisCompressionType;
+import org.redisson.config.ReadMode;
+import org.redisson.config.SubscriptionMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <pre>
+ * Redis Starter 属性配置类
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 10:12
+ */
+@ConfigurationProperties(prefix = "lcn.redis")
+public class LcnRedisProperty {
+
+    /**
+     * 本地近端缓存配置
+     */
+    private NearCache nearCache = new NearCache();
+
+    /**
+     * 缓存回源加载配置
+     */
+    private Load load = new Load();
+
+    /**
+     * 概率提前刷新配置
+     */
+    private EarlyRefresh earlyRefresh = new EarlyRefresh();
+
+    /**
+     * Value 编解码配置
+     */
+    private Codec codec = new Codec();
+
+    /**
+     * Value 压缩配置
+     */
+    private Compression compression = new Compression();
+
+    /**
+     * 单 Key 读取自动合并配置
+     */
+    private BatchGet batchGet = new BatchGet();
+
+    /**
+     * 从节点读取配置
+     */
+    private ReplicaRead replicaRead = new ReplicaRead();
+
+    /**
+     * 分层锁配置
+     */
+    private LocalLock localLock = new LocalLock();
+
+    /**
+     * 大 Key 分批遍历配置
+     */
+    private ChunkIterate chunkIterate = new ChunkIterate();
+
+    /**
+     * 批量写入的分批配置
+     */
+    private Pipeline pipeline = new Pipeline();
+
+    /**
+     * 批量写入直接编码到池化 ByteBuf 的配置
+     */
+    private PooledBuffer pooledBuffer = new PooledBuffer();
+
+    /**
+     * Micrometer 指标的配置
+     */
+    private Metrics metrics = new Metrics();
+
+    /**
+     * 热点 Key 探测的配置
+     */
+    private HotKey hotKey = new HotKey();
+
+    /**
+     * Value 大小检查的配置
+     */
+    private ValueSize valueSize = new ValueSize();
+
+    /**
+     * Lettuce 和 Redisson 共享的 Netty 资源配置
+     */
+    private SharedResources sharedResources = new SharedResources();
+
+    /**
+     * Redisson 客户端配置
+     */
+    private Redisson redisson = new Redisson();
+
+    /**
+     * 延迟合并写入配置
+     */
+    private WriteBehind writeBehind = new WriteBehind();
+
+    /**
+     * 限流配置
+     */
+    private RateLimit rateLimit = new RateLimit();
+
+    /**
+     * 号段 ID 生成配置
+     */
+    private Sequence sequence = new Sequence();
+
+    /**
+     * RedisKeyDesc 注册表的配置
+     */
+    private KeyDesc keyDesc = new KeyDesc();
+
+    public NearCache getNearCache() {
+        return nearCache;
+    }
+
+    public void setNearCache(NearCache nearCache) {
+        this.nearCache = nearCache;
+    }
+
+    public Load getLoad() {
+        return load;
+    }
+
+    public void setLoad(Load load) {
+        this.load = load;
+    }
+
+    public EarlyRefresh getEarlyRefresh() {
+        return earlyRefresh;
+    }
+
+    public void setEarlyRefresh(EarlyRefresh earlyRefresh) {
+        this.earlyRefresh = earlyRefresh;
+    }
+
+    public Codec getCodec() {
+        return codec;
+    }
+
+    public void setCodec(Codec codec) {
+        this.codec = codec;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public void setCompression(Compression compression) {
+        this.compression = compression;
+    }
+
+    public BatchGet getBatchGet() {
+        return batchGet;
+    }
+
+    public void setBatchGet(BatchGet batchGet) {
+        this.batchGet = batchGet;
+    }
+
+    public ReplicaRead getReplicaRead() {
+        return replicaRead;
+    }
+
+    public void setReplicaRead(ReplicaRead replicaRead) {
+        this.replicaRead = replicaRead;
+    }
+
+    public LocalLock getLocalLock() {
+        return localLock;
+    }
+
+    public void setLocalLock(LocalLock localLock) {
+        this.localLock = localLock;
+    }
+
+    public ChunkIterate getChunkIterate() {
+        return chunkIterate;
+    }
+
+    public void setChunkIterate(ChunkIterate chunkIterate) {
+        this.chunkIterate = chunkIterate;
+    }
+
+    public Pipeline getPipeline() {
+        return pipeline;
+    }
+
+    public void setPipeline(Pipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    public PooledBuffer getPooledBuffer() {
+        return pooledBuffer;
+    }
+
+    public void setPooledBuffer(PooledBuffer pooledBuffer) {
+        this.pooledBuffer = pooledBuffer;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public HotKey getHotKey() {
+        return hotKey;
+    }
+
+    public void setHotKey(HotKey hotKey) {
+        this.hotKey = hotKey;
+    }
+
+    public ValueSize getValueSize() {
+        return valueSize;
+    }
+
+    public void setValueSize(ValueSize valueSize) {
+        this.valueSize = valueSize;
+    }
+
+    public SharedResources getSharedResources() {
+        return sharedResources;
+    }
+
+    public void setSharedResources(SharedResources sharedResources) {
+        this.sharedResources = sharedResources;
+    }
+
+    public Redisson getRedisson() {
+        return redisson;
+    }
+
+    public void setRedisson(Redisson redisson) {
+        this.redisson = redisson;
+    }
+
+    public WriteBehind getWriteBehind() {
+        return writeBehind;
+    }
+
+    public void setWriteBehind(WriteBehind writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(RateLimit rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    public Sequence getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(Sequence sequence) {
+        this.sequence = sequence;
+    }
+
+    public KeyDesc getKeyDesc() {
+        return keyDesc;
+    }
+
+    public void setKeyDesc(KeyDesc keyDesc) {
+        this.keyDesc = keyDesc;
+    }
+
+    /**
+     * 本地近端缓存 (L1) 配置
+     */
+    public static class NearCache {
+
+        /**
+         * 是否开启本地近端缓存, 默认关闭
+         */
+        private boolean enabled = false;
+
+        /**
+         * 本地缓存的最大条数
+         */
+        private long maximumSize = 10000L;
+
+        /**
+         * 多实例之间缓存失效通知的 pub/sub 频道
+         */
+        private String invalidateChannel = "lcn:redis:near-cache:invalidate";
+
+        public boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public String getInvalidateChannel() {
+            return invalidateChannel;
+        }
+
+        public void setInvalidateChannel(String invalidateChannel) {
+            this.invalidateChannel = invalidateChannel;
+        }
+    }
+
+    /**
+     * 缓存回源加载 (getOrLoad) 配置
+     */
+    public static class Load {
+
+        /**
+         * 回源分布式锁 Key 的后缀
+         */
+        private String lockKeySuffix = ":load-lock";
+
+        /**
+         * 每一轮等待其他节点回源的时间, 单位: 毫秒, 超时后重新读取缓存, 仍然不存在时进入下一轮等待
+         */
+        private long lockWaitTime = 3000L;
+
+        /**
+         * 等待超时后重新等待的轮数, 所有轮次都超时并且缓存仍然不存在时当前节点自行回源
+         */
+        private int lockWaitRetries = 2;
+
+        /**
+         * 回源分布式锁的持有时间, 单位: 毫秒
+         */
+        private long lockLeaseTime = 30000L;
+
+        /**
+         * 回源结果为 null 时空值占位的过期时间, 单位: 毫秒, 避免不存在的数据反复穿透到数据库, 小于等于 0 时不缓存空值
+         */
+        private long nullExpireTime = 1000L;
+
+        public String getLockKeySuffix() {
+            return lockKeySuffix;
+        }
+
+        public void setLockKeySuffix(String lockKeySuffix) {
+            this.lockKeySuffix = lockKeySuffix;
+        }
+
+        public long getLockWaitTime() {
+            return lockWaitTime;
+        }
+
+        public void setLockWaitTime(long lockWaitTime) {
+            this.lockWaitTime = lockWaitTime;
+        }
+
+        public int getLockWaitRetries() {
+            return lockWaitRetries;
+        }
+
+        public void setLockWaitRetries(int lockWaitRetries) {
+            this.lockWaitRetries = lockWaitRetries;
+        }
+
+        public long getLockLeaseTime() {
+            return lockLeaseTime;
+        }
+
+        public void setLockLeaseTime(long lockLeaseTime) {
+            this.lockLeaseTime = lockLeaseTime;
+        }
+
+        public long getNullExpireTime() {
+            return nullExpireTime;
+        }
+
+        public void setNullExpireTime(long nullExpireTime) {
+            this.nullExpireTime = nullExpireTime;
+        }
+    }
+
+    /**
+     * 概率提前刷新 (XFetch) 配置
+     */
+    public static class EarlyRefresh {
+
+        /**
+         * 是否开启概率提前刷新, 默认关闭
+         */
+        private boolean enabled = false;
+
+        /**
+         * XFetch 的 beta 系数, 越大越倾向于提前刷新
+         */
+        private double beta = 1.0D;
+
+        /**
+         * 没有测量到回源耗时时默认的回源耗时, 单位: 毫秒
+         */
+        private long defaultComputeCost = 100L;
+
+        /**
+         * 后台刷新的线程数
+         */
+        private int refreshThreads = 2;
+
+        /**
+         * 后台刷新的队列长度, 队列满了之后放弃本次刷新
+         */
+        private int refreshQueueSize = 1000;
+
+        public boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getBeta() {
+            return beta;
+        }
+
+        public void setBeta(double beta) {
+            this.beta = beta;
+        }
+
+        public long getDefaultComputeCost() {
+            return defaultComputeCost;
+        }
+
+        public void setDefaultComputeCost(long defaultComputeCost) {
+            this.defaultComputeCost = defaultComputeCost;
+        }
+
+        public int getRefreshThreads() {
+            return refreshThreads;
+        }
+
+        public void setRefreshThreads(int refreshThreads) {
+            this.refreshThreads = refreshThreads;
+        }
+
+        public int getRefreshQueueSize() {
+            return refreshQueueSize;
+        }
+
+        public void setRefreshQueueSize(int refreshQueueSize) {
+            this.refreshQueueSize = refreshQueueSize;
+        }
+    }
+
+    /**
+     * Redis Value 编解码配置
+     */
+    public static class Codec {
+
+        /**
+         * 写入时使用的编码格式, 读取时会根据头部字节自动识别, 默认为 JSON, 兼容历史数据
+         */
+        private RedisCodecType type = RedisCodecType.JSON;
+
+        /**
+         * 二进制编码中类型的短 ID 表, key 为短 ID (必须大于等于 100), value 为类的全限定名, 所有实例必须保持一致
+         */
+        private Map<Integer, String> typeIds = new HashMap<>();
+
+        public RedisCodecType getType() {
+            return type;
+        }
+
+        public void setType(RedisCodecType type) {
+            this.type = type;
+        }
+
+        public Map<Integer, String> getTypeIds() {
+            return typeIds;
+        }
+
+        public void setTypeIds(Map<Integer, String> typeIds) {
+            this.typeIds = typeIds;
+        }
+    }
+
+    /**
+     * Redis Value 压缩配置
+     */
+    public static class Compression {
+
+        /**
+         * 写入时使用的压缩算法, 默认不压缩, 读取时会根据头部字节自动识别
+         */
+        private RedisCompressionType type = RedisCompressionType.NONE;
+
+        /**
+         * 编码后的大小超过这个值才压缩, 单位: 字节
+         */
+        private int threshold = 1024;
+
+        /**
+         * Zstd 的压缩级别
+         */
+        private int zstdLevel = 3;
+
+        public RedisCompressionType getType() {
+            return type;
+        }
+
+        public void setType(RedisCompressionType type) {
+            this.type = type;
+        }
+
+        public int getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(int threshold) {
+            this.threshold = threshold;
+        }
+
+        public int getZstdLevel() {
+            return zstdLevel;
+        }
+
+        public void setZstdLevel(int zstdLevel) {
+            this.zstdLevel = zstdLevel;
+        }
+    }
+
+    /**
+     * 单 Key 读取自动合并为 MGET 的配置
+     */
+    public static class BatchGet {
+
+        /**
+         * 是否开启自动合并, 默认关闭
+         */
+        private boolean enabled = false;
+
+        /**
+         * 收集请求的时间窗口, 单位: 微秒
+         */
+        private long windowMicros = 500L;
+
+        /**
+         * 一次 MGET 最多的 Key 数量, 达到后立即发送
+         */
+        private int maxBatchSize = 128;
+
+        /**
+         * 等待合并的请求队列长度, 队列满了之后直接单独读取
+         */
+        private int queueCapacity = 10000;
+
+        /**
+         * 执行 MGET 的线程数
+         */
+        private int flushThreads = 4;
+
+        public boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getWindowMicros() {
+            return windowMicros;
+        }
+
+        public void setWindowMicros(long windowMicros) {
+            this.windowMicros = windowMicros;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getFlushThreads() {
+            return flushThreads;
+        }
+
+        public void setFlushThreads(int flushThreads) {
+            this.flushThreads = flushThreads;
+        }
+    }
+
+    /**
+     * 从节点读取配置
+     */
+    public static class ReplicaRead {
+
+        /**
+         * 是否开启从节点读取, 默认关闭, 开启后只有 RedisKeyDesc#readRoute 或者方法参数指定了从节点的读取才会路由到从节点
+         */
+        private boolean enabled = false;
+
+        /**
+         * 单节点模式下的从节点列表, 格式为 host:port, 集群和哨兵模式会自动发现从节点, 不需要配置
+         */
+        private List<String> replicaNodes = new ArrayList<>();
+
+        /**
+         * 从节点复制偏移量落后主节点超过这个值时不再从这个从节点读取, 单位: 字节
+         */
+        private long maxLagBytes = 1048576L;
+
+        /**
+         * 从节点最近一次确认复制超过这个时间时不再从这个从节点读取, 单位: 秒
+         */
+        private long maxLagSeconds = 5L;
+
+        /**
+         * 检查从节点复制延迟的间隔, 单位: 毫秒
+         */
+        private long lagCheckInterval = 1000L;
+
+        /**
+         * 写入后的这段时间内, 这个 Key 的读取固定走主节点, 保证能读到自己的写入, 单位: 毫秒, 小于等于 0 时不固定
+         */
+        private long readYourWritesMillis = 1000L;
+
+        /**
+         * 固定走主节点的 Key 最多记录的个数
+         */
+        private long pinnedMaximumSize = 100000L;
+
+        public boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getReplicaNodes() {
+            return replicaNodes;
+        }
+
+        public void setReplicaNodes(List<String> replicaNodes) {
+            this.replicaNodes = replicaNodes;
+        }
+
+        public long getMaxLagBytes() {
+            return maxLagBytes;
+        }
+
+        public void setMaxLagBytes(long maxLagBytes) {
+            this.maxLagBytes = maxLagBytes;
+        }
+
+        public long getMaxLagSeconds() {
+            return maxLagSeconds;
+        }
+
+        public void setMaxLagSeconds(long maxLagSeconds) {
+            this.maxLagSeconds = maxLagSeconds;
+        }
+
+        public long getLagCheckInterval() {
+            return lagCheckInterval;
+        }
+
+        public void setLagCheckInterval(long lagCheckInterval) {
+            this.lagCheckInterval = lagCheckInterval;
+        }
+
+        public long getReadYourWritesMillis() {
+            return readYourWritesMillis;
+        }
+
+        public void setReadYourWritesMillis(long readYourWritesMillis) {
+            this.readYourWritesMillis = readYourWritesMillis;
+        }
+
+        public long getPinnedMaximumSize() {
+            return pinnedMaximumSize;
+        }
+
+        public void setPinnedMaximumSize(long pinnedMaximumSize) {
+            this.pinnedMaximumSize = pinnedMaximumSize;
+        }
+    }
+
+    /**
+     * 分层锁配置
+     */
+    public static class LocalLock {
+
+        /**
+         * 是否开启分层锁, 默认关闭, 开启后同一个 JVM 内的线程先在本地排队, 只有队首的线程去竞争 Redis 锁
+         */
+        private boolean enabled = false;
+
+        /**
+         * Redis 锁在本地线程之间连续交接的最大次数, 超过后释放 Redis 锁, 给其他实例获取的机会
+         */
+        private int maxHandoffs = 16;
+
+        public boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxHandoffs() {
+            return maxHandoffs;
+        }
+
+        public void setMaxHandoffs(int maxHandoffs) {
+            this.maxHandoffs = maxHandoffs;
+        }
+    }
+
+    /**
+     * 分批遍历配置
+     */
+    public static class ChunkIterate {
+
+        /**
+         * 每批读取的条数, LRANGE 为范围大小, SCAN 类命令为 COUNT 参数
+         */
+        private int chunkSize = 500;
+
+        /**
+         * 是否在遍历当前批次时预取下一批
+         */
+        private boolean prefetch = true;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public boolean getPrefetch() {
+            return prefetch;
+        }
+
+        public void setPrefetch(boolean prefetch) {
+            this.prefetch = prefetch;
+        }
+    }
+
+    /**
+     * 批量写入的分批配置
+     */
+    public static class Pipeline {
+
+        /**
+         * 每批最多的命令数, 可变参数的 MSET/RPUSH 按照元素个数计算
+         */
+        private int maxCommands = 1000;
+
+        /**
+         * 每批最多的字节数, 按照序列化后的 Key 和 Value 的长度计算, 单个元素超过时单独作为一批
+         */
+        private long maxBytes = 1048576L;
+
+        /**
+         * 并行写入的批数, 每批使用连接池中的一个连接, 大于 1 时内存中最多同时保留这么多批, 有序的写入 (如 RPUSH) 始终串行
+         */
+        private int parallelism = 1;
+
+        public int getMaxCommands() {
+            return maxCommands;
+        }
+
+        public void setMaxCommands(int maxCommands) {
+            this.maxCommands = maxCommands;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    /**
+     * 批量写入直接编码到池化 ByteBuf 的配置
+     */
+    public static class PooledBuffer {
+
+        /**
+         * 是否开启, 开启后 multiSet/multiSetWithExpire/listAddAll 的 Key 和 Value 直接编码到池化的 ByteBuf, 通过原生连接写入
+         */
+        private boolean enabled = false;
+
+        /**
+         * Value 的 ByteBuf 初始大小, 单位: 字节, 不够时自动扩容
+         */
+        private int initialCapacity = 256;
+
+        public boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getInitialCapacity() {
+            return initialCapacity;
+        }
+
+        public void setInitialCapacity(int initialCapacity) {
+            this.initialCapacity = initialCapacity;
+        }
+    }
+
+    /**
+     * Micrometer 指标的配置
+     */
+    public static class Metrics {
+
+        /**
+         * 是否开启, 开启后存在 MeterRegistry 时才会记录指标
+         */
+        private boolean enabled = true;
+
+        /**
+         * 耗时是否发布直方图, 用于计算分位数, 开启后每个操作和 Key 族都会多出一组桶
+         */
+        private boolean histogram = true;
+
+        /**
+         * 记录持有锁的时间时, 一把锁最长跟踪多久, 单位: 毫秒
+         * 锁过期或者在其他线程释放时, 拿到锁的记录不会被移除, 超过这个时间后丢弃, 不再记录这次的持有时间
+         */
+        private long maxLockHoldMillis = 600000L;
+
+        /**
+         * 同时跟踪的持有中的锁的最大个数, 超过后丢弃最早的记录
+         */
+        private long maxTrackedLocks = 10000L;
+
+        public boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean getHistogram() {
+            return histogram;
+        }
+
+        public void setHistogram(boolean histogram) {
+            this.histogram = histogram;
+        }
+
+        public long getMaxLockHoldMillis() {
+            return maxLockHoldMillis;
+        }
+
+        public void setMaxLockHoldMillis(long maxLockHoldMillis) {
+            this.maxLockHoldMillis = maxLockHoldMillis;
+        }
+
+        public long getMaxTrackedLocks() {
+            return maxTrackedLocks;
+        }
+
+        public void setMaxTrackedLocks(long maxTrackedLocks) {
+            this.maxTrackedLocks = maxTrackedLocks;
+        }
+    }
+
+    /**
+     * 热点 Key 探测的配置
+     */
+    public static class HotKey {
+
+        /**
+         * 是否开启热点 Key 探测, 默认关闭
+         */
+        private boolean enabled = false;
+
+        /**
+         * 采样率, 取值 (0, 1], 只有被采样的读写才会计数, 估算的访问次数会按照采样率放大
+         */
+        private double sampleRate = 0.1D;
+
+        /**
+         * 滑动窗口中每个子窗口的时长, 单位: 毫秒
+         */
+        private long windowMillis = 1000L;
+
+        /**
+         * 滑动窗口包含的子窗口个数, 滑动窗口的总时长 = windowMillis * windowCount
+         */
+        private int windowCount = 10;
+
+        /**
+         * Count-Min Sketch 每一行的计数器个数, 会向上取整为 2 的幂, 越大误差越小
+         */
+        private int sketchWidth = 4096;
+
+        /**
+         * 保留访问次数最多的 Key 的个数
+         */
+        private int topK = 32;
+
+        /**
+         * 滑动窗口内估算的访问次数达到这个值时认为是热点 Key
+         */
+        private long hotThreshold = 5000L;
+
+        /**
+         * 是否把热点 Key 的值提升到本地短时缓存, 默认关闭
+         */
+        private boolean promote = false;
+
+        /**
+         * 本地短时缓存的过期时间, 单位: 毫秒, 也是其他实例修改后本实例读到旧值的最长时间
+         */
+        private long promoteTtlMillis = 1000L;
+
+        /**
+         * 本地短时缓存的最大条数
+         */
+        private long promoteMaximumSize = 1000L;
+
+        public boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public long getWindowMillis() {
+            return windowMillis;
+        }
+
+        public void setWindowMillis(long windowMillis) {
+            this.windowMillis = windowMillis;
+        }
+
+        public int getWindowCount() {
+            return windowCount;
+        }
+
+        public void setWindowCount(int windowCount) {
+            this.windowCount = windowCount;
+        }
+
+        public int getSketchWidth() {
+            return sketchWidth;
+        }
+
+        public void setSketchWidth(int sketchWidth) {
+            this.sketchWidth = sketchWidth;
+        }
+
+        public int getTopK() {
+            return topK;
+        }
+
+        public void setTopK(int topK) {
+            this.topK = topK;
+        }
+
+        public long getHotThreshold() {
+            return hotThreshold;
+        }
+
+        public void setHotThreshold(long hotThreshold) {
+            this.hotThreshold = hotThreshold;
+        }
+
+        public boolean getPromote() {
+            return promote;
+        }
+
+        public void setPromote(boolean promote) {
+            this.promote = promote;
+        }
+
+        public long getPromoteTtlMillis() {
+            return promoteTtlMillis;
+        }
+
+        public void setPromoteTtlMillis(long promoteTtlMillis) {
+            this.promoteTtlMillis = promoteTtlMillis;
+        }
+
+        public long getPromoteMaximumSize() {
+            return promoteMaximumSize;
+        }
+
+        public void setPromoteMaximumSize(long promoteMaximumSize) {
+            this.promoteMaximumSize = promoteMaximumSize;
+        }
+    }
+
+    /**
+     * Value 大小检查的配置, 大小为序列化 (包括压缩) 之后的字节数
+     */
+    public static class ValueSize {
+
+        /**
+         * 是否开启, 开启后 RedisUtil 的每条写入都会检查并记录 Value 的大小
+         */
+        private boolean enabled = true;
+
+        /**
+         * 超过这个大小时按照 logSampleRate 采样打印日志, 单位: 字节, 小于等于 0 时不打印
+         */
+        private int logThreshold = 102400;
+
+        /**
+         * 采样打印日志的比例, 取值 [0, 1]
+         */
+        private double logSampleRate = 0.01D;
+
+        /**
+         * 超过这个大小时每次都打印 WARN 日志, 单位: 字节, 小于等于 0 时不打印
+         */
+        private int warnThreshold = 1048576;
+
+        /**
+         * 超过这个大小时拒绝写入, 单 Key 写入抛出 IllegalArgumentException, 批量写入跳过这个 Key, 单位: 字节, 小于等于 0 时不拒绝
+         */
+        private int rejectThreshold = 0;
+
+        public boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getLogThreshold() {
+            return logThreshold;
+        }
+
+        public void setLogThreshold(int logThreshold) {
+            this.logThreshold = logThreshold;
+        }
+
+        public double getLogSampleRate() {
+            return logSampleRate;
+        }
+
+        public void setLogSampleRate(double logSampleRate) {
+            this.logSampleRate = logSampleRate;
+        }
+
+        public int getWarnThreshold() {
+            return warnThreshold;
+        }
+
+        public void setWarnThreshold(int warnThreshold) {
+            this.warnThreshold = warnThreshold;
+        }
+
+        public int getRejectThreshold() {
+            return rejectThreshold;
+        }
+
+        public void setRejectThreshold(int rejectThreshold) {
+            this.rejectThreshold = rejectThreshold;
+        }
+    }
+
+    /**
+     * Lettuce 和 Redisson 共享的 Netty 资源配置
+     */
+    public static class SharedResources {
+
+        /**
+         * 是否开启, 开启后 Lettuce 和 Redisson 使用同一组 IO 线程和计算线程, 关闭时各自创建
+         */
+        private boolean enabled = true;
+
+        /**
+         * IO 线程数 (Netty EventLoop), 小于等于 0 时使用 CPU 核数, 最少 2 个
+         */
+        private int ioThreads = 0;
+
+        /**
+         * 计算线程数, 用于 Lettuce 的事件分发和 Redisson 的回调, 小于等于 0 时使用 CPU 核数, 最少 2 个
+         */
+        private int computationThreads = 0;
+
+        /**
+         * 关闭时等待任务结束的静默时间, 单位: 毫秒
+         */
+        private long shutdownQuietPeriodMillis = 100L;
+
+        /**
+         * 关闭时等待的最长时间, 单位: 毫秒
+         */
+        private long shutdownTimeoutMillis = 2000L;
+
+        public boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getIoThreads() {
+            return ioThreads;
+        }
+
+        public void setIoThreads(int ioThreads) {
+            this.ioThreads = ioThreads;
+        }
+
+        public int getComputationThreads() {
+            return computationThreads;
+        }
+
+        public void setComputationThreads(int computationThreads) {
+            this.computationThreads = computationThreads;
+        }
+
+        public long getShutdownQuietPeriodMillis() {
+            return shutdownQuietPeriodMillis;
+        }
+
+        public void setShutdownQuietPeriodMillis(long shutdownQuietPeriodMillis) {
+            this.shutdownQuietPeriodMillis = shutdownQuietPeriodMillis;
+        }
+
+        public long getShutdownTimeoutMillis() {
+            return shutdownTimeoutMillis;
+        }
+
+        public void setShutdownTimeoutMillis(long shutdownTimeoutMillis) {
+            this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        }
+    }
+
+    /**
+     * Redisson 客户端配置, 默认值和 Redisson 的默认值一致
+     */
+    public static class Redisson {
+
+        /**
+         * 每个节点的命令连接池大小, 集群/哨兵模式下主节点和从节点都使用这个值
+         */
+        private int connectionPoolSize = 64;
+
+        /**
+         * 每个节点的命令连接最小空闲数
+         */
+        private int connectionMinimumIdleSize = 24;
+
+        /**
+         * 每个节点的订阅连接池大小, 分布式锁的等待, RTopic 等使用订阅连接
+         */
+        private int subscriptionConnectionPoolSize = 50;
+
+        /**
+         * 每个节点的订阅连接最小空闲数
+         */
+        private int subscriptionConnectionMinimumIdleSize = 1;
+
+        /**
+         * 每个订阅连接上最多的订阅数
+         */
+        private int subscriptionsPerConnection = 5;
+
+        /**
+         * 空闲连接超过这个时间后关闭 (保留最小空闲数), 单位: 毫秒
+         */
+        private int idleConnectionTimeoutMillis = 10000;
+
+        /**
+         * 建立连接的超时时间, 单位: 毫秒, 小于等于 0 时使用 spring.redis.connect-timeout, 都没有配置时为 10000
+         */
+        private int connectTimeoutMillis = 0;
+
+        /**
+         * 命令的响应超时时间, 单位: 毫秒, 小于等于 0 时使用 spring.redis.timeout, 都没有配置时为 3000
+         */
+        private int timeoutMillis = 0;
+
+        /**
+         * 命令发送失败时的重试次数
+         */
+        private int retryAttempts = 3;
+
+        /**
+         * 命令重试的间隔, 单位: 毫秒
+         */
+        private int retryIntervalMillis = 1500;
+
+        /**
+         * 连接的 PING 心跳间隔, 单位: 毫秒, 0 表示不发送
+         */
+        private int pingConnectionIntervalMillis = 30000;
+
+        /**
+         * 是否开启 TCP keepalive
+         */
+        private boolean keepAlive = false;
+
+        /**
+         * 是否开启 TCP_NODELAY
+         */
+        private boolean tcpNoDelay = true;
+
+        /**
+         * Redisson 自己的 Netty 线程数, 只在 lcn.redis.shared-resources.enabled=false 时生效
+         */
+        private int nettyThreads = 32;
+
+        /**
+         * Redisson 自己的回调线程数, 只在 lcn.redis.shared-resources.enabled=false 时生效
+         */
+        private int threads = 16;
+
+        /**
+         * 没有指定持有时间的锁的看门狗续期时间, 单位: 毫秒
+         */
+        private long lockWatchdogTimeoutMillis = 30000L;
+
+        /**
+         * 集群/哨兵模式下的读取节点, MASTER: 主节点, SLAVE: 从节点, MASTER_SLAVE: 主从节点
+         */
+        private ReadMode readMode = ReadMode.SLAVE;
+
+        /**
+         * 集群/哨兵模式下的订阅节点, MASTER: 主节点, SLAVE: 从节点
+         */
+        private SubscriptionMode subscriptionMode = SubscriptionMode.MASTER;
+
+        /**
+         * Map 结构的 Key 是否和 RedisTemplate 的 Hash Key 一样按照字符串编码, 开启后只支持 String 类型的 Key, 开启前写入的 Map 需要迁移
+         */
+        private boolean stringMapKey = false;
+
+        public int getConnectionPoolSize() {
+            return connectionPoolSize;
+        }
+
+        public void setConnectionPoolSize(int connectionPoolSize) {
+            this.connectionPoolSize = connectionPoolSize;
+        }
+
+        public int getConnectionMinimumIdleSize() {
+            return connectionMinimumIdleSize;
+        }
+
+        public void setConnectionMinimumIdleSize(int connectionMinimumIdleSize) {
+            this.connectionMinimumIdleSize = connectionMinimumIdleSize;
+        }
+
+        public int getSubscriptionConnectionPoolSize() {
+            return subscriptionConnectionPoolSize;
+        }
+
+        public void setSubscriptionConnectionPoolSize(int subscriptionConnectionPoolSize) {
+            this.subscriptionConnectionPoolSize = subscriptionConnectionPoolSize;
+        }
+
+        public int getSubscriptionConnectionMinimumIdleSize() {
+            return subscriptionConnectionMinimumIdleSize;
+        }
+
+        public void setSubscriptionConnectionMinimumIdleSize(int subscriptionConnectionMinimumIdleSize) {
+            this.subscriptionConnectionMinimumIdleSize = subscriptionConnectionMinimumIdleSize;
+        }
+
+        public int getSubscriptionsPerConnection() {
+            return subscriptionsPerConnection;
+        }
+
+        public void setSubscriptionsPerConnection(int subscriptionsPerConnection) {
+            this.subscriptionsPerConnection = subscriptionsPerConnection;
+        }
+
+        public int getIdleConnectionTimeoutMillis() {
+            return idleConnectionTimeoutMillis;
+        }
+
+        public void setIdleConnectionTimeoutMillis(int idleConnectionTimeoutMillis) {
+            this.idleConnectionTimeoutMillis = idleConnectionTimeoutMillis;
+        }
+
+        public int getConnectTimeoutMillis() {
+            return connectTimeoutMillis;
+        }
+
+        public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+            this.connectTimeoutMillis = connectTimeoutMillis;
+        }
+
+        public int getTimeoutMillis() {
+            return timeoutMillis;
+        }
+
+        public void setTimeoutMillis(int timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        public int getRetryAttempts() {
+            return retryAttempts;
+        }
+
+        public void setRetryAttempts(int retryAttempts) {
+            this.retryAttempts = retryAttempts;
+        }
+
+        public int getRetryIntervalMillis() {
+            return retryIntervalMillis;
+        }
+
+        public void setRetryIntervalMillis(int retryIntervalMillis) {
+            this.retryIntervalMillis = retryIntervalMillis;
+        }
+
+        public int getPingConnectionIntervalMillis() {
+            return pingConnectionIntervalMillis;
+        }
+
+        public void setPingConnectionIntervalMillis(int pingConnectionIntervalMillis) {
+            this.pingConnectionIntervalMillis = pingConnectionIntervalMillis;
+        }
+
+        public boolean getKeepAlive() {
+            return keepAlive;
+        }
+
+        public void setKeepAlive(boolean keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        public boolean getTcpNoDelay() {
+            return tcpNoDelay;
+        }
+
+        public void setTcpNoDelay(boolean tcpNoDelay) {
+            this.tcpNoDelay = tcpNoDelay;
+        }
+
+        public int getNettyThreads() {
+            return nettyThreads;
+        }
+
+        public void setNettyThreads(int nettyThreads) {
+            this.nettyThreads = nettyThreads;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public long getLockWatchdogTimeoutMillis() {
+            return lockWatchdogTimeoutMillis;
+        }
+
+        public void setLockWatchdogTimeoutMillis(long lockWatchdogTimeoutMillis) {
+            this.lockWatchdogTimeoutMillis = lockWatchdogTimeoutMillis;
+        }
+
+        public ReadMode getReadMode() {
+            return readMode;
+        }
+
+        public void setReadMode(ReadMode readMode) {
+            this.readMode = readMode;
+        }
+
+        public SubscriptionMode getSubscriptionMode() {
+            return subscriptionMode;
+        }
+
+        public void setSubscriptionMode(SubscriptionMode subscriptionMode) {
+            this.subscriptionMode = subscriptionMode;
+        }
+
+        public boolean getStringMapKey() {
+            return stringMapKey;
+        }
+
+        public void setStringMapKey(boolean stringMapKey) {
+            this.stringMapKey = stringMapKey;
+        }
+    }
+
+    /**
+     * 延迟合并写入的配置, 只对 RedisKeyDesc#writeBehind 返回 true 的 Key 生效
+     */
+    public static class WriteBehind {
+
+        /**
+         * 是否开启
+         */
+        private boolean enabled = false;
+
+        /**
+         * 缓冲区最多的 Key 的个数
+         */
+        private int capacity = 10000;
+
+        /**
+         * 每批写入的 Key 的个数, 缓冲的 Key 达到这个数量时立即刷新
+         */
+        private int flushBatchSize = 500;
+
+        /**
+         * 刷新的时间间隔, 单位: 毫秒, 也是写入最长的延迟
+         */
+        private long flushIntervalMillis = 100L;
+
+        /**
+         * 缓冲区满了时调用方等待刷新的最长时间, 单位: 毫秒, 等待后仍然没有空间时直接同步写入, 小于等于 0 时不等待
+         */
+        private long fullWaitMillis = 10L;
+
+        /**
+         * 写入失败的最多重试次数, 超过后丢弃并打印 WARN 日志
+         */
+        private int maxRetries = 3;
+
+        /**
+         * 关闭时等待刷新线程结束的最长时间, 单位: 毫秒
+         */
+        private long shutdownTimeoutMillis = 5000L;
+
+        public boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getFlushBatchSize() {
+            return flushBatchSize;
+        }
+
+        public void setFlushBatchSize(int flushBatchSize) {
+            this.flushBatchSize = flushBatchSize;
+        }
+
+        public long getFlushIntervalMillis() {
+            return flushIntervalMillis;
+        }
+
+        public void setFlushIntervalMillis(long flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+        }
+
+        public long getFullWaitMillis() {
+            return fullWaitMillis;
+        }
+
+        public void setFullWaitMillis(long fullWaitMillis) {
+            this.fullWaitMillis = fullWaitMillis;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public long getShutdownTimeoutMillis() {
+            return shutdownTimeoutMillis;
+        }
+
+        public void setShutdownTimeoutMillis(long shutdownTimeoutMillis) {
+            this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+        }
+    }
+
+    /**
+     * 限流配置
+     * 令牌桶保存在 Redis 中, 每个实例一次从 Redis 租用一批令牌, 在本地发放
+     */
+    public static class RateLimit {
+
+        /**
+         * 本地租约的令牌个数, 每次访问 Redis 最多预取这么多令牌在本地发放, 小于等于 1 时每次获取都访问 Redis
+         * 越大访问 Redis 的次数越少, 但是每个实例最多多占用这么多令牌, 实例之间的分配也越不均匀
+         * RedisRateLimit 指定了 leaseSize 时以 RedisRateLimit 为准
+         */
+        private int leaseSize = 10;
+
+        /**
+         * 本地租约的有效时间, 单位: 毫秒, 超过时间没有用完的令牌直接丢弃, 限制令牌在本地延迟使用造成的超发
+         */
+        private long leaseMillis = 1000L;
+
+        /**
+         * 本地最多保留的限流 Key 的个数, 超过时清理租约已经过期的 Key
+         */
+        private int maxLocalKeys = 10000;
+
+        public int getLeaseSize() {
+            return leaseSize;
+        }
+
+        public void setLeaseSize(int leaseSize) {
+            this.leaseSize = leaseSize;
+        }
+
+        public long getLeaseMillis() {
+            return leaseMillis;
+        }
+
+        public void setLeaseMillis(long leaseMillis) {
+            this.leaseMillis = leaseMillis;
+        }
+
+        public int getMaxLocalKeys() {
+            return maxLocalKeys;
+        }
+
+        public void setMaxLocalKeys(int maxLocalKeys) {
+            this.maxLocalKeys = maxLocalKeys;
+        }
+    }
+
+    /**
+     * 号段 ID 生成配置
+     * 每个实例通过 INCRBY 一次从 Redis 获取一段连续的 ID, 在本地发放, 号段的大小按照消耗速度在 minStep 和 maxStep 之间调整
+     */
+    public static class Sequence {
+
+        /**
+         * 号段的最小长度, 也是第一个号段的长度
+         */
+        private long minStep = 100L;
+
+        /**
+         * 号段的最大长度
+         */
+        private long maxStep = 100000L;
+
+        /**
+         * 期望一个号段使用的时长, 单位: 毫秒, 号段用得更快时加大号段, 更慢时减小号段, 每次最多调整为 2 倍或者 1/2
+         */
+        private long segmentDurationMillis = 15000L;
+
+        /**
+         * 当前号段剩余的比例低于这个值时, 异步获取下一个号段, 取值 (0, 1)
+         */
+        private double prefetchRatio = 0.5D;
+
+        /**
+         * 异步获取号段的线程数
+         */
+        private int prefetchThreads = 2;
+
+        /**
+         * 异步获取号段的队列长度, 队列满了时在号段用完时同步获取
+         */
+        private int prefetchQueueSize = 1000;
+
+        /**
+         * 号段用完时等待异步获取的最长时间, 单位: 毫秒, 超过时改为同步获取
+         */
+        private long fetchTimeoutMillis = 3000L;
+
+        public long getMinStep() {
+            return minStep;
+        }
+
+        public void setMinStep(long minStep) {
+            this.minStep = minStep;
+        }
+
+        public long getMaxStep() {
+            return maxStep;
+        }
+
+        public void setMaxStep(long maxStep) {
+            this.maxStep = maxStep;
+        }
+
+        public long getSegmentDurationMillis() {
+            return segmentDurationMillis;
+        }
+
+        public void setSegmentDurationMillis(long segmentDurationMillis) {
+            this.segmentDurationMillis = segmentDurationMillis;
+        }
+
+        public double getPrefetchRatio() {
+            return prefetchRatio;
+        }
+
+        public void setPrefetchRatio(double prefetchRatio) {
+            this.prefetchRatio = prefetchRatio;
+        }
+
+        public int getPrefetchThreads() {
+            return prefetchThreads;
+        }
+
+        public void setPrefetchThreads(int prefetchThreads) {
+            this.prefetchThreads = prefetchThreads;
+        }
+
+        public int getPrefetchQueueSize() {
+            return prefetchQueueSize;
+        }
+
+        public void setPrefetchQueueSize(int prefetchQueueSize) {
+            this.prefetchQueueSize = prefetchQueueSize;
+        }
+
+        public long getFetchTimeoutMillis() {
+            return fetchTimeoutMillis;
+        }
+
+        public void setFetchTimeoutMillis(long fetchTimeoutMillis) {
+            this.fetchTimeoutMillis = fetchTimeoutMillis;
+        }
+    }
+
+    /**
+     * RedisKeyDesc 注册表的配置
+     */
+    public static class KeyDesc {
+
+        /**
+         * 启动时注册的 RedisKeyDesc 枚举类的全限定名, 从 Redis Key 反查 RedisKeyDesc 之前需要注册所有的格式
+         */
+        private List<String> registerClasses = new ArrayList<>();
+
+        /**
+         * Redis Key 反查结果的缓存条数, 小于等于 0 时不缓存, 每次反查都遍历所有的格式
+         */
+        private long resolveCacheMaximumSize = 10000L;
+
+        public List<String> getRegisterClasses() {
+            return registerClasses;
+        }
+
+        public void setRegisterClasses(List<String> registerClasses) {
+            this.registerClasses = registerClasses;
+        }
+
+        public long getResolveCacheMaximumSize() {
+            return resolveCacheMaximumSize;
+        }
+
+        public void setResolveCacheMaximumSize(long resolveCacheMaximumSize) {
+            this.resolveCacheMaximumSize = resolveCacheMaximumSize;
+        }
+    }
+}
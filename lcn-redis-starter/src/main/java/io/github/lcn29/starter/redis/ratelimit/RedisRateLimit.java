@@ -0,0 +1,98 @@
+package io.github.lcn29.starter.redis.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * 令牌桶限流的规则
+ * 每个周期补充 permits 个令牌, 桶中最多保存 capacity 个令牌, capacity 即允许的突发量, 默认等于 permits
+ * leaseSize 为每次从 Redis 租用的令牌个数, 小于等于 0 时使用 lcn.redis.rate-limit.lease-size
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 23:30
+ */
+public class RedisRateLimit {
+
+    /**
+     * 每个周期补充的令牌数
+     */
+    private final long permits;
+
+    /**
+     * 周期, 单位: 毫秒
+     */
+    private final long periodMillis;
+
+    /**
+     * 桶的容量
+     */
+    private final long capacity;
+
+    /**
+     * 每次从 Redis 租用的令牌个数, 小于等于 0 时使用全局配置
+     */
+    private final int leaseSize;
+
+    public RedisRateLimit(long permits, long periodMillis, long capacity, int leaseSize) {
+        if (permits <= 0L || periodMillis <= 0L || capacity <= 0L) {
+            throw new IllegalArgumentException("Rate limit permits, period and capacity must be positive, permits: " + permits
+                    + ", periodMillis: " + periodMillis + ", capacity: " + capacity);
+        }
+        this.permits = permits;
+        this.periodMillis = periodMillis;
+        this.capacity = capacity;
+        this.leaseSize = leaseSize;
+    }
+
+    /**
+     * 每个周期 permits 个令牌, 容量等于 permits
+     *
+     * @param permits    每个周期补充的令牌数
+     * @param period     周期
+     * @param periodUnit 周期单位
+     * @return 限流规则
+     */
+    public static RedisRateLimit of(long permits, long period, TimeUnit periodUnit) {
+        return new RedisRateLimit(permits, periodUnit.toMillis(period), permits, 0);
+    }
+
+    /**
+     * 每个周期 permits 个令牌, 指定容量
+     *
+     * @param permits    每个周期补充的令牌数
+     * @param period     周期
+     * @param periodUnit 周期单位
+     * @param capacity   桶的容量, 即允许的突发量
+     * @return 限流规则
+     */
+    public static RedisRateLimit of(long permits, long period, TimeUnit periodUnit, long capacity) {
+        return new RedisRateLimit(permits, periodUnit.toMillis(period), capacity, 0);
+    }
+
+    /**
+     * 指定每次从 Redis 租用的令牌个数, 1 表示每次获取都访问 Redis, 限流最精确
+     *
+     * @param leaseSize 租用的令牌个数
+     * @return 新的限流规则
+     */
+    public RedisRateLimit withLeaseSize(int leaseSize) {
+        return new RedisRateLimit(permits, periodMillis, capacity, leaseSize);
+    }
+
+    public long getPermits() {
+        return permits;
+    }
+
+    public long getPeriodMillis() {
+        return periodMillis;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public int getLeaseSize() {
+        return leaseSize;
+    }
+}
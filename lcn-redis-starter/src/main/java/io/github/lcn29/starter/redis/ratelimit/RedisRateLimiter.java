@@ -0,0 +1,279 @@
+package io.github.lcn29.starter.redis.ratelimit;
+
+import io.github.lcn29.starter.redis.constants.RedisConstants;
+import io.github.lcn29.starter.redis.key.RedisKeyDesc;
+import io.github.lcn29.starter.redis.key.RedisKeyDescRegistry;
+import io.github.lcn29.starter.redis.metrics.RedisMetrics;
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import io.github.lcn29.starter.redis.script.RedisScriptRegistry;
+import org.springframework.data.redis.connection.ReturnType;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <pre>
+ * 分布式令牌桶限流
+ * 令牌桶保存在 Redis 中, 通过 Lua 脚本原子地补充和获取令牌, 时间使用 Redis 的 TIME, 不受实例之间时钟差异的影响
+ * 每个实例一次租用 leaseSize 个令牌, 保存在本地的计数器中, 之后的获取通过 CAS 扣减本地计数器, 不访问 Redis
+ * 本地的令牌用完或者租约超过 leaseMillis 后才再次访问 Redis, 同一个 Key 同时只有一个线程访问 Redis
+ * Redis 中的令牌不够时脚本返回需要等待的时间, 这段时间内本地直接拒绝, 被限流时也不会每次都访问 Redis
+ * 精确度的取舍: 每个实例最多提前占用 leaseSize - 1 个令牌, 其他实例可能因此被提前限流
+ * 本地发放的令牌总数不会超过从 Redis 扣减的令牌数, 但是令牌最多延后 leaseMillis 使用, 租约过期时没有用完的令牌直接丢弃
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 23:30
+ */
+public class RedisRateLimiter {
+
+    private final static String RESULT_LOCAL = "local";
+
+    private final static String RESULT_REMOTE = "remote";
+
+    private final static String RESULT_REJECTED = "rejected";
+
+    private final TokenBucket tokenBucket;
+
+    private final int defaultLeaseSize;
+
+    private final long leaseNanos;
+
+    private final int maxLocalKeys;
+
+    /**
+     * 本地租约, key 为限流的 Redis Key
+     */
+    private final Map<String, LocalLease> leaseMap = new ConcurrentHashMap<>();
+
+    /**
+     * RedisKeyDesc 的限流规则, 避免每次获取都调用 RedisKeyDesc#rateLimit
+     */
+    private final Map<RedisKeyDesc, RedisRateLimit> rateLimitMap = new ConcurrentHashMap<>();
+
+    private RedisMetrics redisMetrics = RedisMetrics.NOOP;
+
+    public RedisRateLimiter(LcnRedisProperty.RateLimit rateLimitProperty, RedisScriptRegistry redisScriptRegistry) {
+        this(rateLimitProperty, (redisKey, rateLimit, min, max) -> acquireByScript(redisScriptRegistry, redisKey, rateLimit, min, max));
+    }
+
+    RedisRateLimiter(LcnRedisProperty.RateLimit rateLimitProperty, TokenBucket tokenBucket) {
+        this.tokenBucket = tokenBucket;
+        this.defaultLeaseSize = rateLimitProperty.getLeaseSize();
+        this.leaseNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(rateLimitProperty.getLeaseMillis(), 1L));
+        this.maxLocalKeys = Math.max(rateLimitProperty.getMaxLocalKeys(), 1);
+    }
+
+    public void setRedisMetrics(RedisMetrics redisMetrics) {
+        this.redisMetrics = redisMetrics == null ? RedisMetrics.NOOP : redisMetrics;
+    }
+
+    /**
+     * Key 所属的 RedisKeyDesc 的限流规则
+     *
+     * @param redisKey Redis Key
+     * @return 限流规则
+     * @throws IllegalArgumentException Key 所属的 RedisKeyDesc 没有配置限流规则
+     */
+    public RedisRateLimit rateLimit(String redisKey) {
+        RedisKeyDesc redisKeyDesc = RedisKeyDescRegistry.resolve(redisKey);
+        RedisRateLimit rateLimit = redisKeyDesc == null ? null : rateLimitMap.get(redisKeyDesc);
+        if (rateLimit == null && redisKeyDesc != null) {
+            rateLimit = redisKeyDesc.rateLimit();
+            if (rateLimit != null) {
+                rateLimitMap.put(redisKeyDesc, rateLimit);
+            }
+        }
+        if (rateLimit == null) {
+            throw new IllegalArgumentException("Redis key has no rate limit, redisKey: " + redisKey);
+        }
+        return rateLimit;
+    }
+
+    /**
+     * 获取令牌
+     *
+     * @param redisKey  令牌桶的 Redis Key
+     * @param permits   需要的令牌数
+     * @param rateLimit 限流规则
+     * @return true: 获取成功, false: 被限流
+     * @throws IllegalArgumentException permits 小于等于 0 或者大于桶的容量
+     */
+    public boolean tryAcquire(String redisKey, int permits, RedisRateLimit rateLimit) {
+
+        if (permits <= RedisConstants.INT_ZERO || permits > rateLimit.getCapacity()) {
+            throw new IllegalArgumentException("Rate limit permits must be in [1, " + rateLimit.getCapacity()
+                    + "], permits: " + permits);
+        }
+
+        long leaseSize = Math.min(rateLimit.getLeaseSize() > 0 ? rateLimit.getLeaseSize() : defaultLeaseSize,
+                rateLimit.getCapacity());
+        if (leaseSize <= permits) {
+            // 不租用令牌, 每次都访问 Redis
+            boolean acquired = tokenBucket.acquire(redisKey, rateLimit, permits, permits) > 0L;
+            redisMetrics.recordRateLimit(redisKey, acquired ? RESULT_REMOTE : RESULT_REJECTED);
+            return acquired;
+        }
+
+        LocalLease lease = localLease(redisKey);
+        if (lease.tryTake(permits, System.nanoTime())) {
+            redisMetrics.recordRateLimit(redisKey, RESULT_LOCAL);
+            return true;
+        }
+
+        String result;
+        synchronized (lease) {
+            result = renew(redisKey, rateLimit, permits, leaseSize, lease);
+        }
+        redisMetrics.recordRateLimit(redisKey, result);
+        return !RESULT_REJECTED.equals(result);
+    }
+
+    /**
+     * 本地令牌不够时从 Redis 租用新的令牌, 需要持有租约的锁
+     * 租约没有过期时剩余的令牌合并到新的租约中
+     *
+     * @param redisKey  令牌桶的 Redis Key
+     * @param rateLimit 限流规则
+     * @param permits   需要的令牌数
+     * @param leaseSize 租用的令牌个数
+     * @param lease     本地租约
+     * @return local: 其他线程已经租用到了令牌, remote: 从 Redis 获取成功, rejected: 被限流
+     */
+    private String renew(String redisKey, RedisRateLimit rateLimit, int permits, long leaseSize, LocalLease lease) {
+
+        long nowNanos = System.nanoTime();
+        if (lease.tryTake(permits, nowNanos)) {
+            return RESULT_LOCAL;
+        }
+        if (nowNanos - lease.deniedUntilNanos < 0L) {
+            return RESULT_REJECTED;
+        }
+
+        long leftover = lease.drain(nowNanos);
+        long result;
+        try {
+            result = tokenBucket.acquire(redisKey, rateLimit, permits - leftover, leaseSize - leftover);
+        } catch (RuntimeException ex) {
+            lease.remaining.addAndGet(leftover);
+            throw ex;
+        }
+
+        if (result > 0L) {
+            lease.expireAtNanos = nowNanos + leaseNanos;
+            lease.remaining.addAndGet(leftover + result - permits);
+            return RESULT_REMOTE;
+        }
+        lease.remaining.addAndGet(leftover);
+        lease.deniedUntilNanos = nowNanos + TimeUnit.MILLISECONDS.toNanos(-result);
+        return RESULT_REJECTED;
+    }
+
+    /**
+     * 执行令牌桶脚本
+     *
+     * @param redisScriptRegistry Lua 脚本注册表
+     * @param redisKey            令牌桶的 Redis Key
+     * @param rateLimit           限流规则
+     * @param min                 至少需要的令牌数
+     * @param max                 最多获取的令牌数
+     * @return 大于 0 时为获取到的令牌数, 小于 0 时为需要等待的毫秒数的相反数
+     */
+    private static long acquireByScript(RedisScriptRegistry redisScriptRegistry, String redisKey, RedisRateLimit rateLimit,
+                                        long min, long max) {
+        Long result = redisScriptRegistry.execute(RedisScriptRegistry.TOKEN_BUCKET_ACQUIRE, ReturnType.INTEGER,
+                Collections.singletonList(redisKey), numberArg(rateLimit.getCapacity()), numberArg(rateLimit.getPermits()),
+                numberArg(rateLimit.getPeriodMillis()), numberArg(min), numberArg(max));
+        return result == null ? -1L : result;
+    }
+
+    private LocalLease localLease(String redisKey) {
+        LocalLease lease = leaseMap.get(redisKey);
+        if (lease != null) {
+            return lease;
+        }
+        if (leaseMap.size() >= maxLocalKeys) {
+            purgeExpired();
+        }
+        return leaseMap.computeIfAbsent(redisKey, key -> new LocalLease());
+    }
+
+    /**
+     * 清理租约已经过期并且不在拒绝期内的 Key, 被清理的租约中剩余的令牌作废, 只会少发
+     */
+    private void purgeExpired() {
+        long nowNanos = System.nanoTime();
+        leaseMap.values().removeIf(lease -> nowNanos - lease.expireAtNanos >= 0L && nowNanos - lease.deniedUntilNanos >= 0L);
+    }
+
+    private static byte[] numberArg(long number) {
+        return String.valueOf(number).getBytes(RedisConstants.DEFAULT_CHARSETS);
+    }
+
+    /**
+     * 从 Redis 的令牌桶中获取令牌, 默认执行令牌桶脚本
+     */
+    @FunctionalInterface
+    interface TokenBucket {
+
+        /**
+         * 获取令牌, 至少 min 个, 最多 max 个
+         *
+         * @param redisKey  令牌桶的 Redis Key
+         * @param rateLimit 限流规则
+         * @param min       至少需要的令牌数
+         * @param max       最多获取的令牌数
+         * @return 大于 0 时为获取到的令牌数, 小于 0 时为需要等待的毫秒数的相反数
+         */
+        long acquire(String redisKey, RedisRateLimit rateLimit, long min, long max);
+    }
+
+    /**
+     * 一个 Key 的本地租约, 令牌的扣减通过 CAS 完成, 租用新的令牌时持有当前对象的锁
+     */
+    private final static class LocalLease {
+
+        /**
+         * 本地剩余的令牌数
+         */
+        private final AtomicLong remaining = new AtomicLong();
+
+        /**
+         * 租约的过期时间, System#nanoTime
+         */
+        private volatile long expireAtNanos = System.nanoTime();
+
+        /**
+         * 被限流时, 在这个时间之前本地直接拒绝, System#nanoTime
+         */
+        private volatile long deniedUntilNanos = System.nanoTime();
+
+        private boolean tryTake(int permits, long nowNanos) {
+            if (nowNanos - expireAtNanos >= 0L) {
+                return false;
+            }
+            long current;
+            do {
+                current = remaining.get();
+                if (current < permits) {
+                    return false;
+                }
+            } while (!remaining.compareAndSet(current, current - permits));
+            return true;
+        }
+
+        /**
+         * 取出租约中剩余的令牌, 租约已经过期时剩余的令牌作废
+         *
+         * @param nowNanos 当前时间
+         * @return 可以继续使用的令牌数
+         */
+        private long drain(long nowNanos) {
+            long leftover = remaining.getAndSet(0L);
+            return nowNanos - expireAtNanos >= 0L ? 0L : leftover;
+        }
+    }
+}
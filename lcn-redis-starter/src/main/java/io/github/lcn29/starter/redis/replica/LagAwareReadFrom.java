@@ -0,0 +1,66 @@
+package io.github.lcn29.starter.redis.replica;
+
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
+import io.lettuce.core.models.role.RedisInstance;
+import io.lettuce.core.models.role.RedisNodeDescription;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <pre>
+ * 感知复制延迟的 ReadFrom
+ * 和 ReadFrom.REPLICA_PREFERRED 一样优先从从节点读取, 但会跳过 RedisReplicaLagTracker 记录为延迟的从节点
+ * 多个可用的从节点之间随机选择, 所有的从节点都不可用时从主节点读取
+ * 集群模式下同时传入节点 ID, 不依赖 INFO replication 上报的地址和拓扑中的地址一致
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 17:55
+ */
+public class LagAwareReadFrom extends ReadFrom {
+
+    private final RedisReplicaLagTracker redisReplicaLagTracker;
+
+    public LagAwareReadFrom(RedisReplicaLagTracker redisReplicaLagTracker) {
+        this.redisReplicaLagTracker = redisReplicaLagTracker;
+    }
+
+    @Override
+    public List<RedisNodeDescription> select(Nodes nodes) {
+
+        List<RedisNodeDescription> replicaList = new ArrayList<>();
+        List<RedisNodeDescription> primaryList = new ArrayList<>(1);
+
+        for (RedisNodeDescription node : nodes) {
+            if (node.getRole() == RedisInstance.Role.SENTINEL) {
+                continue;
+            }
+            if (!node.getRole().isReplica()) {
+                primaryList.add(node);
+                continue;
+            }
+            RedisURI uri = node.getUri();
+            String nodeId = node instanceof RedisClusterNode ? ((RedisClusterNode) node).getNodeId() : null;
+            if (!redisReplicaLagTracker.isLagging(nodeId, uri.getHost(), uri.getPort())) {
+                replicaList.add(node);
+            }
+        }
+
+        // 多个从节点之间打散, 从节点在前, 主节点兜底
+        if (replicaList.size() > 1) {
+            Collections.shuffle(replicaList, ThreadLocalRandom.current());
+        }
+        replicaList.addAll(primaryList);
+        return replicaList;
+    }
+
+    @Override
+    protected boolean isOrderSensitive() {
+        return true;
+    }
+}
@@ -0,0 +1,24 @@
+package io.github.lcn29.starter.redis.replica;
+
+/**
+ * <pre>
+ * Redis 读取路由
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 17:40
+ */
+public enum RedisReadRoute {
+
+    /**
+     * 从主节点读取
+     */
+    PRIMARY,
+
+    /**
+     * 优先从复制延迟在范围内的从节点读取, 没有可用的从节点时从主节点读取
+     * 最近写入过的 Key 在 lcn.redis.replica-read.read-your-writes-millis 内仍然从主节点读取
+     */
+    REPLICA_PREFERRED,
+    ;
+}
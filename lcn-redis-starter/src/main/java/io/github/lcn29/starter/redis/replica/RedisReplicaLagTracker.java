@@ -0,0 +1,268 @@
+package io.github.lcn29.starter.redis.replica;
+
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * Redis 从节点复制延迟检查
+ * 定时在主节点上执行 INFO replication, 复制偏移量落后太多, 复制确认太久或者状态不是 online 的从节点记为延迟
+ * 延迟的从节点会被 LagAwareReadFrom 跳过, 恢复后自动重新参与读取
+ * INFO replication 上报的是从节点的 IP, 客户端的拓扑中可能是主机名, 两边都解析为 IP 后再比较, 集群模式下同时按照节点 ID 匹配
+ * 主机名只在检查的线程中解析, 选择节点时只读取解析的结果, 不会阻塞 I/O 线程
+ * 上报的从节点和已知的节点都匹配不上时 (例如配置了 replica-announce-ip) 输出一次警告, 这个从节点的延迟不会生效
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 17:45
+ */
+public class RedisReplicaLagTracker {
+
+    private final static Logger logger = LoggerFactory.getLogger(RedisReplicaLagTracker.class);
+
+    /**
+     * INFO replication 中从节点信息的 key 前缀, 如 slave0:ip=127.0.0.1,port=6380,state=online,offset=100,lag=0
+     */
+    private final static String REPLICA_INFO_PREFIX = "slave";
+
+    private final static String MASTER_REPL_OFFSET = "master_repl_offset";
+
+    private final static String REPLICA_ONLINE_STATE = "online";
+
+    private final LcnRedisProperty.ReplicaRead replicaReadProperty;
+
+    /**
+     * 主节点的连接工厂
+     */
+    private final LettuceConnectionFactory primaryConnectionFactory;
+
+    private final ScheduledExecutorService checkExecutor;
+
+    /**
+     * 当前延迟的从节点, 格式为 ip:port
+     */
+    private volatile Set<String> laggingReplicaSet = Collections.emptySet();
+
+    /**
+     * 当前延迟的从节点的集群节点 ID, 非集群模式时为空
+     */
+    private volatile Set<String> laggingNodeIdSet = Collections.emptySet();
+
+    /**
+     * 主机名解析后的 IP, 在检查的线程中刷新
+     */
+    private final Map<String, String> resolvedHostMap = new ConcurrentHashMap<>();
+
+    /**
+     * 选择节点时见过的从节点, 格式为 host:port, 非集群模式时作为已知的节点
+     */
+    private final Set<String> observedReplicaSet = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 已经警告过的匹配不上的从节点, 每个只警告一次
+     */
+    private final Set<String> unmatchedReplicaSet = ConcurrentHashMap.newKeySet();
+
+    public RedisReplicaLagTracker(LcnRedisProperty.ReplicaRead replicaReadProperty, LettuceConnectionFactory primaryConnectionFactory) {
+
+        this.replicaReadProperty = replicaReadProperty;
+        this.primaryConnectionFactory = primaryConnectionFactory;
+
+        this.checkExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lcn-redis-replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.checkExecutor.scheduleWithFixedDelay(this::check, replicaReadProperty.getLagCheckInterval(),
+                replicaReadProperty.getLagCheckInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 从节点是否延迟
+     *
+     * @param host 从节点的 host, 可以是主机名
+     * @param port 从节点的端口
+     * @return true: 延迟, 不应该从这个从节点读取
+     */
+    public boolean isLagging(String host, int port) {
+        return isLagging(null, host, port);
+    }
+
+    /**
+     * 从节点是否延迟, 集群模式下优先按照节点 ID 判断
+     *
+     * @param nodeId 集群节点 ID, 非集群模式时为 null
+     * @param host   从节点的 host, 可以是主机名
+     * @param port   从节点的端口
+     * @return true: 延迟, 不应该从这个从节点读取
+     */
+    public boolean isLagging(String nodeId, String host, int port) {
+        if (nodeId != null && laggingNodeIdSet.contains(nodeId)) {
+            return true;
+        }
+        String replicaNode = host + ":" + port;
+        // 大部分情况下已经存在, 先判断避免写入
+        if (!observedReplicaSet.contains(replicaNode)) {
+            observedReplicaSet.add(replicaNode);
+        }
+        return laggingReplicaSet.contains(resolvedHostMap.getOrDefault(host, host) + ":" + port);
+    }
+
+    /**
+     * 当前延迟的从节点
+     *
+     * @return 延迟的从节点, 格式为 ip:port
+     */
+    public Set<String> laggingReplicas() {
+        return laggingReplicaSet;
+    }
+
+    public void destroy() {
+        checkExecutor.shutdownNow();
+    }
+
+    /**
+     * 检查所有主节点下的从节点
+     */
+    private void check() {
+        try {
+            Set<String> laggingSet = new HashSet<>();
+            Set<String> laggingIdSet = new HashSet<>();
+            // 已知的节点, key 为 ip:port, value 为集群节点 ID, 非集群模式时为空字符串
+            Map<String, String> knownNodeMap = new HashMap<>();
+            if (primaryConnectionFactory.isClusterAware()) {
+                try (RedisClusterConnection clusterConnection = primaryConnectionFactory.getClusterConnection()) {
+                    Iterable<RedisClusterNode> clusterNodes = clusterConnection.clusterGetNodes();
+                    for (RedisClusterNode clusterNode : clusterNodes) {
+                        knownNodeMap.put(normalize(clusterNode.getHost(), clusterNode.getPort()), clusterNode.getId());
+                    }
+                    for (RedisClusterNode clusterNode : clusterNodes) {
+                        if (clusterNode.isMaster()) {
+                            collectLagging(clusterConnection.serverCommands().info(clusterNode, "replication"),
+                                    knownNodeMap, laggingSet, laggingIdSet);
+                        }
+                    }
+                }
+            } else {
+                for (String replicaNode : observedReplicaSet) {
+                    int index = replicaNode.lastIndexOf(':');
+                    knownNodeMap.put(normalize(replicaNode.substring(0, index),
+                            Integer.parseInt(replicaNode.substring(index + 1))), "");
+                }
+                try (RedisConnection connection = primaryConnectionFactory.getConnection()) {
+                    collectLagging(connection.serverCommands().info("replication"), knownNodeMap, laggingSet, laggingIdSet);
+                }
+            }
+
+            if (!laggingSet.equals(laggingReplicaSet)) {
+                logger.info("Redis lagging replicas changed: {}", laggingSet);
+            }
+            laggingReplicaSet = laggingSet;
+            laggingNodeIdSet = laggingIdSet;
+        } catch (Exception ex) {
+            // 检查失败时保留上一次的结果
+            logger.warn("Redis replica lag check fail, message:{}", ex.getMessage());
+        }
+    }
+
+    /**
+     * 解析一个主节点的 INFO replication
+     *
+     * @param replicationInfo INFO replication 的结果
+     * @param knownNodeMap    已知的节点, key 为 ip:port, value 为集群节点 ID
+     * @param laggingSet      延迟的从节点, 格式为 ip:port
+     * @param laggingIdSet    延迟的从节点的集群节点 ID
+     */
+    private void collectLagging(Properties replicationInfo, Map<String, String> knownNodeMap,
+                                Set<String> laggingSet, Set<String> laggingIdSet) {
+
+        if (replicationInfo == null) {
+            return;
+        }
+
+        long masterOffset = Long.parseLong(replicationInfo.getProperty(MASTER_REPL_OFFSET, "0").trim());
+        for (String name : replicationInfo.stringPropertyNames()) {
+            // 只处理 slave0, slave1 ..., 跳过 slave_repl_offset 等其他属性
+            if (!name.startsWith(REPLICA_INFO_PREFIX) || name.length() == REPLICA_INFO_PREFIX.length()
+                    || !Character.isDigit(name.charAt(REPLICA_INFO_PREFIX.length()))) {
+                continue;
+            }
+
+            Map<String, String> replicaInfo = parseReplicaInfo(replicationInfo.getProperty(name));
+            String replicaNode = normalize(replicaInfo.get("ip"), Integer.parseInt(replicaInfo.getOrDefault("port", "0")));
+            String nodeId = knownNodeMap.get(replicaNode);
+            if (nodeId == null && !knownNodeMap.isEmpty() && unmatchedReplicaSet.add(replicaNode)) {
+                logger.warn("Redis replica {} reported by INFO replication matches no known node {}, its lag is ignored, "
+                        + "check replica-announce-ip/port", replicaNode, knownNodeMap.keySet());
+            }
+            long offset = Long.parseLong(replicaInfo.getOrDefault("offset", "0"));
+            long lagSeconds = Long.parseLong(replicaInfo.getOrDefault("lag", "0"));
+
+            if (!REPLICA_ONLINE_STATE.equals(replicaInfo.get("state"))
+                    || masterOffset - offset > replicaReadProperty.getMaxLagBytes()
+                    || lagSeconds > replicaReadProperty.getMaxLagSeconds()) {
+                laggingSet.add(replicaNode);
+                if (nodeId != null && !nodeId.isEmpty()) {
+                    laggingIdSet.add(nodeId);
+                }
+            }
+        }
+    }
+
+    /**
+     * 把主机名解析为 IP, 解析结果同时提供给选择节点时使用, 解析失败时使用原来的主机名
+     *
+     * @param host 主机名或者 IP
+     * @param port 端口
+     * @return ip:port
+     */
+    private String normalize(String host, int port) {
+        if (host == null) {
+            return ":" + port;
+        }
+        String ip;
+        try {
+            ip = InetAddress.getByName(host).getHostAddress();
+        } catch (UnknownHostException ex) {
+            logger.debug("Redis replica host resolve fail, host:{}", host);
+            ip = host;
+        }
+        resolvedHostMap.put(host, ip);
+        return ip + ":" + port;
+    }
+
+    /**
+     * 解析从节点信息, 格式为 ip=127.0.0.1,port=6380,state=online,offset=100,lag=0
+     *
+     * @param replicaInfo 从节点信息
+     * @return 从节点信息的键值对
+     */
+    private Map<String, String> parseReplicaInfo(String replicaInfo) {
+        Map<String, String> infoMap = new HashMap<>();
+        for (String item : replicaInfo.split(",")) {
+            int index = item.indexOf('=');
+            if (index > 0) {
+                infoMap.put(item.substring(0, index).trim(), item.substring(index + 1).trim());
+            }
+        }
+        return infoMap;
+    }
+}
@@ -0,0 +1,125 @@
+package io.github.lcn29.starter.redis.replica;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.lcn29.starter.redis.constants.RedisConstants;
+import io.github.lcn29.starter.redis.key.RedisKeyDesc;
+import io.github.lcn29.starter.redis.key.RedisKeyDescRegistry;
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * Redis 读取路由
+ * 读取时按照方法参数指定的路由, 或者 RedisKeyDesc#readRoute 决定从主节点还是从节点读取
+ * 写入过的 Key 在 read-your-writes-millis 内固定从主节点读取, 避免读到复制之前的旧值
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 18:05
+ */
+public class RedisReplicaRouter {
+
+    private final static Logger logger = LoggerFactory.getLogger(RedisReplicaRouter.class);
+
+    /**
+     * 从节点读取的连接工厂, 由路由自己管理生命周期, 不注册为 bean, 避免和主节点的连接工厂冲突
+     */
+    private final LettuceConnectionFactory replicaConnectionFactory;
+
+    /**
+     * 从节点读取的 RedisTemplate
+     */
+    private final RedisTemplate<String, Object> replicaRedisTemplate;
+
+    /**
+     * 最近写入过, 需要固定从主节点读取的 Key, 为空时不固定
+     */
+    private final Cache<String, Boolean> pinnedKeyCache;
+
+    private final RedisReplicaLagTracker redisReplicaLagTracker;
+
+    public RedisReplicaRouter(LcnRedisProperty.ReplicaRead replicaReadProperty,
+                              LettuceConnectionFactory replicaConnectionFactory,
+                              RedisTemplate<String, Object> replicaRedisTemplate,
+                              RedisReplicaLagTracker redisReplicaLagTracker) {
+
+        this.replicaConnectionFactory = replicaConnectionFactory;
+        this.replicaRedisTemplate = replicaRedisTemplate;
+        this.redisReplicaLagTracker = redisReplicaLagTracker;
+
+        if (replicaReadProperty.getReadYourWritesMillis() > RedisConstants.LONG_ZERO) {
+            this.pinnedKeyCache = Caffeine.newBuilder()
+                    .maximumSize(replicaReadProperty.getPinnedMaximumSize())
+                    .expireAfterWrite(replicaReadProperty.getReadYourWritesMillis(), TimeUnit.MILLISECONDS)
+                    .build();
+        } else {
+            this.pinnedKeyCache = null;
+        }
+
+        logger.info("Lcn Redis replica read init, read your writes: {}ms, max lag: {} bytes / {}s",
+                replicaReadProperty.getReadYourWritesMillis(), replicaReadProperty.getMaxLagBytes(),
+                replicaReadProperty.getMaxLagSeconds());
+    }
+
+    /**
+     * 是否从从节点读取
+     *
+     * @param redisKey  Redis Key
+     * @param readRoute 方法参数指定的路由, 为空时使用 RedisKeyDesc#readRoute
+     * @return true: 从从节点读取
+     */
+    public boolean useReplica(String redisKey, RedisReadRoute readRoute) {
+
+        RedisReadRoute route = readRoute;
+        if (route == null) {
+            RedisKeyDesc redisKeyDesc = RedisKeyDescRegistry.resolve(redisKey);
+            route = redisKeyDesc == null ? RedisReadRoute.PRIMARY : redisKeyDesc.readRoute();
+        }
+
+        if (route != RedisReadRoute.REPLICA_PREFERRED) {
+            return false;
+        }
+        return pinnedKeyCache == null || pinnedKeyCache.getIfPresent(redisKey) == null;
+    }
+
+    /**
+     * 记录写入, 在 read-your-writes-millis 内这个 Key 固定从主节点读取
+     *
+     * @param redisKey Redis Key
+     */
+    public void pin(String redisKey) {
+        if (pinnedKeyCache != null) {
+            pinnedKeyCache.put(redisKey, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * 批量记录写入
+     *
+     * @param redisKeys Redis Key 列表
+     */
+    public void pinAll(Collection<String> redisKeys) {
+        if (pinnedKeyCache != null) {
+            redisKeys.forEach(redisKey -> pinnedKeyCache.put(redisKey, Boolean.TRUE));
+        }
+    }
+
+    public RedisTemplate<String, Object> getReplicaRedisTemplate() {
+        return replicaRedisTemplate;
+    }
+
+    public RedisReplicaLagTracker getRedisReplicaLagTracker() {
+        return redisReplicaLagTracker;
+    }
+
+    public void destroy() {
+        replicaConnectionFactory.destroy();
+    }
+}
@@ -0,0 +1,177 @@
+package io.github.lcn29.starter.redis.resource;
+
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import io.lettuce.core.resource.DefaultEventLoopGroupProvider;
+import io.lettuce.core.resource.EventLoopGroupProvider;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+import org.redisson.config.Config;
+import org.redisson.config.TransportMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * Lettuce 和 Redisson 共享的 Netty 资源
+ * 两个客户端默认各自创建 EventLoop 和计算线程, 连接同一个 Redis 时会有两组线程
+ * 共享之后线程数减少, 对延迟和堆外内存的影响还没有测量, 可以用 RedisSharedResourcesBenchmark 在实际环境中对比
+ * 这里创建一组 NIO 的 EventLoop 和一组计算线程, Lettuce 通过 ClientResources 使用, Redisson 通过 Config 使用
+ * 两个客户端都不会关闭外部传入的线程, 由当前类在两个客户端关闭之后统一关闭
+ * Lettuce 使用 epoll/kqueue 等原生传输时无法使用 NIO 的 EventLoop, 这时 Lettuce 退回到自己创建的 EventLoop
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 22:40
+ */
+public class RedisSharedResources {
+
+    private final static Logger logger = LoggerFactory.getLogger(RedisSharedResources.class);
+
+    private final static int MIN_THREADS = 2;
+
+    private final int ioThreads;
+
+    private final int computationThreads;
+
+    private final long shutdownQuietPeriodMillis;
+
+    private final long shutdownTimeoutMillis;
+
+    private final NioEventLoopGroup eventLoopGroup;
+
+    private final EventExecutorGroup eventExecutorGroup;
+
+    private final SharedEventLoopGroupProvider eventLoopGroupProvider;
+
+    public RedisSharedResources(LcnRedisProperty.SharedResources sharedResourcesProperty) {
+        this.ioThreads = threadCount(sharedResourcesProperty.getIoThreads());
+        this.computationThreads = threadCount(sharedResourcesProperty.getComputationThreads());
+        this.shutdownQuietPeriodMillis = sharedResourcesProperty.getShutdownQuietPeriodMillis();
+        this.shutdownTimeoutMillis = sharedResourcesProperty.getShutdownTimeoutMillis();
+        this.eventLoopGroup = new NioEventLoopGroup(ioThreads, new DefaultThreadFactory("lcn-redis-io", true));
+        this.eventExecutorGroup = new DefaultEventExecutorGroup(computationThreads,
+                new DefaultThreadFactory("lcn-redis-computation", true));
+        this.eventLoopGroupProvider = new SharedEventLoopGroupProvider();
+        logger.info("Lcn Redis shared resources init, io threads: {}, computation threads: {}", ioThreads, computationThreads);
+    }
+
+    /**
+     * 创建使用共享线程的 Lettuce ClientResources
+     * ClientResources 关闭时不会关闭共享的线程
+     *
+     * @return ClientResources
+     */
+    public ClientResources createClientResources() {
+        return DefaultClientResources.builder()
+                .eventLoopGroupProvider(eventLoopGroupProvider)
+                .eventExecutorGroup(eventExecutorGroup)
+                .build();
+    }
+
+    /**
+     * 让 Redisson 使用共享的线程, Redisson 的 nettyThreads 和 threads 配置不再生效
+     *
+     * @param config Redisson 配置
+     */
+    public void configureRedisson(Config config) {
+        config.setTransportMode(TransportMode.NIO);
+        config.setEventLoopGroup(eventLoopGroup);
+        config.setExecutor(eventExecutorGroup);
+    }
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public int getComputationThreads() {
+        return computationThreads;
+    }
+
+    /**
+     * 关闭共享的线程, 需要在 Lettuce 和 Redisson 关闭之后执行
+     */
+    public void destroy() {
+        eventLoopGroupProvider.shutdownFallback(shutdownQuietPeriodMillis, shutdownTimeoutMillis);
+        Future<?> eventLoopFuture = eventLoopGroup.shutdownGracefully(shutdownQuietPeriodMillis, shutdownTimeoutMillis,
+                TimeUnit.MILLISECONDS);
+        Future<?> executorFuture = eventExecutorGroup.shutdownGracefully(shutdownQuietPeriodMillis, shutdownTimeoutMillis,
+                TimeUnit.MILLISECONDS);
+        eventLoopFuture.awaitUninterruptibly(shutdownTimeoutMillis);
+        executorFuture.awaitUninterruptibly(shutdownTimeoutMillis);
+        logger.info("Lcn Redis shared resources destroyed");
+    }
+
+    private static int threadCount(int configThreads) {
+        int threads = configThreads > 0 ? configThreads : Runtime.getRuntime().availableProcessors();
+        return Math.max(threads, MIN_THREADS);
+    }
+
+    /**
+     * 给 Lettuce 使用的 EventLoopGroupProvider
+     * 请求 NIO 的 EventLoop 时返回共享的 EventLoop, 释放时不关闭; 请求其他类型时交给 Lettuce 默认的实现创建
+     */
+    private final class SharedEventLoopGroupProvider implements EventLoopGroupProvider {
+
+        private volatile DefaultEventLoopGroupProvider fallbackProvider;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T extends EventLoopGroup> T allocate(Class<T> type) {
+            if (type.isAssignableFrom(NioEventLoopGroup.class)) {
+                return (T) eventLoopGroup;
+            }
+            return fallbackProvider().allocate(type);
+        }
+
+        @Override
+        public int threadPoolSize() {
+            return ioThreads;
+        }
+
+        @Override
+        public Future<Boolean> release(EventExecutorGroup eventLoopGroup, long quietPeriod, long timeout, TimeUnit unit) {
+            DefaultEventLoopGroupProvider provider = fallbackProvider;
+            if (eventLoopGroup == RedisSharedResources.this.eventLoopGroup || provider == null) {
+                return ImmediateEventExecutor.INSTANCE.newSucceededFuture(Boolean.TRUE);
+            }
+            return provider.release(eventLoopGroup, quietPeriod, timeout, unit);
+        }
+
+        @Override
+        public Future<Boolean> shutdown(long quietPeriod, long timeout, TimeUnit timeUnit) {
+            // 共享的 EventLoop 由 RedisSharedResources#destroy 关闭
+            return ImmediateEventExecutor.INSTANCE.newSucceededFuture(Boolean.TRUE);
+        }
+
+        private DefaultEventLoopGroupProvider fallbackProvider() {
+            DefaultEventLoopGroupProvider provider = fallbackProvider;
+            if (provider == null) {
+                synchronized (this) {
+                    provider = fallbackProvider;
+                    if (provider == null) {
+                        logger.warn("Lettuce uses a native transport, it can not share the NIO event loop with Redisson");
+                        provider = new DefaultEventLoopGroupProvider(ioThreads);
+                        fallbackProvider = provider;
+                    }
+                }
+            }
+            return provider;
+        }
+
+        private void shutdownFallback(long quietPeriod, long timeout) {
+            DefaultEventLoopGroupProvider provider = fallbackProvider;
+            if (provider != null) {
+                provider.shutdown(quietPeriod, timeout, TimeUnit.MILLISECONDS).awaitUninterruptibly(timeout);
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package io.github.lcn29.starter.redis.script;
+
+import io.github.lcn29.starter.redis.constants.RedisConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <pre>
+ * Redis Lua 脚本注册表
+ * 脚本按照名称注册, 启动时通过 SCRIPT LOAD 预加载, 执行时使用 EVALSHA, 只传输脚本的 SHA1
+ * Redis 重启或者执行了 SCRIPT FLUSH 后返回 NOSCRIPT, 自动退回 EVAL, EVAL 同时会把脚本重新加载到 Redis 的脚本缓存中
+ * 参数为字节数组, 值类型的参数由调用方通过 RedisTemplate 的 Value 序列化得到, 和普通读写的格式保持一致
+ * 集群模式下, 一个脚本操作的所有 Key 必须在同一个 slot, 可以通过 {hash tag} 保证
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 19:00
+ */
+public class RedisScriptRegistry {
+
+    private final static Logger logger = LoggerFactory.getLogger(RedisScriptRegistry.class);
+
+    /**
+     * 内置的脚本名称, 脚本文件位于 classpath:lcn-redis/scripts/{name}.lua
+     */
+    public final static String COMPARE_AND_SET = "compare-and-set";
+    public final static String GET_AND_EXPIRE = "get-and-expire";
+    public final static String DELETE_IF_EQUALS = "delete-if-equals";
+    public final static String INCREMENT_WITH_CAP = "increment-with-cap";
+    public final static String TOKEN_BUCKET_ACQUIRE = "token-bucket-acquire";
+
+    private final static String BUILT_IN_SCRIPT_LOCATION = "lcn-redis/scripts/%s.lua";
+
+    private final static String NO_SCRIPT_ERROR = "NOSCRIPT";
+
+    private final static char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final Map<String, RedisScriptDefinition> scriptMap = new ConcurrentHashMap<>();
+
+    public RedisScriptRegistry(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+        registerResource(COMPARE_AND_SET, String.format(BUILT_IN_SCRIPT_LOCATION, COMPARE_AND_SET));
+        registerResource(GET_AND_EXPIRE, String.format(BUILT_IN_SCRIPT_LOCATION, GET_AND_EXPIRE));
+        registerResource(DELETE_IF_EQUALS, String.format(BUILT_IN_SCRIPT_LOCATION, DELETE_IF_EQUALS));
+        registerResource(INCREMENT_WITH_CAP, String.format(BUILT_IN_SCRIPT_LOCATION, INCREMENT_WITH_CAP));
+        registerResource(TOKEN_BUCKET_ACQUIRE, String.format(BUILT_IN_SCRIPT_LOCATION, TOKEN_BUCKET_ACQUIRE));
+    }
+
+    /**
+     * 注册脚本, 同名的脚本会被覆盖
+     *
+     * @param name   脚本名称
+     * @param script Lua 脚本
+     */
+    public void register(String name, String script) {
+        byte[] scriptBytes = script.getBytes(StandardCharsets.UTF_8);
+        scriptMap.put(name, new RedisScriptDefinition(scriptBytes, sha1Hex(scriptBytes)));
+    }
+
+    /**
+     * 注册 classpath 下的脚本文件
+     *
+     * @param name     脚本名称
+     * @param location 脚本文件在 classpath 下的路径
+     */
+    public void registerResource(String name, String location) {
+        try (InputStream inputStream = new ClassPathResource(location).getInputStream()) {
+            register(name, StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Load redis script fail, location: " + location, ex);
+        }
+    }
+
+    /**
+     * 通过 SCRIPT LOAD 预加载所有注册的脚本, 加载失败不影响执行, 执行时会退回 EVAL
+     */
+    public void loadAll() {
+        try {
+            redisTemplate.execute((RedisCallback<Object>) connection -> {
+                for (RedisScriptDefinition definition : scriptMap.values()) {
+                    connection.scriptLoad(definition.scriptBytes);
+                }
+                return null;
+            });
+            logger.info("Lcn Redis scripts loaded: {}", scriptMap.keySet());
+        } catch (Exception ex) {
+            logger.warn("Lcn Redis scripts load fail, fallback to EVAL when executing, message:{}", ex.getMessage());
+        }
+    }
+
+    /**
+     * 执行脚本
+     *
+     * @param name       脚本名称
+     * @param returnType 返回值类型
+     * @param keys       脚本操作的 Key
+     * @param args       脚本的参数
+     * @return 脚本的返回值, ReturnType.VALUE 为 byte[], ReturnType.INTEGER 为 Long
+     */
+    public <T> T execute(String name, ReturnType returnType, List<String> keys, byte[]... args) {
+
+        RedisScriptDefinition definition = scriptMap.get(name);
+        if (definition == null) {
+            throw new IllegalArgumentException("Redis script not registered: " + name);
+        }
+
+        @SuppressWarnings("unchecked")
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        byte[][] keysAndArgs = new byte[keys.size() + args.length][];
+        for (int i = 0; i < keys.size(); i++) {
+            keysAndArgs[i] = keySerializer.serialize(keys.get(i));
+        }
+        System.arraycopy(args, RedisConstants.INT_ZERO, keysAndArgs, keys.size(), args.length);
+
+        return redisTemplate.execute((RedisCallback<T>) connection -> {
+            try {
+                return connection.evalSha(definition.sha1, returnType, keys.size(), keysAndArgs);
+            } catch (RuntimeException ex) {
+                if (!isNoScriptError(ex)) {
+                    throw ex;
+                }
+                logger.info("Redis script not in cache, fallback to EVAL, name:{}", name);
+                return connection.eval(definition.scriptBytes, returnType, keys.size(), keysAndArgs);
+            }
+        });
+    }
+
+    /**
+     * 异常链中是否包含 NOSCRIPT 错误
+     *
+     * @param ex 异常
+     * @return true: 脚本不在 Redis 的脚本缓存中
+     */
+    private boolean isNoScriptError(Throwable ex) {
+        Throwable current = ex;
+        while (current != null) {
+            if (current.getMessage() != null && current.getMessage().contains(NO_SCRIPT_ERROR)) {
+                return true;
+            }
+            current = current.getCause() == current ? null : current.getCause();
+        }
+        return false;
+    }
+
+    private static String sha1Hex(byte[] scriptBytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(scriptBytes);
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[i * 2] = HEX_CHARS[(digest[i] >> 4) & 0x0F];
+                hex[i * 2 + 1] = HEX_CHARS[digest[i] & 0x0F];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-1 not supported", ex);
+        }
+    }
+
+    /**
+     * 注册的脚本
+     */
+    private final static class RedisScriptDefinition {
+
+        private final byte[] scriptBytes;
+
+        private final String sha1;
+
+        private RedisScriptDefinition(byte[] scriptBytes, String sha1) {
+            this.scriptBytes = scriptBytes;
+            this.sha1 = sha1;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package io.github.lcn29.starter.redis.sequence;
+
+import io.github.lcn29.starter.redis.metrics.RedisMetrics;
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <pre>
+ * 基于 Redis INCRBY 的号段 ID 生成
+ * 每个实例通过一次 INCRBY step 获取 (end - step, end] 的一段 ID, 号段内的 ID 通过 AtomicLong 自增发放, 不访问 Redis
+ * 双缓冲: 当前号段剩余的比例低于 prefetchRatio 时异步获取下一个号段, 当前号段用完时直接切换, 调用方基本不会等待 Redis
+ * 号段的大小按照上一个号段的消耗速度调整, 使一个号段大约使用 segmentDurationMillis, 每次最多调整为 2 倍或者 1/2
+ * 同一个序列在所有实例之间唯一并且在单个实例内递增, 实例之间不保证递增, 实例重启时没有用完的号段直接丢弃, ID 不连续
+ * 序列的值保存在 Redis 中, Redis 需要开启持久化, 否则数据丢失后会生成重复的 ID
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 23:50
+ */
+public class RedisSequenceGenerator {
+
+    private final static Logger logger = LoggerFactory.getLogger(RedisSequenceGenerator.class);
+
+    private final Counter counter;
+
+    private final long minStep;
+
+    private final long maxStep;
+
+    private final long segmentDurationNanos;
+
+    private final double prefetchRatio;
+
+    private final long fetchTimeoutMillis;
+
+    private final ThreadPoolExecutor prefetchExecutor;
+
+    /**
+     * 每个序列的双缓冲, key 为序列的 Redis Key
+     */
+    private final Map<String, SegmentBuffer> bufferMap = new ConcurrentHashMap<>();
+
+    private RedisMetrics redisMetrics = RedisMetrics.NOOP;
+
+    public RedisSequenceGenerator(LcnRedisProperty.Sequence sequenceProperty, RedisTemplate<String, Object> redisTemplate) {
+        this(sequenceProperty, (redisKey, step) -> incrBy(redisTemplate, redisKey, step));
+    }
+
+    RedisSequenceGenerator(LcnRedisProperty.Sequence sequenceProperty, Counter counter) {
+
+        this.counter = counter;
+        this.minStep = Math.max(sequenceProperty.getMinStep(), 1L);
+        this.maxStep = Math.max(sequenceProperty.getMaxStep(), minStep);
+        this.segmentDurationNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(sequenceProperty.getSegmentDurationMillis(), 1L));
+        this.prefetchRatio = Math.min(Math.max(sequenceProperty.getPrefetchRatio(), 0.0D), 1.0D);
+        this.fetchTimeoutMillis = sequenceProperty.getFetchTimeoutMillis();
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.prefetchExecutor = new ThreadPoolExecutor(
+                sequenceProperty.getPrefetchThreads(), sequenceProperty.getPrefetchThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(sequenceProperty.getPrefetchQueueSize()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "lcn-redis-sequence-prefetch-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public void setRedisMetrics(RedisMetrics redisMetrics) {
+        this.redisMetrics = redisMetrics == null ? RedisMetrics.NOOP : redisMetrics;
+    }
+
+    /**
+     * 获取序列的下一个 ID
+     *
+     * @param redisKey 序列的 Redis Key
+     * @return 下一个 ID, 从 1 开始
+     */
+    public long nextId(String redisKey) {
+
+        SegmentBuffer buffer = bufferMap.computeIfAbsent(redisKey, key -> new SegmentBuffer(minStep));
+        while (true) {
+            Segment segment = buffer.current;
+            if (segment != null) {
+                long id = segment.cursor.getAndIncrement();
+                if (id <= segment.end) {
+                    // 只有一个线程会拿到预取位置的 ID
+                    if (id == segment.prefetchAt) {
+                        prefetch(redisKey, buffer, segment);
+                    }
+                    return id;
+                }
+            }
+            switchSegment(redisKey, buffer, segment);
+        }
+    }
+
+    public void destroy() {
+        prefetchExecutor.shutdown();
+    }
+
+    /**
+     * 异步获取下一个号段, 线程池的队列满了时放弃, 当前号段用完时同步获取
+     *
+     * @param redisKey 序列的 Redis Key
+     * @param buffer   序列的双缓冲
+     * @param segment  当前号段
+     */
+    private void prefetch(String redisKey, SegmentBuffer buffer, Segment segment) {
+        synchronized (buffer) {
+            if (buffer.next != null || buffer.current != segment) {
+                return;
+            }
+            long step = nextStep(buffer.step, segment);
+            try {
+                buffer.next = CompletableFuture.supplyAsync(() -> fetch(redisKey, step, true), prefetchExecutor);
+            } catch (RejectedExecutionException ex) {
+                logger.warn("Redis sequence prefetch rejected, redisKey:{}", redisKey);
+            }
+        }
+    }
+
+    /**
+     * 当前号段用完时切换到下一个号段, 下一个号段还没有获取时同步获取
+     *
+     * @param redisKey  序列的 Redis Key
+     * @param buffer    序列的双缓冲
+     * @param exhausted 已经用完的号段, 第一次获取时为 null
+     */
+    private void switchSegment(String redisKey, SegmentBuffer buffer, Segment exhausted) {
+        synchronized (buffer) {
+            if (buffer.current != exhausted) {
+                // 其他线程已经切换
+                return;
+            }
+
+            Segment segment = null;
+            CompletableFuture<Segment> next = buffer.next;
+            buffer.next = null;
+            if (next != null) {
+                segment = await(redisKey, next);
+            }
+            if (segment == null) {
+                long step = exhausted == null ? buffer.step : nextStep(buffer.step, exhausted);
+                segment = fetch(redisKey, step, false);
+            }
+
+            segment.installNanos = System.nanoTime();
+            buffer.step = segment.step;
+            buffer.current = segment;
+        }
+    }
+
+    /**
+     * 等待异步获取的号段
+     *
+     * @param redisKey 序列的 Redis Key
+     * @param next     异步获取的号段
+     * @return 号段, 获取失败或者超时时返回 null
+     */
+    private Segment await(String redisKey, CompletableFuture<Segment> next) {
+        try {
+            return next.get(fetchTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for redis sequence segment, redisKey: " + redisKey, ex);
+        } catch (ExecutionException | TimeoutException ex) {
+            // 超时的号段即使之后获取成功也直接丢弃, 只会让 ID 不连续
+            logger.warn("Redis sequence prefetch fail, fallback to fetch synchronously, redisKey:{}, message:{}",
+                    redisKey, ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 通过 INCRBY 获取一个号段
+     *
+     * @param redisKey 序列的 Redis Key
+     * @param step     号段的长度
+     * @param async    是否是异步获取
+     * @return 号段
+     */
+    private Segment fetch(String redisKey, long step, boolean async) {
+
+        long startNanos = redisMetrics.startNanos();
+        Long end = counter.incrBy(redisKey, step);
+        if (end == null) {
+            throw new IllegalStateException("Redis sequence INCRBY returns null, redisKey: " + redisKey);
+        }
+        redisMetrics.recordSequenceFetch(redisKey, step, async, startNanos);
+
+        long start = end - step + 1L;
+        long prefetchAt = Math.min(end, start + (long) (step * (1.0D - prefetchRatio)));
+        return new Segment(start, end, prefetchAt, step);
+    }
+
+    /**
+     * 执行 INCRBY
+     *
+     * @param redisTemplate RedisTemplate
+     * @param redisKey      序列的 Redis Key
+     * @param step          增加的值
+     * @return 增加之后的值
+     */
+    private static Long incrBy(RedisTemplate<String, Object> redisTemplate, String redisKey, long step) {
+        @SuppressWarnings("unchecked")
+        RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        byte[] keyBytes = keySerializer.serialize(redisKey);
+        return redisTemplate.execute((RedisCallback<Long>) connection -> connection.incrBy(keyBytes, step));
+    }
+
+    /**
+     * 按照号段的消耗速度计算下一个号段的长度
+     *
+     * @param step    当前的号段长度
+     * @param segment 当前号段
+     * @return 下一个号段的长度
+     */
+    private long nextStep(long step, Segment segment) {
+
+        long elapsedNanos = System.nanoTime() - segment.installNanos;
+        long consumed = Math.min(segment.cursor.get(), segment.end + 1L) - segment.start;
+        if (elapsedNanos <= 0L || consumed <= 0L) {
+            return step;
+        }
+
+        // 按照当前的速度, 一个号段使用 segmentDurationNanos 需要的长度
+        double expected = (double) consumed * segmentDurationNanos / elapsedNanos;
+        long nextStep = (long) Math.min(Math.max(expected, step / 2.0D), step * 2.0D);
+        return Math.min(Math.max(nextStep, minStep), maxStep);
+    }
+
+    /**
+     * 序列在 Redis 中的计数器, 默认通过 RedisTemplate 执行 INCRBY
+     */
+    @FunctionalInterface
+    interface Counter {
+
+        /**
+         * 原子地增加序列的值
+         *
+         * @param redisKey 序列的 Redis Key
+         * @param step     增加的值
+         * @return 增加之后的值
+         */
+        Long incrBy(String redisKey, long step);
+    }
+
+    /**
+     * 一个序列的双缓冲, 切换号段和发起预取时持有当前对象的锁
+     */
+    private final static class SegmentBuffer {
+
+        /**
+         * 当前号段的长度
+         */
+        private volatile long step;
+
+        /**
+         * 当前正在发放的号段
+         */
+        private volatile Segment current;
+
+        /**
+         * 异步获取的下一个号段
+         */
+        private CompletableFuture<Segment> next;
+
+        private SegmentBuffer(long step) {
+            this.step = step;
+        }
+    }
+
+    /**
+     * 一个号段, [start, end] 内的 ID 通过 cursor 自增发放
+     */
+    private final static class Segment {
+
+        private final long start;
+
+        private final long end;
+
+        /**
+         * 发放到这个 ID 时异步获取下一个号段
+         */
+        private final long prefetchAt;
+
+        private final long step;
+
+        private final AtomicLong cursor;
+
+        /**
+         * 开始发放的时间, System#nanoTime
+         */
+        private volatile long installNanos;
+
+        private Segment(long start, long end, long prefetchAt, long step) {
+            this.start = start;
+            this.end = end;
+            this.prefetchAt = prefetchAt;
+            this.step = step;
+            this.cursor = new AtomicLong(start);
+            this.installNanos = System.nanoTime();
+        }
+    }
+}
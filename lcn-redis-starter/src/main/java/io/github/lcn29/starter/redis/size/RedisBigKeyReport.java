@@ -0,0 +1,136 @@
+package io.github.lcn29.starter.redis.size;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <pre>
+ * 大 Key 扫描的结果
+ * 内存占用为 MEMORY USAGE 返回的字节数, 包含 Key, Value 和 Redis 内部结构的开销
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 21:45
+ */
+public class RedisBigKeyReport {
+
+    /**
+     * 扫描到的 Key 的个数
+     */
+    private final long scannedKeys;
+
+    /**
+     * 所有 Key 的内存占用之和
+     */
+    private final long totalBytes;
+
+    /**
+     * 内存占用最大的 Key, 从大到小排列
+     */
+    private final List<KeyUsage> largestKeys;
+
+    /**
+     * 每个 Key 族的统计, 按照内存占用之和从大到小排列
+     */
+    private final Map<String, FamilyUsage> families;
+
+    public RedisBigKeyReport(long scannedKeys, long totalBytes, List<KeyUsage> largestKeys, Map<String, FamilyUsage> families) {
+        this.scannedKeys = scannedKeys;
+        this.totalBytes = totalBytes;
+        this.largestKeys = largestKeys;
+        this.families = families;
+    }
+
+    public long getScannedKeys() {
+        return scannedKeys;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public List<KeyUsage> getLargestKeys() {
+        return largestKeys;
+    }
+
+    public Map<String, FamilyUsage> getFamilies() {
+        return families;
+    }
+
+    /**
+     * 单个 Key 的内存占用
+     */
+    public static class KeyUsage {
+
+        private final String redisKey;
+
+        private final String family;
+
+        private final long bytes;
+
+        public KeyUsage(String redisKey, String family, long bytes) {
+            this.redisKey = redisKey;
+            this.family = family;
+            this.bytes = bytes;
+        }
+
+        public String getRedisKey() {
+            return redisKey;
+        }
+
+        public String getFamily() {
+            return family;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+
+    /**
+     * 一个 Key 族的内存占用
+     */
+    public static class FamilyUsage {
+
+        private final String family;
+
+        private final long keyCount;
+
+        private final long totalBytes;
+
+        private final long maxBytes;
+
+        /**
+         * 这个族中内存占用最大的 Key, 从大到小排列
+         */
+        private final List<KeyUsage> largestKeys;
+
+        public FamilyUsage(String family, long keyCount, long totalBytes, long maxBytes, List<KeyUsage> largestKeys) {
+            this.family = family;
+            this.keyCount = keyCount;
+            this.totalBytes = totalBytes;
+            this.maxBytes = maxBytes;
+            this.largestKeys = largestKeys;
+        }
+
+        public String getFamily() {
+            return family;
+        }
+
+        public long getKeyCount() {
+            return keyCount;
+        }
+
+        public long getTotalBytes() {
+            return totalBytes;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public List<KeyUsage> getLargestKeys() {
+            return largestKeys;
+        }
+    }
+}
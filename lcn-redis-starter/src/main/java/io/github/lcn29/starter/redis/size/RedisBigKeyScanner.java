@@ -0,0 +1,211 @@
+package io.github.lcn29.starter.redis.size;
+
+import io.github.lcn29.starter.redis.constants.RedisConstants;
+import io.github.lcn29.starter.redis.key.RedisKeyDesc;
+import io.github.lcn29.starter.redis.key.RedisKeyDescRegistry;
+import io.github.lcn29.starter.redis.lettuce.LettuceNativeConnection;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * <pre>
+ * 大 Key 扫描
+ * 通过 SCAN 分批遍历 Key (集群模式下遍历所有主节点), 每批 Key 的 MEMORY USAGE 在同一个连接上流水线发出, 按照 RedisKeyDesc 族汇总
+ * 会遍历整个 Key 空间, 适合在低峰期离线执行, 可以通过 pauseMillis 在批次之间暂停, 降低对 Redis 的压力
+ * 扫描期间被删除的 Key 会被忽略
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 21:45
+ */
+public class RedisBigKeyScanner {
+
+    private final static Logger logger = LoggerFactory.getLogger(RedisBigKeyScanner.class);
+
+    private final static String MATCH_ALL = "*";
+
+    private final static String UNKNOWN_FAMILY = "unknown";
+
+    private final static int DEFAULT_SCAN_COUNT = 500;
+
+    private final static Comparator<RedisBigKeyReport.KeyUsage> BYTES_ASC =
+            Comparator.comparingLong(RedisBigKeyReport.KeyUsage::getBytes);
+
+    private final LettuceNativeConnection lettuceNativeConnection;
+
+    /**
+     * 等待一批 MEMORY USAGE 完成的最长时间
+     */
+    private final Duration commandTimeout;
+
+    public RedisBigKeyScanner(LettuceNativeConnection lettuceNativeConnection, Duration commandTimeout) {
+        this.lettuceNativeConnection = lettuceNativeConnection;
+        this.commandTimeout = commandTimeout;
+    }
+
+    /**
+     * 扫描一类 Key
+     *
+     * @param redisKeyDesc RedisKeyDesc
+     * @param topN         每个族和整体保留内存占用最大的 Key 的个数
+     * @return 扫描结果
+     */
+    public RedisBigKeyReport scan(RedisKeyDesc redisKeyDesc, int topN) {
+        return scan(RedisKeyDescRegistry.scanPattern(redisKeyDesc), topN, DEFAULT_SCAN_COUNT, RedisConstants.LONG_ZERO);
+    }
+
+    /**
+     * 扫描匹配的 Key
+     *
+     * @param matchPattern SCAN 的 MATCH 模式, 为空时扫描所有的 Key
+     * @param topN         每个族和整体保留内存占用最大的 Key 的个数
+     * @return 扫描结果
+     */
+    public RedisBigKeyReport scan(String matchPattern, int topN) {
+        return scan(matchPattern, topN, DEFAULT_SCAN_COUNT, RedisConstants.LONG_ZERO);
+    }
+
+    /**
+     * 扫描匹配的 Key
+     *
+     * @param matchPattern SCAN 的 MATCH 模式, 为空时扫描所有的 Key
+     * @param topN         每个族和整体保留内存占用最大的 Key 的个数
+     * @param scanCount    每次 SCAN 的 COUNT
+     * @param pauseMillis  每批之间暂停的时间, 单位: 毫秒, 小于等于 0 时不暂停
+     * @return 扫描结果
+     */
+    public RedisBigKeyReport scan(String matchPattern, int topN, int scanCount, long pauseMillis) {
+
+        int keepCount = Math.max(topN, 1);
+        ScanArgs scanArgs = ScanArgs.Builder.limit(Math.max(scanCount, 1)).match(matchPattern == null ? MATCH_ALL : matchPattern);
+        RedisClusterAsyncCommands<byte[], byte[]> commands = lettuceNativeConnection.async();
+
+        FamilyAccumulator total = new FamilyAccumulator(null, keepCount);
+        Map<String, FamilyAccumulator> familyMap = new HashMap<>();
+
+        long startTime = System.currentTimeMillis();
+        ScanCursor cursor = ScanCursor.INITIAL;
+        do {
+            KeyScanCursor<byte[]> scanCursor = await(commands.scan(cursor, scanArgs));
+            List<byte[]> keys = scanCursor.getKeys();
+
+            List<RedisFuture<Long>> usageFutures = new ArrayList<>(keys.size());
+            keys.forEach(key -> usageFutures.add(commands.memoryUsage(key)));
+            awaitAll(usageFutures);
+
+            for (int i = 0; i < keys.size(); i++) {
+                Long bytes = usageFutures.get(i).toCompletableFuture().getNow(null);
+                if (bytes == null) {
+                    // 扫描期间被删除
+                    continue;
+                }
+                String redisKey = new String(keys.get(i), RedisConstants.DEFAULT_CHARSETS);
+                RedisKeyDesc redisKeyDesc = RedisKeyDescRegistry.resolve(redisKey);
+                String family = redisKeyDesc == null ? UNKNOWN_FAMILY : RedisKeyDescRegistry.family(redisKeyDesc);
+
+                RedisBigKeyReport.KeyUsage keyUsage = new RedisBigKeyReport.KeyUsage(redisKey, family, bytes);
+                total.add(keyUsage);
+                familyMap.computeIfAbsent(family, key -> new FamilyAccumulator(key, keepCount)).add(keyUsage);
+            }
+
+            cursor = scanCursor;
+            pause(pauseMillis);
+        } while (!cursor.isFinished());
+
+        List<RedisBigKeyReport.FamilyUsage> familyUsages = new ArrayList<>(familyMap.size());
+        familyMap.values().forEach(accumulator -> familyUsages.add(accumulator.toFamilyUsage()));
+        familyUsages.sort(Comparator.comparingLong(RedisBigKeyReport.FamilyUsage::getTotalBytes).reversed());
+        Map<String, RedisBigKeyReport.FamilyUsage> families = new LinkedHashMap<>(familyUsages.size() * 2);
+        familyUsages.forEach(familyUsage -> families.put(familyUsage.getFamily(), familyUsage));
+
+        logger.info("Redis big key scan finished, match:{}, scanned keys:{}, total bytes:{}, families:{}, cost:{}ms",
+                matchPattern, total.keyCount, total.totalBytes, families.size(), System.currentTimeMillis() - startTime);
+        return new RedisBigKeyReport(total.keyCount, total.totalBytes, total.largestKeys(), families);
+    }
+
+    private <T> T await(RedisFuture<T> future) {
+        awaitAll(Collections.singletonList(future));
+        return future.toCompletableFuture().getNow(null);
+    }
+
+    private void awaitAll(List<? extends RedisFuture<?>> futures) {
+        if (futures.isEmpty()) {
+            return;
+        }
+        LettuceFutures.awaitAll(commandTimeout, futures.toArray(new RedisFuture[0]));
+    }
+
+    private static void pause(long pauseMillis) {
+        if (pauseMillis <= RedisConstants.LONG_ZERO) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Redis big key scan interrupted", ex);
+        }
+    }
+
+    /**
+     * 一个族的累计, 只保留内存占用最大的 topN 个 Key
+     */
+    private final static class FamilyAccumulator {
+
+        private final String family;
+
+        private final int topN;
+
+        private final PriorityQueue<RedisBigKeyReport.KeyUsage> largestQueue;
+
+        private long keyCount;
+
+        private long totalBytes;
+
+        private long maxBytes;
+
+        private FamilyAccumulator(String family, int topN) {
+            this.family = family;
+            this.topN = topN;
+            this.largestQueue = new PriorityQueue<>(topN + 1, BYTES_ASC);
+        }
+
+        private void add(RedisBigKeyReport.KeyUsage keyUsage) {
+            keyCount++;
+            totalBytes += keyUsage.getBytes();
+            maxBytes = Math.max(maxBytes, keyUsage.getBytes());
+            if (largestQueue.size() < topN) {
+                largestQueue.offer(keyUsage);
+            } else if (keyUsage.getBytes() > largestQueue.peek().getBytes()) {
+                largestQueue.poll();
+                largestQueue.offer(keyUsage);
+            }
+        }
+
+        private List<RedisBigKeyReport.KeyUsage> largestKeys() {
+            List<RedisBigKeyReport.KeyUsage> largestKeys = new ArrayList<>(largestQueue);
+            largestKeys.sort(BYTES_ASC.reversed());
+            return largestKeys;
+        }
+
+        private RedisBigKeyReport.FamilyUsage toFamilyUsage() {
+            return new RedisBigKeyReport.FamilyUsage(family, keyCount, totalBytes, maxBytes, largestKeys());
+        }
+    }
+}
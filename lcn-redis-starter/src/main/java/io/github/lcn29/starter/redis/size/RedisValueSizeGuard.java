@@ -0,0 +1,98 @@
+package io.github.lcn29.starter.redis.size;
+
+import io.github.lcn29.starter.redis.metrics.RedisMetrics;
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <pre>
+ * 写入前检查 Value 的大小
+ * 大小为序列化 (包括压缩) 之后的字节数, 每次检查都会按照 Key 所属的 RedisKeyDesc 族记录到指标中
+ * 超过 logThreshold 时采样打印日志, 超过 warnThreshold 时每次都打印 WARN 日志, 超过 rejectThreshold 时拒绝写入
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 21:45
+ */
+public class RedisValueSizeGuard {
+
+    private final static Logger logger = LoggerFactory.getLogger(RedisValueSizeGuard.class);
+
+    private final int logThreshold;
+
+    private final double logSampleRate;
+
+    private final int warnThreshold;
+
+    private final int rejectThreshold;
+
+    /**
+     * 指标记录, 记录每个 Key 族的 Value 大小
+     */
+    private RedisMetrics redisMetrics = RedisMetrics.NOOP;
+
+    public RedisValueSizeGuard(LcnRedisProperty.ValueSize valueSizeProperty) {
+        this.logThreshold = positiveOrMax(valueSizeProperty.getLogThreshold());
+        this.logSampleRate = valueSizeProperty.getLogSampleRate();
+        this.warnThreshold = positiveOrMax(valueSizeProperty.getWarnThreshold());
+        this.rejectThreshold = positiveOrMax(valueSizeProperty.getRejectThreshold());
+        logger.info("Lcn Redis value size guard init, log threshold: {}, log sample rate: {}, warn threshold: {}, reject threshold: {}",
+                valueSizeProperty.getLogThreshold(), logSampleRate, valueSizeProperty.getWarnThreshold(),
+                valueSizeProperty.getRejectThreshold());
+    }
+
+    /**
+     * 设置指标记录
+     *
+     * @param redisMetrics 指标记录, 为空时不记录
+     */
+    public void setRedisMetrics(RedisMetrics redisMetrics) {
+        this.redisMetrics = redisMetrics == null ? RedisMetrics.NOOP : redisMetrics;
+    }
+
+    /**
+     * 检查 Value 的大小
+     *
+     * @param redisKey Redis Key
+     * @param byteSize 序列化后的字节数
+     * @return true: 可以写入, false: 超过了 rejectThreshold, 需要拒绝
+     */
+    public boolean accept(String redisKey, int byteSize) {
+        redisMetrics.recordPayloadSize(redisKey, byteSize);
+        if (byteSize < logThreshold && byteSize < warnThreshold && byteSize < rejectThreshold) {
+            return true;
+        }
+
+        if (byteSize >= rejectThreshold) {
+            logger.warn("Redis value too large, reject write, key:{}, size:{}, reject threshold:{}", redisKey, byteSize, rejectThreshold);
+            return false;
+        }
+        if (byteSize >= warnThreshold) {
+            logger.warn("Redis value too large, key:{}, size:{}, warn threshold:{}", redisKey, byteSize, warnThreshold);
+        } else if (ThreadLocalRandom.current().nextDouble() < logSampleRate) {
+            logger.info("Redis value large, key:{}, size:{}, log threshold:{}", redisKey, byteSize, logThreshold);
+        }
+        return true;
+    }
+
+    /**
+     * 检查 Value 的大小, 超过 rejectThreshold 时抛出异常
+     *
+     * @param redisKey Redis Key
+     * @param byteSize 序列化后的字节数
+     * @throws IllegalArgumentException 超过了 rejectThreshold
+     */
+    public void check(String redisKey, int byteSize) {
+        if (!accept(redisKey, byteSize)) {
+            throw new IllegalArgumentException("Redis value too large, key: " + redisKey + ", size: " + byteSize
+                    + ", reject threshold: " + rejectThreshold);
+        }
+    }
+
+    private static int positiveOrMax(int threshold) {
+        return threshold > 0 ? threshold : Integer.MAX_VALUE;
+    }
+}
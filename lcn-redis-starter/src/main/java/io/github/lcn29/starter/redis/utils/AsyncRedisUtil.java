@@ -0,0 +1,430 @@
+package io.github.lcn29.starter.redis.utils;
+
+import io.github.lcn29.starter.redis.batch.RedisWriteBehindBuffer;
+import io.github.lcn29.starter.redis.constants.RedisConstants;
+import io.github.lcn29.starter.redis.lettuce.LettuceNativeConnection;
+import io.github.lcn29.starter.redis.metrics.RedisMetrics;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * <pre>
+ * Redis 异步工具类
+ * 和 RedisUtil 提供相同的操作, 基于 Lettuce 原生的异步命令, 不会阻塞调用线程
+ * 返回的 CompletableFuture 在 Lettuce 的 I/O 线程中完成, 后续的回调不要执行阻塞操作
+ * 开启了延迟写入的 Key 和 RedisUtil 一致: 读取优先使用缓冲区中的值, 覆盖写入和删除丢弃缓冲区中的值
+ * 设置过期时间时先同步写入缓冲区中的值, 只有 Key 还在缓冲区中时才会阻塞调用线程
+ * 写入操作和 RedisUtil 一样检查 Value 的大小, 记录耗时和失败, 完成后 (包括失败) 失效本地缓存, 指标的操作名称带上 async 前缀
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 15:20
+ */
+public class AsyncRedisUtil {
+
+    private static LettuceNativeConnection STATIC_LETTUCE_NATIVE_CONNECTION;
+    private static StringRedisSerializer STATIC_STRING_REDIS_SERIALIZER;
+    private static RedisSerializer<Object> STATIC_VALUE_REDIS_SERIALIZER;
+    private static RedissonClient STATIC_REDISSON_CLIENT;
+
+    private final LettuceNativeConnection lettuceNativeConnection;
+    private final StringRedisSerializer stringRedisSerializer;
+    private final RedisSerializer<Object> valueRedisSerializer;
+    private final RedissonClient redissonClient;
+
+    public AsyncRedisUtil(LettuceNativeConnection lettuceNativeConnection,
+                          StringRedisSerializer stringRedisSerializer,
+                          RedisSerializer<Object> valueRedisSerializer,
+                          RedissonClient redissonClient) {
+        this.lettuceNativeConnection = lettuceNativeConnection;
+        this.stringRedisSerializer = stringRedisSerializer;
+        this.valueRedisSerializer = valueRedisSerializer;
+        this.redissonClient = redissonClient;
+    }
+
+    /**
+     * 尝试获取 Redis 锁, 异步等待
+     * 因为异步回调不在加锁的线程中执行, 锁的持有者通过 lockOwnerId 标识, 释放锁时需要传入同一个 lockOwnerId
+     *
+     * @param redisLockKey 锁的 key
+     * @param lockOwnerId  锁的持有者标识, 同一个持有者需要保持一致
+     * @param waitTime     等待锁的最长时间
+     * @param leaseTime    锁的时间, 小于等于 0 时由 Redisson 自动续期
+     * @param timeUnit     时间单位
+     * @return true: 上锁成功, false: 等待超时
+     */
+    public static CompletableFuture<Boolean> tryLock(String redisLockKey, long lockOwnerId, long waitTime, long leaseTime,
+                                                     TimeUnit timeUnit) {
+        RLock redisLock = STATIC_REDISSON_CLIENT.getLock(redisLockKey);
+        long lockLeaseTime = leaseTime > RedisConstants.LONG_ZERO ? leaseTime : RedisConstants.LONG_MINUS_ONE;
+        return redisLock.tryLockAsync(waitTime, lockLeaseTime, timeUnit, lockOwnerId).toCompletableFuture();
+    }
+
+    /**
+     * 释放 Redis 锁
+     *
+     * @param redisLockKey 锁的 key
+     * @param lockOwnerId  加锁时使用的持有者标识
+     * @return 释放结果
+     */
+    public static CompletableFuture<Void> unLock(String redisLockKey, long lockOwnerId) {
+        RLock redisLock = STATIC_REDISSON_CLIENT.getLock(redisLockKey);
+        return redisLock.unlockAsync(lockOwnerId).toCompletableFuture();
+    }
+
+    /**
+     * 给 Redis Key 设置超时时间
+     *
+     * @param redisKey       Redis Key
+     * @param expireTime     过期的时间
+     * @param expireTimeUnit 过期时间单位
+     * @return true: 设置成功, false: key 不存在
+     */
+    public static CompletableFuture<Boolean> expire(String redisKey, long expireTime, TimeUnit expireTimeUnit) {
+        return recorded("asyncExpire", redisKey, () -> RedisUtil.writeThroughWriteBehind(Collections.singletonList(redisKey),
+                () -> commands().pexpire(serializeKey(redisKey), expireTimeUnit.toMillis(expireTime)).toCompletableFuture()));
+    }
+
+    /**
+     * 通过 Redis Key 删除
+     *
+     * @param redisKey RedisKey
+     * @return 删除的条数
+     */
+    public static CompletableFuture<Long> delete(String redisKey) {
+        return recorded("asyncDelete", redisKey, () -> RedisUtil.supersedeWriteBehind(Collections.singletonList(redisKey),
+                        () -> commands().del(serializeKey(redisKey)).toCompletableFuture())
+                .whenComplete((count, ex) -> RedisUtil.afterWrite(redisKey)));
+    }
+
+    /**
+     * 通过 Redis Key 批量删除
+     *
+     * @param redisKeys RedisKey 列表
+     * @return 删除的条数
+     */
+    public static CompletableFuture<Long> batchDelete(List<String> redisKeys) {
+        if (redisKeys.isEmpty()) {
+            return CompletableFuture.completedFuture(RedisConstants.LONG_ZERO);
+        }
+        return recorded("asyncBatchDelete", RedisUtil.firstKey(redisKeys), () -> RedisUtil.supersedeWriteBehind(redisKeys,
+                        () -> commands().del(serializeKeys(redisKeys)).toCompletableFuture())
+                .whenComplete((count, ex) -> RedisUtil.afterWriteAll(redisKeys)));
+    }
+
+    /**
+     * 获取 Redis 缓存
+     *
+     * @param redisKey RedisKey
+     * @return RedisValue
+     */
+    public static <T> CompletableFuture<T> get(String redisKey) {
+        RedisWriteBehindBuffer.PendingWrite pendingWrite = RedisUtil.pendingWrite(redisKey);
+        if (pendingWrite != null) {
+            // 缓冲期间已经过期的值按照不存在处理
+            return pendingWrite.isExpired() ? CompletableFuture.completedFuture(null)
+                    : CompletableFuture.completedFuture(objectCast(RedisUtil.unwrapValue(redisKey, pendingWrite.getRedisValue())));
+        }
+        return commands().get(serializeKey(redisKey)).toCompletableFuture()
+                .thenApply(valueBytes -> objectCast(RedisUtil.unwrapValue(redisKey, deserializeValue(valueBytes))));
+    }
+
+    /**
+     * 批量获取缓存
+     *
+     * @param redisKeyList RedisKey 列表
+     * @return RedisValue 列表, 不存在的 key 会被过滤
+     */
+    public static <T> CompletableFuture<List<T>> multiGet(List<String> redisKeyList) {
+
+        if (redisKeyList.isEmpty()) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+
+        return commands().mget(serializeKeys(redisKeyList)).toCompletableFuture().thenApply(keyValueList -> {
+            List<Object> redisValueList = new ArrayList<>(keyValueList.size());
+            for (KeyValue<byte[], byte[]> keyValue : keyValueList) {
+                redisValueList.add(keyValue.hasValue() ? deserializeValue(keyValue.getValue()) : null);
+            }
+            // 延迟写入还没有写入 Redis 的 Key 使用缓冲区中的值
+            redisValueList = RedisUtil.overlayPending(redisKeyList, redisValueList);
+
+            List<T> returnValue = new ArrayList<>(redisValueList.size());
+            for (int i = 0; i < redisValueList.size(); i++) {
+                Object redisValue = redisValueList.get(i);
+                if (redisValue != null) {
+                    returnValue.add(objectCast(RedisUtil.unwrapValue(redisKeyList.get(i), redisValue)));
+                }
+            }
+            return returnValue;
+        });
+    }
+
+    /**
+     * 设置 Redis 缓存
+     *
+     * @param redisKey   RedisKey
+     * @param redisValue RedisValue
+     * @return 设置结果
+     * @throws IllegalArgumentException Value 超过了 lcn.redis.value-size.reject-threshold
+     */
+    public static CompletableFuture<Void> set(String redisKey, Object redisValue) {
+        return recorded("asyncSet", redisKey, () -> RedisUtil.supersedeWriteBehind(Collections.singletonList(redisKey),
+                        () -> commands().set(serializeKey(redisKey), checkedValue(redisKey, redisValue)).toCompletableFuture())
+                .whenComplete((result, ex) -> RedisUtil.afterWrite(redisKey))
+                .thenAccept(result -> {
+                }));
+    }
+
+    /**
+     * 设置带超时时间的 Redis 缓存
+     *
+     * @param redisKey       RedisKey
+     * @param redisValue     RedisValue
+     * @param expireTime     过期时间
+     * @param expireTimeUnit 过期时间单位
+     * @return 设置结果
+     * @throws IllegalArgumentException Value 超过了 lcn.redis.value-size.reject-threshold
+     */
+    public static CompletableFuture<Void> setWithExpire(String redisKey, Object redisValue, long expireTime,
+                                                        TimeUnit expireTimeUnit) {
+        SetArgs setArgs = SetArgs.Builder.px(expireTimeUnit.toMillis(expireTime));
+        return recorded("asyncSetWithExpire", redisKey, () -> {
+            Object storeValue = RedisUtil.earlyRefreshWrap(redisKey, redisValue, expireTime, expireTimeUnit);
+            return RedisUtil.supersedeWriteBehind(Collections.singletonList(redisKey),
+                            () -> commands().set(serializeKey(redisKey), checkedValue(redisKey, storeValue), setArgs).toCompletableFuture())
+                    .whenComplete((result, ex) -> RedisUtil.afterWrite(redisKey))
+                    .thenAccept(result -> {
+                    });
+        });
+    }
+
+    /**
+     * 批量设置 Redis 缓存, 带超时时间
+     * 所有的命令在同一个连接上连续发送, 等价于流水线执行
+     *
+     * @param redisMap       批量设置的缓存 Map, key 为 RedisKey, value: 需要存储的数据
+     * @param expireTime     过期时间
+     * @param expireTimeUnit 过期时间单位
+     * @return 设置结果
+     * @throws IllegalArgumentException 有 Value 超过了 lcn.redis.value-size.reject-threshold, 所有的 Key 都不会写入
+     */
+    public static CompletableFuture<Void> multiSetWithExpire(Map<String, Object> redisMap, long expireTime,
+                                                             TimeUnit expireTimeUnit) {
+
+        if (redisMap.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        RedisClusterAsyncCommands<byte[], byte[]> commands = commands();
+        SetArgs setArgs = SetArgs.Builder.px(expireTimeUnit.toMillis(expireTime));
+
+        return recorded("asyncMultiSetWithExpire", RedisUtil.firstKey(redisMap.keySet()), () -> {
+            // 先序列化并检查所有的 Value, 超过大小上限时一条命令都不发送
+            List<byte[]> keyBytesList = new ArrayList<>(redisMap.size());
+            List<byte[]> valueBytesList = new ArrayList<>(redisMap.size());
+            for (Map.Entry<String, Object> entry : redisMap.entrySet()) {
+                Object storeValue = RedisUtil.earlyRefreshWrap(entry.getKey(), entry.getValue(), expireTime, expireTimeUnit);
+                keyBytesList.add(serializeKey(entry.getKey()));
+                valueBytesList.add(checkedValue(entry.getKey(), storeValue));
+            }
+            List<CompletableFuture<String>> futureList = RedisUtil.supersedeWriteBehind(redisMap.keySet(), () -> {
+                List<CompletableFuture<String>> setFutureList = new ArrayList<>(keyBytesList.size());
+                for (int i = 0; i < keyBytesList.size(); i++) {
+                    setFutureList.add(commands.set(keyBytesList.get(i), valueBytesList.get(i), setArgs).toCompletableFuture());
+                }
+                return setFutureList;
+            });
+            return CompletableFuture.allOf(futureList.toArray(new CompletableFuture[0]))
+                    .whenComplete((result, ex) -> RedisUtil.afterWriteAll(redisMap.keySet()));
+        });
+    }
+
+    /**
+     * 向 List 的右侧添加一个元素, 如果 list 不存在会进行创建
+     *
+     * @param redisKey   Redis Key
+     * @param redisValue 添加的数据
+     * @return 添加后 List 的长度
+     * @throws IllegalArgumentException Value 超过了 lcn.redis.value-size.reject-threshold
+     */
+    public static CompletableFuture<Long> listAdd(String redisKey, Object redisValue) {
+        return recorded("asyncListAdd", redisKey, () -> commands()
+                .rpush(serializeKey(redisKey), checkedValue(redisKey, redisValue)).toCompletableFuture()
+                .whenComplete((length, ex) -> RedisUtil.afterWrite(redisKey)));
+    }
+
+    /**
+     * 向 List 的右侧批量添加元素, 如果 list 不存在会进行创建
+     *
+     * @param redisKey    Redis Key
+     * @param redisValues 添加的数据列表
+     * @return 添加后 List 的长度
+     * @throws IllegalArgumentException 有元素超过了 lcn.redis.value-size.reject-threshold, 所有的元素都不会写入
+     */
+    public static CompletableFuture<Long> listAddAll(String redisKey, List<Object> redisValues) {
+
+        if (redisValues.isEmpty()) {
+            return CompletableFuture.completedFuture(RedisConstants.LONG_ZERO);
+        }
+
+        return recorded("asyncListAddAll", redisKey, () -> {
+            byte[][] valueBytes = new byte[redisValues.size()][];
+            for (int i = 0; i < redisValues.size(); i++) {
+                valueBytes[i] = checkedValue(redisKey, redisValues.get(i));
+            }
+            return commands().rpush(serializeKey(redisKey), valueBytes).toCompletableFuture()
+                    .whenComplete((length, ex) -> RedisUtil.afterWrite(redisKey));
+        });
+    }
+
+    /**
+     * 获取 List 中所有的数据
+     *
+     * @param redisKey Redis Key
+     * @return 返回的数据
+     */
+    public static <T> CompletableFuture<List<T>> listAllGet(String redisKey) {
+        return commands().lrange(serializeKey(redisKey), RedisConstants.LONG_ZERO, RedisConstants.LONG_MINUS_ONE)
+                .toCompletableFuture().thenApply(valueBytesList -> {
+                    List<T> returnValue = new ArrayList<>(valueBytesList.size());
+                    for (byte[] valueBytes : valueBytesList) {
+                        Object redisValue = deserializeValue(valueBytes);
+                        if (redisValue != null) {
+                            returnValue.add(objectCast(redisValue));
+                        }
+                    }
+                    return returnValue;
+                });
+    }
+
+    /**
+     * 清空 List 中的所有数据
+     *
+     * @param redisKey Redis Key
+     * @return 清空结果
+     */
+    public static CompletableFuture<Void> listClear(String redisKey) {
+        return recorded("asyncListClear", redisKey, () -> commands()
+                .ltrim(serializeKey(redisKey), RedisConstants.LONG_ONE, RedisConstants.LONG_ZERO).toCompletableFuture()
+                .whenComplete((result, ex) -> RedisUtil.afterWrite(redisKey))
+                .thenAccept(result -> {
+                }));
+    }
+
+    /**
+     * 从 list 的左边往右删除多少个符合的值
+     *
+     * @param redisKey       RedisKey
+     * @param redisItemValue 需要删除的值
+     * @param count          需要删除多少个
+     * @return 删除的个数
+     */
+    public static CompletableFuture<Long> listRemove(String redisKey, Object redisItemValue, long count) {
+        return recorded("asyncListRemove", redisKey, () -> commands()
+                .lrem(serializeKey(redisKey), count, serializeValue(redisItemValue)).toCompletableFuture()
+                .whenComplete((removed, ex) -> RedisUtil.afterWrite(redisKey)));
+    }
+
+    static RedisClusterAsyncCommands<byte[], byte[]> commands() {
+        return STATIC_LETTUCE_NATIVE_CONNECTION.async();
+    }
+
+    static byte[] serializeKey(String redisKey) {
+        return STATIC_STRING_REDIS_SERIALIZER.serialize(redisKey);
+    }
+
+    static byte[][] serializeKeys(List<String> redisKeys) {
+        byte[][] keyBytes = new byte[redisKeys.size()][];
+        for (int i = 0; i < redisKeys.size(); i++) {
+            keyBytes[i] = serializeKey(redisKeys.get(i));
+        }
+        return keyBytes;
+    }
+
+    static byte[] serializeValue(Object redisValue) {
+        return STATIC_VALUE_REDIS_SERIALIZER.serialize(redisValue);
+    }
+
+    /**
+     * 序列化写入的 Value, 和 RedisUtil 一样检查大小并记录大小的分布
+     *
+     * @param redisKey   Redis Key
+     * @param storeValue 存储的值
+     * @return 序列化后的 Value
+     * @throws IllegalArgumentException 超过了 lcn.redis.value-size.reject-threshold
+     */
+    static byte[] checkedValue(String redisKey, Object storeValue) {
+        return RedisUtil.checkedValueBytes(redisKey, storeValue);
+    }
+
+    static Object deserializeValue(byte[] valueBytes) {
+        return STATIC_VALUE_REDIS_SERIALIZER.deserialize(valueBytes);
+    }
+
+    /**
+     * 记录异步操作的耗时和失败, 同步抛出的异常 (例如 Value 超过大小上限) 和异步的失败都会记录
+     *
+     * @param operation 操作名称
+     * @param redisKey  操作的 Key, 批量操作为第一个 Key
+     * @param command   发送命令, 返回命令的结果
+     * @return 命令的结果
+     */
+    private static <T> CompletableFuture<T> recorded(String operation, String redisKey, Supplier<CompletableFuture<T>> command) {
+        RedisMetrics redisMetrics = RedisUtil.redisMetrics();
+        long startNanos = redisMetrics.startNanos();
+        CompletableFuture<T> future;
+        try {
+            future = command.get();
+        } catch (RuntimeException ex) {
+            redisMetrics.recordError(operation, redisKey, ex);
+            redisMetrics.recordOperation(operation, redisKey, startNanos);
+            throw ex;
+        }
+        return future.whenComplete((result, ex) -> {
+            if (ex != null) {
+                redisMetrics.recordError(operation, redisKey,
+                        ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+            }
+            redisMetrics.recordOperation(operation, redisKey, startNanos);
+        });
+    }
+
+    /**
+     * 对象强制转换
+     *
+     * @param obj 转换的类型
+     * @return 转换后的对象
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T objectCast(Object obj) {
+        if (obj == null) {
+            return null;
+        }
+        return (T) obj;
+    }
+
+    @PostConstruct
+    public void initAttributeName() {
+        // 在 AsyncRedisUtil 实例化后, 初始静态变量的属性
+        STATIC_LETTUCE_NATIVE_CONNECTION = lettuceNativeConnection;
+        STATIC_STRING_REDIS_SERIALIZER = stringRedisSerializer;
+        STATIC_VALUE_REDIS_SERIALIZER = valueRedisSerializer;
+        STATIC_REDISSON_CLIENT = redissonClient;
+    }
+}
@@ -1,26 +1,76 @@
 package io.github.lcn29.starter.redis.utils;
 
+import io.github.lcn29.starter.redis.batch.RedisGetBatcher;
+import io.github.lcn29.starter.redis.batch.RedisPipelineEntry;
+import io.github.lcn29.starter.redis.batch.RedisPipelineExecutor;
+import io.github.lcn29.starter.redis.batch.RedisPipelineResult;
+import io.github.lcn29.starter.redis.batch.RedisWriteBehindBuffer;
+import io.github.lcn29.starter.redis.cache.RedisEarlyRefresh;
 import io.github.lcn29.starter.redis.cache.RedisExpireCache;
+import io.github.lcn29.starter.redis.cache.RedisNearCache;
+import io.github.lcn29.starter.redis.cache.RedisNullValue;
 import io.github.lcn29.starter.redis.constants.RedisConstants;
+import io.github.lcn29.starter.redis.hotkey.RedisHotKeyDetector;
+import io.github.lcn29.starter.redis.iterate.RedisChunk;
+import io.github.lcn29.starter.redis.iterate.RedisChunkIterator;
 import io.github.lcn29.starter.redis.key.RedisKeyDesc;
+import io.github.lcn29.starter.redis.key.RedisKeyDescRegistry;
+import io.github.lcn29.starter.redis.key.RedisKeyTemplate;
+import io.github.lcn29.starter.redis.lettuce.RedisByteBufBatchWriter;
+import io.github.lcn29.starter.redis.lettuce.RedisClusterBatchExecutor;
+import io.github.lcn29.starter.redis.lock.RedisHierarchicalLock;
+import io.github.lcn29.starter.redis.metrics.RedisMetrics;
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import io.github.lcn29.starter.redis.ratelimit.RedisRateLimit;
+import io.github.lcn29.starter.redis.ratelimit.RedisRateLimiter;
+import io.github.lcn29.starter.redis.replica.RedisReadRoute;
+import io.github.lcn29.starter.redis.replica.RedisReplicaRouter;
+import io.github.lcn29.starter.redis.script.RedisScriptRegistry;
+import io.github.lcn29.starter.redis.sequence.RedisSequenceGenerator;
+import io.github.lcn29.starter.redis.size.RedisValueSizeGuard;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.MapScanCursor;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.ScoredValueScanCursor;
+import io.lettuce.core.ValueScanCursor;
+import io.netty.buffer.Unpooled;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.DefaultTypedTuple;
 import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import javax.annotation.PostConstruct;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * <pre>
@@ -34,24 +84,143 @@ public class RedisUtil {
 
     private final static Logger logger = LoggerFactory.getLogger(RedisUtil.class);
 
+    /**
+     * 随机过期时间默认的范围, 基础过期时间的 1/10
+     */
+    private final static long DEFAULT_RANDOM_TIME_RANGE_DIVISOR = 10L;
+
+    /**
+     * 当前 JVM 中正在回源加载的 Key, 同一个 Key 的并发回源共享同一个 Future
+     */
+    private final static Map<String, CompletableFuture<Object>> LOADING_FUTURE_MAP = new ConcurrentHashMap<>();
+
     private static StringRedisSerializer STATIC_STRING_REDIS_SERIALIZER;
-    private static Jackson2JsonRedisSerializer<Object> STATIC_JACKSON_TO_JSON_REDIS_SERIALIZER;
+    private static RedisSerializer<Object> STATIC_VALUE_REDIS_SERIALIZER;
     private static RedisTemplate<String, Object> STATIC_REDIS_TEMPLATE;
     private static RedissonClient STATIC_REDISSON_CLIENT;
+    private static RedisNearCache STATIC_REDIS_NEAR_CACHE;
+    private static LcnRedisProperty STATIC_LCN_REDIS_PROPERTY;
+    private static RedisEarlyRefresh STATIC_REDIS_EARLY_REFRESH;
+    private static RedisGetBatcher STATIC_REDIS_GET_BATCHER;
+    private static RedisClusterBatchExecutor STATIC_REDIS_CLUSTER_BATCH_EXECUTOR;
+    private static RedisReplicaRouter STATIC_REDIS_REPLICA_ROUTER;
+    private static RedisHierarchicalLock STATIC_REDIS_HIERARCHICAL_LOCK;
+    private static RedisScriptRegistry STATIC_REDIS_SCRIPT_REGISTRY;
+    private static RedisPipelineExecutor STATIC_REDIS_PIPELINE_EXECUTOR;
+    private static RedisByteBufBatchWriter STATIC_REDIS_BYTE_BUF_BATCH_WRITER;
+    private static RedisMetrics STATIC_REDIS_METRICS = RedisMetrics.NOOP;
+    private static RedisHotKeyDetector STATIC_REDIS_HOT_KEY_DETECTOR;
+    private static RedisValueSizeGuard STATIC_REDIS_VALUE_SIZE_GUARD;
+    private static RedisWriteBehindBuffer STATIC_REDIS_WRITE_BEHIND_BUFFER;
+    private static RedisRateLimiter STATIC_REDIS_RATE_LIMITER;
+    private static RedisSequenceGenerator STATIC_REDIS_SEQUENCE_GENERATOR;
 
     private final StringRedisSerializer stringRedisSerializer;
-    private final Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer;
+    private final RedisSerializer<Object> valueRedisSerializer;
     private final RedisTemplate<String, Object> redisTemplate;
     private final RedissonClient redissonClient;
+    private final LcnRedisProperty lcnRedisProperty;
+
+    /**
+     * 本地近端缓存, 没有开启时为空
+     */
+    private RedisNearCache redisNearCache;
+
+    /**
+     * 概率提前刷新, 没有开启时为空
+     */
+    private RedisEarlyRefresh redisEarlyRefresh;
+
+    /**
+     * 单 Key 读取自动合并, 没有开启时为空
+     */
+    private RedisGetBatcher redisGetBatcher;
+
+    /**
+     * 集群模式下的批量操作, 非集群模式时为空
+     */
+    private RedisClusterBatchExecutor redisClusterBatchExecutor;
+
+    /**
+     * 从节点读取路由, 没有开启时为空
+     */
+    private RedisReplicaRouter redisReplicaRouter;
+
+    /**
+     * 分层锁, 没有开启时为空
+     */
+    private RedisHierarchicalLock redisHierarchicalLock;
+
+    /**
+     * Lua 脚本注册表
+     */
+    private RedisScriptRegistry redisScriptRegistry;
+
+    /**
+     * 分批写入, 没有设置时使用默认配置创建
+     */
+    private RedisPipelineExecutor redisPipelineExecutor;
+
+    /**
+     * 直接编码到池化 ByteBuf 的批量写入, 没有开启时为空
+     */
+    private RedisByteBufBatchWriter redisByteBufBatchWriter;
+
+    /**
+     * 指标记录, 没有引入 Micrometer 时为 NOOP
+     */
+    private RedisMetrics redisMetrics = RedisMetrics.NOOP;
+
+    /**
+     * 热点 Key 探测, 没有开启时为空
+     */
+    private RedisHotKeyDetector redisHotKeyDetector;
+
+    /**
+     * Value 大小检查, 关闭时为空
+     */
+    private RedisValueSizeGuard redisValueSizeGuard;
+
+    /**
+     * 延迟合并写入, 没有开启时为空
+     */
+    private RedisWriteBehindBuffer redisWriteBehindBuffer;
+
+    /**
+     * 令牌桶限流
+     */
+    private RedisRateLimiter redisRateLimiter;
+
+    /**
+     * 号段 ID 生成
+     */
+    private RedisSequenceGenerator redisSequenceGenerator;
 
     public RedisUtil(StringRedisSerializer stringRedisSerializer,
                      Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer,
                      RedisTemplate<String, Object> redisTemplate,
                      RedissonClient redissonClient) {
+        this(stringRedisSerializer, (RedisSerializer<Object>) jackson2JsonRedisSerializer, redisTemplate, redissonClient,
+                new LcnRedisProperty());
+    }
+
+    public RedisUtil(StringRedisSerializer stringRedisSerializer,
+                     RedisSerializer<Object> valueRedisSerializer,
+                     RedisTemplate<String, Object> redisTemplate,
+                     RedissonClient redissonClient) {
+        this(stringRedisSerializer, valueRedisSerializer, redisTemplate, redissonClient, new LcnRedisProperty());
+    }
+
+    public RedisUtil(StringRedisSerializer stringRedisSerializer,
+                     RedisSerializer<Object> valueRedisSerializer,
+                     RedisTemplate<String, Object> redisTemplate,
+                     RedissonClient redissonClient,
+                     LcnRedisProperty lcnRedisProperty) {
         this.stringRedisSerializer = stringRedisSerializer;
-        this.jackson2JsonRedisSerializer = jackson2JsonRedisSerializer;
+        this.valueRedisSerializer = valueRedisSerializer;
         this.redisTemplate = redisTemplate;
         this.redissonClient = redissonClient;
+        this.lcnRedisProperty = lcnRedisProperty;
     }
 
     /**
@@ -61,8 +230,8 @@ public class RedisUtil {
      * @return redisKey
      */
     public static String redisKey(RedisKeyDesc redisKeyDesc, String mask) {
-        // 拼接调用方需要的格式
-        return String.format(redisKeyDesc.desc(), mask);
+        // 使用预编译的格式拼接, 第一次使用时同时登记 RedisKeyDesc, 用于从 Redis Key 反查所属的 RedisKeyDesc
+        return RedisKeyTemplate.of(redisKeyDesc).format(mask);
     }
 
     /**
@@ -72,8 +241,7 @@ public class RedisUtil {
      * @return redisKey
      */
     public static String redisKey(RedisKeyDesc redisKeyDesc, String... mask) {
-        // 拼接调用方需要的格式
-        return String.format(redisKeyDesc.desc(), mask);
+        return RedisKeyTemplate.of(redisKeyDesc).format(mask);
     }
 
     /**
@@ -121,6 +289,7 @@ public class RedisUtil {
      */
     public static boolean tryLock(String redisLockKey, Long lockTime, TimeUnit lockTimeUnit) {
 
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
         try {
             RLock redisLock = STATIC_REDISSON_CLIENT.getLock(redisLockKey);
             if (lockTime != null && lockTimeUnit != null) {
@@ -128,10 +297,49 @@ public class RedisUtil {
             } else {
                 redisLock.lock();
             }
+            STATIC_REDIS_METRICS.recordLockWait(redisLockKey, startNanos, true);
             return true;
         } catch (Exception ex) {
-            logger.info("Get Redis's Lock fail, message:{}", ex.getMessage(), ex);
+            logger.warn("Get Redis's Lock fail, redisLockKey:{}, message:{}", redisLockKey, ex.getMessage(), ex);
+            STATIC_REDIS_METRICS.recordError("tryLock", redisLockKey, ex);
+        }
+        STATIC_REDIS_METRICS.recordLockWait(redisLockKey, startNanos, false);
+        return false;
+    }
+
+    /**
+     * 尝试获取 Redis 锁, 最多等待 waitTime, 等待超时返回 false, 不会一直阻塞
+     * 开启了分层锁时, 同一个 JVM 内的线程先在本地排队, 只有队首的线程竞争 Redis 锁
+     *
+     * @param redisLockKey 锁的 key
+     * @param waitTime     等待锁的最长时间
+     * @param leaseTime    锁的持有时间, 小于等于 0 时由 Redisson 自动续期
+     * @param timeUnit     时间单位
+     * @return true: 上锁成功, false: 上锁失败
+     */
+    public static boolean tryLock(String redisLockKey, long waitTime, long leaseTime, TimeUnit timeUnit) {
+
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            boolean acquired;
+            if (STATIC_REDIS_HIERARCHICAL_LOCK != null) {
+                acquired = STATIC_REDIS_HIERARCHICAL_LOCK.tryLock(redisLockKey, waitTime, leaseTime, timeUnit);
+            } else {
+                RLock redisLock = STATIC_REDISSON_CLIENT.getLock(redisLockKey);
+                long lockLeaseTime = leaseTime > RedisConstants.LONG_ZERO ? leaseTime : RedisConstants.LONG_MINUS_ONE;
+                acquired = redisLock.tryLock(waitTime, lockLeaseTime, timeUnit);
+            }
+            STATIC_REDIS_METRICS.recordLockWait(redisLockKey, startNanos, acquired);
+            return acquired;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            logger.warn("Get Redis's Lock interrupted, redisLockKey:{}", redisLockKey);
+            STATIC_REDIS_METRICS.recordError("tryLock", redisLockKey, ex);
+        } catch (Exception ex) {
+            logger.warn("Get Redis's Lock fail, redisLockKey:{}, message:{}", redisLockKey, ex.getMessage(), ex);
+            STATIC_REDIS_METRICS.recordError("tryLock", redisLockKey, ex);
         }
+        STATIC_REDIS_METRICS.recordLockWait(redisLockKey, startNanos, false);
         return false;
     }
 
@@ -143,11 +351,18 @@ public class RedisUtil {
      */
     public static boolean tryUnLock(String redisLockKey) {
         try {
+            if (STATIC_REDIS_HIERARCHICAL_LOCK != null && STATIC_REDIS_HIERARCHICAL_LOCK.isHeldByCurrentThread(redisLockKey)) {
+                return STATIC_REDIS_HIERARCHICAL_LOCK.unlock(redisLockKey);
+            }
             RLock redisLock = STATIC_REDISSON_CLIENT.getLock(redisLockKey);
             redisLock.unlock();
             return true;
         } catch (Exception ex) {
-            logger.info("Release Redis's Lock fail, message:{}", ex.getMessage(), ex);
+            logger.warn("Release Redis's Lock fail, redisLockKey:{}, message:{}", redisLockKey, ex.getMessage(), ex);
+            STATIC_REDIS_METRICS.recordError("tryUnLock", redisLockKey, ex);
+        } finally {
+            // 释放失败时锁已经过期或者不再由当前线程持有, 同样结束持有时间的记录, 避免记录一直残留
+            STATIC_REDIS_METRICS.recordLockRelease(redisLockKey);
         }
         return false;
     }
@@ -160,7 +375,17 @@ public class RedisUtil {
      * @param expireTimeUnit 过期时间单位
      */
     public static void expire(String redisKey, long expireTime, TimeUnit expireTimeUnit) {
-        STATIC_REDIS_TEMPLATE.expire(redisKey, expireTime, expireTimeUnit);
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            // 缓冲区中还没有写入的 Key 在 Redis 中可能不存在, 先写入再设置过期时间
+            writeThroughWriteBehind(Collections.singletonList(redisKey),
+                    () -> STATIC_REDIS_TEMPLATE.expire(redisKey, expireTime, expireTimeUnit));
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("expire", redisKey, ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("expire", redisKey, startNanos);
+        }
     }
 
     /**
@@ -169,7 +394,17 @@ public class RedisUtil {
      * @param redisKey RedisKey
      */
     public static void delete(String redisKey) {
-        STATIC_REDIS_TEMPLATE.delete(redisKey);
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            // 同时丢弃缓冲区中还没有写入的值, 避免删除之后又被写回
+            supersedeWriteBehind(Collections.singletonList(redisKey), () -> STATIC_REDIS_TEMPLATE.delete(redisKey));
+            afterWrite(redisKey);
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("delete", redisKey, ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("delete", redisKey, startNanos);
+        }
     }
 
     /**
@@ -178,7 +413,30 @@ public class RedisUtil {
      * @param redisKeys RedisKey 列表
      */
     public static void batchDelete(List<String> redisKeys) {
-        STATIC_REDIS_TEMPLATE.delete(redisKeys);
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            if (redisKeys.isEmpty()) {
+                return;
+            }
+            supersedeWriteBehind(redisKeys, () -> {
+                deleteAll(redisKeys);
+                return null;
+            });
+            afterWriteAll(redisKeys);
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("batchDelete", firstKey(redisKeys), ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("batchDelete", firstKey(redisKeys), startNanos);
+        }
+    }
+
+    private static void deleteAll(List<String> redisKeys) {
+        if (STATIC_REDIS_CLUSTER_BATCH_EXECUTOR != null) {
+            STATIC_REDIS_CLUSTER_BATCH_EXECUTOR.del(serializeKeys(redisKeys));
+        } else {
+            STATIC_REDIS_TEMPLATE.delete(redisKeys);
+        }
     }
 
     /**
@@ -188,217 +446,1880 @@ public class RedisUtil {
      * @return RedisValue
      */
     public static <T> T get(String redisKey) {
-        Object redisValue = STATIC_REDIS_TEMPLATE.opsForValue().get(redisKey);
-        return objectCast(redisValue);
+        return get(redisKey, null);
     }
 
     /**
-     * 批量获取缓存
+     * 获取 Redis 缓存, 指定读取路由
      *
-     * @param redisKeyList RedisKey 列表
-     * @return RedisValue 列表
+     * @param redisKey  RedisKey
+     * @param readRoute 读取路由, 为空时使用 RedisKeyDesc#readRoute
+     * @return RedisValue
      */
-    public static <T> List<T> multiGet(List<String> redisKeyList) {
-
-        if (redisKeyList.isEmpty()) {
-            return new ArrayList<>();
-        }
+    public static <T> T get(String redisKey, RedisReadRoute readRoute) {
 
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            RedisHotKeyDetector hotKeyDetector = STATIC_REDIS_HOT_KEY_DETECTOR;
+            if (hotKeyDetector != null) {
+                hotKeyDetector.record(redisKey);
+            }
 
-        List<Object> redisValueList = STATIC_REDIS_TEMPLATE.opsForValue().multiGet(redisKeyList);
-        if (redisValueList == null || redisValueList.isEmpty()) {
-            return new ArrayList<>();
+            return recordRead("get", redisKey, unwrapValue(redisKey, storedValue(redisKey, readRoute)));
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("get", redisKey, ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("get", redisKey, startNanos);
         }
-
-        List<T> returnValue = new ArrayList<>(redisValueList.size());
-        redisValueList.stream().filter(Objects::nonNull).forEach(item -> returnValue.add(objectCast(item)));
-        return returnValue;
     }
 
     /**
-     * 设置 Redis 缓存
+     * 获取存储的值, 依次读取延迟写入的缓冲区, 本地近端缓存, 热点 Key 的本地短时缓存和 Redis
      *
-     * @param redisKey   RedisKey
-     * @param redisValue RedisValue
+     * @param redisKey  RedisKey
+     * @param readRoute 读取路由, 为空时使用 RedisKeyDesc#readRoute
+     * @return 存储的值, 没有经过 unwrapValue, 空值占位为 RedisNullValue, 不存在时返回 null
      */
-    public static void set(String redisKey, Object redisValue) {
-        STATIC_REDIS_TEMPLATE.opsForValue().set(redisKey, redisValue);
-    }
+    private static Object storedValue(String redisKey, RedisReadRoute readRoute) {
 
-    /**
-     * 批量设置 Redis 缓存
-     *
-     * @param redisMap 批量设置的缓存 Map, key 为 RedisKey, value: 需要存储的数据
-     */
-    public static void multiSet(Map<String, Object> redisMap) {
-        STATIC_REDIS_TEMPLATE.opsForValue().multiSet(redisMap);
+        // 延迟写入还没有写入 Redis 时, 读取缓冲区中的值, 缓冲期间已经过期的值刷新后同样马上过期, 按照不存在处理
+        RedisWriteBehindBuffer.PendingWrite pendingWrite = pendingWrite(redisKey);
+        if (pendingWrite != null) {
+            return pendingWrite.isExpired() ? null : pendingWrite.getRedisValue();
+        }
+
+        RedisHotKeyDetector hotKeyDetector = STATIC_REDIS_HOT_KEY_DETECTOR;
+        RedisNearCache nearCache = STATIC_REDIS_NEAR_CACHE;
+        long nearCacheExpireMillis = nearCache == null ? RedisConstants.LONG_ZERO : nearCache.expireMillis(redisKey);
+        if (nearCacheExpireMillis <= RedisConstants.LONG_ZERO) {
+            return hotKeyDetector == null ? remoteGet(redisKey, readRoute) : hotKeyGet(hotKeyDetector, redisKey, readRoute);
+        }
+
+        // 优先从本地近端缓存获取
+        Object redisValue = nearCache.getIfPresent(redisKey);
+        if (redisValue != null) {
+            return redisValue;
+        }
+
+        long sequence = nearCache.sequence(redisKey);
+        redisValue = remoteGet(redisKey, readRoute);
+        nearCache.put(redisKey, redisValue, nearCacheExpireMillis, sequence);
+        return redisValue;
     }
 
     /**
-     * 设置带超时时间的 Redis 缓存
+     * 获取 Redis 缓存, 不存在时通过 loader 回源加载并写入缓存, 过期时间会在基础时间上随机增加 1/10 以内
      *
      * @param redisKey       RedisKey
-     * @param redisValue     RedisValue
+     * @param loader         回源加载方法, 返回 null 时不写入缓存
      * @param expireTime     过期时间
      * @param expireTimeUnit 过期时间单位
+     * @return RedisValue
      */
-    public static void setWithExpire(String redisKey, Object redisValue, long expireTime, TimeUnit expireTimeUnit) {
-        STATIC_REDIS_TEMPLATE.opsForValue().set(redisKey, redisValue, expireTime, expireTimeUnit);
+    public static <T> T getOrLoad(String redisKey, Supplier<T> loader, long expireTime, TimeUnit expireTimeUnit) {
+        long randomTimeRange = Math.max(expireTime / DEFAULT_RANDOM_TIME_RANGE_DIVISOR, RedisConstants.LONG_ONE);
+        return getOrLoad(redisKey, loader, expireTime, randomTimeRange, expireTimeUnit);
     }
 
     /**
-     * 批量设置 Redis 缓存, 带超时时间
+     * 获取 Redis 缓存, 不存在时通过 loader 回源加载并写入缓存
+     * 同一个 JVM 内同一个 Key 的并发回源只会执行一次, 多个节点之间通过 Redisson 锁保证只有一个节点回源
+     * 本地等待回源结果的线程和等待其他节点一样按轮等待, 不会因为回源的线程卡住而一直阻塞
+     * 其他节点等待锁, 拿到锁或者每一轮等待超时后都会重新读取缓存, 只有 lcn.redis.load.lock-wait-retries 轮都超时并且缓存仍然不存在时才自行回源
+     * 回源结果为 null 时按照 lcn.redis.load.null-expire-time 写入空值占位, 期间直接返回 null, 不再回源
      *
-     * @param redisMap       批量设置的缓存 Map, key 为 RedisKey, value: 需要存储的数据
-     * @param expireTime     过期时间
-     * @param expireTimeUnit 过期时间单位
+     * @param redisKey        RedisKey
+     * @param loader          回源加载方法, 返回 null 时不写入缓存
+     * @param expireTime      基础过期时间
+     * @param randomTimeRange 过期时间随机增加的范围, 避免同时过期
+     * @param expireTimeUnit  过期时间单位
+     * @return RedisValue
      */
-    public static void multiSetWithExpire(Map<String, Object> redisMap, long expireTime, TimeUnit expireTimeUnit) {
+    public static <T> T getOrLoad(String redisKey, Supplier<T> loader, long expireTime, long randomTimeRange,
+                                  TimeUnit expireTimeUnit) {
 
-        STATIC_REDIS_TEMPLATE.executePipelined((RedisCallback<Object>) connection -> {
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            if (STATIC_REDIS_HOT_KEY_DETECTOR != null) {
+                STATIC_REDIS_HOT_KEY_DETECTOR.record(redisKey);
+            }
+            Object storedValue = storedValue(redisKey, null);
+            if (storedValue != null) {
+                // 空值占位也算命中, 返回 null
+                STATIC_REDIS_METRICS.recordRead("getOrLoad", redisKey, RedisConstants.INT_ONE, RedisConstants.INT_ZERO);
+                return objectCast(unwrapValue(redisKey, storedValue));
+            }
+            STATIC_REDIS_METRICS.recordRead("getOrLoad", redisKey, RedisConstants.INT_ZERO, RedisConstants.INT_ONE);
 
-            for (Map.Entry<String, Object> entry : redisMap.entrySet()) {
+            CompletableFuture<Object> loadingFuture = new CompletableFuture<>();
+            CompletableFuture<Object> existLoadingFuture = LOADING_FUTURE_MAP.putIfAbsent(redisKey, loadingFuture);
 
-                byte[] keySerializeByte = STATIC_STRING_REDIS_SERIALIZER.serialize(entry.getKey());
-                byte[] valueSerializeByte = STATIC_JACKSON_TO_JSON_REDIS_SERIALIZER.serialize(entry.getValue());
-                if (keySerializeByte == null || valueSerializeByte == null) {
-                    continue;
-                }
-                connection.set(keySerializeByte,
-                        valueSerializeByte,
-                        Expiration.from(expireTime, expireTimeUnit),
-                        RedisStringCommands.SetOption.UPSERT);
+            // 当前 JVM 已经有线程在回源, 等待它的结果
+            if (existLoadingFuture != null) {
+                return objectCast(awaitLoading(redisKey, existLoadingFuture, loader, expireTime, randomTimeRange, expireTimeUnit));
             }
-            // 这里需要返回 null
-            // redisTemplate 内部会根据 RedisCallback 的返回值，判断方法的直接结果
-            // 有返回值表示执行异常了, 所以方法正常不用返回值就行了
-            // 但是在 Kotlin, for/forEach 会返回 Unit, 同时最后一个返回值会被当做方法返回值
-            return null;
-        });
+
+            try {
+                Object loadValue = loadWithLock(redisKey, loader, expireTime, randomTimeRange, expireTimeUnit);
+                loadingFuture.complete(loadValue);
+                return objectCast(loadValue);
+            } catch (RuntimeException ex) {
+                loadingFuture.completeExceptionally(ex);
+                throw ex;
+            } finally {
+                LOADING_FUTURE_MAP.remove(redisKey, loadingFuture);
+            }
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("getOrLoad", redisKey, ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("getOrLoad", redisKey, startNanos);
+        }
     }
 
     /**
-     * 批量设置 Redis 缓存, 带超时时间, 同时期望每个缓存对象的过期时间不一样
+     * 为某一类 Key 注册回源方法, 开启概率提前刷新 (需要 lcn.redis.early-refresh.enabled=true)
+     * 开启后, 这一类 Key 通过 setWithExpire/multiSetWithExpire/getOrLoad 写入时会记录回源耗时和过期时刻,
+     * 通过 get/multiGet 读取时越接近过期, 越有可能在后台提前刷新
      *
-     * @param redisExpireCaches 需要设置缓存的对象
+     * @param redisKeyDesc RedisKeyDesc
+     * @param loader       回源方法, 入参为完整的 Redis Key
      */
-    public static void multiSetWithExpire(List<RedisExpireCache> redisExpireCaches) {
-        STATIC_REDIS_TEMPLATE.executePipelined((RedisCallback<Object>) connection -> {
+    public static void registerEarlyRefresh(RedisKeyDesc redisKeyDesc, Function<String, ?> loader) {
+        if (STATIC_REDIS_EARLY_REFRESH == null) {
+            logger.warn("Redis early refresh is disabled, ignore register, desc:{}", redisKeyDesc.desc());
+            return;
+        }
+        STATIC_REDIS_EARLY_REFRESH.register(redisKeyDesc, loader);
+    }
 
-            for (RedisExpireCache redisExpireCache : redisExpireCaches) {
+    /**
+     * 批量获取缓存
+     *
+     * @param redisKeyList RedisKey 列表
+     * @return RedisValue 列表
+     */
+    public static <T> List<T> multiGet(List<String> redisKeyList) {
+        return multiGet(redisKeyList, null);
+    }
 
-                byte[] keySerializeByte = STATIC_STRING_REDIS_SERIALIZER.serialize(redisExpireCache.getRedisKey());
-                byte[] valueSerializeByte = STATIC_JACKSON_TO_JSON_REDIS_SERIALIZER.serialize(redisExpireCache.getRedisValue());
+    /**
+     * 批量获取缓存, 指定读取路由
+     *
+     * @param redisKeyList RedisKey 列表
+     * @param readRoute    读取路由, 为空时每个 Key 使用各自的 RedisKeyDesc#readRoute
+     * @return RedisValue 列表
+     */
+    public static <T> List<T> multiGet(List<String> redisKeyList, RedisReadRoute readRoute) {
 
-                if (keySerializeByte == null || valueSerializeByte == null) {
-                    continue;
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            if (redisKeyList.isEmpty()) {
+                return new ArrayList<>();
+            }
+            if (STATIC_REDIS_HOT_KEY_DETECTOR != null) {
+                redisKeyList.forEach(STATIC_REDIS_HOT_KEY_DETECTOR::record);
+            }
+
+            List<Object> redisValueList = alignedMultiGet(redisKeyList, readRoute);
+            if (redisValueList == null || redisValueList.isEmpty()) {
+                STATIC_REDIS_METRICS.recordRead("multiGet", redisKeyList.get(0), RedisConstants.INT_ZERO, redisKeyList.size());
+                return new ArrayList<>();
+            }
+
+            List<T> returnValue = new ArrayList<>(redisValueList.size());
+            for (int i = 0; i < redisValueList.size(); i++) {
+                Object redisValue = unwrapValue(redisKeyList.get(i), redisValueList.get(i));
+                if (redisValue != null) {
+                    returnValue.add(objectCast(redisValue));
                 }
-                connection.set(keySerializeByte,
-                        valueSerializeByte,
-                        Expiration.from(redisExpireCache.getExpireTime(), redisExpireCache.getExpireUnit()),
-                        RedisStringCommands.SetOption.UPSERT
-                );
             }
-            return null;
-        });
+            STATIC_REDIS_METRICS.recordRead("multiGet", redisKeyList.get(0), returnValue.size(), redisKeyList.size() - returnValue.size());
+            return returnValue;
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("multiGet", firstKey(redisKeyList), ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("multiGet", firstKey(redisKeyList), startNanos);
+        }
     }
 
     /**
-     * 向 List 的右侧添加一个元素, 如果 list 不存在会进行创建
+     * 批量获取缓存, 不存在的 Key 通过 loader 一次性回源, 回源结果通过一次流水线写回, 过期时间会在基础时间上随机增加 1/10 以内
      *
-     * @param redisKey   Redis Key
-     * @param redisValue 添加的数据
+     * @param redisKeyList   RedisKey 列表
+     * @param loader         批量回源方法, 入参为缓存中不存在的 Key, 返回 Key 和值的 Map
+     * @param expireTime     过期时间
+     * @param expireTimeUnit 过期时间单位
+     * @return 和 RedisKey 列表顺序一致的 Map, 不存在的 Key 对应的值为 null
      */
-    public static void listAdd(String redisKey, Object redisValue) {
-        STATIC_REDIS_TEMPLATE.opsForList().rightPush(redisKey, redisValue);
+    public static <T> Map<String, T> multiGetOrLoad(List<String> redisKeyList, Function<List<String>, Map<String, T>> loader,
+                                                    long expireTime, TimeUnit expireTimeUnit) {
+        return multiGetOrLoad(redisKeyList, loader, expireTime, expireTimeUnit, RedisConstants.LONG_ZERO);
     }
 
     /**
-     * 向 List 的右侧批量添加元素, 如果 list 不存在会进行创建
+     * 批量获取缓存, 不存在的 Key 通过 loader 一次性回源, 回源结果通过一次流水线写回, 过期时间会在基础时间上随机增加 1/10 以内
+     * nullExpireTime 大于 0 时, 回源也不存在的 Key 会写入空值占位, 避免反复穿透到数据库
      *
-     * @param redisKey    Redis Key
-     * @param redisValues 添加的数据列表
+     * @param redisKeyList   RedisKey 列表
+     * @param loader         批量回源方法, 入参为缓存中不存在的 Key, 返回 Key 和值的 Map
+     * @param expireTime     过期时间
+     * @param expireTimeUnit 过期时间单位
+     * @param nullExpireTime 空值占位的过期时间, 单位和 expireTimeUnit 一致, 小于等于 0 时不缓存空值
+     * @return 和 RedisKey 列表顺序一致的 Map, 不存在的 Key 对应的值为 null
      */
-    public static void listAddAll(String redisKey, List<Object> redisValues) {
+    public static <T> Map<String, T> multiGetOrLoad(List<String> redisKeyList, Function<List<String>, Map<String, T>> loader,
+                                                    long expireTime, TimeUnit expireTimeUnit, long nullExpireTime) {
 
-        // key 不能为空
-        byte[] keySerializeByte = STATIC_STRING_REDIS_SERIALIZER.serialize(redisKey);
-        if (keySerializeByte == null) {
-            return;
-        }
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            Map<String, T> returnValue = new LinkedHashMap<>(redisKeyList.size() * 2);
+            if (redisKeyList.isEmpty()) {
+                return returnValue;
+            }
 
-        // redisTemplate 提供的  opsForList 的 rightPushAll 有些问题, 修改为通道批量设置
-        STATIC_REDIS_TEMPLATE.executePipelined((RedisCallback<Object>) connection -> {
-            for (Object redisValue : redisValues) {
-                byte[] valueSerializeByte = STATIC_JACKSON_TO_JSON_REDIS_SERIALIZER.serialize(redisValue);
-                connection.rPush(keySerializeByte, valueSerializeByte);
+            List<Object> redisValueList = alignedMultiGet(redisKeyList, null);
+            List<String> missKeyList = new ArrayList<>();
+            for (int i = 0; i < redisKeyList.size(); i++) {
+                String redisKey = redisKeyList.get(i);
+                Object redisValue = redisValueList == null ? null : redisValueList.get(i);
+                if (redisValue == null) {
+                    missKeyList.add(redisKey);
+                    continue;
+                }
+                // 空值占位会被转换为 null, 不需要再回源
+                returnValue.put(redisKey, objectCast(unwrapValue(redisKey, redisValue)));
             }
-            return null;
-        });
+            STATIC_REDIS_METRICS.recordRead("multiGetOrLoad", redisKeyList.get(0), returnValue.size(), missKeyList.size());
+
+            if (missKeyList.isEmpty()) {
+                return returnValue;
+            }
+
+            Map<String, T> loadValueMap = loader.apply(missKeyList);
+            long randomTimeRange = Math.max(expireTime / DEFAULT_RANDOM_TIME_RANGE_DIVISOR, RedisConstants.LONG_ONE);
+
+            List<RedisExpireCache> redisExpireCaches = new ArrayList<>(missKeyList.size());
+            for (String missKey : missKeyList) {
+                T loadValue = loadValueMap == null ? null : loadValueMap.get(missKey);
+                if (loadValue == null && nullExpireTime <= RedisConstants.LONG_ZERO) {
+                    continue;
+                }
+
+                RedisExpireCache redisExpireCache = new RedisExpireCache();
+                redisExpireCache.setRedisKey(missKey);
+                redisExpireCache.setRedisValue(loadValue == null ? RedisNullValue.INSTANCE : loadValue);
+                redisExpireCache.setExpireTime(loadValue == null ? nullExpireTime : randomExpireTime(expireTime, randomTimeRange));
+                redisExpireCache.setExpireUnit(expireTimeUnit);
+                redisExpireCaches.add(redisExpireCache);
+            }
+
+            if (!redisExpireCaches.isEmpty()) {
+                // 回填失败只记录日志, 加载的值照常返回
+                multiSetWithExpireDetailed(redisExpireCaches);
+            }
+
+            // 按照入参的顺序返回
+            Map<String, T> alignedValue = new LinkedHashMap<>(redisKeyList.size() * 2);
+            for (String redisKey : redisKeyList) {
+                alignedValue.put(redisKey, returnValue.containsKey(redisKey)
+                        ? returnValue.get(redisKey) : (loadValueMap == null ? null : loadValueMap.get(redisKey)));
+            }
+            return alignedValue;
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("multiGetOrLoad", firstKey(redisKeyList), ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("multiGetOrLoad", firstKey(redisKeyList), startNanos);
+        }
     }
 
     /**
-     * 获取 List 中所有的数据
+     * 设置 Redis 缓存
+     * RedisKeyDesc#writeBehind 为 true 的 Key 先进入延迟写入的缓冲区, 这时超过大小上限的 Value 在刷新时跳过, 不会抛出异常
+     * 缓冲区保存的是 redisValue 对象本身, 刷新时才序列化, 调用之后不能再修改这个对象
      *
-     * @param redisKey Redis Key
-     * @return 返回的数据
+     * @param redisKey   RedisKey
+     * @param redisValue RedisValue
+     * @throws IllegalArgumentException Value 超过了 lcn.redis.value-size.reject-threshold
      */
-    public static <T> List<T> listAllGet(String redisKey) {
-
-        List<Object> redisValueList =
-                STATIC_REDIS_TEMPLATE.opsForList().range(redisKey, RedisConstants.LONG_ZERO, RedisConstants.LONG_MINUS_ONE);
-
-        if (redisValueList == null || redisValueList.isEmpty()) {
-            return new ArrayList<>();
+    public static void set(String redisKey, Object redisValue) {
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            RedisWriteBehindBuffer writeBehindBuffer = STATIC_REDIS_WRITE_BEHIND_BUFFER;
+            if (writeBehindBuffer != null && redisValue != null && writeBehindBuffer.isWriteBehind(redisKey)) {
+                // 写入 Redis 之后才失效近端缓存, 缓冲期间本地的 get 直接读取缓冲区中的值
+                writeBehindBuffer.write(redisKey, redisValue, RedisConstants.LONG_ZERO, () -> {
+                    doSet(redisKey, redisValue);
+                    afterWrite(redisKey);
+                });
+                return;
+            }
+            supersedeWriteBehind(Collections.singletonList(redisKey), () -> {
+                doSet(redisKey, redisValue);
+                return null;
+            });
+            afterWrite(redisKey);
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("set", redisKey, ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("set", redisKey, startNanos);
         }
+    }
 
-        List<T> returnValue = new ArrayList<>(redisValueList.size());
-        redisValueList.stream().filter(Objects::nonNull).forEach(item -> returnValue.add(objectCast(item)));
-        return returnValue;
+    private static void doSet(String redisKey, Object redisValue) {
+        byte[] keyBytes = STATIC_STRING_REDIS_SERIALIZER.serialize(redisKey);
+        byte[] valueBytes = checkedValueBytes(redisKey, redisValue);
+        STATIC_REDIS_TEMPLATE.execute((RedisCallback<Boolean>) connection -> connection.set(keyBytes, valueBytes));
+    }
 
+    /**
+     * 批量设置 Redis 缓存, 按照 lcn.redis.pipeline 的配置分批, 每批一条 MSET
+     *
+     * @param redisMap 批量设置的缓存 Map, key 为 RedisKey, value: 需要存储的数据
+     * @throws IllegalStateException    有批次写入失败, 需要失败的详情时使用 multiSetDetailed
+     * @throws IllegalArgumentException 有 Value 序列化失败或者超过了 lcn.redis.value-size.reject-threshold, 其他的 Key 已经写入
+     */
+    public static void multiSet(Map<String, Object> redisMap) {
+        throwIfFailed("multiSet", multiSetDetailed(redisMap));
     }
 
     /**
-     * 清空 List 中的所有数据
+     * 批量设置 Redis 缓存, 按照 lcn.redis.pipeline 的配置分批, 每批一条 MSET
      *
-     * @param redisKey Redis Key
+     * @param redisMap 批量设置的缓存 Map, key 为 RedisKey, value: 需要存储的数据
+     * @return 写入结果, 包含失败的批次和序列化失败或者超过大小上限被跳过的 Key
      */
-    public static void listClear(String redisKey) {
-        // 实际的效果就是删除这个 key
-        STATIC_REDIS_TEMPLATE.opsForList().trim(redisKey, RedisConstants.LONG_ONE, RedisConstants.LONG_ZERO);
+    public static RedisPipelineResult multiSetDetailed(Map<String, Object> redisMap) {
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            if (redisMap.isEmpty()) {
+                return new RedisPipelineResult();
+            }
+            RedisPipelineResult result = supersedeWriteBehind(redisMap.keySet(), () -> STATIC_REDIS_PIPELINE_EXECUTOR.execute(
+                    redisMap.entrySet(), entry -> pipelineEntry(entry.getKey(), entry.getValue(), RedisConstants.LONG_ZERO),
+                    false, RedisUtil::chunkMultiSet));
+            afterWriteAll(redisMap.keySet());
+            return result;
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("multiSet", firstKey(redisMap.keySet()), ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("multiSet", firstKey(redisMap.keySet()), startNanos);
+        }
     }
 
     /**
-     * 从 list 的左边往右删除多少个符合的值
+     * 设置带超时时间的 Redis 缓存
+     * RedisKeyDesc#writeBehind 为 true 的 Key 先进入延迟写入的缓冲区, 过期时间仍然从调用时开始计算, 刷新时只设置剩余的时间
+     * 缓冲区保存的是 redisValue 对象本身, 刷新时才序列化, 调用之后不能再修改这个对象
      *
      * @param redisKey       RedisKey
-     * @param redisItemValue 需要删除的值
-     * @param count          需要删除多少个
+     * @param redisValue     RedisValue
+     * @param expireTime     过期时间
+     * @param expireTimeUnit 过期时间单位
+     * @throws IllegalArgumentException Value 超过了 lcn.redis.value-size.reject-threshold
      */
-    public static void listRemove(String redisKey, Object redisItemValue, Long count) {
-        STATIC_REDIS_TEMPLATE.opsForList().remove(redisKey, count, redisItemValue);
+    public static void setWithExpire(String redisKey, Object redisValue, long expireTime, TimeUnit expireTimeUnit) {
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            Object storeValue = earlyRefreshWrap(redisKey, redisValue, expireTime, expireTimeUnit);
+            RedisWriteBehindBuffer writeBehindBuffer = STATIC_REDIS_WRITE_BEHIND_BUFFER;
+            long expireMillis = expireTimeUnit.toMillis(expireTime);
+            if (writeBehindBuffer != null && storeValue != null && expireMillis > RedisConstants.LONG_ZERO
+                    && writeBehindBuffer.isWriteBehind(redisKey)) {
+                writeBehindBuffer.write(redisKey, storeValue, expireMillis, () -> {
+                    doSetWithExpire(redisKey, storeValue, expireTime, expireTimeUnit);
+                    afterWrite(redisKey);
+                });
+                return;
+            }
+            supersedeWriteBehind(Collections.singletonList(redisKey), () -> {
+                doSetWithExpire(redisKey, storeValue, expireTime, expireTimeUnit);
+                return null;
+            });
+            afterWrite(redisKey);
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("setWithExpire", redisKey, ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("setWithExpire", redisKey, startNanos);
+        }
+    }
+
+    private static void doSetWithExpire(String redisKey, Object storeValue, long expireTime, TimeUnit expireTimeUnit) {
+        byte[] keyBytes = STATIC_STRING_REDIS_SERIALIZER.serialize(redisKey);
+        byte[] valueBytes = checkedValueBytes(redisKey, storeValue);
+        STATIC_REDIS_TEMPLATE.execute((RedisCallback<Boolean>) connection -> connection.set(keyBytes, valueBytes,
+                Expiration.from(expireTime, expireTimeUnit), RedisStringCommands.SetOption.UPSERT));
     }
 
     /**
-     * 对象强制转换
+     * 批量设置 Redis 缓存, 带超时时间, 按照 lcn.redis.pipeline 的配置分批, 每批在一个连接上流水线执行
      *
-     * @param obj 转换的类型
-     * @return 转换后的对象
+     * @param redisMap       批量设置的缓存 Map, key 为 RedisKey, value: 需要存储的数据
+     * @param expireTime     过期时间
+     * @param expireTimeUnit 过期时间单位
+     * @throws IllegalStateException    有批次写入失败, 需要失败的详情时使用 multiSetWithExpireDetailed
+     * @throws IllegalArgumentException 有 Value 序列化失败或者超过了 lcn.redis.value-size.reject-threshold, 其他的 Key 已经写入
      */
-    @SuppressWarnings("unchecked")
-    private static <T> T objectCast(Object obj) {
-        if (obj == null) {
-            return null;
-        }
-        return (T) obj;
+    public static void multiSetWithExpire(Map<String, Object> redisMap, long expireTime, TimeUnit expireTimeUnit) {
+        throwIfFailed("multiSetWithExpire", multiSetWithExpireDetailed(redisMap, expireTime, expireTimeUnit));
     }
 
-    @PostConstruct
-    public void initAttributeName() {
+    /**
+     * 批量设置 Redis 缓存, 带超时时间, 按照 lcn.redis.pipeline 的配置分批, 每批在一个连接上流水线执行
+     *
+     * @param redisMap       批量设置的缓存 Map, key 为 RedisKey, value: 需要存储的数据
+     * @param expireTime     过期时间
+     * @param expireTimeUnit 过期时间单位
+     * @return 写入结果, 包含失败的批次和序列化失败或者超过大小上限被跳过的 Key
+     */
+    public static RedisPipelineResult multiSetWithExpireDetailed(Map<String, Object> redisMap, long expireTime,
+                                                                 TimeUnit expireTimeUnit) {
+
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            long expireMillis = expireTimeUnit.toMillis(expireTime);
+            RedisPipelineResult result = supersedeWriteBehind(redisMap.keySet(), () -> STATIC_REDIS_PIPELINE_EXECUTOR.execute(
+                    redisMap.entrySet(), entry -> {
+                        Object storeValue = earlyRefreshWrap(entry.getKey(), entry.getValue(), expireTime, expireTimeUnit);
+                        return pipelineEntry(entry.getKey(), storeValue, expireMillis);
+                    }, false, RedisUtil::chunkSetWithExpire));
+            afterWriteAll(redisMap.keySet());
+            return result;
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("multiSetWithExpire", firstKey(redisMap.keySet()), ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("multiSetWithExpire", firstKey(redisMap.keySet()), startNanos);
+        }
+    }
+
+    /**
+     * 批量设置 Redis 缓存, 带超时时间, 同时期望每个缓存对象的过期时间不一样
+     *
+     * @param redisExpireCaches 需要设置缓存的对象
+     * @throws IllegalStateException    有批次写入失败, 需要失败的详情时使用 multiSetWithExpireDetailed
+     * @throws IllegalArgumentException 有 Value 序列化失败或者超过了 lcn.redis.value-size.reject-threshold, 其他的 Key 已经写入
+     */
+    public static void multiSetWithExpire(List<RedisExpireCache> redisExpireCaches) {
+        throwIfFailed("multiSetWithExpire", multiSetWithExpireDetailed(redisExpireCaches));
+    }
+
+    /**
+     * 批量设置 Redis 缓存, 带超时时间, 同时期望每个缓存对象的过期时间不一样
+     *
+     * @param redisExpireCaches 需要设置缓存的对象
+     * @return 写入结果, 包含失败的批次和序列化失败或者超过大小上限被跳过的 Key
+     */
+    public static RedisPipelineResult multiSetWithExpireDetailed(List<RedisExpireCache> redisExpireCaches) {
+
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            List<String> redisKeys = new ArrayList<>(redisExpireCaches.size());
+            redisExpireCaches.forEach(item -> redisKeys.add(item.getRedisKey()));
+
+            RedisPipelineResult result = supersedeWriteBehind(redisKeys, () -> STATIC_REDIS_PIPELINE_EXECUTOR.execute(
+                    redisExpireCaches, redisExpireCache -> {
+                        Object storeValue = earlyRefreshWrap(redisExpireCache.getRedisKey(), redisExpireCache.getRedisValue(),
+                                redisExpireCache.getExpireTime(), redisExpireCache.getExpireUnit());
+                        return pipelineEntry(redisExpireCache.getRedisKey(), storeValue,
+                                redisExpireCache.getExpireUnit().toMillis(redisExpireCache.getExpireTime()));
+                    }, false, RedisUtil::chunkSetWithExpire));
+            afterWriteAll(redisKeys);
+            return result;
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("multiSetWithExpire", firstCacheKey(redisExpireCaches), ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("multiSetWithExpire", firstCacheKey(redisExpireCaches), startNanos);
+        }
+    }
+
+    /**
+     * 不返回结果的批量写入, 有批次失败或者有被跳过的 Key 时抛出异常, 和单个写入时 Value 不合法抛出异常保持一致
+     * 批次失败优先, 抛出 IllegalStateException, 只有被跳过的 Key 时抛出 IllegalArgumentException
+     *
+     * @param operation 操作名称
+     * @param result    分批写入的结果
+     */
+    private static void throwIfFailed(String operation, RedisPipelineResult result) {
+        List<RedisPipelineResult.ChunkFailure> failures = result.getFailures();
+        List<String> skippedKeys = result.getSkippedKeys();
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Redis " + operation + " fail, failed chunks: " + failures.size()
+                    + ", skipped keys: " + skippedKeys.size() + ", written: " + result.getWrittenCount(),
+                    failures.get(RedisConstants.INT_ZERO).getCause());
+        }
+        if (!skippedKeys.isEmpty()) {
+            throw new IllegalArgumentException("Redis " + operation + " skip values which failed to serialize or exceed "
+                    + "the reject threshold, skipped keys: " + skippedKeys.size() + ", first key: "
+                    + skippedKeys.get(RedisConstants.INT_ZERO) + ", written: " + result.getWrittenCount());
+        }
+    }
+
+    /**
+     * 写入一批不带过期时间的元素, 集群模式下按照 slot 分组, 否则一条可变参数的 MSET
+     *
+     * @param chunk 一批元素
+     */
+    private static void chunkMultiSet(List<RedisPipelineEntry> chunk) {
+
+        if (STATIC_REDIS_BYTE_BUF_BATCH_WRITER != null) {
+            STATIC_REDIS_BYTE_BUF_BATCH_WRITER.mset(chunk);
+            return;
+        }
+
+        if (STATIC_REDIS_CLUSTER_BATCH_EXECUTOR != null) {
+            List<byte[]> keyBytes = new ArrayList<>(chunk.size());
+            List<byte[]> valueBytes = new ArrayList<>(chunk.size());
+            for (RedisPipelineEntry entry : chunk) {
+                keyBytes.add(entry.getKeyBytes());
+                valueBytes.add(entry.getValueBytes());
+            }
+            STATIC_REDIS_CLUSTER_BATCH_EXECUTOR.mset(keyBytes, valueBytes);
+            return;
+        }
+
+        Map<byte[], byte[]> tuple = new LinkedHashMap<>(chunk.size() * 2);
+        chunk.forEach(entry -> tuple.put(entry.getKeyBytes(), entry.getValueBytes()));
+        STATIC_REDIS_TEMPLATE.execute((RedisCallback<Object>) connection -> connection.mSet(tuple));
+    }
+
+    /**
+     * 写入一批带过期时间的元素, 集群模式下按照 slot 分组并行, 否则在一个连接上流水线执行 SET PX
+     *
+     * @param chunk 一批元素
+     */
+    private static void chunkSetWithExpire(List<RedisPipelineEntry> chunk) {
+
+        if (STATIC_REDIS_BYTE_BUF_BATCH_WRITER != null) {
+            STATIC_REDIS_BYTE_BUF_BATCH_WRITER.setWithExpire(chunk);
+            return;
+        }
+
+        if (STATIC_REDIS_CLUSTER_BATCH_EXECUTOR != null) {
+            List<byte[]> keyBytes = new ArrayList<>(chunk.size());
+            List<byte[]> valueBytes = new ArrayList<>(chunk.size());
+            List<Long> expireMillis = new ArrayList<>(chunk.size());
+            for (RedisPipelineEntry entry : chunk) {
+                keyBytes.add(entry.getKeyBytes());
+                valueBytes.add(entry.getValueBytes());
+                expireMillis.add(entry.getExpireMillis());
+            }
+            STATIC_REDIS_CLUSTER_BATCH_EXECUTOR.setWithExpire(keyBytes, valueBytes, expireMillis);
+            return;
+        }
+
+        STATIC_REDIS_TEMPLATE.executePipelined((RedisCallback<Object>) connection -> {
+            for (RedisPipelineEntry entry : chunk) {
+                connection.set(entry.getKeyBytes(),
+                        entry.getValueBytes(),
+                        Expiration.milliseconds(entry.getExpireMillis()),
+                        RedisStringCommands.SetOption.UPSERT);
+            }
+            // 这里需要返回 null
+            // redisTemplate 内部会根据 RedisCallback 的返回值，判断方法的直接结果
+            // 有返回值表示执行异常了, 所以方法正常不用返回值就行了
+            // 但是在 Kotlin, for/forEach 会返回 Unit, 同时最后一个返回值会被当做方法返回值
+            return null;
+        });
+    }
+
+    /**
+     * 延迟写入的批次写入, 不过期的 Key 通过 MSET 写入, 带过期时间的 Key 流水线执行 SET PX, 过期时间为放入缓冲区时剩余的时间
+     * 序列化失败或者超过大小上限的 Key 直接跳过, 不再重试
+     *
+     * @param pendingWrites 一批缓冲区中的写入
+     * @return 写入失败需要重试的 Key
+     */
+    private static List<String> flushWriteBehind(List<RedisWriteBehindBuffer.PendingWrite> pendingWrites) {
+
+        List<RedisWriteBehindBuffer.PendingWrite> persistentWrites = new ArrayList<>();
+        List<RedisWriteBehindBuffer.PendingWrite> expireWrites = new ArrayList<>();
+        for (RedisWriteBehindBuffer.PendingWrite pendingWrite : pendingWrites) {
+            if (pendingWrite.hasExpire()) {
+                expireWrites.add(pendingWrite);
+            } else {
+                persistentWrites.add(pendingWrite);
+            }
+        }
+
+        List<String> failedKeys = new ArrayList<>();
+        List<String> skippedKeys = new ArrayList<>();
+        if (!persistentWrites.isEmpty()) {
+            RedisPipelineResult result = STATIC_REDIS_PIPELINE_EXECUTOR.execute(persistentWrites,
+                    pendingWrite -> pipelineEntry(pendingWrite.getRedisKey(), pendingWrite.getRedisValue(), RedisConstants.LONG_ZERO),
+                    false, RedisUtil::chunkMultiSet);
+            result.getFailures().forEach(failure -> failedKeys.addAll(failure.getRedisKeys()));
+            skippedKeys.addAll(result.getSkippedKeys());
+        }
+        if (!expireWrites.isEmpty()) {
+            RedisPipelineResult result = STATIC_REDIS_PIPELINE_EXECUTOR.execute(expireWrites,
+                    pendingWrite -> pipelineEntry(pendingWrite.getRedisKey(), pendingWrite.getRedisValue(), pendingWrite.remainingExpireMillis()),
+                    false, RedisUtil::chunkSetWithExpire);
+            result.getFailures().forEach(failure -> failedKeys.addAll(failure.getRedisKeys()));
+            skippedKeys.addAll(result.getSkippedKeys());
+        }
+
+        if (!skippedKeys.isEmpty()) {
+            logger.warn("Redis write behind skip {} keys, first key:{}", skippedKeys.size(), skippedKeys.get(0));
+        }
+        // 只有真正写入 Redis 的 Key 才失效近端缓存和固定主节点读取
+        Set<String> unwrittenKeys = new HashSet<>(failedKeys);
+        unwrittenKeys.addAll(skippedKeys);
+        List<String> writtenKeys = new ArrayList<>(pendingWrites.size());
+        for (RedisWriteBehindBuffer.PendingWrite pendingWrite : pendingWrites) {
+            if (!unwrittenKeys.contains(pendingWrite.getRedisKey())) {
+                writtenKeys.add(pendingWrite.getRedisKey());
+            }
+        }
+        afterWriteAll(writtenKeys);
+        return failedKeys;
+    }
+
+    /**
+     * 序列化一个写入的元素, 开启了池化 ByteBuf 时直接编码到池化的 ByteBuf
+     *
+     * @param redisKey     Redis Key
+     * @param storeValue   存储的值
+     * @param expireMillis 过期时间, 单位: 毫秒, 小于等于 0 时不过期
+     * @return 写入的元素, 序列化失败时 Key 或者 Value 为空
+     */
+    private static RedisPipelineEntry pipelineEntry(String redisKey, Object storeValue, long expireMillis) {
+        if (STATIC_REDIS_BYTE_BUF_BATCH_WRITER != null) {
+            return sizeCheckedEntry(STATIC_REDIS_BYTE_BUF_BATCH_WRITER.entry(redisKey, storeValue, expireMillis));
+        }
+        return sizeCheckedEntry(RedisPipelineEntry.of(redisKey, STATIC_STRING_REDIS_SERIALIZER.serialize(redisKey),
+                batchValueBytes(redisKey, storeValue), expireMillis));
+    }
+
+    /**
+     * 分批写入时序列化 Value, 和 RedisByteBufBatchWriter#encodeValue 一样, 序列化失败时作为跳过的 Key 处理, 不中断整个批量写入
+     *
+     * @param redisKey   Redis Key, 用于失败时定位
+     * @param storeValue 存储的值
+     * @return 序列化后的 Value, 序列化失败时返回 null
+     */
+    private static byte[] batchValueBytes(String redisKey, Object storeValue) {
+        try {
+            return STATIC_VALUE_REDIS_SERIALIZER.serialize(storeValue);
+        } catch (RuntimeException ex) {
+            logger.warn("Redis value serialize fail, key:{}, message:{}", redisKey, ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 检查写入元素的 Value 大小, 超过 lcn.redis.value-size.reject-threshold 时释放元素, 作为跳过的 Key 处理
+     * 不返回结果的批量写入在写完之后会因为跳过的 Key 抛出 IllegalArgumentException, 和单个写入一致
+     *
+     * @param entry 写入的元素
+     * @return 可以写入时返回原来的元素, 否则返回 Value 为空的元素
+     */
+    private static RedisPipelineEntry sizeCheckedEntry(RedisPipelineEntry entry) {
+        RedisValueSizeGuard sizeGuard = STATIC_REDIS_VALUE_SIZE_GUARD;
+        if (sizeGuard == null || !entry.isWritable()
+                || sizeGuard.accept(entry.getRedisKey(), entry.getValueBuf().readableBytes())) {
+            return entry;
+        }
+        entry.release();
+        return new RedisPipelineEntry(entry.getRedisKey(), null, null, entry.getExpireMillis());
+    }
+
+    /**
+     * 序列化并检查 Value 的大小
+     *
+     * @param redisKey   Redis Key
+     * @param storeValue 存储的值
+     * @return 序列化后的 Value
+     * @throws IllegalArgumentException 超过了 lcn.redis.value-size.reject-threshold
+     */
+    static byte[] checkedValueBytes(String redisKey, Object storeValue) {
+        byte[] valueBytes = STATIC_VALUE_REDIS_SERIALIZER.serialize(storeValue);
+        if (STATIC_REDIS_VALUE_SIZE_GUARD != null && valueBytes != null) {
+            STATIC_REDIS_VALUE_SIZE_GUARD.check(redisKey, valueBytes.length);
+        }
+        return valueBytes;
+    }
+
+    /**
+     * 比较并设置, 当前值和期望的值一致时才设置新值, 一次脚本调用原子完成
+     * 比较的是序列化后的字节, 值中带上版本号时可以作为乐观锁使用, 开启了概率提前刷新的 Key 不能使用
+     *
+     * @param redisKey       RedisKey
+     * @param expectedValue  期望的当前值, 为空表示期望 Key 不存在
+     * @param newValue       新值
+     * @param expireTime     过期时间, 小于等于 0 时不过期
+     * @param expireTimeUnit 过期时间单位
+     * @return true: 设置成功, false: 当前值和期望的值不一致
+     */
+    public static boolean compareAndSet(String redisKey, Object expectedValue, Object newValue, long expireTime,
+                                        TimeUnit expireTimeUnit) {
+
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            byte[] expectedBytes = expectedValue == null ? new byte[0] : STATIC_VALUE_REDIS_SERIALIZER.serialize(expectedValue);
+            byte[] newBytes = checkedValueBytes(redisKey, newValue);
+            List<String> redisKeys = Collections.singletonList(redisKey);
+            Long result = writeThroughWriteBehind(redisKeys, () -> STATIC_REDIS_SCRIPT_REGISTRY.execute(
+                    RedisScriptRegistry.COMPARE_AND_SET, ReturnType.INTEGER, redisKeys, expectedBytes, newBytes,
+                    numberArg(expireTimeUnit.toMillis(expireTime))));
+
+            boolean success = result != null && result == RedisConstants.LONG_ONE;
+            if (success) {
+                afterWrite(redisKey);
+            }
+            return success;
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("compareAndSet", redisKey, ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("compareAndSet", redisKey, startNanos);
+        }
+    }
+
+    /**
+     * 获取缓存, 同时刷新过期时间, 一次脚本调用原子完成
+     *
+     * @param redisKey       RedisKey
+     * @param expireTime     新的过期时间
+     * @param expireTimeUnit 过期时间单位
+     * @return RedisValue, 不存在时返回 null
+     */
+    public static <T> T getAndExpire(String redisKey, long expireTime, TimeUnit expireTimeUnit) {
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            List<String> redisKeys = Collections.singletonList(redisKey);
+            byte[] valueBytes = writeThroughWriteBehind(redisKeys, () -> STATIC_REDIS_SCRIPT_REGISTRY.execute(
+                    RedisScriptRegistry.GET_AND_EXPIRE, ReturnType.VALUE, redisKeys, numberArg(expireTimeUnit.toMillis(expireTime))));
+            if (valueBytes == null) {
+                STATIC_REDIS_METRICS.recordRead("getAndExpire", redisKey, RedisConstants.INT_ZERO, RedisConstants.INT_ONE);
+                return null;
+            }
+            return recordRead("getAndExpire", redisKey, unwrapValue(redisKey, STATIC_VALUE_REDIS_SERIALIZER.deserialize(valueBytes)));
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("getAndExpire", redisKey, ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("getAndExpire", redisKey, startNanos);
+        }
+    }
+
+    /**
+     * 批量条件删除, 只删除当前值和期望的值一致的 Key, 一次脚本调用原子完成
+     * 集群模式下所有的 Key 必须在同一个 slot
+     *
+     * @param expectedMap key 为 RedisKey, value 为期望的当前值
+     * @return 删除的个数
+     */
+    public static long deleteIfEquals(Map<String, Object> expectedMap) {
+
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            if (expectedMap.isEmpty()) {
+                return RedisConstants.LONG_ZERO;
+            }
+
+            List<String> redisKeys = new ArrayList<>(expectedMap.size());
+            byte[][] expectedBytes = new byte[expectedMap.size()][];
+            for (Map.Entry<String, Object> entry : expectedMap.entrySet()) {
+                expectedBytes[redisKeys.size()] = STATIC_VALUE_REDIS_SERIALIZER.serialize(entry.getValue());
+                redisKeys.add(entry.getKey());
+            }
+
+            Long deleted = writeThroughWriteBehind(redisKeys, () -> STATIC_REDIS_SCRIPT_REGISTRY.execute(
+                    RedisScriptRegistry.DELETE_IF_EQUALS, ReturnType.INTEGER, redisKeys, expectedBytes));
+            if (deleted != null && deleted > RedisConstants.LONG_ZERO) {
+                afterWriteAll(redisKeys);
+            }
+            return deleted == null ? RedisConstants.LONG_ZERO : deleted;
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("deleteIfEquals", firstKey(expectedMap.keySet()), ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("deleteIfEquals", firstKey(expectedMap.keySet()), startNanos);
+        }
+    }
+
+    /**
+     * 带上限的自增, 自增后超过上限时不自增, 一次脚本调用原子完成
+     * 计数器以整数字符串存储, 不经过 Value 序列化, 只能通过这个方法读写
+     *
+     * @param redisKey       RedisKey
+     * @param delta          自增的步长
+     * @param cap            上限
+     * @param expireTime     Key 新建时的过期时间, 小于等于 0 时不过期
+     * @param expireTimeUnit 过期时间单位
+     * @return 自增后的值, 超过上限时返回 null
+     */
+    public static Long incrementWithCap(String redisKey, long delta, long cap, long expireTime, TimeUnit expireTimeUnit) {
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            List<String> redisKeys = Collections.singletonList(redisKey);
+            Long value = writeThroughWriteBehind(redisKeys, () -> STATIC_REDIS_SCRIPT_REGISTRY.execute(
+                    RedisScriptRegistry.INCREMENT_WITH_CAP, ReturnType.INTEGER, redisKeys, numberArg(delta), numberArg(cap),
+                    numberArg(expireTimeUnit.toMillis(expireTime))));
+            if (value != null) {
+                afterWrite(redisKey);
+            }
+            return value;
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("incrementWithCap", redisKey, ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("incrementWithCap", redisKey, startNanos);
+        }
+    }
+
+    /**
+     * 限流, 从令牌桶获取一个令牌, 使用 Key 所属的 RedisKeyDesc#rateLimit 的规则
+     *
+     * @param redisKey 令牌桶的 RedisKey
+     * @return true: 获取成功, false: 被限流
+     * @throws IllegalArgumentException Key 所属的 RedisKeyDesc 没有配置限流规则
+     */
+    public static boolean tryAcquire(String redisKey) {
+        return tryAcquire(redisKey, RedisConstants.INT_ONE);
+    }
+
+    /**
+     * 限流, 从令牌桶获取多个令牌, 使用 Key 所属的 RedisKeyDesc#rateLimit 的规则
+     *
+     * @param redisKey 令牌桶的 RedisKey
+     * @param permits  需要的令牌数, 不能超过桶的容量
+     * @return true: 获取成功, false: 被限流
+     * @throws IllegalArgumentException Key 所属的 RedisKeyDesc 没有配置限流规则
+     */
+    public static boolean tryAcquire(String redisKey, int permits) {
+        return tryAcquire(redisKey, permits, STATIC_REDIS_RATE_LIMITER.rateLimit(redisKey));
+    }
+
+    /**
+     * 限流, 从令牌桶获取多个令牌
+     * 令牌按照 lcn.redis.rate-limit.lease-size 一批批从 Redis 租用, 大部分获取只扣减本地的计数器, 不访问 Redis
+     * 令牌桶以 Hash 存储, 只能通过这个方法读写
+     *
+     * @param redisKey  令牌桶的 RedisKey
+     * @param permits   需要的令牌数, 不能超过桶的容量
+     * @param rateLimit 限流规则, 同一个 Key 需要始终使用同一个规则
+     * @return true: 获取成功, false: 被限流
+     */
+    public static boolean tryAcquire(String redisKey, int permits, RedisRateLimit rateLimit) {
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            return STATIC_REDIS_RATE_LIMITER.tryAcquire(redisKey, permits, rateLimit);
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("tryAcquire", redisKey, ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("tryAcquire", redisKey, startNanos);
+        }
+    }
+
+    /**
+     * 获取序列的下一个 ID, 序列的名称由 RedisKeyDesc 和 mask 拼接
+     *
+     * @param redisKeyDesc 序列所属的 RedisKeyDesc
+     * @param mask         自定义的 redis key 区别标识, 多个
+     * @return 下一个 ID
+     */
+    public static long nextId(RedisKeyDesc redisKeyDesc, String... mask) {
+        return nextId(redisKey(redisKeyDesc, mask));
+    }
+
+    /**
+     * 获取序列的下一个 ID
+     * ID 按照号段通过 INCRBY 从 Redis 获取, 号段内的 ID 在本地发放, 所有实例之间唯一, 单个实例内递增, 不保证连续
+     * 序列以整数字符串存储, 不经过 Value 序列化, 只能通过这个方法写入
+     *
+     * @param redisKey 序列的 RedisKey
+     * @return 下一个 ID, 从 1 开始
+     */
+    public static long nextId(String redisKey) {
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            return STATIC_REDIS_SEQUENCE_GENERATOR.nextId(redisKey);
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("nextId", redisKey, ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("nextId", redisKey, startNanos);
+        }
+    }
+
+    /**
+     * 向 List 的右侧添加一个元素, 如果 list 不存在会进行创建
+     *
+     * @param redisKey   Redis Key
+     * @param redisValue 添加的数据
+     * @throws IllegalArgumentException Value 超过了 lcn.redis.value-size.reject-threshold
+     */
+    public static void listAdd(String redisKey, Object redisValue) {
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            byte[] keyBytes = STATIC_STRING_REDIS_SERIALIZER.serialize(redisKey);
+            byte[] valueBytes = checkedValueBytes(redisKey, redisValue);
+            STATIC_REDIS_TEMPLATE.execute((RedisCallback<Long>) connection -> connection.rPush(keyBytes, valueBytes));
+            afterWrite(redisKey);
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("listAdd", redisKey, ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("listAdd", redisKey, startNanos);
+        }
+    }
+
+    /**
+     * 向 List 的右侧批量添加元素, 如果 list 不存在会进行创建
+     * 按照 lcn.redis.pipeline 的配置分批, 每批一条可变参数的 RPUSH, 批次之间按顺序串行写入, 保证元素的顺序
+     *
+     * @param redisKey    Redis Key
+     * @param redisValues 添加的数据列表
+     * @throws IllegalStateException    有批次写入失败, 之前的批次已经写入, 需要失败的详情时使用 listAddAllDetailed
+     * @throws IllegalArgumentException 有元素序列化失败或者超过了 lcn.redis.value-size.reject-threshold, 其他的元素已经写入
+     */
+    public static void listAddAll(String redisKey, List<Object> redisValues) {
+        throwIfFailed("listAddAll", listAddAllDetailed(redisKey, redisValues));
+    }
+
+    /**
+     * 向 List 的右侧批量添加元素, 如果 list 不存在会进行创建
+     * 按照 lcn.redis.pipeline 的配置分批, 每批一条可变参数的 RPUSH, 批次之间按顺序串行写入, 保证元素的顺序
+     * 某一批失败时, 之前的批次已经写入, 之后的批次继续写入, 调用方可以根据结果决定是否重建 List
+     *
+     * @param redisKey    Redis Key
+     * @param redisValues 添加的数据列表
+     * @return 写入结果, 包含失败的批次和序列化失败或者超过大小上限被跳过的元素所属的 Key
+     */
+    public static RedisPipelineResult listAddAllDetailed(String redisKey, List<Object> redisValues) {
+
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            // key 不能为空
+            byte[] keySerializeByte = STATIC_STRING_REDIS_SERIALIZER.serialize(redisKey);
+            if (keySerializeByte == null || redisValues.isEmpty()) {
+                return new RedisPipelineResult();
+            }
+
+            RedisByteBufBatchWriter byteBufBatchWriter = STATIC_REDIS_BYTE_BUF_BATCH_WRITER;
+            if (byteBufBatchWriter != null) {
+                // 同一个 List 的元素共用 Key, 每个元素只包装, 不重复编码
+                RedisPipelineResult result = STATIC_REDIS_PIPELINE_EXECUTOR.execute(redisValues,
+                        redisValue -> sizeCheckedEntry(new RedisPipelineEntry(redisKey, Unpooled.wrappedBuffer(keySerializeByte),
+                                byteBufBatchWriter.encodeValue(redisKey, redisValue), RedisConstants.LONG_ZERO)),
+                        true, chunk -> byteBufBatchWriter.rpush(Unpooled.wrappedBuffer(keySerializeByte), chunk));
+                afterWrite(redisKey);
+                return result;
+            }
+
+            RedisPipelineResult result = STATIC_REDIS_PIPELINE_EXECUTOR.execute(redisValues,
+                    redisValue -> sizeCheckedEntry(RedisPipelineEntry.of(redisKey, keySerializeByte,
+                            batchValueBytes(redisKey, redisValue), RedisConstants.LONG_ZERO)),
+                    true, chunk -> {
+                        List<byte[]> valueBytes = new ArrayList<>(chunk.size());
+                        chunk.forEach(entry -> valueBytes.add(entry.getValueBytes()));
+                        if (STATIC_REDIS_CLUSTER_BATCH_EXECUTOR != null) {
+                            STATIC_REDIS_CLUSTER_BATCH_EXECUTOR.rpush(keySerializeByte, valueBytes);
+                        } else {
+                            STATIC_REDIS_TEMPLATE.execute((RedisCallback<Long>) connection ->
+                                    connection.rPush(keySerializeByte, valueBytes.toArray(new byte[0][])));
+                        }
+                    });
+            afterWrite(redisKey);
+            return result;
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("listAddAll", redisKey, ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("listAddAll", redisKey, startNanos);
+        }
+    }
+
+    /**
+     * 获取 List 中所有的数据
+     *
+     * @param redisKey Redis Key
+     * @return 返回的数据
+     */
+    public static <T> List<T> listAllGet(String redisKey) {
+        return listAllGet(redisKey, null);
+    }
+
+    /**
+     * 获取 List 中所有的数据, 指定读取路由
+     *
+     * @param redisKey  Redis Key
+     * @param readRoute 读取路由, 为空时使用 RedisKeyDesc#readRoute
+     * @return 返回的数据
+     */
+    public static <T> List<T> listAllGet(String redisKey, RedisReadRoute readRoute) {
+
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            RedisTemplate<String, Object> redisTemplate = readTemplate(redisKey, readRoute);
+            List<Object> redisValueList =
+                    redisTemplate.opsForList().range(redisKey, RedisConstants.LONG_ZERO, RedisConstants.LONG_MINUS_ONE);
+
+            if (redisValueList == null || redisValueList.isEmpty()) {
+                return new ArrayList<>();
+            }
+
+            List<T> returnValue = new ArrayList<>(redisValueList.size());
+            redisValueList.stream().filter(Objects::nonNull).forEach(item -> returnValue.add(objectCast(item)));
+            return returnValue;
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("listAllGet", redisKey, ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("listAllGet", redisKey, startNanos);
+        }
+    }
+
+    /**
+     * 分批遍历 List, 每批通过一次 LRANGE 读取, 内存中只保留当前批次 (开启预取时加上正在读取的下一批)
+     * 遍历期间 List 被修改时, 可能重复或者遗漏元素, 使用完需要关闭 Stream
+     *
+     * @param redisKey Redis Key
+     * @return 惰性读取的 Stream
+     */
+    public static <T> Stream<T> listStream(String redisKey) {
+        LcnRedisProperty.ChunkIterate chunkIterate = STATIC_LCN_REDIS_PROPERTY.getChunkIterate();
+        return listStream(redisKey, chunkIterate.getChunkSize(), chunkIterate.getPrefetch());
+    }
+
+    /**
+     * 分批遍历 List, 每批通过一次 LRANGE 读取
+     *
+     * @param redisKey  Redis Key
+     * @param chunkSize 每批的条数
+     * @param prefetch  是否预取下一批
+     * @return 惰性读取的 Stream
+     */
+    public static <T> Stream<T> listStream(String redisKey, int chunkSize, boolean prefetch) {
+        byte[] keyBytes = AsyncRedisUtil.serializeKey(redisKey);
+        RedisChunkIterator<T, Long> iterator = new RedisChunkIterator<>(RedisConstants.LONG_ZERO, prefetch, start ->
+                AsyncRedisUtil.commands().lrange(keyBytes, start, start + chunkSize - 1).toCompletableFuture()
+                        .thenApply(valueBytesList -> {
+                            List<T> items = new ArrayList<>(valueBytesList.size());
+                            for (byte[] valueBytes : valueBytesList) {
+                                Object redisValue = AsyncRedisUtil.deserializeValue(valueBytes);
+                                if (redisValue != null) {
+                                    items.add(objectCast(redisValue));
+                                }
+                            }
+                            return new RedisChunk<>(items, start + valueBytesList.size(), valueBytesList.size() < chunkSize);
+                        }));
+        return iterator.stream();
+    }
+
+    /**
+     * 通过 HSCAN 分批遍历 Hash, 使用完需要关闭 Stream
+     *
+     * @param redisKey Redis Key
+     * @return 惰性读取的 Stream, 元素为 field 和 value
+     */
+    public static <T> Stream<Map.Entry<String, T>> hashStream(String redisKey) {
+        LcnRedisProperty.ChunkIterate chunkIterate = STATIC_LCN_REDIS_PROPERTY.getChunkIterate();
+        return hashStream(redisKey, chunkIterate.getChunkSize(), chunkIterate.getPrefetch());
+    }
+
+    /**
+     * 通过 HSCAN 分批遍历 Hash
+     *
+     * @param redisKey  Redis Key
+     * @param chunkSize 每批的条数, 作为 HSCAN 的 COUNT, 实际返回的条数由 Redis 决定
+     * @param prefetch  是否预取下一批
+     * @return 惰性读取的 Stream, 元素为 field 和 value
+     */
+    public static <T> Stream<Map.Entry<String, T>> hashStream(String redisKey, int chunkSize, boolean prefetch) {
+        byte[] keyBytes = AsyncRedisUtil.serializeKey(redisKey);
+        ScanArgs scanArgs = ScanArgs.Builder.limit(chunkSize);
+        RedisChunkIterator<Map.Entry<String, T>, ScanCursor> iterator = new RedisChunkIterator<>(ScanCursor.INITIAL, prefetch, cursor ->
+                AsyncRedisUtil.commands().hscan(keyBytes, cursor, scanArgs).toCompletableFuture()
+                        .thenApply((MapScanCursor<byte[], byte[]> scanCursor) -> {
+                            List<Map.Entry<String, T>> items = new ArrayList<>(scanCursor.getMap().size());
+                            for (Map.Entry<byte[], byte[]> entry : scanCursor.getMap().entrySet()) {
+                                items.add(new AbstractMap.SimpleImmutableEntry<>(STATIC_STRING_REDIS_SERIALIZER.deserialize(entry.getKey()),
+                                        objectCast(AsyncRedisUtil.deserializeValue(entry.getValue()))));
+                            }
+                            return new RedisChunk<>(items, scanCursor, scanCursor.isFinished());
+                        }));
+        return iterator.stream();
+    }
+
+    /**
+     * 通过 SSCAN 分批遍历 Set, 使用完需要关闭 Stream
+     *
+     * @param redisKey Redis Key
+     * @return 惰性读取的 Stream
+     */
+    public static <T> Stream<T> setStream(String redisKey) {
+        LcnRedisProperty.ChunkIterate chunkIterate = STATIC_LCN_REDIS_PROPERTY.getChunkIterate();
+        return setStream(redisKey, chunkIterate.getChunkSize(), chunkIterate.getPrefetch());
+    }
+
+    /**
+     * 通过 SSCAN 分批遍历 Set
+     *
+     * @param redisKey  Redis Key
+     * @param chunkSize 每批的条数, 作为 SSCAN 的 COUNT
+     * @param prefetch  是否预取下一批
+     * @return 惰性读取的 Stream
+     */
+    public static <T> Stream<T> setStream(String redisKey, int chunkSize, boolean prefetch) {
+        byte[] keyBytes = AsyncRedisUtil.serializeKey(redisKey);
+        ScanArgs scanArgs = ScanArgs.Builder.limit(chunkSize);
+        RedisChunkIterator<T, ScanCursor> iterator = new RedisChunkIterator<>(ScanCursor.INITIAL, prefetch, cursor ->
+                AsyncRedisUtil.commands().sscan(keyBytes, cursor, scanArgs).toCompletableFuture()
+                        .thenApply((ValueScanCursor<byte[]> scanCursor) -> {
+                            List<T> items = new ArrayList<>(scanCursor.getValues().size());
+                            for (byte[] valueBytes : scanCursor.getValues()) {
+                                // 和 listStream 一致, 过滤反序列化为空的元素, Stream 声明了 NONNULL
+                                Object redisValue = AsyncRedisUtil.deserializeValue(valueBytes);
+                                if (redisValue != null) {
+                                    items.add(objectCast(redisValue));
+                                }
+                            }
+                            return new RedisChunk<>(items, scanCursor, scanCursor.isFinished());
+                        }));
+        return iterator.stream();
+    }
+
+    /**
+     * 通过 ZSCAN 分批遍历 ZSet, 使用完需要关闭 Stream
+     *
+     * @param redisKey Redis Key
+     * @return 惰性读取的 Stream, 元素为 value 和 score
+     */
+    public static <T> Stream<ZSetOperations.TypedTuple<T>> zSetStream(String redisKey) {
+        LcnRedisProperty.ChunkIterate chunkIterate = STATIC_LCN_REDIS_PROPERTY.getChunkIterate();
+        return zSetStream(redisKey, chunkIterate.getChunkSize(), chunkIterate.getPrefetch());
+    }
+
+    /**
+     * 通过 ZSCAN 分批遍历 ZSet
+     *
+     * @param redisKey  Redis Key
+     * @param chunkSize 每批的条数, 作为 ZSCAN 的 COUNT
+     * @param prefetch  是否预取下一批
+     * @return 惰性读取的 Stream, 元素为 value 和 score
+     */
+    public static <T> Stream<ZSetOperations.TypedTuple<T>> zSetStream(String redisKey, int chunkSize, boolean prefetch) {
+        byte[] keyBytes = AsyncRedisUtil.serializeKey(redisKey);
+        ScanArgs scanArgs = ScanArgs.Builder.limit(chunkSize);
+        RedisChunkIterator<ZSetOperations.TypedTuple<T>, ScanCursor> iterator = new RedisChunkIterator<>(ScanCursor.INITIAL, prefetch, cursor ->
+                AsyncRedisUtil.commands().zscan(keyBytes, cursor, scanArgs).toCompletableFuture()
+                        .thenApply((ScoredValueScanCursor<byte[]> scanCursor) -> {
+                            List<ZSetOperations.TypedTuple<T>> items = new ArrayList<>(scanCursor.getValues().size());
+                            for (ScoredValue<byte[]> scoredValue : scanCursor.getValues()) {
+                                T value = objectCast(AsyncRedisUtil.deserializeValue(scoredValue.getValue()));
+                                items.add(new DefaultTypedTuple<>(value, scoredValue.getScore()));
+                            }
+                            return new RedisChunk<>(items, scanCursor, scanCursor.isFinished());
+                        }));
+        return iterator.stream();
+    }
+
+    /**
+     * 通过 SCAN 分批遍历某一类 Key, 匹配模式由 RedisKeyDesc 的格式生成, 集群模式下会依次遍历所有的节点, 使用完需要关闭 Stream
+     *
+     * @param redisKeyDesc RedisKeyDesc
+     * @return 惰性读取的 Stream, 元素为完整的 Redis Key
+     */
+    public static Stream<String> scanKeys(RedisKeyDesc redisKeyDesc) {
+        LcnRedisProperty.ChunkIterate chunkIterate = STATIC_LCN_REDIS_PROPERTY.getChunkIterate();
+        return scanKeys(redisKeyDesc, chunkIterate.getChunkSize(), chunkIterate.getPrefetch());
+    }
+
+    /**
+     * 通过 SCAN 分批遍历某一类 Key
+     *
+     * @param redisKeyDesc RedisKeyDesc
+     * @param chunkSize    每批的条数, 作为 SCAN 的 COUNT
+     * @param prefetch     是否预取下一批
+     * @return 惰性读取的 Stream, 元素为完整的 Redis Key
+     */
+    public static Stream<String> scanKeys(RedisKeyDesc redisKeyDesc, int chunkSize, boolean prefetch) {
+        ScanArgs scanArgs = ScanArgs.Builder.limit(chunkSize).match(RedisKeyDescRegistry.scanPattern(redisKeyDesc));
+        RedisChunkIterator<String, ScanCursor> iterator = new RedisChunkIterator<>(ScanCursor.INITIAL, prefetch, cursor ->
+                AsyncRedisUtil.commands().scan(cursor, scanArgs).toCompletableFuture()
+                        .thenApply((KeyScanCursor<byte[]> scanCursor) -> {
+                            List<String> items = new ArrayList<>(scanCursor.getKeys().size());
+                            scanCursor.getKeys().forEach(keyBytes -> items.add(STATIC_STRING_REDIS_SERIALIZER.deserialize(keyBytes)));
+                            return new RedisChunk<>(items, scanCursor, scanCursor.isFinished());
+                        }));
+        return iterator.stream();
+    }
+
+    /**
+     * 清空 List 中的所有数据
+     *
+     * @param redisKey Redis Key
+     */
+    public static void listClear(String redisKey) {
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            // 实际的效果就是删除这个 key
+            STATIC_REDIS_TEMPLATE.opsForList().trim(redisKey, RedisConstants.LONG_ONE, RedisConstants.LONG_ZERO);
+            afterWrite(redisKey);
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("listClear", redisKey, ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("listClear", redisKey, startNanos);
+        }
+    }
+
+    /**
+     * 从 list 的左边往右删除多少个符合的值
+     *
+     * @param redisKey       RedisKey
+     * @param redisItemValue 需要删除的值
+     * @param count          需要删除多少个
+     */
+    public static void listRemove(String redisKey, Object redisItemValue, Long count) {
+        long startNanos = STATIC_REDIS_METRICS.startNanos();
+        try {
+            STATIC_REDIS_TEMPLATE.opsForList().remove(redisKey, count, redisItemValue);
+            afterWrite(redisKey);
+        } catch (RuntimeException ex) {
+            STATIC_REDIS_METRICS.recordError("listRemove", redisKey, ex);
+            throw ex;
+        } finally {
+            STATIC_REDIS_METRICS.recordOperation("listRemove", redisKey, startNanos);
+        }
+    }
+
+    /**
+     * 热点 Key 优先从本地短时缓存读取, 从 Redis 读到的值在仍是热点时放入本地短时缓存
+     *
+     * @param hotKeyDetector 热点 Key 探测
+     * @param redisKey       Redis Key
+     * @param readRoute      读取路由
+     * @return Redis 中存储的值
+     */
+    private static Object hotKeyGet(RedisHotKeyDetector hotKeyDetector, String redisKey, RedisReadRoute readRoute) {
+
+        Object promotedValue = hotKeyDetector.getPromoted(redisKey);
+        if (promotedValue != null) {
+            return promotedValue;
+        }
+        if (!hotKeyDetector.isPromotable(redisKey)) {
+            return remoteGet(redisKey, readRoute);
+        }
+
+        long sequence = hotKeyDetector.sequence(redisKey);
+        Object redisValue = remoteGet(redisKey, readRoute);
+        hotKeyDetector.promote(redisKey, redisValue, sequence);
+        return redisValue;
+    }
+
+    /**
+     * 从 Redis 读取单个 Key, 开启了自动合并时, 会和其他线程同时发起的读取合并为一次 MGET
+     *
+     * @param redisKey Redis Key
+     * @return Redis 中存储的值
+     */
+    private static Object remoteGet(String redisKey, RedisReadRoute readRoute) {
+
+        if (STATIC_REDIS_REPLICA_ROUTER != null && STATIC_REDIS_REPLICA_ROUTER.useReplica(redisKey, readRoute)) {
+            return STATIC_REDIS_REPLICA_ROUTER.getReplicaRedisTemplate().opsForValue().get(redisKey);
+        }
+
+        CompletableFuture<Object> batchFuture = STATIC_REDIS_GET_BATCHER == null ? null : STATIC_REDIS_GET_BATCHER.get(redisKey);
+        if (batchFuture == null) {
+            return STATIC_REDIS_TEMPLATE.opsForValue().get(redisKey);
+        }
+
+        return STATIC_REDIS_GET_BATCHER.await(redisKey, batchFuture);
+    }
+
+    /**
+     * 在分布式锁的保护下回源加载, 保证多个节点之间同一时间只有一个节点回源
+     * 等锁被中断时直接抛出异常, 不会回源
+     *
+     * @param redisKey        RedisKey
+     * @param loader          回源加载方法
+     * @param expireTime      基础过期时间
+     * @param randomTimeRange 过期时间随机增加的范围
+     * @param expireTimeUnit  过期时间单位
+     * @return 加载到的值, 或者其他节点回源写入的值
+     * @throws IllegalStateException 等锁时线程被中断
+     */
+    private static Object loadWithLock(String redisKey, Supplier<?> loader, long expireTime, long randomTimeRange,
+                                       TimeUnit expireTimeUnit) {
+
+        LcnRedisProperty.Load loadProperty = STATIC_LCN_REDIS_PROPERTY.getLoad();
+        RLock loadLock = STATIC_REDISSON_CLIENT.getLock(redisKey + loadProperty.getLockKeySuffix());
+
+        boolean locked = false;
+        int waitRounds = RedisConstants.INT_ZERO;
+        try {
+            while (true) {
+                try {
+                    locked = loadLock.tryLock(loadProperty.getLockWaitTime(), loadProperty.getLockLeaseTime(), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for redis load lock, redisKey: " + redisKey, ex);
+                } catch (Exception ex) {
+                    // 锁不可用时 (例如 Redis 异常) 不再等待
+                    logger.warn("Get Redis's load lock fail, redisKey:{}, message:{}", redisKey, ex.getMessage(), ex);
+                    break;
+                }
+
+                // 拿到锁或者等待超时, 其他节点可能已经回源完成, 再检查一次
+                Object storedValue = storedValue(redisKey, null);
+                if (storedValue != null) {
+                    return unwrapValue(redisKey, storedValue);
+                }
+                if (locked || ++waitRounds > loadProperty.getLockWaitRetries()) {
+                    break;
+                }
+                logger.debug("Wait Redis's load lock timeout, wait again, redisKey:{}, round:{}", redisKey, waitRounds);
+            }
+
+            if (!locked) {
+                logger.warn("Wait Redis's load lock timeout, load by self, redisKey:{}", redisKey);
+            }
+            return loadAndSet(redisKey, loader, expireTime, randomTimeRange, expireTimeUnit);
+        } finally {
+            if (locked && loadLock.isHeldByCurrentThread()) {
+                loadLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 等待当前 JVM 中其他线程的回源结果
+     * 每一轮最多等待 lcn.redis.load.lock-wait-time, 超时后重新读取缓存, lcn.redis.load.lock-wait-retries 轮都超时并且缓存仍然不存在时自行回源
+     *
+     * @param redisKey        RedisKey
+     * @param loadingFuture   其他线程的回源结果
+     * @param loader          回源加载方法
+     * @param expireTime      基础过期时间
+     * @param randomTimeRange 过期时间随机增加的范围
+     * @param expireTimeUnit  过期时间单位
+     * @return 其他线程回源的值, 缓存中的值或者自行回源的值
+     * @throws IllegalStateException 等待时线程被中断
+     */
+    private static Object awaitLoading(String redisKey, CompletableFuture<Object> loadingFuture, Supplier<?> loader,
+                                       long expireTime, long randomTimeRange, TimeUnit expireTimeUnit) {
+
+        LcnRedisProperty.Load loadProperty = STATIC_LCN_REDIS_PROPERTY.getLoad();
+        for (int waitRounds = RedisConstants.INT_ZERO; waitRounds <= loadProperty.getLockWaitRetries(); waitRounds++) {
+            try {
+                return loadingFuture.get(loadProperty.getLockWaitTime(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for redis load, redisKey: " + redisKey, ex);
+            } catch (ExecutionException ex) {
+                // 回源失败时和回源的线程抛出同样的异常
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ex.getCause();
+                }
+                throw new IllegalStateException("Redis load fail, redisKey: " + redisKey, ex.getCause());
+            } catch (TimeoutException ex) {
+                // 回源的线程可能已经写入缓存, 只是还没有完成, 再检查一次
+                Object storedValue = storedValue(redisKey, null);
+                if (storedValue != null) {
+                    return unwrapValue(redisKey, storedValue);
+                }
+                logger.debug("Wait local Redis load timeout, wait again, redisKey:{}, round:{}", redisKey, waitRounds + 1);
+            }
+        }
+        logger.warn("Wait local Redis load timeout, load by self, redisKey:{}", redisKey);
+        return loadAndSet(redisKey, loader, expireTime, randomTimeRange, expireTimeUnit);
+    }
+
+    /**
+     * 执行回源并写入缓存, 回源结果为 null 时按照 lcn.redis.load.null-expire-time 写入空值占位
+     *
+     * @param redisKey        RedisKey
+     * @param loader          回源加载方法
+     * @param expireTime      基础过期时间
+     * @param randomTimeRange 过期时间随机增加的范围
+     * @param expireTimeUnit  过期时间单位
+     * @return 加载到的值
+     */
+    private static Object loadAndSet(String redisKey, Supplier<?> loader, long expireTime, long randomTimeRange,
+                                     TimeUnit expireTimeUnit) {
+
+        LcnRedisProperty.Load loadProperty = STATIC_LCN_REDIS_PROPERTY.getLoad();
+        long startTime = System.currentTimeMillis();
+        Object loadValue = loader.get();
+        if (STATIC_REDIS_EARLY_REFRESH != null) {
+            STATIC_REDIS_EARLY_REFRESH.recordComputeCost(redisKey, System.currentTimeMillis() - startTime);
+        }
+        if (loadValue != null) {
+            long randomExpireTime = randomTimeRange > RedisConstants.LONG_ZERO
+                    ? randomExpireTime(expireTime, randomTimeRange) : expireTime;
+            setWithExpire(redisKey, loadValue, randomExpireTime, expireTimeUnit);
+        } else if (loadProperty.getNullExpireTime() > RedisConstants.LONG_ZERO) {
+            setWithExpire(redisKey, RedisNullValue.INSTANCE, loadProperty.getNullExpireTime(), TimeUnit.MILLISECONDS);
+        }
+        return loadValue;
+    }
+
+    /**
+     * 批量获取 Redis 中存储的值
+     *
+     * @param redisKeyList RedisKey 列表
+     * @return 和 RedisKey 列表一一对应的 RedisValue 列表, 不存在的为 null
+     */
+    private static List<Object> alignedMultiGet(List<String> redisKeyList, RedisReadRoute readRoute) {
+        List<Object> redisValueList = STATIC_REDIS_NEAR_CACHE == null
+                ? remoteMultiGet(redisKeyList, readRoute) : nearCacheMultiGet(redisKeyList, readRoute);
+        return overlayPending(redisKeyList, redisValueList);
+    }
+
+    /**
+     * 用延迟写入的缓冲区中还没有写入 Redis 的值覆盖批量读取的结果
+     *
+     * @param redisKeyList   RedisKey 列表
+     * @param redisValueList 和 RedisKey 列表一一对应的 RedisValue 列表, 可以为空
+     * @return 覆盖后的 RedisValue 列表
+     */
+    static List<Object> overlayPending(List<String> redisKeyList, List<Object> redisValueList) {
+        RedisWriteBehindBuffer writeBehindBuffer = STATIC_REDIS_WRITE_BEHIND_BUFFER;
+        if (writeBehindBuffer == null || writeBehindBuffer.depth() == RedisConstants.INT_ZERO) {
+            return redisValueList;
+        }
+        List<Object> overlaidList = null;
+        for (int i = 0; i < redisKeyList.size(); i++) {
+            RedisWriteBehindBuffer.PendingWrite pendingWrite = writeBehindBuffer.pending(redisKeyList.get(i));
+            if (pendingWrite == null) {
+                continue;
+            }
+            if (overlaidList == null) {
+                overlaidList = new ArrayList<>(redisKeyList.size());
+                for (int j = 0; j < redisKeyList.size(); j++) {
+                    overlaidList.add(redisValueList == null || j >= redisValueList.size() ? null : redisValueList.get(j));
+                }
+            }
+            overlaidList.set(i, pendingWrite.isExpired() ? null : pendingWrite.getRedisValue());
+        }
+        return overlaidList == null ? redisValueList : overlaidList;
+    }
+
+    /**
+     * 从 Redis 批量获取, 开启了从节点读取时, 路由到从节点的 Key 通过从节点获取, 其他的 Key 通过主节点获取
+     *
+     * @param redisKeyList RedisKey 列表
+     * @param readRoute    读取路由, 为空时每个 Key 使用各自的 RedisKeyDesc#readRoute
+     * @return 和 RedisKey 列表一一对应的 RedisValue 列表, 不存在的为 null
+     */
+    private static List<Object> remoteMultiGet(List<String> redisKeyList, RedisReadRoute readRoute) {
+
+        if (STATIC_REDIS_REPLICA_ROUTER == null || readRoute == RedisReadRoute.PRIMARY) {
+            return primaryMultiGet(redisKeyList);
+        }
+
+        List<Integer> replicaIndexList = new ArrayList<>();
+        List<String> replicaKeyList = new ArrayList<>();
+        List<Integer> primaryIndexList = new ArrayList<>();
+        List<String> primaryKeyList = new ArrayList<>();
+        for (int i = 0; i < redisKeyList.size(); i++) {
+            String redisKey = redisKeyList.get(i);
+            if (STATIC_REDIS_REPLICA_ROUTER.useReplica(redisKey, readRoute)) {
+                replicaIndexList.add(i);
+                replicaKeyList.add(redisKey);
+            } else {
+                primaryIndexList.add(i);
+                primaryKeyList.add(redisKey);
+            }
+        }
+
+        if (replicaKeyList.isEmpty()) {
+            return primaryMultiGet(redisKeyList);
+        }
+        List<Object> replicaValueList = STATIC_REDIS_REPLICA_ROUTER.getReplicaRedisTemplate().opsForValue().multiGet(replicaKeyList);
+        if (primaryKeyList.isEmpty()) {
+            return replicaValueList;
+        }
+
+        List<Object> redisValueList = new ArrayList<>(Collections.nCopies(redisKeyList.size(), null));
+        List<Object> primaryValueList = primaryMultiGet(primaryKeyList);
+        fillByIndex(redisValueList, replicaIndexList, replicaValueList);
+        fillByIndex(redisValueList, primaryIndexList, primaryValueList);
+        return redisValueList;
+    }
+
+    private static void fillByIndex(List<Object> redisValueList, List<Integer> indexList, List<Object> valueList) {
+        if (valueList == null) {
+            return;
+        }
+        for (int i = 0; i < valueList.size(); i++) {
+            redisValueList.set(indexList.get(i), valueList.get(i));
+        }
+    }
+
+    /**
+     * 读取使用的 RedisTemplate
+     *
+     * @param redisKey  Redis Key
+     * @param readRoute 读取路由, 为空时使用 RedisKeyDesc#readRoute
+     * @return 从节点或者主节点的 RedisTemplate
+     */
+    private static RedisTemplate<String, Object> readTemplate(String redisKey, RedisReadRoute readRoute) {
+        if (STATIC_REDIS_REPLICA_ROUTER != null && STATIC_REDIS_REPLICA_ROUTER.useReplica(redisKey, readRoute)) {
+            return STATIC_REDIS_REPLICA_ROUTER.getReplicaRedisTemplate();
+        }
+        return STATIC_REDIS_TEMPLATE;
+    }
+
+    /**
+     * 从主节点批量获取, 集群模式下按照 slot 分组后并行获取
+     *
+     * @param redisKeyList RedisKey 列表
+     * @return 和 RedisKey 列表一一对应的 RedisValue 列表, 不存在的为 null
+     */
+    private static List<Object> primaryMultiGet(List<String> redisKeyList) {
+
+        if (STATIC_REDIS_CLUSTER_BATCH_EXECUTOR == null) {
+            return STATIC_REDIS_TEMPLATE.opsForValue().multiGet(redisKeyList);
+        }
+
+        List<byte[]> valueBytesList = STATIC_REDIS_CLUSTER_BATCH_EXECUTOR.mget(serializeKeys(redisKeyList));
+        List<Object> redisValueList = new ArrayList<>(valueBytesList.size());
+        for (byte[] valueBytes : valueBytesList) {
+            redisValueList.add(valueBytes == null ? null : STATIC_VALUE_REDIS_SERIALIZER.deserialize(valueBytes));
+        }
+        return redisValueList;
+    }
+
+    private static byte[] numberArg(long number) {
+        return String.valueOf(number).getBytes(RedisConstants.DEFAULT_CHARSETS);
+    }
+
+    private static List<byte[]> serializeKeys(List<String> redisKeys) {
+        List<byte[]> keyBytes = new ArrayList<>(redisKeys.size());
+        redisKeys.forEach(redisKey -> keyBytes.add(STATIC_STRING_REDIS_SERIALIZER.serialize(redisKey)));
+        return keyBytes;
+    }
+
+    /**
+     * 开启本地近端缓存时的批量获取, 命中的直接使用, 未命中的通过一次 MGET 获取并回填
+     *
+     * @param redisKeyList RedisKey 列表
+     * @return 和 RedisKey 列表一一对应的 RedisValue 列表, 不存在的为 null
+     */
+    private static List<Object> nearCacheMultiGet(List<String> redisKeyList, RedisReadRoute readRoute) {
+
+        RedisNearCache nearCache = STATIC_REDIS_NEAR_CACHE;
+
+        List<Object> redisValueList = new ArrayList<>(Collections.nCopies(redisKeyList.size(), null));
+        List<Integer> missIndexList = new ArrayList<>();
+        List<String> missKeyList = new ArrayList<>();
+
+        for (int i = 0; i < redisKeyList.size(); i++) {
+            String redisKey = redisKeyList.get(i);
+            Object redisValue = nearCache.expireMillis(redisKey) > RedisConstants.LONG_ZERO ? nearCache.getIfPresent(redisKey) : null;
+            if (redisValue != null) {
+                redisValueList.set(i, redisValue);
+                continue;
+            }
+            missIndexList.add(i);
+            missKeyList.add(redisKey);
+        }
+
+        if (missKeyList.isEmpty()) {
+            return redisValueList;
+        }
+
+        // 每个 Key 在读取 Redis 之前记录自己的失效序列号
+        long[] sequences = new long[missKeyList.size()];
+        for (int i = 0; i < sequences.length; i++) {
+            sequences[i] = nearCache.sequence(missKeyList.get(i));
+        }
+
+        List<Object> missValueList = remoteMultiGet(missKeyList, readRoute);
+        if (missValueList == null) {
+            return redisValueList;
+        }
+
+        for (int i = 0; i < missValueList.size(); i++) {
+            String redisKey = missKeyList.get(i);
+            Object redisValue = missValueList.get(i);
+            redisValueList.set(missIndexList.get(i), redisValue);
+            nearCache.put(redisKey, redisValue, nearCache.expireMillis(redisKey), sequences[i]);
+        }
+        return redisValueList;
+    }
+
+    /**
+     * 开启了概率提前刷新的 Key, 写入前包装为 RedisExpireCache
+     *
+     * @param redisKey       Redis Key
+     * @param redisValue     Redis Value
+     * @param expireTime     过期时间
+     * @param expireTimeUnit 过期时间单位
+     * @return 需要写入 Redis 的值
+     */
+    static Object earlyRefreshWrap(String redisKey, Object redisValue, long expireTime, TimeUnit expireTimeUnit) {
+        if (STATIC_REDIS_EARLY_REFRESH == null || redisValue == RedisNullValue.INSTANCE) {
+            return redisValue;
+        }
+        return STATIC_REDIS_EARLY_REFRESH.wrap(redisKey, redisValue, expireTime, expireTimeUnit);
+    }
+
+    /**
+     * 读取到的值如果是概率提前刷新的包装对象, 判断是否需要提前刷新, 并返回实际的值
+     * 读取到的值如果是空值占位, 返回 null
+     *
+     * @param redisKey   Redis Key
+     * @param redisValue 从 Redis 或者本地缓存读取到的值
+     * @return 实际的值
+     */
+    static Object unwrapValue(String redisKey, Object redisValue) {
+
+        if (redisValue == RedisNullValue.INSTANCE) {
+            return null;
+        }
+        if (!(redisValue instanceof RedisExpireCache)) {
+            return redisValue;
+        }
+
+        RedisExpireCache redisExpireCache = (RedisExpireCache) redisValue;
+        if (redisExpireCache.getExpireAt() == null || redisExpireCache.getComputeCost() == null) {
+            return redisValue;
+        }
+
+        if (STATIC_REDIS_EARLY_REFRESH != null) {
+            STATIC_REDIS_EARLY_REFRESH.onRead(redisKey, redisExpireCache);
+        }
+        return redisExpireCache.getRedisValue();
+    }
+
+    /**
+     * 执行不经过延迟写入的覆盖写入或者删除, 有开启了延迟写入的 Key 时先丢弃缓冲区中的值, 避免之后的刷新用旧值覆盖这次写入
+     *
+     * @param redisKeys   Redis Key 列表
+     * @param writeAction 写入或者删除的操作
+     * @return 操作的结果
+     */
+    static <T> T supersedeWriteBehind(Collection<String> redisKeys, Supplier<T> writeAction) {
+        RedisWriteBehindBuffer writeBehindBuffer = STATIC_REDIS_WRITE_BEHIND_BUFFER;
+        if (writeBehindBuffer == null || redisKeys.stream().noneMatch(writeBehindBuffer::isWriteBehind)) {
+            return writeAction.get();
+        }
+        return writeBehindBuffer.supersede(redisKeys, writeAction);
+    }
+
+    /**
+     * 执行读改写的操作, 有开启了延迟写入的 Key 时先把缓冲区中的值写入 Redis, 保证操作基于最后一次写入的值
+     *
+     * @param redisKeys Redis Key 列表
+     * @param action    读改写的操作
+     * @return 操作的结果
+     */
+    static <T> T writeThroughWriteBehind(Collection<String> redisKeys, Supplier<T> action) {
+        RedisWriteBehindBuffer writeBehindBuffer = STATIC_REDIS_WRITE_BEHIND_BUFFER;
+        if (writeBehindBuffer == null || redisKeys.stream().noneMatch(writeBehindBuffer::isWriteBehind)) {
+            return action.get();
+        }
+        return writeBehindBuffer.writeThrough(redisKeys, action);
+    }
+
+    /**
+     * Key 在延迟写入的缓冲区中还没有写入 Redis 的写入
+     *
+     * @param redisKey Redis Key
+     * @return 缓冲区中的写入, 没有时返回 null
+     */
+    static RedisWriteBehindBuffer.PendingWrite pendingWrite(String redisKey) {
+        RedisWriteBehindBuffer writeBehindBuffer = STATIC_REDIS_WRITE_BEHIND_BUFFER;
+        return writeBehindBuffer == null ? null : writeBehindBuffer.pending(redisKey);
+    }
+
+    /**
+     * 当前的指标记录, 异步操作和同步操作记录到同一组指标
+     *
+     * @return 指标记录, 没有开启时为 NOOP
+     */
+    static RedisMetrics redisMetrics() {
+        return STATIC_REDIS_METRICS;
+    }
+
+    /**
+     * 写入或删除 Redis 后, 失效本地近端缓存和热点 Key 的本地短时缓存, 同时在一段时间内固定从主节点读取这个 Key
+     *
+     * @param redisKey Redis Key
+     */
+    static void afterWrite(String redisKey) {
+        if (STATIC_REDIS_HOT_KEY_DETECTOR != null) {
+            STATIC_REDIS_HOT_KEY_DETECTOR.recordWrite(redisKey);
+        }
+        if (STATIC_REDIS_NEAR_CACHE != null) {
+            STATIC_REDIS_NEAR_CACHE.invalidate(redisKey);
+        }
+        if (STATIC_REDIS_REPLICA_ROUTER != null) {
+            STATIC_REDIS_REPLICA_ROUTER.pin(redisKey);
+        }
+    }
+
+    /**
+     * 批量写入或删除 Redis 后, 失效本地近端缓存和热点 Key 的本地短时缓存, 同时在一段时间内固定从主节点读取这些 Key
+     *
+     * @param redisKeys Redis Key 列表
+     */
+    static void afterWriteAll(Collection<String> redisKeys) {
+        if (STATIC_REDIS_HOT_KEY_DETECTOR != null) {
+            STATIC_REDIS_HOT_KEY_DETECTOR.recordWriteAll(redisKeys);
+        }
+        if (STATIC_REDIS_NEAR_CACHE != null) {
+            STATIC_REDIS_NEAR_CACHE.invalidateAll(redisKeys);
+        }
+        if (STATIC_REDIS_REPLICA_ROUTER != null) {
+            STATIC_REDIS_REPLICA_ROUTER.pinAll(redisKeys);
+        }
+    }
+
+    /**
+     * 记录单个 Key 读取的命中或者未命中
+     *
+     * @param operation  操作名称
+     * @param redisKey   Redis Key
+     * @param redisValue 读取到的值, 已经去掉了空值占位
+     * @return 转换后的值
+     */
+    private static <T> T recordRead(String operation, String redisKey, Object redisValue) {
+        if (redisValue == null) {
+            STATIC_REDIS_METRICS.recordRead(operation, redisKey, RedisConstants.INT_ZERO, RedisConstants.INT_ONE);
+        } else {
+            STATIC_REDIS_METRICS.recordRead(operation, redisKey, RedisConstants.INT_ONE, RedisConstants.INT_ZERO);
+        }
+        return objectCast(redisValue);
+    }
+
+    /**
+     * 批量操作的第一个 Key, 用于指标的标签
+     *
+     * @param redisKeys Redis Key 集合
+     * @return 第一个 Key, 集合为空时返回 null
+     */
+    static String firstKey(Collection<String> redisKeys) {
+        if (redisKeys.isEmpty()) {
+            return null;
+        }
+        return redisKeys instanceof List ? ((List<String>) redisKeys).get(0) : redisKeys.iterator().next();
+    }
+
+    /**
+     * 批量写入的第一个 Key, 用于指标的标签
+     *
+     * @param redisExpireCaches 批量写入的缓存
+     * @return 第一个 Key, 为空时返回 null
+     */
+    private static String firstCacheKey(List<RedisExpireCache> redisExpireCaches) {
+        return redisExpireCaches.isEmpty() ? null : redisExpireCaches.get(0).getRedisKey();
+    }
+
+    /**
+     * 对象强制转换
+     *
+     * @param obj 转换的类型
+     * @return 转换后的对象
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T objectCast(Object obj) {
+        if (obj == null) {
+            return null;
+        }
+        return (T) obj;
+    }
+
+    public void setRedisNearCache(RedisNearCache redisNearCache) {
+        this.redisNearCache = redisNearCache;
+    }
+
+    public void setRedisEarlyRefresh(RedisEarlyRefresh redisEarlyRefresh) {
+        this.redisEarlyRefresh = redisEarlyRefresh;
+    }
+
+    public void setRedisGetBatcher(RedisGetBatcher redisGetBatcher) {
+        this.redisGetBatcher = redisGetBatcher;
+    }
+
+    public void setRedisClusterBatchExecutor(RedisClusterBatchExecutor redisClusterBatchExecutor) {
+        this.redisClusterBatchExecutor = redisClusterBatchExecutor;
+    }
+
+    public void setRedisReplicaRouter(RedisReplicaRouter redisReplicaRouter) {
+        this.redisReplicaRouter = redisReplicaRouter;
+    }
+
+    public void setRedisHierarchicalLock(RedisHierarchicalLock redisHierarchicalLock) {
+        this.redisHierarchicalLock = redisHierarchicalLock;
+    }
+
+    public void setRedisScriptRegistry(RedisScriptRegistry redisScriptRegistry) {
+        this.redisScriptRegistry = redisScriptRegistry;
+    }
+
+    public void setRedisPipelineExecutor(RedisPipelineExecutor redisPipelineExecutor) {
+        this.redisPipelineExecutor = redisPipelineExecutor;
+    }
+
+    public void setRedisByteBufBatchWriter(RedisByteBufBatchWriter redisByteBufBatchWriter) {
+        this.redisByteBufBatchWriter = redisByteBufBatchWriter;
+    }
+
+    public void setRedisMetrics(RedisMetrics redisMetrics) {
+        this.redisMetrics = redisMetrics == null ? RedisMetrics.NOOP : redisMetrics;
+    }
+
+    public void setRedisHotKeyDetector(RedisHotKeyDetector redisHotKeyDetector) {
+        this.redisHotKeyDetector = redisHotKeyDetector;
+    }
+
+    public void setRedisValueSizeGuard(RedisValueSizeGuard redisValueSizeGuard) {
+        this.redisValueSizeGuard = redisValueSizeGuard;
+    }
+
+    public void setRedisWriteBehindBuffer(RedisWriteBehindBuffer redisWriteBehindBuffer) {
+        this.redisWriteBehindBuffer = redisWriteBehindBuffer;
+    }
+
+    public void setRedisRateLimiter(RedisRateLimiter redisRateLimiter) {
+        this.redisRateLimiter = redisRateLimiter;
+    }
+
+    public void setRedisSequenceGenerator(RedisSequenceGenerator redisSequenceGenerator) {
+        this.redisSequenceGenerator = redisSequenceGenerator;
+    }
+
+    @PostConstruct
+    public void initAttributeName() {
         // 在 RedisUtil 实例化后, 初始静态变量的属性
         STATIC_STRING_REDIS_SERIALIZER = stringRedisSerializer;
-        STATIC_JACKSON_TO_JSON_REDIS_SERIALIZER = jackson2JsonRedisSerializer;
+        STATIC_VALUE_REDIS_SERIALIZER = valueRedisSerializer;
         STATIC_REDIS_TEMPLATE = redisTemplate;
         STATIC_REDISSON_CLIENT = redissonClient;
+        STATIC_REDIS_NEAR_CACHE = redisNearCache;
+        STATIC_LCN_REDIS_PROPERTY = lcnRedisProperty;
+        STATIC_REDIS_EARLY_REFRESH = redisEarlyRefresh;
+        STATIC_REDIS_GET_BATCHER = redisGetBatcher;
+        STATIC_REDIS_CLUSTER_BATCH_EXECUTOR = redisClusterBatchExecutor;
+        STATIC_REDIS_REPLICA_ROUTER = redisReplicaRouter;
+        STATIC_REDIS_HIERARCHICAL_LOCK = redisHierarchicalLock;
+        STATIC_REDIS_SCRIPT_REGISTRY = redisScriptRegistry;
+        STATIC_REDIS_PIPELINE_EXECUTOR = redisPipelineExecutor != null
+                ? redisPipelineExecutor : new RedisPipelineExecutor(lcnRedisProperty.getPipeline());
+        STATIC_REDIS_BYTE_BUF_BATCH_WRITER = redisByteBufBatchWriter;
+        STATIC_REDIS_METRICS = redisMetrics;
+        STATIC_REDIS_HOT_KEY_DETECTOR = redisHotKeyDetector;
+        STATIC_REDIS_VALUE_SIZE_GUARD = redisValueSizeGuard;
+        STATIC_REDIS_WRITE_BEHIND_BUFFER = redisWriteBehindBuffer;
+        STATIC_REDIS_RATE_LIMITER = redisRateLimiter;
+        STATIC_REDIS_SEQUENCE_GENERATOR = redisSequenceGenerator;
+        if (redisWriteBehindBuffer != null) {
+            redisWriteBehindBuffer.start(RedisUtil::flushWriteBehind);
+        }
+        RedisKeyDescRegistry.configureResolveCache(lcnRedisProperty.getKeyDesc().getResolveCacheMaximumSize());
     }
 }
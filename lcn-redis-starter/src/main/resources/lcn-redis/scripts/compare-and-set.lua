@@ -0,0 +1,17 @@
+-- 比较并设置
+-- KEYS[1]: Redis Key
+-- ARGV[1]: 期望的当前值 (序列化后), 空字符串表示期望 Key 不存在
+-- ARGV[2]: 新值 (序列化后)
+-- ARGV[3]: 过期时间, 单位: 毫秒, 小于等于 0 时不过期
+-- 返回: 1 设置成功, 0 当前值和期望的值不一致
+local current = redis.call('GET', KEYS[1])
+if (current == false and ARGV[1] == '') or current == ARGV[1] then
+    local expireMillis = tonumber(ARGV[3])
+    if expireMillis > 0 then
+        redis.call('SET', KEYS[1], ARGV[2], 'PX', expireMillis)
+    else
+        redis.call('SET', KEYS[1], ARGV[2])
+    end
+    return 1
+end
+return 0
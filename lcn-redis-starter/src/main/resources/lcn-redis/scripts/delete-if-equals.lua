@@ -0,0 +1,11 @@
+-- 批量条件删除, 只删除当前值和期望的值一致的 Key
+-- KEYS[i]: Redis Key, 集群模式下所有的 Key 必须在同一个 slot
+-- ARGV[i]: KEYS[i] 期望的当前值 (序列化后)
+-- 返回: 删除的个数
+local deleted = 0
+for i = 1, #KEYS do
+    if redis.call('GET', KEYS[i]) == ARGV[i] then
+        deleted = deleted + redis.call('DEL', KEYS[i])
+    end
+end
+return deleted
@@ -0,0 +1,9 @@
+-- 获取并刷新过期时间
+-- KEYS[1]: Redis Key
+-- ARGV[1]: 新的过期时间, 单位: 毫秒
+-- 返回: 当前值, Key 不存在时返回 nil
+local current = redis.call('GET', KEYS[1])
+if current then
+    redis.call('PEXPIRE', KEYS[1], ARGV[1])
+end
+return current
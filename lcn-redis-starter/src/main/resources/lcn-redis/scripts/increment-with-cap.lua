@@ -0,0 +1,17 @@
+-- 带上限的自增
+-- KEYS[1]: Redis Key, 值为整数的字符串
+-- ARGV[1]: 自增的步长
+-- ARGV[2]: 上限, 自增后超过上限时不自增
+-- ARGV[3]: Key 新建时的过期时间, 单位: 毫秒, 小于等于 0 时不过期
+-- 返回: 自增后的值, 超过上限时返回 nil
+local delta = tonumber(ARGV[1])
+local current = tonumber(redis.call('GET', KEYS[1]) or '0')
+if current + delta > tonumber(ARGV[2]) then
+    return nil
+end
+local value = redis.call('INCRBY', KEYS[1], delta)
+local expireMillis = tonumber(ARGV[3])
+if expireMillis > 0 and redis.call('PTTL', KEYS[1]) == -1 then
+    redis.call('PEXPIRE', KEYS[1], expireMillis)
+end
+return value
@@ -0,0 +1,46 @@
+-- 令牌桶获取令牌, 桶的状态保存在 Hash 中: tokens 为剩余的令牌数, ts 为上次补充令牌的时间
+-- 时间使用 Redis 的 TIME, 多个实例之间不受本地时钟的影响
+-- KEYS[1]: 令牌桶的 Key
+-- ARGV[1]: 桶的容量
+-- ARGV[2]: 每个周期补充的令牌数
+-- ARGV[3]: 周期, 单位: 毫秒
+-- ARGV[4]: 至少需要的令牌数, 剩余的令牌不够时一个都不取
+-- ARGV[5]: 最多获取的令牌数, 大于 ARGV[4] 的部分作为本地租约
+-- 返回: 大于 0 时为获取到的令牌数, 小于 0 时为令牌补充到 ARGV[4] 个还需要等待的毫秒数的相反数
+if redis.replicate_commands then
+    redis.replicate_commands()
+end
+local capacity = tonumber(ARGV[1])
+local rate = tonumber(ARGV[2])
+local period = tonumber(ARGV[3])
+local min = tonumber(ARGV[4])
+local max = tonumber(ARGV[5])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+local tokens = tonumber(bucket[1])
+local ts = tonumber(bucket[2])
+if tokens == nil or ts == nil then
+    tokens = capacity
+    ts = now
+elseif now > ts then
+    tokens = math.min(capacity, tokens + (now - ts) * rate / period)
+    ts = now
+end
+
+local granted = 0
+if tokens >= min then
+    granted = math.min(max, math.floor(tokens))
+    tokens = tokens - granted
+end
+
+redis.call('HMSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(ts))
+-- 桶补满之后的状态和不存在时一样, 不需要继续保留
+redis.call('PEXPIRE', KEYS[1], math.ceil((capacity - tokens) * period / rate) + 1000)
+
+if granted > 0 then
+    return granted
+end
+return -math.max(1, math.ceil((min - tokens) * period / rate))
@@ -0,0 +1,168 @@
+package io.github.lcn29.starter.redis.batch;
+
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <pre>
+ * RedisGetBatcher 测试
+ * MGET 用内存中的函数代替, 返回 "value-" + Key, 同时记录每一次调用的 Key 列表
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 23:55
+ */
+class RedisGetBatcherTest {
+
+    private final List<List<String>> multiGetCalls = Collections.synchronizedList(new ArrayList<>());
+
+    private RedisGetBatcher batcher;
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) {
+            batcher.destroy();
+        }
+    }
+
+    @Test
+    void getsInWindowAreMergedWithDistinctKeys() throws Exception {
+        batcher = batcher(200_000L, 16, Duration.ofSeconds(1), this::multiGet);
+
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+        for (String redisKey : Arrays.asList("k1", "k2", "k1", "k3")) {
+            futures.add(batcher.get(redisKey));
+        }
+
+        assertEquals("value-k1", batcher.await("k1", futures.get(0)));
+        assertEquals("value-k2", batcher.await("k2", futures.get(1)));
+        assertEquals("value-k1", batcher.await("k1", futures.get(2)));
+        assertEquals("value-k3", batcher.await("k3", futures.get(3)));
+
+        assertEquals(1, multiGetCalls.size());
+        assertEquals(Arrays.asList("k1", "k2", "k3"), multiGetCalls.get(0));
+        assertEquals(1L, batcher.getBatchCount());
+        assertEquals(3L, batcher.getKeyCount());
+        assertEquals(1L, batcher.batchSizeHistogram().get(4));
+    }
+
+    @Test
+    void fullBatchIsFlushedBeforeWindowEnds() throws Exception {
+        // 时间窗口远大于等待时间, 只有达到最大数量才会刷新
+        batcher = batcher(TimeUnit.SECONDS.toMicros(30), 2, Duration.ofSeconds(1), this::multiGet);
+
+        CompletableFuture<Object> first = batcher.get("k1");
+        CompletableFuture<Object> second = batcher.get("k2");
+
+        assertEquals("value-k1", first.get(5, TimeUnit.SECONDS));
+        assertEquals("value-k2", second.get(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList(Arrays.asList("k1", "k2")), multiGetCalls);
+    }
+
+    @Test
+    void missingResultListCompletesWithNull() {
+        batcher = batcher(1_000L, 16, Duration.ofSeconds(1), redisKeys -> null);
+
+        assertNull(batcher.await("k1", batcher.get("k1")));
+    }
+
+    @Test
+    void failureIsRethrownToEveryCaller() {
+        IllegalStateException failure = new IllegalStateException("connection lost");
+        batcher = batcher(200_000L, 16, Duration.ofSeconds(1), redisKeys -> {
+            throw failure;
+        });
+
+        CompletableFuture<Object> first = batcher.get("k1");
+        CompletableFuture<Object> second = batcher.get("k2");
+
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> batcher.await("k1", first)));
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> batcher.await("k2", second)));
+    }
+
+    @Test
+    void awaitTimeoutThrowsIllegalState() {
+        CountDownLatch release = new CountDownLatch(1);
+        batcher = batcher(1_000L, 16, Duration.ofMillis(50), redisKeys -> {
+            awaitQuietly(release);
+            return multiGet(redisKeys);
+        });
+
+        try {
+            CompletableFuture<Object> future = batcher.get("k1");
+            IllegalStateException ex = assertThrows(IllegalStateException.class, () -> batcher.await("k1", future));
+            assertInstanceOf(TimeoutException.class, ex.getCause());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void destroyCompletesCollectedGets() throws Exception {
+        // 时间窗口很长, 请求在关闭时还在收集线程的批次中
+        batcher = batcher(TimeUnit.SECONDS.toMicros(30), 16, Duration.ofSeconds(1), this::multiGet);
+
+        CompletableFuture<Object> future = batcher.get("k1");
+        assertNotNull(future);
+        batcher.destroy();
+
+        assertEquals("value-k1", future.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void getAfterDestroyReturnsNull() {
+        batcher = batcher(1_000L, 16, Duration.ofSeconds(1), this::multiGet);
+        batcher.destroy();
+
+        assertNull(batcher.get("k1"));
+        assertTrue(multiGetCalls.isEmpty());
+    }
+
+    private List<Object> multiGet(List<String> redisKeys) {
+        multiGetCalls.add(new ArrayList<>(redisKeys));
+        List<Object> redisValues = new ArrayList<>(redisKeys.size());
+        for (String redisKey : redisKeys) {
+            redisValues.add("value-" + redisKey);
+        }
+        return redisValues;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static RedisGetBatcher batcher(long windowMicros, int maxBatchSize, Duration commandTimeout,
+                                           Function<List<String>, List<Object>> multiGetFunction) {
+        LcnRedisProperty.BatchGet batchGet = new LcnRedisProperty.BatchGet();
+        batchGet.setEnabled(true);
+        batchGet.setWindowMicros(windowMicros);
+        batchGet.setMaxBatchSize(maxBatchSize);
+        batchGet.setQueueCapacity(1024);
+        batchGet.setFlushThreads(2);
+        return new RedisGetBatcher(batchGet, multiGetFunction, commandTimeout);
+    }
+}
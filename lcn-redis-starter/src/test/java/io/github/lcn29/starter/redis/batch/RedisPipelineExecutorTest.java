@@ -0,0 +1,182 @@
+package io.github.lcn29.starter.redis.batch;
+
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <pre>
+ * RedisPipelineExecutor 测试
+ * 写入一批用内存中的函数代替, 记录每一批的 Key, 元素以 "fail" 开头时整批失败, Value 为空的元素作为跳过的 Key
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 23:59
+ */
+class RedisPipelineExecutorTest {
+
+    private final List<List<String>> chunks = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<RedisPipelineEntry> mappedEntries = Collections.synchronizedList(new ArrayList<>());
+
+    private RedisPipelineExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.destroy();
+        }
+    }
+
+    @Test
+    void chunksAreSplitByMaxCommands() {
+        executor = executor(2, 1024L, 1);
+
+        RedisPipelineResult result = executor.execute(Arrays.asList("k1", "k2", "k3", "k4", "k5"), this::entry, true, this::write);
+
+        assertTrue(result.isSuccess());
+        assertEquals(5, result.getWrittenCount());
+        assertEquals(Arrays.asList(Arrays.asList("k1", "k2"), Arrays.asList("k3", "k4"), Collections.singletonList("k5")), chunks);
+        assertAllReleased();
+    }
+
+    @Test
+    void chunksAreSplitByMaxBytes() {
+        // 每个元素 Key 2 个字节, Value 8 个字节, 一批最多放下 2 个
+        executor = executor(100, 25L, 1);
+
+        RedisPipelineResult result = executor.execute(Arrays.asList("k1", "k2", "k3"), this::entry, true, this::write);
+
+        assertTrue(result.isSuccess());
+        assertEquals(Arrays.asList(Arrays.asList("k1", "k2"), Collections.singletonList("k3")), chunks);
+    }
+
+    @Test
+    void entriesWithoutValueAreSkipped() {
+        executor = executor(100, 1024L, 1);
+
+        RedisPipelineResult result = executor.execute(Arrays.asList("k1", "skip1", "k2", "skip2"), this::entry, true, this::write);
+
+        assertFalse(result.isSuccess());
+        assertEquals(2, result.getWrittenCount());
+        assertEquals(Arrays.asList("skip1", "skip2"), result.getSkippedKeys());
+        assertEquals(Collections.singletonList(Arrays.asList("k1", "k2")), chunks);
+        assertAllReleased();
+    }
+
+    @Test
+    void failedChunkDoesNotStopOtherChunks() {
+        executor = executor(2, 1024L, 1);
+
+        RedisPipelineResult result = executor.execute(Arrays.asList("k1", "k2", "fail1", "k3", "k4"), this::entry, true, this::write);
+
+        assertEquals(3, result.getWrittenCount());
+        assertEquals(1, result.getFailures().size());
+        RedisPipelineResult.ChunkFailure failure = result.getFailures().get(0);
+        assertEquals(1, failure.getChunkIndex());
+        assertEquals(Arrays.asList("fail1", "k3"), failure.getRedisKeys());
+        assertEquals(3, chunks.size());
+        assertAllReleased();
+    }
+
+    @Test
+    void mapperExceptionReleasesCollectedEntries() {
+        executor = executor(100, 1024L, 1);
+        IllegalStateException failure = new IllegalStateException("serialize fail");
+        Function<String, RedisPipelineEntry> entryMapper = source -> {
+            if ("boom".equals(source)) {
+                throw failure;
+            }
+            return entry(source);
+        };
+
+        assertSame(failure, assertThrows(IllegalStateException.class,
+                () -> executor.execute(Arrays.asList("k1", "k2", "boom"), entryMapper, true, this::write)));
+        assertTrue(chunks.isEmpty());
+        assertAllReleased();
+    }
+
+    @Test
+    void parallelChunksAreAllWritten() {
+        executor = executor(3, 1024L, 4);
+        List<String> sources = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            sources.add("k" + i);
+        }
+        AtomicInteger maxInflight = new AtomicInteger();
+        AtomicInteger inflight = new AtomicInteger();
+        Consumer<List<RedisPipelineEntry>> chunkWriter = chunk -> {
+            maxInflight.accumulateAndGet(inflight.incrementAndGet(), Math::max);
+            try {
+                write(chunk);
+            } finally {
+                inflight.decrementAndGet();
+            }
+        };
+
+        RedisPipelineResult result = executor.execute(sources, this::entry, false, chunkWriter);
+
+        assertTrue(result.isSuccess());
+        assertEquals(100, result.getWrittenCount());
+        Set<String> writtenKeys = new HashSet<>();
+        synchronized (chunks) {
+            chunks.forEach(writtenKeys::addAll);
+        }
+        assertEquals(new HashSet<>(sources), writtenKeys);
+        assertTrue(maxInflight.get() <= 4);
+        assertAllReleased();
+    }
+
+    private RedisPipelineEntry entry(String source) {
+        byte[] keyBytes = source.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = source.startsWith("skip") ? null : "value-00".getBytes(StandardCharsets.UTF_8);
+        RedisPipelineEntry entry = RedisPipelineEntry.of(source, keyBytes, valueBytes, 0L);
+        mappedEntries.add(entry);
+        return entry;
+    }
+
+    private void write(List<RedisPipelineEntry> chunk) {
+        List<String> redisKeys = new ArrayList<>(chunk.size());
+        chunk.forEach(entry -> redisKeys.add(entry.getRedisKey()));
+        chunks.add(redisKeys);
+        if (redisKeys.stream().anyMatch(redisKey -> redisKey.startsWith("fail"))) {
+            throw new IllegalStateException("Command timed out");
+        }
+    }
+
+    private void assertAllReleased() {
+        synchronized (mappedEntries) {
+            for (RedisPipelineEntry entry : mappedEntries) {
+                assertEquals(0, entry.getKeyBuf().refCnt());
+                if (entry.getValueBuf() != null) {
+                    assertEquals(0, entry.getValueBuf().refCnt());
+                }
+            }
+        }
+    }
+
+    private static RedisPipelineExecutor executor(int maxCommands, long maxBytes, int parallelism) {
+        LcnRedisProperty.Pipeline pipeline = new LcnRedisProperty.Pipeline();
+        pipeline.setMaxCommands(maxCommands);
+        pipeline.setMaxBytes(maxBytes);
+        pipeline.setParallelism(parallelism);
+        return new RedisPipelineExecutor(pipeline);
+    }
+}
@@ -0,0 +1,328 @@
+package io.github.lcn29.starter.redis.batch;
+
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <pre>
+ * RedisWriteBehindBuffer 测试
+ * 刷新间隔设置得很大, 刷新线程不会自己触发, 刷新都由测试通过 flush 显式触发
+ * Redis 用内存中的 Map 代替, 失败的 Key 通过 failKeys 控制
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 23:50
+ */
+class RedisWriteBehindBufferTest {
+
+    private final Map<String, Object> redisMap = new ConcurrentHashMap<>();
+
+    private final Set<String> failKeys = ConcurrentHashMap.newKeySet();
+
+    private final List<List<String>> writtenBatches = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * 写入时设置的剩余过期时间
+     */
+    private final Map<String, Long> writtenExpireMap = new ConcurrentHashMap<>();
+
+    private RedisWriteBehindBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new RedisWriteBehindBuffer(writeBehind(100, 2));
+        buffer.start(this::write);
+    }
+
+    @AfterEach
+    void tearDown() {
+        buffer.destroy();
+    }
+
+    @Test
+    void writeBeforeStartGoesThrough() {
+        RedisWriteBehindBuffer notStarted = new RedisWriteBehindBuffer(writeBehind(100, 2));
+        AtomicInteger writeThroughCount = new AtomicInteger();
+
+        notStarted.write("k1", "v1", 0L, writeThroughCount::incrementAndGet);
+
+        assertEquals(1, writeThroughCount.get());
+        assertEquals(0, notStarted.depth());
+        assertNull(notStarted.pending("k1"));
+    }
+
+    @Test
+    void writesToSameKeyAreCoalesced() {
+        buffer.write("k1", "v1", 0L, failWriteThrough());
+        buffer.write("k1", "v2", 1000L, failWriteThrough());
+
+        assertEquals(1, buffer.depth());
+        RedisWriteBehindBuffer.PendingWrite pendingWrite = buffer.pending("k1");
+        assertNotNull(pendingWrite);
+        assertEquals("v2", pendingWrite.getRedisValue());
+        assertTrue(pendingWrite.hasExpire());
+        assertTrue(redisMap.isEmpty());
+    }
+
+    @Test
+    void expireDeadlineIsFixedWhenBuffered() {
+        long beforeMillis = System.currentTimeMillis();
+        buffer.write("k1", "v1", 60000L, failWriteThrough());
+        buffer.write("k2", "v2", 0L, failWriteThrough());
+        long afterMillis = System.currentTimeMillis();
+
+        RedisWriteBehindBuffer.PendingWrite pendingWrite = buffer.pending("k1");
+        assertTrue(pendingWrite.getExpireAtMillis() >= beforeMillis + 60000L);
+        assertTrue(pendingWrite.getExpireAtMillis() <= afterMillis + 60000L);
+        assertFalse(pendingWrite.isExpired());
+
+        RedisWriteBehindBuffer.PendingWrite persistentWrite = buffer.pending("k2");
+        assertFalse(persistentWrite.hasExpire());
+        assertFalse(persistentWrite.isExpired());
+        assertEquals(0L, persistentWrite.remainingExpireMillis());
+
+        buffer.flush();
+        // 刷新时只设置剩余的时间, 不会从刷新时重新计算
+        assertTrue(writtenExpireMap.get("k1") <= 60000L);
+        assertTrue(writtenExpireMap.get("k1") > 0L);
+        assertEquals(0L, writtenExpireMap.get("k2"));
+    }
+
+    @Test
+    void writeExpiredWhileBufferedIsFlushedWithMinimalExpire() throws InterruptedException {
+        buffer.write("k1", "v1", 10L, failWriteThrough());
+
+        Thread.sleep(50L);
+
+        RedisWriteBehindBuffer.PendingWrite pendingWrite = buffer.pending("k1");
+        assertTrue(pendingWrite.isExpired());
+        assertEquals(1L, pendingWrite.remainingExpireMillis());
+
+        // 仍然写入, 覆盖 Redis 中的旧值后马上过期
+        buffer.flush();
+        assertEquals(1L, writtenExpireMap.get("k1"));
+        assertEquals(0, buffer.depth());
+    }
+
+    @Test
+    void flushWritesOnlyLatestValue() {
+        buffer.write("k1", "v1", 0L, failWriteThrough());
+        buffer.write("k1", "v2", 0L, failWriteThrough());
+        buffer.write("k2", "v3", 0L, failWriteThrough());
+
+        buffer.flush();
+
+        assertEquals(1, writtenBatches.size());
+        assertEquals(2, writtenBatches.get(0).size());
+        assertEquals("v2", redisMap.get("k1"));
+        assertEquals("v3", redisMap.get("k2"));
+        assertEquals(0, buffer.depth());
+        assertNull(buffer.pending("k1"));
+    }
+
+    @Test
+    void failedWriteIsRetriedThenDropped() {
+        failKeys.add("k1");
+        buffer.write("k1", "v1", 0L, failWriteThrough());
+        buffer.write("k2", "v2", 0L, failWriteThrough());
+
+        // maxRetries = 2, 第一次写入加上两次重试
+        buffer.flush();
+        assertEquals(1, buffer.depth());
+        assertNotNull(buffer.pending("k1"));
+        assertEquals("v2", redisMap.get("k2"));
+
+        buffer.flush();
+        assertEquals(1, buffer.depth());
+
+        buffer.flush();
+        assertEquals(0, buffer.depth());
+        assertNull(buffer.pending("k1"));
+        assertFalse(redisMap.containsKey("k1"));
+        assertEquals(3, countWrites("k1"));
+    }
+
+    @Test
+    void failedWriteSucceedsOnRetry() {
+        failKeys.add("k1");
+        buffer.write("k1", "v1", 0L, failWriteThrough());
+        buffer.flush();
+        assertEquals(1, buffer.depth());
+
+        failKeys.clear();
+        buffer.flush();
+        assertEquals(0, buffer.depth());
+        assertEquals("v1", redisMap.get("k1"));
+    }
+
+    @Test
+    void newerWriteDuringFlushIsRetained() {
+        RedisWriteBehindBuffer racingBuffer = new RedisWriteBehindBuffer(writeBehind(100, 2));
+        AtomicBoolean raced = new AtomicBoolean();
+        racingBuffer.start(batch -> {
+            List<String> failed = write(batch);
+            // 批次写入期间同一个 Key 有了更新的写入
+            if (raced.compareAndSet(false, true)) {
+                racingBuffer.write("k1", "v2", 0L, failWriteThrough());
+            }
+            return failed;
+        });
+        try {
+            racingBuffer.write("k1", "v1", 0L, failWriteThrough());
+            racingBuffer.flush();
+
+            assertEquals("v1", redisMap.get("k1"));
+            assertEquals(1, racingBuffer.depth());
+            assertEquals("v2", racingBuffer.pending("k1").getRedisValue());
+
+            racingBuffer.flush();
+            assertEquals("v2", redisMap.get("k1"));
+            assertEquals(0, racingBuffer.depth());
+        } finally {
+            racingBuffer.destroy();
+        }
+    }
+
+    @Test
+    void supersedeDropsPendingValue() {
+        buffer.write("k1", "v1", 0L, failWriteThrough());
+
+        String result = buffer.supersede(Collections.singletonList("k1"), () -> {
+            redisMap.remove("k1");
+            return "deleted";
+        });
+
+        assertEquals("deleted", result);
+        assertEquals(0, buffer.depth());
+        buffer.flush();
+        assertFalse(redisMap.containsKey("k1"));
+        assertTrue(writtenBatches.isEmpty());
+    }
+
+    @Test
+    void writeThroughFlushesPendingValueFirst() {
+        buffer.write("k1", "v1", 0L, failWriteThrough());
+        buffer.write("k2", "v2", 0L, failWriteThrough());
+
+        Object seen = buffer.writeThrough(Collections.singletonList("k1"), () -> redisMap.get("k1"));
+
+        assertEquals("v1", seen);
+        assertEquals(1, buffer.depth());
+        assertNotNull(buffer.pending("k2"));
+        assertFalse(redisMap.containsKey("k2"));
+    }
+
+    @Test
+    void writeThroughFailureSkipsAction() {
+        failKeys.add("k1");
+        buffer.write("k1", "v1", 0L, failWriteThrough());
+        AtomicInteger actionCount = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class,
+                () -> buffer.writeThrough(Collections.singletonList("k1"), actionCount::incrementAndGet));
+
+        assertEquals(0, actionCount.get());
+        assertEquals(1, buffer.depth());
+        assertNotNull(buffer.pending("k1"));
+    }
+
+    @Test
+    void fullBufferWritesThrough() {
+        RedisWriteBehindBuffer smallBuffer = new RedisWriteBehindBuffer(writeBehind(1, 2));
+        smallBuffer.start(this::write);
+        AtomicInteger writeThroughCount = new AtomicInteger();
+        try {
+            smallBuffer.write("k1", "v1", 0L, failWriteThrough());
+            smallBuffer.write("k2", "v2", 0L, writeThroughCount::incrementAndGet);
+            // 已经在缓冲区中的 Key 覆盖写入不占用新的空间
+            smallBuffer.write("k1", "v3", 0L, failWriteThrough());
+
+            assertEquals(1, writeThroughCount.get());
+            assertEquals(1, smallBuffer.depth());
+            assertNull(smallBuffer.pending("k2"));
+            assertEquals("v3", smallBuffer.pending("k1").getRedisValue());
+        } finally {
+            smallBuffer.destroy();
+        }
+    }
+
+    @Test
+    void destroyFlushesRemainingWrites() {
+        buffer.write("k1", "v1", 0L, failWriteThrough());
+        buffer.write("k2", "v2", 0L, failWriteThrough());
+
+        buffer.destroy();
+
+        assertEquals("v1", redisMap.get("k1"));
+        assertEquals("v2", redisMap.get("k2"));
+        assertEquals(0, buffer.depth());
+
+        // 关闭之后的写入直接同步写入
+        AtomicInteger writeThroughCount = new AtomicInteger();
+        buffer.write("k3", "v3", 0L, writeThroughCount::incrementAndGet);
+        assertEquals(1, writeThroughCount.get());
+        assertEquals(0, buffer.depth());
+    }
+
+    private List<String> write(List<RedisWriteBehindBuffer.PendingWrite> batch) {
+        List<String> redisKeys = new ArrayList<>(batch.size());
+        List<String> failedKeys = new ArrayList<>();
+        for (RedisWriteBehindBuffer.PendingWrite pendingWrite : batch) {
+            redisKeys.add(pendingWrite.getRedisKey());
+            if (failKeys.contains(pendingWrite.getRedisKey())) {
+                failedKeys.add(pendingWrite.getRedisKey());
+            } else {
+                redisMap.put(pendingWrite.getRedisKey(), pendingWrite.getRedisValue());
+                writtenExpireMap.put(pendingWrite.getRedisKey(), pendingWrite.remainingExpireMillis());
+            }
+        }
+        writtenBatches.add(redisKeys);
+        return failedKeys;
+    }
+
+    private int countWrites(String redisKey) {
+        int count = 0;
+        synchronized (writtenBatches) {
+            for (List<String> batch : writtenBatches) {
+                count += batch.contains(redisKey) ? 1 : 0;
+            }
+        }
+        return count;
+    }
+
+    private static Runnable failWriteThrough() {
+        return () -> {
+            throw new IllegalStateException("Unexpected write through");
+        };
+    }
+
+    private static LcnRedisProperty.WriteBehind writeBehind(int capacity, int maxRetries) {
+        LcnRedisProperty.WriteBehind writeBehind = new LcnRedisProperty.WriteBehind();
+        writeBehind.setEnabled(true);
+        writeBehind.setCapacity(capacity);
+        writeBehind.setFlushBatchSize(1000);
+        writeBehind.setFlushIntervalMillis(60000L);
+        writeBehind.setFullWaitMillis(0L);
+        writeBehind.setMaxRetries(maxRetries);
+        writeBehind.setShutdownTimeoutMillis(1000L);
+        return writeBehind;
+    }
+}
@@ -0,0 +1,227 @@
+package io.github.lcn29.starter.redis.cache;
+
+import io.github.lcn29.starter.redis.key.RedisKeyDesc;
+import io.github.lcn29.starter.redis.key.RedisKeyDescRegistry;
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.api.listener.StatusListener;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <pre>
+ * RedisNearCache 测试
+ * RedissonClient 和 RTopic 通过动态代理实现, 记录发布的消息和注册的监听器, 用于模拟其他实例的失效通知和重新订阅
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 23:59
+ */
+class RedisNearCacheTest {
+
+    private final static String CHANNEL = "lcn:redis:near-cache:invalidate";
+
+    private final static long EXPIRE_MILLIS = 60_000L;
+
+    private final List<String> publishedMessages = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<Object> removedListenerIds = new ArrayList<>();
+
+    private MessageListener<String> messageListener;
+
+    private StatusListener statusListener;
+
+    private RedisNearCache nearCache;
+
+    @BeforeEach
+    void setUp() {
+        RedisKeyDescRegistry.register(TestKeyDesc.class);
+        LcnRedisProperty.NearCache nearCacheProperty = new LcnRedisProperty.NearCache();
+        nearCacheProperty.setEnabled(true);
+        nearCacheProperty.setMaximumSize(100L);
+        nearCacheProperty.setInvalidateChannel(CHANNEL);
+        nearCache = new RedisNearCache(nearCacheProperty, redissonClient());
+    }
+
+    @AfterEach
+    void tearDown() {
+        nearCache.destroy();
+    }
+
+    @Test
+    void onlyKeysWithNearCacheExpireAreCached() {
+        assertEquals(EXPIRE_MILLIS, nearCache.expireMillis("near:user:1"));
+        assertEquals(0L, nearCache.expireMillis("near:order:1"));
+        assertEquals(0L, nearCache.expireMillis("unregistered:1"));
+    }
+
+    @Test
+    void putAndGet() {
+        put("near:user:1", "v1");
+
+        assertEquals("v1", nearCache.getIfPresent("near:user:1"));
+        assertEquals(1L, nearCache.size());
+    }
+
+    @Test
+    void fillWithStaleSequenceIsDropped() {
+        long sequence = nearCache.sequence("near:user:1");
+        // 读取 Redis 期间其他实例写入了这个 Key
+        messageListener.onMessage(CHANNEL, "near:user:1");
+
+        nearCache.put("near:user:1", "old", EXPIRE_MILLIS, sequence);
+
+        assertNull(nearCache.getIfPresent("near:user:1"));
+    }
+
+    @Test
+    void invalidateRemovesLocallyAndPublishes() {
+        put("near:user:1", "v1");
+
+        nearCache.invalidate("near:user:1");
+        // 不进入近端缓存的 Key 不需要广播
+        nearCache.invalidate("near:order:1");
+
+        assertNull(nearCache.getIfPresent("near:user:1"));
+        assertEquals(Collections.singletonList("near:user:1"), publishedMessages);
+    }
+
+    @Test
+    void batchInvalidateIsPublishedAsOneMessage() {
+        put("near:user:1", "v1");
+        put("near:user:2", "v2");
+
+        nearCache.invalidateAll(Arrays.asList("near:user:1", "near:order:1", "near:user:2"));
+
+        assertNull(nearCache.getIfPresent("near:user:1"));
+        assertNull(nearCache.getIfPresent("near:user:2"));
+        assertEquals(Collections.singletonList("near:user:1\nnear:user:2"), publishedMessages);
+    }
+
+    @Test
+    void invalidateMessageFromOtherInstance() {
+        put("near:user:1", "v1");
+        put("near:user:2", "v2");
+        put("near:user:3", "v3");
+
+        messageListener.onMessage(CHANNEL, "near:user:1\nnear:user:2");
+
+        assertNull(nearCache.getIfPresent("near:user:1"));
+        assertNull(nearCache.getIfPresent("near:user:2"));
+        assertEquals("v3", nearCache.getIfPresent("near:user:3"));
+        assertTrue(publishedMessages.isEmpty());
+    }
+
+    @Test
+    void resubscribeClearsCacheAndAbortsInflightFills() {
+        put("near:user:1", "v1");
+        long sequence = nearCache.sequence("near:user:2");
+
+        // 重连后重新订阅, 断开期间的失效通知可能已经丢失
+        statusListener.onSubscribe(CHANNEL);
+        nearCache.put("near:user:2", "old", EXPIRE_MILLIS, sequence);
+
+        assertNull(nearCache.getIfPresent("near:user:1"));
+        assertNull(nearCache.getIfPresent("near:user:2"));
+        assertTrue(publishedMessages.isEmpty());
+    }
+
+    @Test
+    void unsubscribeClearsCache() {
+        put("near:user:1", "v1");
+
+        statusListener.onUnsubscribe(CHANNEL);
+
+        assertNull(nearCache.getIfPresent("near:user:1"));
+    }
+
+    @Test
+    void destroyRemovesBothListeners() {
+        nearCache.destroy();
+
+        assertEquals(Arrays.asList(1, 2), removedListenerIds);
+    }
+
+    private void put(String redisKey, Object redisValue) {
+        nearCache.put(redisKey, redisValue, EXPIRE_MILLIS, nearCache.sequence(redisKey));
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedissonClient redissonClient() {
+        RTopic topic = proxy(RTopic.class, (method, args) -> {
+            switch (method) {
+                case "addListener":
+                    if (args.length == 2) {
+                        messageListener = (MessageListener<String>) args[1];
+                        return 1;
+                    }
+                    statusListener = (StatusListener) args[0];
+                    return 2;
+                case "publishAsync":
+                    publishedMessages.add((String) args[0]);
+                    return null;
+                case "removeListener":
+                    removedListenerIds.addAll(Arrays.asList((Object[]) args[0]));
+                    return null;
+                default:
+                    throw new UnsupportedOperationException("RTopic#" + method);
+            }
+        });
+        return proxy(RedissonClient.class, (method, args) -> {
+            if ("getTopic".equals(method) && CHANNEL.equals(args[0])) {
+                return topic;
+            }
+            throw new UnsupportedOperationException("RedissonClient#" + method);
+        });
+    }
+
+    private interface ProxyHandler {
+
+        Object invoke(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, ProxyHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.invoke(method.getName(), args == null ? new Object[0] : args));
+    }
+
+    private enum TestKeyDesc implements RedisKeyDesc {
+
+        USER("near:user:%s", EXPIRE_MILLIS),
+
+        ORDER("near:order:%s", 0L);
+
+        private final String desc;
+
+        private final long nearCacheExpireMillis;
+
+        TestKeyDesc(String desc, long nearCacheExpireMillis) {
+            this.desc = desc;
+            this.nearCacheExpireMillis = nearCacheExpireMillis;
+        }
+
+        @Override
+        public String desc() {
+            return desc;
+        }
+
+        @Override
+        public long nearCacheExpireMillis() {
+            return nearCacheExpireMillis;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package io.github.lcn29.starter.redis.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <pre>
+ * RedisValueSerializer 的头部字节和压缩测试
+ * 编码用内存中的字符串编码代替: 带头部字节的编码为 [0x01][UTF-8], 历史编码为没有头部字节的 UTF-8
+ * 和 RedisConfig 一致的 JSON, Smile 编码的测试使用 TestRedisCodecs, 基准数据由历史的 Jackson2JsonRedisSerializer 写入
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 23:59
+ */
+class RedisValueSerializerTest {
+
+    private final static byte STRING_HEADER = 0x01;
+
+    private final static int THRESHOLD = 64;
+
+    private final static String SMALL_VALUE = "small";
+
+    private final static String LARGE_VALUE = repeat("redis-value-", 200);
+
+    @Test
+    void valueBelowThresholdIsNotCompressed() {
+        RedisValueSerializer serializer = serializer();
+        serializer.setWriteCompressor(new Lz4RedisValueCompressor(), THRESHOLD);
+
+        byte[] bytes = serializer.serialize(SMALL_VALUE);
+
+        assertEquals(STRING_HEADER, bytes[0]);
+        assertEquals(SMALL_VALUE.length() + 1, bytes.length);
+        assertEquals(SMALL_VALUE, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void lz4FrameRoundTrip() {
+        assertFrameRoundTrip(new Lz4RedisValueCompressor(), Lz4RedisValueCompressor.LZ4_HEADER);
+    }
+
+    @Test
+    void zstdFrameRoundTrip() {
+        assertFrameRoundTrip(new ZstdRedisValueCompressor(3), ZstdRedisValueCompressor.ZSTD_HEADER);
+    }
+
+    @Test
+    void incompressibleValueIsStoredUncompressed() {
+        byte[] random = new byte[512];
+        new Random(29L).nextBytes(random);
+        // 只使用可见字符, 保证是合法的 UTF-8, 同时几乎不可压缩
+        for (int i = 0; i < random.length; i++) {
+            random[i] = (byte) ('!' + (random[i] & 0x7F) % 90);
+        }
+        String value = new String(random, StandardCharsets.US_ASCII);
+        RedisValueSerializer serializer = serializer();
+        serializer.setWriteCompressor(new Lz4RedisValueCompressor(), THRESHOLD);
+
+        byte[] bytes = serializer.serialize(value);
+
+        assertEquals(STRING_HEADER, bytes[0]);
+        assertEquals(value, serializer.deserialize(bytes));
+        assertEquals(1L, serializer.getCompressionStats().getCompressSkipCount());
+    }
+
+    @Test
+    void registeredCompressorReadsWithoutWriting() {
+        RedisValueSerializer writer = serializer();
+        writer.setWriteCompressor(new ZstdRedisValueCompressor(3), THRESHOLD);
+        byte[] compressed = writer.serialize(LARGE_VALUE);
+
+        // 关闭压缩之后, 已经写入的压缩数据仍然可以读取
+        RedisValueSerializer reader = serializer();
+        reader.registerCompressor(new ZstdRedisValueCompressor(3));
+
+        assertEquals(LARGE_VALUE, reader.deserialize(compressed));
+        assertEquals(STRING_HEADER, reader.serialize(LARGE_VALUE)[0]);
+    }
+
+    @Test
+    void legacyValueWithoutHeaderIsDecodedByLegacyCodec() {
+        RedisValueSerializer serializer = serializer();
+
+        assertEquals("{\"id\":1}", serializer.deserialize("{\"id\":1}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void nullAndEmptyValues() {
+        RedisValueSerializer serializer = serializer();
+
+        assertEquals(0, serializer.serialize(null).length);
+        assertNull(serializer.deserialize(null));
+        assertNull(serializer.deserialize(new byte[0]));
+    }
+
+    @Test
+    void byteBufSerializationMatchesArraySerialization() {
+        RedisValueSerializer serializer = serializer();
+        serializer.setWriteCompressor(new Lz4RedisValueCompressor(), THRESHOLD);
+
+        for (String value : Arrays.asList(SMALL_VALUE, LARGE_VALUE)) {
+            ByteBuf target = Unpooled.buffer();
+            target.writeByte(0x7F);
+            serializer.serialize(value, target);
+
+            byte[] bytes = new byte[target.readableBytes() - 1];
+            target.getBytes(1, bytes);
+            assertArrayEquals(serializer.serialize(value), bytes);
+            target.release();
+        }
+    }
+
+    @Test
+    void compressorHeaderConflictIsRejected() {
+        RedisValueSerializer serializer = new RedisValueSerializer(new HeaderStringCodec(), new LegacyStringCodec(),
+                new HeaderStringCodec(), new HeaderStringCodec(Lz4RedisValueCompressor.LZ4_HEADER));
+
+        assertThrows(IllegalArgumentException.class, () -> serializer.registerCompressor(new Lz4RedisValueCompressor()));
+    }
+
+    @Test
+    void codecWithoutHeaderIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new RedisValueSerializer(new HeaderStringCodec(), new LegacyStringCodec(), new LegacyStringCodec()));
+    }
+
+    @Test
+    void jsonWriteCodecMatchesBaselineSerializer() {
+        Map<String, Object> value = businessValue(3);
+
+        byte[] baselineBytes = TestRedisCodecs.jackson2JsonRedisSerializer().serialize(value);
+
+        // 写入 JSON 时没有头部字节, 和切换之前写入的数据完全一致
+        assertArrayEquals(baselineBytes, TestRedisCodecs.jsonSerializer().serialize(value));
+        assertEquals(value, TestRedisCodecs.jsonSerializer().deserialize(baselineBytes));
+        assertEquals(value, TestRedisCodecs.smileSerializer().deserialize(baselineBytes));
+    }
+
+    @Test
+    void jsonByteBufSerializationMatchesBaselineSerializer() {
+        Map<String, Object> value = businessValue(3);
+        ByteBuf target = Unpooled.buffer();
+
+        TestRedisCodecs.jsonSerializer().serialize(value, target);
+
+        byte[] bytes = new byte[target.readableBytes()];
+        target.readBytes(bytes);
+        target.release();
+        assertEquals(value, TestRedisCodecs.jackson2JsonRedisSerializer().deserialize(bytes));
+    }
+
+    @Test
+    void realCodecsRoundTripWithLz4() {
+        assertRealCodecsRoundTrip(new Lz4RedisValueCompressor(), Lz4RedisValueCompressor.LZ4_HEADER);
+    }
+
+    @Test
+    void realCodecsRoundTripWithZstd() {
+        assertRealCodecsRoundTrip(new ZstdRedisValueCompressor(3), ZstdRedisValueCompressor.ZSTD_HEADER);
+    }
+
+    @Test
+    void compressedJsonWithoutHeaderIsReadAfterSwitchingToSmile() {
+        Map<String, Object> value = businessValue(200);
+        RedisValueSerializer jsonWriter = TestRedisCodecs.jsonSerializer();
+        jsonWriter.setWriteCompressor(new Lz4RedisValueCompressor(), THRESHOLD);
+        byte[] compressed = jsonWriter.serialize(value);
+        assertEquals(Lz4RedisValueCompressor.LZ4_HEADER, compressed[0]);
+
+        RedisValueSerializer smileReader = TestRedisCodecs.smileSerializer();
+        smileReader.registerCompressor(new Lz4RedisValueCompressor());
+
+        // 解压之后没有头部字节, 仍然按照历史的 JSON 解析
+        assertEquals(value, smileReader.deserialize(compressed));
+    }
+
+    private static void assertRealCodecsRoundTrip(RedisValueCompressor compressor, byte header) {
+        Map<String, Object> value = businessValue(200);
+        for (RedisValueSerializer serializer : Arrays.asList(TestRedisCodecs.jsonSerializer(),
+                TestRedisCodecs.smileSerializer())) {
+            serializer.setWriteCompressor(compressor, THRESHOLD);
+
+            byte[] bytes = serializer.serialize(value);
+
+            assertEquals(header, bytes[0]);
+            assertEquals(value, serializer.deserialize(bytes));
+
+            ByteBuf target = Unpooled.buffer();
+            serializer.serialize(value, target);
+            byte[] byteBufBytes = new byte[target.readableBytes()];
+            target.readBytes(byteBufBytes);
+            target.release();
+            assertEquals(header, byteBufBytes[0]);
+            assertEquals(value, serializer.deserialize(byteBufBytes));
+        }
+    }
+
+    /**
+     * 接近业务数据的对象, 包含嵌套的集合, 时间和数字
+     */
+    private static Map<String, Object> businessValue(int itemCount) {
+        List<Map<String, Object>> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("sku_id", 10_000L + i);
+            item.put("title", "item-" + i % 10);
+            item.put("price", new BigDecimal("19.90"));
+            items.add(item);
+        }
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("order_id", 29L);
+        value.put("created_at", LocalDateTime.of(2026, 10, 17, 23, 59));
+        value.put("items", items);
+        return value;
+    }
+
+    private static void assertFrameRoundTrip(RedisValueCompressor compressor, byte header) {
+        RedisValueSerializer serializer = serializer();
+        serializer.setWriteCompressor(compressor, THRESHOLD);
+        int encodedLength = LARGE_VALUE.length() + 1;
+
+        byte[] bytes = serializer.serialize(LARGE_VALUE);
+
+        // [头部字节][原始长度, 4 个字节][压缩后的数据]
+        assertEquals(header, bytes[0]);
+        assertEquals(encodedLength, RedisValueCompressor.readOriginalLength(bytes));
+        assertTrue(bytes.length < encodedLength);
+        assertEquals(LARGE_VALUE, serializer.deserialize(bytes));
+
+        RedisCompressionStats compressionStats = serializer.getCompressionStats();
+        assertEquals(1L, compressionStats.getCompressCount());
+        assertEquals(1L, compressionStats.getDecompressCount());
+    }
+
+    private static RedisValueSerializer serializer() {
+        return new RedisValueSerializer(new HeaderStringCodec(), new LegacyStringCodec(), new HeaderStringCodec());
+    }
+
+    private static String repeat(String value, int count) {
+        StringBuilder builder = new StringBuilder(value.length() * count);
+        for (int i = 0; i < count; i++) {
+            builder.append(value).append(i % 10);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 带头部字节的字符串编码
+     */
+    private final static class HeaderStringCodec implements RedisValueCodec {
+
+        private final byte header;
+
+        private HeaderStringCodec() {
+            this(STRING_HEADER);
+        }
+
+        private HeaderStringCodec(byte header) {
+            this.header = header;
+        }
+
+        @Override
+        public byte header() {
+            return header;
+        }
+
+        @Override
+        public byte[] encode(Object value) {
+            byte[] body = ((String) value).getBytes(StandardCharsets.UTF_8);
+            byte[] bytes = new byte[body.length + 1];
+            bytes[0] = header;
+            System.arraycopy(body, 0, bytes, 1, body.length);
+            return bytes;
+        }
+
+        @Override
+        public Object decode(byte[] bytes, int offset, int length) {
+            return new String(bytes, offset, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 没有头部字节的历史编码
+     */
+    private final static class LegacyStringCodec implements RedisValueCodec {
+
+        @Override
+        public byte header() {
+            return NO_HEADER;
+        }
+
+        @Override
+        public byte[] encode(Object value) {
+            return ((String) value).getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Object decode(byte[] bytes, int offset, int length) {
+            return new String(bytes, offset, length, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package io.github.lcn29.starter.redis.codec;
+
+import io.github.lcn29.starter.redis.cache.RedisExpireCache;
+import io.github.lcn29.starter.redis.cache.RedisNullValue;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <pre>
+ * SmileRedisValueCodec, ShortTypeResolverBuilder, ShortTypeIdResolver 和 RedisTypeIdTable 的测试
+ * 使用和 RedisConfig 一致配置的 ObjectMapper, 检查注册过的类型写入短 ID, 没有注册的类型仍然写入全限定名
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 23:59
+ */
+class SmileRedisValueCodecTest {
+
+    private final static String PROFILE_CLASS_NAME = Profile.class.getName();
+
+    @Test
+    void nullValueRoundTripWithShortId() {
+        SmileRedisValueCodec codec = TestRedisCodecs.smileCodec();
+
+        byte[] bytes = codec.encode(RedisNullValue.INSTANCE);
+
+        assertEquals(SmileRedisValueCodec.SMILE_HEADER, bytes[0]);
+        assertFalse(TestRedisCodecs.contains(bytes, RedisNullValue.class.getName()));
+        assertSame(RedisNullValue.INSTANCE, decode(codec, bytes));
+    }
+
+    @Test
+    void expireCacheRoundTripWithShortId() {
+        SmileRedisValueCodec codec = TestRedisCodecs.smileCodec();
+        RedisExpireCache expireCache = new RedisExpireCache();
+        expireCache.setRedisKey("user:1");
+        expireCache.setRedisValue("value");
+        expireCache.setExpireTime(30L);
+        expireCache.setExpireUnit(TimeUnit.SECONDS);
+        expireCache.setComputeCost(12L);
+        expireCache.setExpireAt(1792252800000L);
+
+        byte[] bytes = codec.encode(expireCache);
+
+        assertFalse(TestRedisCodecs.contains(bytes, RedisExpireCache.class.getName()));
+        assertFalse(TestRedisCodecs.contains(bytes, TimeUnit.class.getName()));
+        RedisExpireCache decoded = assertInstanceOf(RedisExpireCache.class, decode(codec, bytes));
+        assertEquals("user:1", decoded.getRedisKey());
+        assertEquals("value", decoded.getRedisValue());
+        assertEquals(30L, decoded.getExpireTime());
+        assertEquals(TimeUnit.SECONDS, decoded.getExpireUnit());
+        assertEquals(12L, decoded.getComputeCost());
+        assertEquals(1792252800000L, decoded.getExpireAt());
+    }
+
+    @Test
+    void arraysAsListRoundTripWithShortId() {
+        SmileRedisValueCodec codec = TestRedisCodecs.smileCodec();
+        List<String> value = Arrays.asList("a", "b", "c");
+
+        byte[] bytes = codec.encode(value);
+
+        assertFalse(TestRedisCodecs.contains(bytes, "java.util.Arrays$ArrayList"));
+        assertEquals(value, decode(codec, bytes));
+    }
+
+    @Test
+    void javaTimeAndNumbersRoundTripWithShortId() {
+        SmileRedisValueCodec codec = TestRedisCodecs.smileCodec();
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("created_at", LocalDateTime.of(2026, 10, 17, 23, 59, 1));
+        value.put("birthday", LocalDate.of(2000, 1, 1));
+        value.put("amount", new BigDecimal("12.50"));
+        value.put("count", 3L);
+
+        byte[] bytes = codec.encode(value);
+
+        assertFalse(TestRedisCodecs.contains(bytes, "java.time.LocalDateTime"));
+        assertFalse(TestRedisCodecs.contains(bytes, "java.math.BigDecimal"));
+        assertFalse(TestRedisCodecs.contains(bytes, "java.util.LinkedHashMap"));
+        assertEquals(value, decode(codec, bytes));
+    }
+
+    @Test
+    void unregisteredClassFallsBackToClassName() {
+        SmileRedisValueCodec codec = TestRedisCodecs.smileCodec();
+        Profile profile = new Profile("lcn", 29);
+
+        byte[] bytes = codec.encode(profile);
+
+        assertTrue(TestRedisCodecs.contains(bytes, PROFILE_CLASS_NAME));
+        assertEquals(profile, decode(codec, bytes));
+    }
+
+    @Test
+    void userRegisteredClassUsesShortId() {
+        SmileRedisValueCodec codec = TestRedisCodecs.smileCodec(Collections.singletonMap(100, PROFILE_CLASS_NAME));
+        Profile profile = new Profile("lcn", 29);
+
+        byte[] bytes = codec.encode(profile);
+
+        assertFalse(TestRedisCodecs.contains(bytes, PROFILE_CLASS_NAME));
+        assertEquals(profile, decode(codec, bytes));
+        // 没有注册这个 ID 的实例无法识别, 注册表需要在所有实例之间保持一致
+        assertThrows(RuntimeException.class, () -> decode(TestRedisCodecs.smileCodec(), bytes));
+    }
+
+    @Test
+    void streamEncodingMatchesArrayEncoding() throws Exception {
+        SmileRedisValueCodec codec = TestRedisCodecs.smileCodec();
+        Profile profile = new Profile("lcn", 29);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        codec.encode(profile, outputStream);
+
+        assertArrayEquals(codec.encode(profile), outputStream.toByteArray());
+    }
+
+    @Test
+    void typeIdTableLookups() {
+        RedisTypeIdTable redisTypeIdTable = new RedisTypeIdTable(Collections.singletonMap(100, PROFILE_CLASS_NAME));
+
+        assertEquals("1", redisTypeIdTable.idOf("java.util.ArrayList"));
+        assertEquals("java.util.ArrayList", redisTypeIdTable.classNameOf("1"));
+        assertEquals("100", redisTypeIdTable.idOf(PROFILE_CLASS_NAME));
+        assertEquals(PROFILE_CLASS_NAME, redisTypeIdTable.classNameOf("100"));
+        // 没有注册的类名和 ID 原样返回
+        assertEquals("com.example.Unknown", redisTypeIdTable.idOf("com.example.Unknown"));
+        assertEquals("com.example.Unknown", redisTypeIdTable.classNameOf("com.example.Unknown"));
+    }
+
+    @Test
+    void invalidUserTypeIdsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new RedisTypeIdTable(Collections.singletonMap(99, PROFILE_CLASS_NAME)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new RedisTypeIdTable(Collections.singletonMap(100, "java.util.ArrayList")));
+
+        Map<Integer, String> duplicated = new HashMap<>();
+        duplicated.put(100, PROFILE_CLASS_NAME);
+        duplicated.put(101, PROFILE_CLASS_NAME);
+        assertThrows(IllegalArgumentException.class, () -> new RedisTypeIdTable(duplicated));
+    }
+
+    @Test
+    void legacyJsonIsDecodedAfterSwitchingToSmile() {
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("profile", new Profile("lcn", 29));
+        value.put("tags", Arrays.asList("a", "b"));
+        value.put("updated_at", LocalDateTime.of(2026, 10, 17, 23, 59));
+        // 切换之前由 Jackson2JsonRedisSerializer 直接写入的数据, 没有头部字节
+        byte[] legacyBytes = TestRedisCodecs.jackson2JsonRedisSerializer().serialize(value);
+
+        RedisValueSerializer serializer = TestRedisCodecs.smileSerializer();
+
+        assertEquals(value, serializer.deserialize(legacyBytes));
+        assertEquals(SmileRedisValueCodec.SMILE_HEADER, serializer.serialize(value)[0]);
+        assertEquals(value, serializer.deserialize(serializer.serialize(value)));
+    }
+
+    private static Object decode(SmileRedisValueCodec codec, byte[] bytes) {
+        return codec.decode(bytes, 1, bytes.length - 1);
+    }
+
+    /**
+     * 没有注册短 ID 的业务对象
+     */
+    static class Profile {
+
+        private String userName;
+
+        private int age;
+
+        Profile() {
+        }
+
+        Profile(String userName, int age) {
+            this.userName = userName;
+            this.age = age;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Profile profile = (Profile) o;
+            return age == profile.age && Objects.equals(userName, profile.userName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userName, age);
+        }
+    }
+}
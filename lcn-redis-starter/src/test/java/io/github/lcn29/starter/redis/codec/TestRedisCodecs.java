@@ -0,0 +1,101 @@
+package io.github.lcn29.starter.redis.codec;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * <pre>
+ * 测试使用的真实编解码, ObjectMapper 的配置和 RedisConfig 中的保持一致
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 23:59
+ */
+final class TestRedisCodecs {
+
+    private TestRedisCodecs() {
+    }
+
+    /**
+     * 历史的 Jackson2JsonRedisSerializer, 没有头部字节
+     */
+    static Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer() {
+        Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer = new Jackson2JsonRedisSerializer<>(Object.class);
+        jackson2JsonRedisSerializer.setObjectMapper(jsonObjectMapper());
+        return jackson2JsonRedisSerializer;
+    }
+
+    static JsonRedisValueCodec jsonCodec() {
+        return new JsonRedisValueCodec(jackson2JsonRedisSerializer(), jsonObjectMapper());
+    }
+
+    static SmileRedisValueCodec smileCodec() {
+        return smileCodec(Collections.emptyMap());
+    }
+
+    static SmileRedisValueCodec smileCodec(Map<Integer, String> userTypeIds) {
+        ObjectMapper smileObjectMapper = new ObjectMapper(new SmileFactory());
+        smileObjectMapper.setDefaultTyping(new ShortTypeResolverBuilder(new RedisTypeIdTable(userTypeIds)));
+        return new SmileRedisValueCodec(configure(smileObjectMapper));
+    }
+
+    /**
+     * 写入 JSON 的序列化器, 和 lcn.redis.codec.type=JSON 一致
+     */
+    static RedisValueSerializer jsonSerializer() {
+        JsonRedisValueCodec jsonCodec = jsonCodec();
+        return new RedisValueSerializer(jsonCodec, jsonCodec, smileCodec());
+    }
+
+    /**
+     * 写入 Smile 的序列化器, 和 lcn.redis.codec.type=SMILE 一致, 仍然可以读取历史的 JSON
+     */
+    static RedisValueSerializer smileSerializer() {
+        SmileRedisValueCodec smileCodec = smileCodec();
+        return new RedisValueSerializer(smileCodec, jsonCodec(), smileCodec);
+    }
+
+    /**
+     * 编码结果中是否包含某个字符串, Smile 中的短字符串以原始的 UTF-8 字节写入
+     */
+    static boolean contains(byte[] bytes, String value) {
+        byte[] target = value.getBytes(StandardCharsets.UTF_8);
+        outer:
+        for (int i = 0; i + target.length <= bytes.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (bytes[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static ObjectMapper jsonObjectMapper() {
+        ObjectMapper jsonObjectMapper = new ObjectMapper();
+        jsonObjectMapper.activateDefaultTyping(
+                LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.EVERYTHING, JsonTypeInfo.As.PROPERTY);
+        return configure(jsonObjectMapper);
+    }
+
+    private static ObjectMapper configure(ObjectMapper objectMapper) {
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.setPropertyNamingStrategy(PropertyNamingStrategy.SNAKE_CASE);
+        return objectMapper;
+    }
+}
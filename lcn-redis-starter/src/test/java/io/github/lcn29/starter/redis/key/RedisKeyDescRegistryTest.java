@@ -0,0 +1,106 @@
+package io.github.lcn29.starter.redis.key;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * <pre>
+ * RedisKeyDescRegistry 测试, 注册表是全局的, 测试的格式都使用 reg: 开头, 避免和其他测试冲突
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 23:59
+ */
+class RedisKeyDescRegistryTest {
+
+    @BeforeAll
+    static void register() {
+        RedisKeyDescRegistry.register(TestKeyDesc.class);
+    }
+
+    @Test
+    void scanPatternReplacesPlaceholders() {
+        assertEquals("reg:user:*", RedisKeyDescRegistry.scanPattern(TestKeyDesc.USER));
+        assertEquals("reg:user:*:orders", RedisKeyDescRegistry.scanPattern(TestKeyDesc.USER_ORDERS));
+        assertEquals("reg:config", RedisKeyDescRegistry.scanPattern(TestKeyDesc.CONFIG));
+    }
+
+    @Test
+    void scanPatternKeepsEscapedPercentLiteral() {
+        assertEquals("reg:rate:100%:*", RedisKeyDescRegistry.scanPattern(TestKeyDesc.PERCENT));
+    }
+
+    @Test
+    void scanPatternEscapesGlobCharacters() {
+        assertEquals("reg:\\[tag\\]:\\*:\\?:\\\\:*", RedisKeyDescRegistry.scanPattern(TestKeyDesc.GLOB));
+    }
+
+    @Test
+    void scanPatternTreatsWholeSpecifierAsPlaceholder() {
+        assertEquals("reg:idx:*:*", RedisKeyDescRegistry.scanPattern(TestKeyDesc.INDEXED));
+        assertEquals("reg:num:*:end", RedisKeyDescRegistry.scanPattern(TestKeyDesc.PADDED));
+    }
+
+    @Test
+    void resolvePrefersValuesWithoutDelimiter() {
+        assertSame(TestKeyDesc.USER, RedisKeyDescRegistry.resolve("reg:user:1"));
+        assertSame(TestKeyDesc.USER_ORDERS, RedisKeyDescRegistry.resolve("reg:user:1:orders"));
+        // 占位符的值中包含分隔符时, 退回按照静态片段的长度匹配
+        assertSame(TestKeyDesc.USER_ORDERS, RedisKeyDescRegistry.resolve("reg:user:a:b:orders"));
+        assertSame(TestKeyDesc.USER, RedisKeyDescRegistry.resolve("reg:user:a:b"));
+    }
+
+    @Test
+    void resolveUsesSameSegmentsAsScanPattern() {
+        assertSame(TestKeyDesc.PERCENT, RedisKeyDescRegistry.resolve(String.format(TestKeyDesc.PERCENT.desc(), "api")));
+        assertSame(TestKeyDesc.CONFIG, RedisKeyDescRegistry.resolve("reg:config"));
+        assertSame(TestKeyDesc.INDEXED, RedisKeyDescRegistry.resolve(String.format(TestKeyDesc.INDEXED.desc(), "a", "b")));
+        assertSame(TestKeyDesc.PADDED, RedisKeyDescRegistry.resolve(String.format(TestKeyDesc.PADDED.desc(), 7)));
+        assertNull(RedisKeyDescRegistry.resolve("reg:unknown"));
+        assertNull(RedisKeyDescRegistry.resolve(null));
+    }
+
+    @Test
+    void familyUsesEnumName() {
+        assertEquals("TestKeyDesc.USER", RedisKeyDescRegistry.family(TestKeyDesc.USER));
+        assertEquals("reg:plain:%s", RedisKeyDescRegistry.family(() -> "reg:plain:%s"));
+    }
+
+    @Test
+    void nonEnumClassIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> RedisKeyDescRegistry.register(RedisKeyDesc.class));
+    }
+
+    private enum TestKeyDesc implements RedisKeyDesc {
+
+        USER("reg:user:%s"),
+
+        USER_ORDERS("reg:user:%s:orders"),
+
+        CONFIG("reg:config"),
+
+        PERCENT("reg:rate:100%%:%s"),
+
+        GLOB("reg:[tag]:*:?:\\:%s"),
+
+        INDEXED("reg:idx:%2$s:%1$s"),
+
+        PADDED("reg:num:%05d:end");
+
+        private final String desc;
+
+        TestKeyDesc(String desc) {
+            this.desc = desc;
+        }
+
+        @Override
+        public String desc() {
+            return desc;
+        }
+    }
+}
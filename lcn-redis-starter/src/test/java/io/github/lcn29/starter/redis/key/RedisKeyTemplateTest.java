@@ -0,0 +1,95 @@
+package io.github.lcn29.starter.redis.key;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.MissingFormatArgumentException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * <pre>
+ * RedisKeyTemplate 测试, 拼接的结果和 String.format 逐一对比
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 23:59
+ */
+class RedisKeyTemplateTest {
+
+    @Test
+    void compiledFormatMatchesStringFormat() {
+        assertFormatMatches(TestKeyDesc.USER, "10086");
+        assertFormatMatches(TestKeyDesc.USER_ORDER, "10086", "202610172210");
+        assertFormatMatches(TestKeyDesc.USER_ORDER, "用户", "订单");
+        assertFormatMatches(TestKeyDesc.USER_ORDER, null, "1");
+        assertFormatMatches(TestKeyDesc.PERCENT, "50");
+        assertFormatMatches(TestKeyDesc.FIXED);
+        // 多余的值被忽略
+        assertFormatMatches(TestKeyDesc.USER, "1", "2");
+    }
+
+    @Test
+    void unsupportedSpecifierFallsBackToStringFormat() {
+        RedisKeyTemplate template = RedisKeyTemplate.of(TestKeyDesc.INDEXED);
+
+        assertEquals(-1, template.placeholderCount());
+        assertEquals("idx:b:a", template.format("a", "b"));
+    }
+
+    @Test
+    void missingArgumentIsRejectedLikeStringFormat() {
+        RedisKeyTemplate template = RedisKeyTemplate.of(TestKeyDesc.USER_ORDER);
+
+        assertThrows(MissingFormatArgumentException.class, () -> String.format(TestKeyDesc.USER_ORDER.desc(), "1"));
+        assertThrows(MissingFormatArgumentException.class, () -> template.format("1"));
+    }
+
+    @Test
+    void templateIsCompiledOnceAndRegistered() {
+        RedisKeyTemplate template = RedisKeyTemplate.of(TestKeyDesc.USER_ORDER);
+
+        assertSame(template, RedisKeyTemplate.of(TestKeyDesc.USER_ORDER));
+        assertEquals(2, template.placeholderCount());
+        assertSame(TestKeyDesc.USER_ORDER, RedisKeyDescRegistry.resolve(template.format("1", "2")));
+    }
+
+    @Test
+    void parseSplitsSegments() {
+        assertEquals(Arrays.asList("user:", ":order:", ""), RedisKeyTemplate.parse("user:%s:order:%s"));
+        assertEquals(Arrays.asList("rate:%:", ""), RedisKeyTemplate.parse("rate:%%:%s"));
+        assertNull(RedisKeyTemplate.parse("idx:%d"));
+        assertNull(RedisKeyTemplate.parse("broken:%"));
+    }
+
+    private static void assertFormatMatches(RedisKeyDesc redisKeyDesc, String... masks) {
+        assertEquals(String.format(redisKeyDesc.desc(), (Object[]) masks), RedisKeyTemplate.of(redisKeyDesc).format(masks));
+    }
+
+    private enum TestKeyDesc implements RedisKeyDesc {
+
+        USER("tpl:user:%s"),
+
+        USER_ORDER("tpl:user:%s:order:%s"),
+
+        PERCENT("tpl:rate:%%:%s"),
+
+        FIXED("tpl:config"),
+
+        INDEXED("idx:%2$s:%1$s");
+
+        private final String desc;
+
+        TestKeyDesc(String desc) {
+            this.desc = desc;
+        }
+
+        @Override
+        public String desc() {
+            return desc;
+        }
+    }
+}
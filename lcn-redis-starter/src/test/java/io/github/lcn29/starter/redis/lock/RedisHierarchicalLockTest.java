@@ -0,0 +1,380 @@
+package io.github.lcn29.starter.redis.lock;
+
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RFuture;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <pre>
+ * RedisHierarchicalLock 测试
+ * RedissonClient, RLock 和 RFuture 通过动态代理实现, Redis 锁用内存中的持有者和重入计数代替
+ * 加锁不等待, 被其他持有者持有时直接返回 false
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 23:58
+ */
+class RedisHierarchicalLockTest {
+
+    private final static String LOCK_KEY = "lock:order:1";
+
+    private final FakeRedisson fakeRedisson = new FakeRedisson();
+
+    @Test
+    void reentrantLockUsesRedisOnce() throws Exception {
+        RedisHierarchicalLock lock = lock(10);
+
+        assertTrue(lock.tryLock(LOCK_KEY, 1, 0, TimeUnit.SECONDS));
+        assertTrue(lock.tryLock(LOCK_KEY, 1, 0, TimeUnit.SECONDS));
+        assertTrue(lock.isHeldByCurrentThread(LOCK_KEY));
+
+        assertTrue(lock.unlock(LOCK_KEY));
+        assertTrue(lock.isHeldByCurrentThread(LOCK_KEY));
+        assertEquals(0, fakeRedisson.remote(LOCK_KEY).unlockCalls);
+
+        assertTrue(lock.unlock(LOCK_KEY));
+        assertFalse(lock.isHeldByCurrentThread(LOCK_KEY));
+        assertEquals(1, fakeRedisson.remote(LOCK_KEY).lockCalls);
+        assertEquals(1, fakeRedisson.remote(LOCK_KEY).unlockCalls);
+        assertNull(fakeRedisson.remote(LOCK_KEY).owner);
+    }
+
+    @Test
+    void unlockWithoutHoldingReturnsFalse() {
+        RedisHierarchicalLock lock = lock(10);
+
+        assertFalse(lock.unlock(LOCK_KEY));
+        assertEquals(0, fakeRedisson.remote(LOCK_KEY).unlockCalls);
+    }
+
+    @Test
+    void autoRenewLockIsHandedOffToQueuedThread() throws Exception {
+        RedisHierarchicalLock lock = lock(10);
+        assertTrue(lock.tryLock(LOCK_KEY, 1, 0, TimeUnit.SECONDS));
+
+        Waiter waiter = Waiter.start(lock, 5000, 0);
+        waiter.awaitQueued();
+        assertTrue(lock.unlock(LOCK_KEY));
+
+        assertTrue(waiter.awaitResult());
+        // 交接时 Redis 锁没有释放, 也没有重新加锁
+        assertEquals(1, fakeRedisson.remote(LOCK_KEY).lockCalls);
+        assertEquals(0, fakeRedisson.remote(LOCK_KEY).unlockCalls);
+        assertNotNull(fakeRedisson.remote(LOCK_KEY).owner);
+
+        waiter.unlock();
+        assertEquals(1, fakeRedisson.remote(LOCK_KEY).unlockCalls);
+        assertNull(fakeRedisson.remote(LOCK_KEY).owner);
+    }
+
+    @Test
+    void fixedLeaseLockIsReleasedOnRedis() throws Exception {
+        RedisHierarchicalLock lock = lock(10);
+        assertTrue(lock.tryLock(LOCK_KEY, 1, 30, TimeUnit.SECONDS));
+        assertEquals(TimeUnit.SECONDS.toMillis(30), fakeRedisson.remote(LOCK_KEY).lastLeaseMillis);
+
+        Waiter waiter = Waiter.start(lock, 5000, 30_000);
+        waiter.awaitQueued();
+        assertTrue(lock.unlock(LOCK_KEY));
+
+        assertTrue(waiter.awaitResult());
+        assertEquals(2, fakeRedisson.remote(LOCK_KEY).lockCalls);
+        assertEquals(1, fakeRedisson.remote(LOCK_KEY).unlockCalls);
+
+        waiter.unlock();
+        assertEquals(2, fakeRedisson.remote(LOCK_KEY).unlockCalls);
+        assertNull(fakeRedisson.remote(LOCK_KEY).owner);
+    }
+
+    @Test
+    void fixedLeaseWaiterDoesNotInheritAutoRenewLock() throws Exception {
+        RedisHierarchicalLock lock = lock(10);
+        assertTrue(lock.tryLock(LOCK_KEY, 1, 0, TimeUnit.SECONDS));
+        assertEquals(-1L, fakeRedisson.remote(LOCK_KEY).lastLeaseMillis);
+
+        Waiter waiter = Waiter.start(lock, 5000, 30_000);
+        waiter.awaitQueued();
+        assertTrue(lock.unlock(LOCK_KEY));
+
+        // 自动续期的锁交接给了本地线程, 等待者在 Redis 上释放后按照自己的持有时间重新加锁
+        assertTrue(waiter.awaitResult());
+        assertEquals(2, fakeRedisson.remote(LOCK_KEY).lockCalls);
+        assertEquals(1, fakeRedisson.remote(LOCK_KEY).unlockCalls);
+        assertEquals(30_000L, fakeRedisson.remote(LOCK_KEY).lastLeaseMillis);
+
+        waiter.unlock();
+        assertEquals(2, fakeRedisson.remote(LOCK_KEY).unlockCalls);
+        assertNull(fakeRedisson.remote(LOCK_KEY).owner);
+    }
+
+    @Test
+    void zeroMaxHandoffsDisablesHandoff() throws Exception {
+        RedisHierarchicalLock lock = lock(0);
+        assertTrue(lock.tryLock(LOCK_KEY, 1, 0, TimeUnit.SECONDS));
+
+        Waiter waiter = Waiter.start(lock, 5000, 0);
+        waiter.awaitQueued();
+        assertTrue(lock.unlock(LOCK_KEY));
+
+        assertTrue(waiter.awaitResult());
+        assertEquals(2, fakeRedisson.remote(LOCK_KEY).lockCalls);
+        assertEquals(1, fakeRedisson.remote(LOCK_KEY).unlockCalls);
+        waiter.unlock();
+    }
+
+    @Test
+    void lockHeldByOtherInstanceFailsAndReleasesLocalLock() throws Exception {
+        RedisHierarchicalLock lock = lock(10);
+        fakeRedisson.remote(LOCK_KEY).owner = 42L;
+
+        assertFalse(lock.tryLock(LOCK_KEY, 1, 0, TimeUnit.SECONDS));
+        assertFalse(lock.isHeldByCurrentThread(LOCK_KEY));
+
+        fakeRedisson.remote(LOCK_KEY).owner = null;
+        assertTrue(lock.tryLock(LOCK_KEY, 1, 0, TimeUnit.SECONDS));
+        assertTrue(lock.unlock(LOCK_KEY));
+        assertNull(fakeRedisson.remote(LOCK_KEY).owner);
+    }
+
+    @Test
+    void remoteFailureReturnsFalse() throws Exception {
+        RedisHierarchicalLock lock = lock(10);
+        fakeRedisson.remote(LOCK_KEY).failNext.set(true);
+
+        assertFalse(lock.tryLock(LOCK_KEY, 1, 0, TimeUnit.SECONDS));
+        assertFalse(lock.isHeldByCurrentThread(LOCK_KEY));
+        assertNull(fakeRedisson.remote(LOCK_KEY).owner);
+
+        assertTrue(lock.tryLock(LOCK_KEY, 1, 0, TimeUnit.SECONDS));
+        assertTrue(lock.unlock(LOCK_KEY));
+    }
+
+    @Test
+    void localWaitTimeoutDoesNotTouchRedis() throws Exception {
+        RedisHierarchicalLock lock = lock(10);
+        assertTrue(lock.tryLock(LOCK_KEY, 1, 0, TimeUnit.SECONDS));
+
+        Waiter waiter = Waiter.start(lock, 50, 0);
+        assertFalse(waiter.awaitResult());
+        assertEquals(1, fakeRedisson.remote(LOCK_KEY).lockCalls);
+
+        // 等待的线程已经放弃, 释放时没有可以交接的线程
+        assertTrue(lock.unlock(LOCK_KEY));
+        assertEquals(1, fakeRedisson.remote(LOCK_KEY).unlockCalls);
+        assertNull(fakeRedisson.remote(LOCK_KEY).owner);
+    }
+
+    @Test
+    void releasedKeyGetsNewOwnerId() throws Exception {
+        RedisHierarchicalLock lock = lock(10);
+
+        assertTrue(lock.tryLock(LOCK_KEY, 1, 0, TimeUnit.SECONDS));
+        assertTrue(lock.unlock(LOCK_KEY));
+        assertTrue(lock.tryLock(LOCK_KEY, 1, 0, TimeUnit.SECONDS));
+        assertTrue(lock.unlock(LOCK_KEY));
+
+        List<Long> lockOwners = fakeRedisson.remote(LOCK_KEY).lockOwners;
+        assertEquals(2, lockOwners.size());
+        assertTrue(lockOwners.get(0) < 0L);
+        assertNotEquals(lockOwners.get(0), lockOwners.get(1));
+    }
+
+    private RedisHierarchicalLock lock(int maxHandoffs) {
+        LcnRedisProperty.LocalLock localLock = new LcnRedisProperty.LocalLock();
+        localLock.setEnabled(true);
+        localLock.setMaxHandoffs(maxHandoffs);
+        return new RedisHierarchicalLock(localLock, fakeRedisson.client());
+    }
+
+    /**
+     * 在另一个线程中加锁, 拿到锁之后一直持有, 直到调用 unlock
+     */
+    private final static class Waiter {
+
+        private final Thread thread;
+
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        private final CompletableFuture<Void> release = new CompletableFuture<>();
+
+        private final CompletableFuture<Boolean> unlocked = new CompletableFuture<>();
+
+        private Waiter(RedisHierarchicalLock lock, long waitMillis, long leaseMillis) {
+            this.thread = new Thread(() -> {
+                try {
+                    boolean locked = lock.tryLock(LOCK_KEY, waitMillis, leaseMillis, TimeUnit.MILLISECONDS);
+                    result.complete(locked);
+                    if (locked) {
+                        release.join();
+                        unlocked.complete(lock.unlock(LOCK_KEY));
+                    }
+                } catch (Throwable ex) {
+                    result.completeExceptionally(ex);
+                    unlocked.completeExceptionally(ex);
+                }
+            }, "lock-waiter");
+            this.thread.setDaemon(true);
+        }
+
+        private static Waiter start(RedisHierarchicalLock lock, long waitMillis, long leaseMillis) {
+            Waiter waiter = new Waiter(lock, waitMillis, leaseMillis);
+            waiter.thread.start();
+            return waiter;
+        }
+
+        /**
+         * 等待线程在本地锁上排队, tryLock 带超时的等待是 TIMED_WAITING
+         */
+        private void awaitQueued() throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (thread.getState() != Thread.State.TIMED_WAITING) {
+                if (System.nanoTime() - deadline > 0L) {
+                    throw new IllegalStateException("Waiter not queued, state: " + thread.getState());
+                }
+                Thread.sleep(1L);
+            }
+        }
+
+        private boolean awaitResult() throws Exception {
+            return result.get(5, TimeUnit.SECONDS);
+        }
+
+        private void unlock() throws Exception {
+            release.complete(null);
+            assertTrue(unlocked.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * 内存中的 Redisson, 每个 Key 一个 RemoteLock
+     */
+    private final static class FakeRedisson {
+
+        private final Map<String, RemoteLock> remoteLockMap = new ConcurrentHashMap<>();
+
+        private RemoteLock remote(String redisLockKey) {
+            return remoteLockMap.computeIfAbsent(redisLockKey, key -> new RemoteLock());
+        }
+
+        private RedissonClient client() {
+            return proxy(RedissonClient.class, (method, args) -> {
+                if ("getLock".equals(method) && args.length == 1 && args[0] instanceof String) {
+                    return remote((String) args[0]).rLock();
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * 内存中的 Redis 锁, 按照持有者 ID 计算重入次数
+     */
+    private final static class RemoteLock {
+
+        private final List<Long> lockOwners = Collections.synchronizedList(new ArrayList<>());
+
+        private final AtomicBoolean failNext = new AtomicBoolean();
+
+        private volatile Long owner;
+
+        private int holdCount;
+
+        private int lockCalls;
+
+        private int unlockCalls;
+
+        private long lastLeaseMillis;
+
+        private RLock rLock() {
+            return proxy(RLock.class, (method, args) -> {
+                if ("tryLockAsync".equals(method) && args.length == 4) {
+                    TimeUnit timeUnit = (TimeUnit) args[2];
+                    return future(tryLock(timeUnit.toMillis((Long) args[1]), (Long) args[3]));
+                }
+                if ("unlockAsync".equals(method) && args.length == 1) {
+                    return future(unlock((Long) args[0]));
+                }
+                return null;
+            });
+        }
+
+        private synchronized CompletableFuture<Boolean> tryLock(long leaseMillis, long ownerId) {
+            lockCalls++;
+            if (failNext.compareAndSet(true, false)) {
+                CompletableFuture<Boolean> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new IllegalStateException("Command timed out"));
+                return failed;
+            }
+            if (owner != null && owner != ownerId) {
+                return CompletableFuture.completedFuture(false);
+            }
+            owner = ownerId;
+            holdCount++;
+            lastLeaseMillis = leaseMillis;
+            lockOwners.add(ownerId);
+            return CompletableFuture.completedFuture(true);
+        }
+
+        private synchronized CompletableFuture<Void> unlock(long ownerId) {
+            unlockCalls++;
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            if (owner == null || owner != ownerId) {
+                future.completeExceptionally(new IllegalMonitorStateException("Not locked by owner: " + ownerId));
+                return future;
+            }
+            if (--holdCount == 0) {
+                owner = null;
+            }
+            future.complete(null);
+            return future;
+        }
+    }
+
+    private interface ProxyHandler {
+
+        Object invoke(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, ProxyHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Object[] arguments = args == null ? new Object[0] : args;
+            if ("toString".equals(method.getName()) && arguments.length == 0) {
+                return "Fake" + type.getSimpleName();
+            }
+            Object result = handler.invoke(method.getName(), arguments);
+            if (result == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "#" + method.getName());
+            }
+            return result;
+        });
+    }
+
+    /**
+     * 只实现 toCompletableFuture 的 RFuture
+     */
+    private static <V> RFuture<V> future(CompletableFuture<V> completableFuture) {
+        @SuppressWarnings("unchecked")
+        RFuture<V> future = proxy(RFuture.class, (method, args) -> "toCompletableFuture".equals(method) ? completableFuture : null);
+        return future;
+    }
+}
@@ -0,0 +1,115 @@
+package io.github.lcn29.starter.redis.metrics;
+
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * <pre>
+ * MicrometerRedisMetrics 测试
+ * 指标记录到 SimpleMeterRegistry, 没有注册 RedisKeyDesc, 所有的 Key 族都为 unknown
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 23:59
+ */
+class MicrometerRedisMetricsTest {
+
+    private final static String LOCK_KEY = "lock:order:1";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void errorCounterIsReusedPerOperationAndException() {
+        MicrometerRedisMetrics redisMetrics = redisMetrics(60_000L);
+
+        redisMetrics.recordError("get", "user:1", new IllegalStateException("timeout"));
+        Counter counter = errorCounter("get", "IllegalStateException");
+        redisMetrics.recordError("get", "user:2", new IllegalStateException("timeout"));
+        redisMetrics.recordError("get", "user:3", new IllegalArgumentException("too large"));
+
+        assertSame(counter, errorCounter("get", "IllegalStateException"));
+        assertEquals(2.0D, counter.count());
+        assertEquals(1.0D, errorCounter("get", "IllegalArgumentException").count());
+    }
+
+    @Test
+    void reentrantHoldIsRecordedOnLastRelease() {
+        MicrometerRedisMetrics redisMetrics = redisMetrics(60_000L);
+
+        redisMetrics.recordLockWait(LOCK_KEY, redisMetrics.startNanos(), true);
+        redisMetrics.recordLockWait(LOCK_KEY, redisMetrics.startNanos(), true);
+        redisMetrics.recordLockRelease(LOCK_KEY);
+
+        assertNull(holdTimer());
+
+        redisMetrics.recordLockRelease(LOCK_KEY);
+        assertEquals(1L, holdTimer().count());
+
+        // 多余的释放没有对应的持有记录
+        redisMetrics.recordLockRelease(LOCK_KEY);
+        assertEquals(1L, holdTimer().count());
+    }
+
+    @Test
+    void failedLockWaitIsNotTrackedAsHold() {
+        MicrometerRedisMetrics redisMetrics = redisMetrics(60_000L);
+
+        redisMetrics.recordLockWait(LOCK_KEY, redisMetrics.startNanos(), false);
+        redisMetrics.recordLockRelease(LOCK_KEY);
+
+        assertNull(holdTimer());
+        assertEquals(1L, meterRegistry.find("lcn.redis.lock.wait").tag("acquired", "false").timer().count());
+    }
+
+    @Test
+    void holdOlderThanMaxLockHoldIsDropped() throws Exception {
+        MicrometerRedisMetrics redisMetrics = redisMetrics(20L);
+
+        redisMetrics.recordLockWait(LOCK_KEY, redisMetrics.startNanos(), true);
+        Thread.sleep(100L);
+        redisMetrics.recordLockRelease(LOCK_KEY);
+
+        assertNull(holdTimer());
+    }
+
+    @Test
+    void holdIsTrackedPerThread() throws Exception {
+        MicrometerRedisMetrics redisMetrics = redisMetrics(60_000L);
+
+        redisMetrics.recordLockWait(LOCK_KEY, redisMetrics.startNanos(), true);
+        // 其他线程释放时找不到这个线程的持有记录
+        Thread releaser = new Thread(() -> redisMetrics.recordLockRelease(LOCK_KEY));
+        releaser.start();
+        releaser.join();
+        assertNull(holdTimer());
+
+        redisMetrics.recordLockRelease(LOCK_KEY);
+        assertEquals(1L, holdTimer().count());
+    }
+
+    private Counter errorCounter(String operation, String exception) {
+        return meterRegistry.find("lcn.redis.operation.errors")
+                .tag("operation", operation)
+                .tag("family", "unknown")
+                .tag("exception", exception)
+                .counter();
+    }
+
+    private Timer holdTimer() {
+        return meterRegistry.find("lcn.redis.lock.hold").timer();
+    }
+
+    private MicrometerRedisMetrics redisMetrics(long maxLockHoldMillis) {
+        LcnRedisProperty.Metrics metrics = new LcnRedisProperty.Metrics();
+        metrics.setHistogram(false);
+        metrics.setMaxLockHoldMillis(maxLockHoldMillis);
+        return new MicrometerRedisMetrics(meterRegistry, metrics);
+    }
+}
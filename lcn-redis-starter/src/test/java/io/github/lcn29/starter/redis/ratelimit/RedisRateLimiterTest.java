@@ -0,0 +1,199 @@
+package io.github.lcn29.starter.redis.ratelimit;
+
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <pre>
+ * RedisRateLimiter 测试
+ * Redis 中的令牌桶用内存中的计数器代替, 不补充令牌, 令牌不够时返回需要等待 1 秒
+ * 每次访问令牌桶的 min 和 max 都记录下来, 用于核对本地租约的计算
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 23:59
+ */
+class RedisRateLimiterTest {
+
+    private final static String RATE_LIMIT_KEY = "rate:api:1";
+
+    private final static RedisRateLimit RATE_LIMIT = RedisRateLimit.of(100, 1, TimeUnit.SECONDS, 100);
+
+    @Test
+    void localIssuanceNeverExceedsRemoteDeduction() {
+        FakeTokenBucket tokenBucket = new FakeTokenBucket(25);
+        RedisRateLimiter rateLimiter = rateLimiter(10, 60_000L, tokenBucket);
+
+        int acquired = 0;
+        for (int i = 0; i < 40; i++) {
+            acquired += rateLimiter.tryAcquire(RATE_LIMIT_KEY, 1, RATE_LIMIT) ? 1 : 0;
+        }
+
+        assertEquals(25, acquired);
+        assertEquals(25L, tokenBucket.granted.get());
+        // 10 + 10 + 5 个令牌的三次租用, 加上一次被限流, 限流期间不再访问 Redis
+        assertEquals(Arrays.asList(
+                Arrays.asList(1L, 10L), Arrays.asList(1L, 10L), Arrays.asList(1L, 10L), Arrays.asList(1L, 10L)),
+                tokenBucket.calls);
+    }
+
+    @Test
+    void leftoverIsMergedIntoNextLease() {
+        FakeTokenBucket tokenBucket = new FakeTokenBucket(100);
+        RedisRateLimiter rateLimiter = rateLimiter(10, 60_000L, tokenBucket);
+
+        assertTrue(rateLimiter.tryAcquire(RATE_LIMIT_KEY, 8, RATE_LIMIT));
+        // 本地剩余 2 个, 只需要再获取 3 到 8 个
+        assertTrue(rateLimiter.tryAcquire(RATE_LIMIT_KEY, 5, RATE_LIMIT));
+        assertEquals(Arrays.asList(Arrays.asList(8L, 10L), Arrays.asList(3L, 8L)), tokenBucket.calls);
+
+        // 2 + 8 - 5 = 5 个留在本地
+        assertTrue(rateLimiter.tryAcquire(RATE_LIMIT_KEY, 5, RATE_LIMIT));
+        assertEquals(2, tokenBucket.calls.size());
+        assertEquals(18L, tokenBucket.granted.get());
+    }
+
+    @Test
+    void expiredLeaseDiscardsLeftover() throws Exception {
+        FakeTokenBucket tokenBucket = new FakeTokenBucket(100);
+        RedisRateLimiter rateLimiter = rateLimiter(10, 1L, tokenBucket);
+
+        assertTrue(rateLimiter.tryAcquire(RATE_LIMIT_KEY, 1, RATE_LIMIT));
+        Thread.sleep(10L);
+        assertTrue(rateLimiter.tryAcquire(RATE_LIMIT_KEY, 1, RATE_LIMIT));
+
+        assertEquals(Arrays.asList(Arrays.asList(1L, 10L), Arrays.asList(1L, 10L)), tokenBucket.calls);
+    }
+
+    @Test
+    void permitsNotBelowLeaseSizeGoRemoteEveryTime() {
+        FakeTokenBucket tokenBucket = new FakeTokenBucket(100);
+        RedisRateLimiter rateLimiter = rateLimiter(4, 60_000L, tokenBucket);
+
+        assertTrue(rateLimiter.tryAcquire(RATE_LIMIT_KEY, 4, RATE_LIMIT));
+        assertTrue(rateLimiter.tryAcquire(RATE_LIMIT_KEY, 4, RATE_LIMIT));
+
+        assertEquals(Arrays.asList(Arrays.asList(4L, 4L), Arrays.asList(4L, 4L)), tokenBucket.calls);
+    }
+
+    @Test
+    void ruleLeaseSizeOverridesDefault() {
+        FakeTokenBucket tokenBucket = new FakeTokenBucket(100);
+        RedisRateLimiter rateLimiter = rateLimiter(10, 60_000L, tokenBucket);
+
+        assertTrue(rateLimiter.tryAcquire(RATE_LIMIT_KEY, 1, RATE_LIMIT.withLeaseSize(5)));
+
+        assertEquals(Collections.singletonList(Arrays.asList(1L, 5L)), tokenBucket.calls);
+    }
+
+    @Test
+    void remoteFailureKeepsLeftover() {
+        FakeTokenBucket tokenBucket = new FakeTokenBucket(100);
+        RedisRateLimiter rateLimiter = rateLimiter(10, 60_000L, tokenBucket);
+
+        assertTrue(rateLimiter.tryAcquire(RATE_LIMIT_KEY, 8, RATE_LIMIT));
+        tokenBucket.failNext.set(true);
+        assertThrows(IllegalStateException.class, () -> rateLimiter.tryAcquire(RATE_LIMIT_KEY, 5, RATE_LIMIT));
+
+        // 失败时取出的 2 个令牌放回本地
+        assertTrue(rateLimiter.tryAcquire(RATE_LIMIT_KEY, 2, RATE_LIMIT));
+        assertEquals(2, tokenBucket.calls.size());
+    }
+
+    @Test
+    void invalidPermitsAreRejected() {
+        RedisRateLimiter rateLimiter = rateLimiter(10, 60_000L, new FakeTokenBucket(100));
+
+        assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(RATE_LIMIT_KEY, 0, RATE_LIMIT));
+        assertThrows(IllegalArgumentException.class, () -> rateLimiter.tryAcquire(RATE_LIMIT_KEY, 101, RATE_LIMIT));
+    }
+
+    @Test
+    void concurrentAcquireStaysWithinGrantedTokens() throws Exception {
+        FakeTokenBucket tokenBucket = new FakeTokenBucket(300);
+        RedisRateLimiter rateLimiter = rateLimiter(10, 60_000L, tokenBucket);
+        AtomicInteger acquired = new AtomicInteger();
+
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executorService.submit(() -> {
+                    for (int j = 0; j < 100; j++) {
+                        if (rateLimiter.tryAcquire(RATE_LIMIT_KEY, 1, RATE_LIMIT)) {
+                            acquired.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertTrue(acquired.get() <= tokenBucket.granted.get());
+        assertTrue(tokenBucket.granted.get() <= 300L);
+        assertFalse(rateLimiter.tryAcquire(RATE_LIMIT_KEY, 10, RATE_LIMIT));
+    }
+
+    private static RedisRateLimiter rateLimiter(int leaseSize, long leaseMillis, RedisRateLimiter.TokenBucket tokenBucket) {
+        LcnRedisProperty.RateLimit rateLimit = new LcnRedisProperty.RateLimit();
+        rateLimit.setLeaseSize(leaseSize);
+        rateLimit.setLeaseMillis(leaseMillis);
+        rateLimit.setMaxLocalKeys(16);
+        return new RedisRateLimiter(rateLimit, tokenBucket);
+    }
+
+    /**
+     * 内存中的令牌桶, 不补充令牌
+     */
+    private final static class FakeTokenBucket implements RedisRateLimiter.TokenBucket {
+
+        private final AtomicLong tokens;
+
+        private final AtomicLong granted = new AtomicLong();
+
+        private final AtomicBoolean failNext = new AtomicBoolean();
+
+        private final List<List<Long>> calls = Collections.synchronizedList(new ArrayList<>());
+
+        private FakeTokenBucket(long tokens) {
+            this.tokens = new AtomicLong(tokens);
+        }
+
+        @Override
+        public synchronized long acquire(String redisKey, RedisRateLimit rateLimit, long min, long max) {
+            calls.add(Arrays.asList(min, max));
+            if (failNext.compareAndSet(true, false)) {
+                throw new IllegalStateException("Command timed out");
+            }
+            long available = tokens.get();
+            if (available < min) {
+                return -1000L;
+            }
+            long grant = Math.min(available, max);
+            tokens.addAndGet(-grant);
+            granted.addAndGet(grant);
+            return grant;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package io.github.lcn29.starter.redis.sequence;
+
+import io.github.lcn29.starter.redis.property.LcnRedisProperty;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <pre>
+ * RedisSequenceGenerator 测试
+ * INCRBY 用内存中的计数器代替, 同时记录每一次获取的号段长度, failAt 指定第几次 INCRBY 失败
+ * </pre>
+ *
+ * @author lcn29
+ * @date 2026-10-17 23:59
+ */
+class RedisSequenceGeneratorTest {
+
+    private final static String SEQUENCE_KEY = "seq:order";
+
+    private final FakeCounter counter = new FakeCounter();
+
+    private RedisSequenceGenerator generator;
+
+    @AfterEach
+    void tearDown() {
+        if (generator != null) {
+            generator.destroy();
+        }
+    }
+
+    @Test
+    void idsAreContiguousAcrossSegments() {
+        generator = generator(10L, 10L, 0.0D);
+
+        for (long expected = 1L; expected <= 30L; expected++) {
+            assertEquals(expected, generator.nextId(SEQUENCE_KEY));
+        }
+        assertEquals(10L, counter.steps().get(0));
+    }
+
+    @Test
+    void prefetchedSegmentIsSwitchedInWithoutFetching() throws Exception {
+        generator = generator(10L, 10L, 0.5D);
+
+        // 第 6 个 ID 触发预取
+        for (long expected = 1L; expected <= 6L; expected++) {
+            assertEquals(expected, generator.nextId(SEQUENCE_KEY));
+        }
+        counter.awaitCalls(2);
+
+        for (long expected = 7L; expected <= 11L; expected++) {
+            assertEquals(expected, generator.nextId(SEQUENCE_KEY));
+        }
+        assertEquals(2, counter.calls.get());
+    }
+
+    @Test
+    void failedPrefetchFallsBackToSynchronousFetch() {
+        counter.failAt = 2;
+        generator = generator(10L, 10L, 0.5D);
+
+        // 第 2 次 INCRBY 是预取, 失败后切换号段时同步获取, 失败的 INCRBY 没有占用 ID
+        for (long expected = 1L; expected <= 15L; expected++) {
+            assertEquals(expected, generator.nextId(SEQUENCE_KEY));
+        }
+        assertEquals(3, counter.calls.get());
+    }
+
+    @Test
+    void stepGrowsWithFastConsumption() {
+        // 一个号段预计使用 60 秒, 测试中的消耗速度远超这个速度, 每次加倍直到 maxStep
+        generator = generator(10L, 80L, 0.5D, 60_000L);
+
+        long previous = 0L;
+        for (int i = 0; i < 500; i++) {
+            long id = generator.nextId(SEQUENCE_KEY);
+            assertTrue(id > previous);
+            previous = id;
+        }
+
+        List<Long> steps = counter.steps();
+        assertEquals(10L, steps.get(0));
+        assertTrue(steps.contains(80L));
+        for (int i = 1; i < steps.size(); i++) {
+            assertTrue(steps.get(i) >= steps.get(i - 1));
+            assertTrue(steps.get(i) <= Math.min(steps.get(i - 1) * 2L, 80L));
+        }
+    }
+
+    @Test
+    void sequencesAreIndependent() {
+        generator = generator(10L, 10L, 0.5D);
+
+        assertEquals(1L, generator.nextId(SEQUENCE_KEY));
+        assertEquals(1L, generator.nextId("seq:user"));
+        assertEquals(2L, generator.nextId(SEQUENCE_KEY));
+    }
+
+    @Test
+    void concurrentIdsAreUniqueAndIncreasingPerThread() throws Exception {
+        generator = generator(10L, 1000L, 0.5D);
+        int threadCount = 8;
+        int idCount = 2000;
+
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threadCount; i++) {
+                futures.add(executorService.submit(() -> {
+                    List<Long> ids = new ArrayList<>(idCount);
+                    for (int j = 0; j < idCount; j++) {
+                        ids.add(generator.nextId(SEQUENCE_KEY));
+                    }
+                    return ids;
+                }));
+            }
+
+            Set<Long> allIds = new HashSet<>();
+            for (Future<List<Long>> future : futures) {
+                List<Long> ids = future.get(10, TimeUnit.SECONDS);
+                for (int i = 1; i < ids.size(); i++) {
+                    assertTrue(ids.get(i) > ids.get(i - 1));
+                }
+                allIds.addAll(ids);
+            }
+            assertEquals(threadCount * idCount, allIds.size());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private RedisSequenceGenerator generator(long minStep, long maxStep, double prefetchRatio) {
+        return generator(minStep, maxStep, prefetchRatio, 15_000L);
+    }
+
+    private RedisSequenceGenerator generator(long minStep, long maxStep, double prefetchRatio, long segmentDurationMillis) {
+        LcnRedisProperty.Sequence sequence = new LcnRedisProperty.Sequence();
+        sequence.setMinStep(minStep);
+        sequence.setMaxStep(maxStep);
+        sequence.setSegmentDurationMillis(segmentDurationMillis);
+        sequence.setPrefetchRatio(prefetchRatio);
+        sequence.setPrefetchThreads(1);
+        sequence.setPrefetchQueueSize(16);
+        sequence.setFetchTimeoutMillis(3000L);
+        return new RedisSequenceGenerator(sequence, counter);
+    }
+
+    /**
+     * 内存中的 INCRBY
+     */
+    private final static class FakeCounter implements RedisSequenceGenerator.Counter {
+
+        private final Map<String, AtomicLong> valueMap = new ConcurrentHashMap<>();
+
+        private final List<Long> steps = Collections.synchronizedList(new ArrayList<>());
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        /**
+         * 第几次调用失败, 0 表示不失败
+         */
+        private volatile int failAt;
+
+        @Override
+        public Long incrBy(String redisKey, long step) {
+            if (calls.incrementAndGet() == failAt) {
+                throw new IllegalStateException("Command timed out");
+            }
+            steps.add(step);
+            return valueMap.computeIfAbsent(redisKey, key -> new AtomicLong()).addAndGet(step);
+        }
+
+        private List<Long> steps() {
+            synchronized (steps) {
+                return new ArrayList<>(steps);
+            }
+        }
+
+        private void awaitCalls(int expected) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (calls.get() < expected && System.nanoTime() - deadline < 0L) {
+                Thread.sleep(1L);
+            }
+            assertEquals(expected, calls.get());
+        }
+    }
+}